@@ -0,0 +1,64 @@
+package com.example.erpsystem.config;
+
+import com.example.erpsystem.model.Money;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Money attributes are BIGINT minor units, but ddl-auto never changes the type of an
+// existing column. Converts the old DOUBLE/NUMERIC amount columns in place, once,
+// before the schedulers or the web server can touch them.
+@Component
+@DependsOn("entityManagerFactory")
+public class MoneyColumnMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(MoneyColumnMigration.class);
+
+    private record MoneyColumn(String table, String column) {}
+
+    private static final List<MoneyColumn> COLUMNS = List.of(
+            new MoneyColumn("transaction", "amount"),
+            new MoneyColumn("product", "price"),
+            new MoneyColumn("invoice", "total_amount"),
+            new MoneyColumn("stock_transaction", "price_per_unit"),
+            new MoneyColumn("stock_transaction", "cost_value"),
+            new MoneyColumn("account_balance", "total"),
+            new MoneyColumn("transaction_rollup", "total")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public MoneyColumnMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // All columns convert in one transaction (PostgreSQL DDL is transactional)
+    @PostConstruct
+    void migrate() {
+        transactionTemplate.executeWithoutResult(status -> COLUMNS.forEach(this::migrateColumn));
+    }
+
+    private void migrateColumn(MoneyColumn money) {
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT data_type FROM information_schema.columns "
+                + "WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?",
+                String.class, money.table(), money.column());
+        if (types.isEmpty() || "bigint".equals(types.get(0))) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + money.table() + " ALTER COLUMN " + money.column()
+                + " TYPE bigint USING round(" + money.column() + " * " + Money.MINOR_UNITS_PER_UNIT + ")::bigint");
+        log.info("Converted {}.{} from {} to minor units", money.table(), money.column(), types.get(0));
+    }
+}
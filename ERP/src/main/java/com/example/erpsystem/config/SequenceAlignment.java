@@ -0,0 +1,47 @@
+package com.example.erpsystem.config;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.Map;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Tables that used to be IDENTITY-generated keep their existing ids, while
+// ddl-auto creates the new sequences starting at 1. Move each sequence past
+// the highest id already in its table so pooled allocation never collides.
+// Runs while the context is being built, so it is done before the web server
+// accepts the first insert.
+@Component
+@DependsOn("entityManagerFactory")
+public class SequenceAlignment {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    // sequence name -> table it generates ids for
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "stock_transaction_seq", "stock_transaction",
+            "transaction_seq", "transaction"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceAlignment(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void align() {
+        SEQUENCES.forEach(this::alignSequence);
+    }
+
+    private void alignSequence(String sequenceName, String tableName) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tableName, Long.class);
+        Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM " + sequenceName, Long.class);
+
+        if (lastValue != null && maxId != null && lastValue < maxId + ALLOCATION_SIZE) {
+            jdbcTemplate.queryForObject("SELECT setval(?, ?)", Long.class, sequenceName, maxId + ALLOCATION_SIZE);
+        }
+    }
+}
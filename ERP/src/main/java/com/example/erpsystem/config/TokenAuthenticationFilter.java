@@ -0,0 +1,53 @@
+package com.example.erpsystem.config;
+
+import com.example.erpsystem.service.TokenService;
+import com.example.erpsystem.service.TokenService.TokenClaims;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+// Authenticates "Authorization: Bearer <access token>" from the token alone: no session,
+// no user lookup, no password check. A missing or invalid token leaves the request
+// anonymous, and the authorization rules decide whether that is enough.
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            try {
+                TokenClaims claims = tokenService.verify(header.substring(BEARER.length()).trim(), TokenService.ACCESS);
+                List<SimpleGrantedAuthority> authorities = claims.roles().stream()
+                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                        .toList();
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(new UsernamePasswordAuthenticationToken(claims, null, authorities));
+                SecurityContextHolder.setContext(context);
+            } catch (IllegalArgumentException e) {
+                logger.debug("Rejected bearer token: " + e.getMessage());
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.erpsystem.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.example.erpsystem.service.UserCache;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final UserCache userCache;
+
+    public WebConfig(UserCache userCache) {
+        this.userCache = userCache;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new CurrentUserArgumentResolver(userCache));
+    }
+}
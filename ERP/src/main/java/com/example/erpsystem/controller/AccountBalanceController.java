@@ -0,0 +1,33 @@
+package com.example.erpsystem.controller;
+
+import com.example.erpsystem.service.AccountBalanceService;
+import com.example.erpsystem.service.AccountBalanceService.BalanceSummary;
+import com.example.erpsystem.service.AccountBalanceService.ConsistencyReport;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/accounting/balances")
+public class AccountBalanceController {
+
+    private final AccountBalanceService accountBalanceService;
+
+    public AccountBalanceController(AccountBalanceService accountBalanceService) {
+        this.accountBalanceService = accountBalanceService;
+    }
+
+    @GetMapping
+    public ResponseEntity<BalanceSummary> getBalances() {
+        return ResponseEntity.ok(accountBalanceService.getSummary());
+    }
+
+    @GetMapping("/consistency")
+    public ResponseEntity<ConsistencyReport> checkConsistency() {
+        return ResponseEntity.ok(accountBalanceService.checkConsistency());
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<ConsistencyReport> rebuildFromLedger() {
+        return ResponseEntity.ok(accountBalanceService.rebuildFromLedger());
+    }
+}
@@ -4,6 +4,9 @@ import com.example.erpsystem.dto.UserDTO;
 import com.example.erpsystem.model.User;
 import com.example.erpsystem.repository.UserRepository;
 import com.example.erpsystem.service.AuthService;
+import com.example.erpsystem.service.TokenService;
+import com.example.erpsystem.service.TokenService.TokenClaims;
+import com.example.erpsystem.service.TokenService.TokenPair;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -19,6 +22,7 @@ import java.util.Map;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -30,14 +34,17 @@ public class AuthController {
     private final AuthService authService;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenService tokenService;
     
     @Value("${file.upload-dir}")
     private String uploadDir;
 
-    public AuthController(AuthService authService, UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public AuthController(AuthService authService, UserRepository userRepository, PasswordEncoder passwordEncoder,
+            TokenService tokenService) {
         this.authService = authService;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenService = tokenService;
     }
 
     @PostMapping("/register")
@@ -91,7 +98,7 @@ public class AuthController {
 
     
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> loginUser(@RequestBody UserDTO userDTO) {
+    public ResponseEntity<Map<String, Object>> loginUser(@RequestBody UserDTO userDTO) {
         User user = userRepository.findByUsername(userDTO.getUsername())
                 .orElseThrow(() -> new RuntimeException("Invalid username or password!"));
                 
@@ -99,7 +106,7 @@ public class AuthController {
             throw new RuntimeException("Invalid username or password!");
         }
         
-        Map<String, String> response = new HashMap<>();
+        Map<String, Object> response = tokenResponse(tokenService.issue(user));
         response.put("message", "Login successful! Welcome " + userDTO.getUsername() + " !!!");
         response.put("username", user.getUsername());
         response.put("roles", user.getRoles().toString());
@@ -107,9 +114,42 @@ public class AuthController {
         
         return ResponseEntity.ok(response);
     }
+
+    // Rotates the pair: the presented refresh token is revoked and roles are re-read from the user
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refreshToken(@RequestBody Map<String, String> body) {
+        String refreshToken = body.get("refreshToken");
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new IllegalArgumentException("refreshToken is required");
+        }
+        TokenClaims claims = tokenService.verify(refreshToken, TokenService.REFRESH);
+        // By id, so a rename keeps the session and a reused username never resolves to another account
+        User user = userRepository.findWithRolesById(claims.userId())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid token"));
+        // verify() above can pass for two concurrent requests with the same token; only the one that revokes it gets a pair
+        if (!tokenService.revoke(claims)) {
+            throw new IllegalArgumentException("Token revoked");
+        }
+
+        return ResponseEntity.ok(tokenResponse(tokenService.issue(user)));
+    }
     
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, String>> logout(HttpServletRequest request, HttpServletResponse response) {
+    public ResponseEntity<Map<String, String>> logout(HttpServletRequest request, HttpServletResponse response,
+            @RequestBody(required = false) Map<String, String> body) {
+        // Revoke the access token of this request and, if given, the refresh token
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof TokenClaims claims) {
+            tokenService.revoke(claims);
+        }
+        if (body != null && body.get("refreshToken") != null) {
+            try {
+                tokenService.revoke(tokenService.verify(body.get("refreshToken"), TokenService.REFRESH));
+            } catch (IllegalArgumentException e) {
+                // Already expired, revoked or not ours: nothing left to revoke
+            }
+        }
+
         // Clear the security context
         SecurityContextHolder.clearContext();
         
@@ -124,5 +164,13 @@ public class AuthController {
         
         return ResponseEntity.ok(responseBody);
     }
-    
+
+    private static Map<String, Object> tokenResponse(TokenPair tokens) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("accessToken", tokens.accessToken());
+        response.put("refreshToken", tokens.refreshToken());
+        response.put("tokenType", "Bearer");
+        response.put("expiresIn", tokens.accessExpiresIn());
+        return response;
+    }
 }
@@ -0,0 +1,32 @@
+package com.example.erpsystem.controller;
+
+import com.example.erpsystem.dto.CursorPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+// List endpoints keep returning a plain JSON array; the cursor for the next page travels
+// in X-Next-Cursor and as a Link rel="next" URL with the same filters. No header on the last page.
+final class CursorPageResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorPageResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> ok(CursorPage<T> page) {
+        if (!page.isHasMore()) {
+            return ResponseEntity.ok(page.getItems());
+        }
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", page.getNextCursor())
+                .build()
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, page.getNextCursor())
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(page.getItems());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.erpsystem.controller;
+
+import com.example.erpsystem.model.PeriodGranularity;
+import com.example.erpsystem.service.PeriodRollupService;
+import com.example.erpsystem.service.PeriodRollupService.BalanceSheet;
+import com.example.erpsystem.service.PeriodRollupService.IncomeStatementPeriod;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/accounting/reports")
+public class FinancialReportController {
+
+    private final PeriodRollupService periodRollupService;
+
+    public FinancialReportController(PeriodRollupService periodRollupService) {
+        this.periodRollupService = periodRollupService;
+    }
+
+    @GetMapping("/income-statement")
+    public ResponseEntity<List<IncomeStatementPeriod>> getIncomeStatement(
+            @RequestParam(defaultValue = "MONTH") PeriodGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(periodRollupService.getIncomeStatement(granularity, from, to));
+    }
+
+    @GetMapping("/balance-sheet")
+    public ResponseEntity<BalanceSheet> getBalanceSheet(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(periodRollupService.getBalanceSheet(asOf == null ? LocalDate.now() : asOf));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(periodRollupService.rebuild(from, to));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.erpsystem.controller;
+
+import com.example.erpsystem.model.JournalEntry;
+import com.example.erpsystem.model.JournalEntry.SourceType;
+import com.example.erpsystem.model.LedgerAccount;
+import com.example.erpsystem.service.GeneralLedgerService;
+import com.example.erpsystem.service.GeneralLedgerService.TrialBalance;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/accounting/ledger")
+public class GeneralLedgerController {
+
+    private final GeneralLedgerService generalLedgerService;
+
+    public GeneralLedgerController(GeneralLedgerService generalLedgerService) {
+        this.generalLedgerService = generalLedgerService;
+    }
+
+    @GetMapping("/accounts")
+    public ResponseEntity<List<LedgerAccount>> getAccounts() {
+        return ResponseEntity.ok(generalLedgerService.getAccounts());
+    }
+
+    @GetMapping("/trial-balance")
+    public ResponseEntity<TrialBalance> getTrialBalance() {
+        return ResponseEntity.ok(generalLedgerService.getTrialBalance());
+    }
+
+    @GetMapping("/entries")
+    public ResponseEntity<List<JournalEntry>> getEntries(
+            @RequestParam SourceType sourceType,
+            @RequestParam Long sourceId) {
+        return ResponseEntity.ok(generalLedgerService.getEntries(sourceType, sourceId));
+    }
+}
@@ -1,17 +1,24 @@
 package com.example.erpsystem.controller;
 
 import com.example.erpsystem.service.IdentityCardService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
 @RestController
 @RequestMapping("/api/identity-cards")
 public class IdentityCardController {
 
     private final IdentityCardService identityCardService;
+    private final FileDownloads fileDownloads;
 
-    public IdentityCardController(IdentityCardService identityCardService) {
+    public IdentityCardController(IdentityCardService identityCardService, FileDownloads fileDownloads) {
         this.identityCardService = identityCardService;
+        this.fileDownloads = fileDownloads;
     }
 
     @GetMapping("/{userId}")
@@ -19,4 +26,14 @@ public class IdentityCardController {
         String message = identityCardService.generateIdentityCard(userId);
         return ResponseEntity.ok(message);
     }
+
+    @GetMapping("/{userId}/download")
+    public void downloadIdentityCard(@PathVariable Long userId,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            fileDownloads.sendPdf(identityCardService.getIdentityCardFile(userId), request, response);
+        } catch (NoSuchElementException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package com.example.erpsystem.controller;
+
+import com.example.erpsystem.model.InventorySnapshot;
+import com.example.erpsystem.service.InventorySnapshotService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/api/inventory/snapshots")
+public class InventorySnapshotController {
+
+    private final InventorySnapshotService inventorySnapshotService;
+
+    public InventorySnapshotController(InventorySnapshotService inventorySnapshotService) {
+        this.inventorySnapshotService = inventorySnapshotService;
+    }
+
+    @PostMapping
+    public ResponseEntity<InventorySnapshot> createSnapshot() {
+        return ResponseEntity.ok(inventorySnapshotService.createSnapshot());
+    }
+
+    @GetMapping
+    public ResponseEntity<List<InventorySnapshot>> getSnapshots() {
+        return ResponseEntity.ok(inventorySnapshotService.getSnapshots());
+    }
+
+    @GetMapping("/as-of")
+    public ResponseEntity<?> getStockAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date,
+            @RequestParam(required = false) Long productId) {
+        try {
+            if (productId != null) {
+                return ResponseEntity.ok(inventorySnapshotService.getProductStockAsOf(productId, date));
+            }
+            return ResponseEntity.ok(inventorySnapshotService.getStockAsOf(date));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+}
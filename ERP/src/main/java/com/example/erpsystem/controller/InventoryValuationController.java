@@ -0,0 +1,39 @@
+package com.example.erpsystem.controller;
+
+import com.example.erpsystem.model.ProductValuation;
+import com.example.erpsystem.model.ProductValuation.ValuationMethod;
+import com.example.erpsystem.service.InventoryValuationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/inventory/valuation")
+public class InventoryValuationController {
+
+    private final InventoryValuationService inventoryValuationService;
+
+    public InventoryValuationController(InventoryValuationService inventoryValuationService) {
+        this.inventoryValuationService = inventoryValuationService;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getInventoryValuation() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("method", inventoryValuationService.getDefaultMethod());
+        response.put("totalValue", inventoryValuationService.getTotalValue());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ProductValuation> getProductValuation(@PathVariable Long productId) {
+        return ResponseEntity.ok(inventoryValuationService.getProductValuation(productId));
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildValuation(@RequestParam(required = false) ValuationMethod method) {
+        return ResponseEntity.ok(inventoryValuationService.rebuildFromLedger(method));
+    }
+}
@@ -1,19 +1,32 @@
 package com.example.erpsystem.controller;
 
 import com.example.erpsystem.model.Invoice;
+import com.example.erpsystem.model.Money;
 import com.example.erpsystem.model.Product;
 import com.example.erpsystem.model.StockTransaction;
-import com.example.erpsystem.repository.ProductRepository;
+import com.example.erpsystem.service.IdempotencyService;
+import com.example.erpsystem.service.InvoicePdfRenderQueue;
 import com.example.erpsystem.service.InvoiceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/sales/invoices")
@@ -22,10 +35,30 @@ public class InvoiceController {
     @Autowired
     private InvoiceService invoiceService;
     @Autowired
-    private ProductRepository productRepository;
+    private InvoicePdfRenderQueue invoicePdfRenderQueue;
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private FileDownloads fileDownloads;
 
+    // With an Idempotency-Key header, retries of the same sale replay the first response
     @PostMapping("/generate")
-    public ResponseEntity<?> generateInvoice(@RequestBody Map<String, Object> requestBody) {
+    public ResponseEntity<?> generateInvoice(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody Map<String, Object> requestBody) {
+        if (idempotencyKey == null) {
+            return createInvoice(requestBody);
+        }
+        try {
+            return idempotencyService.execute(idempotencyKey, requestBody, () -> createInvoice(requestBody));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.unprocessableEntity().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> createInvoice(Map<String, Object> requestBody) {
         try {
             // Step 1: Validate request body
             if (!requestBody.containsKey("customerName") || !requestBody.containsKey("stockTransactions")) {
@@ -64,6 +97,41 @@ public class InvoiceController {
         }
     }
 
+    // Serves the rendered PDF, or 202 while the render queue is still working on it
+    @GetMapping("/{id}/pdf")
+    public ResponseEntity<?> getInvoicePdf(@PathVariable Long id,
+            HttpServletRequest request, HttpServletResponse servletResponse) throws IOException {
+        Invoice invoice;
+        try {
+            invoice = invoiceService.getInvoice(id);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+
+        Invoice.PdfStatus status = invoice.getPdfStatus();
+        if (status == Invoice.PdfStatus.READY) {
+            Path file = Paths.get(invoice.getPdfFilePath());
+            if (Files.isRegularFile(file)) {
+                // Written straight to the response (ETag, Range); nothing left for Spring to render
+                fileDownloads.sendPdf(file, request, servletResponse);
+                return null;
+            }
+        }
+
+        // Invoices from before the queue existed, failed renders and lost files are queued again
+        if (status != Invoice.PdfStatus.PENDING && status != Invoice.PdfStatus.RENDERING) {
+            invoicePdfRenderQueue.requestRender(id);
+            status = Invoice.PdfStatus.PENDING;
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("invoiceId", id);
+        response.put("pdfStatus", status);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(response);
+    }
+
     // Helper method to map and validate a stock transaction
     private StockTransaction mapToStockTransaction(Map<String, Object> stockTransactionMap) {
         try {
@@ -76,13 +144,9 @@ public class InvoiceController {
             
             
             
-//            Product product = new Product();
-//            product.setId(((Number) productMap.get("id")).longValue());
-//            
-            //debugging only, uncomment the top later
-            Long productId = ((Number) productMap.get("id")).longValue();
-            Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + productId));
+            // Only the id is needed here; the service resolves all products in one query
+            Product product = new Product();
+            product.setId(((Number) productMap.get("id")).longValue());
             
             // Step 2: Validate quantity
             if (!stockTransactionMap.containsKey("quantity")) {
@@ -97,7 +161,8 @@ public class InvoiceController {
             if (!stockTransactionMap.containsKey("pricePerUnit")) {
                 throw new IllegalArgumentException("Each stock transaction must include a 'pricePerUnit'.");
             }
-            BigDecimal pricePerUnit = BigDecimal.valueOf(((Number) stockTransactionMap.get("pricePerUnit")).doubleValue());
+            // Parsed from the JSON text, not via double, then rounded to the cent
+            Money pricePerUnit = Money.of(new BigDecimal(stockTransactionMap.get("pricePerUnit").toString()), RoundingMode.HALF_UP);
 
             // Step 4: Create and return the StockTransaction
             StockTransaction stockTransaction = new StockTransaction();
@@ -0,0 +1,31 @@
+package com.example.erpsystem.controller;
+
+import com.example.erpsystem.service.LedgerExportService.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.TimeUnit;
+
+// Download headers for the streamed ledger exports; the length is unknown, so the body is chunked.
+// The body is written on an async task with its own timeout, so only the exports get minutes
+// and every other async request keeps the default.
+final class LedgerExportResponses {
+
+    private LedgerExportResponses() {
+    }
+
+    static WebAsyncTask<Void> attachment(HttpServletResponse response, long timeoutMinutes, String baseName,
+            ExportFormat format, boolean gzip, StreamingResponseBody body) {
+        String fileName = baseName + "." + format.extension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.contentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString());
+        return new WebAsyncTask<>(TimeUnit.MINUTES.toMillis(timeoutMinutes), () -> {
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/inventory/products")
@@ -23,8 +24,21 @@ public class ProductController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<List<Product>> getProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String name) {
+        return CursorPageResponses.ok(productService.getProductsPage(cursor, size, sort, name));
+    }
+
+    @GetMapping("/lookup")
+    public ResponseEntity<Product> getProductByCode(@RequestParam String code) {
+        try {
+            return ResponseEntity.ok(productService.getProductByCode(code));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     @GetMapping("/{id}")
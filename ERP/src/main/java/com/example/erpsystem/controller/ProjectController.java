@@ -1,16 +1,22 @@
 package com.example.erpsystem.controller;
 
+import com.example.erpsystem.dto.CurrentUser;
+import com.example.erpsystem.dto.ProjectSchedule;
 import com.example.erpsystem.model.*;
-import com.example.erpsystem.repository.UserRepository;
 import com.example.erpsystem.service.*;
+import com.example.erpsystem.service.ProjectTimelineService.TimelineFormat;
 
 import java.util.Map;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/projects")
@@ -18,16 +24,19 @@ public class ProjectController {
 	private final MilestoneService milestoneService;
     private final ProjectService projectService;
     private final TaskService taskService;
-    private final UserRepository userRepository;  // Add this
+    private final TaskScheduleService taskScheduleService;
+    private final ProjectTimelineService projectTimelineService;
 
     public ProjectController(ProjectService projectService, 
                            TaskService taskService,
-                           UserRepository userRepository,
-                           MilestoneService milestoneService) {  // Add this
+                           MilestoneService milestoneService,
+                           TaskScheduleService taskScheduleService,
+                           ProjectTimelineService projectTimelineService) {
         this.projectService = projectService;
         this.taskService = taskService;
-        this.userRepository = userRepository;
         this.milestoneService = milestoneService;
+        this.taskScheduleService = taskScheduleService;
+        this.projectTimelineService = projectTimelineService;
     }
 
     @PostMapping
@@ -37,55 +46,89 @@ public class ProjectController {
         return ResponseEntity.ok(projectService.createProject(project, managerId));
     }
 
+    @GetMapping("/{projectId}/schedule")
+    @PreAuthorize("hasRole('ADMIN') or @projectAccess.isTeamMember(#projectId, authentication.principal)")
+    public ResponseEntity<ProjectSchedule> getSchedule(@PathVariable Long projectId) {
+        return ResponseEntity.ok(taskScheduleService.getSchedule(projectId));
+    }
+
+    // Pollable: the ETag is a hash of the projection, so an unchanged timeline costs a 304.
+    // gzip=true compresses the body as a content encoding, and only for clients that accept it.
+    @GetMapping("/{projectId}/timeline")
+    @PreAuthorize("hasRole('ADMIN') or @projectAccess.isTeamMember(#projectId, authentication.principal)")
+    public ResponseEntity<StreamingResponseBody> getTimeline(@PathVariable Long projectId,
+                                                             @RequestParam(required = false) String format,
+                                                             @RequestParam(defaultValue = "false") boolean gzip,
+                                                             WebRequest request) {
+        TimelineFormat timelineFormat = TimelineFormat.parse(format);
+        ProjectTimeline timeline = projectTimelineService.getTimeline(projectId);
+        boolean compress = gzip && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = "\"" + timeline.contentHash() + "-" + timelineFormat.extension() + (compress ? "-gz" : "") + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(timelineFormat.contentType()))
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+        if (compress) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> projectTimelineService.write(timeline, timelineFormat, compress, out));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip") || parts[0].trim().equals("*")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
     @PostMapping("/{projectId}/members/{userId}")
-    @PreAuthorize("hasRole('ADMIN') or @projectService.isProjectManager(#projectId, authentication.principal)")
+    @PreAuthorize("hasRole('ADMIN') or @projectAccess.isProjectManager(#projectId, authentication.principal)")
     public ResponseEntity<String> addTeamMember(@PathVariable Long projectId,
-                                              @PathVariable Long userId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-            
+                                              @PathVariable Long userId,
+                                              CurrentUser currentUser) {
         projectService.addTeamMember(projectId, userId, currentUser);
         return ResponseEntity.ok("Team member added successfully");
     }
 
     @PostMapping("/{projectId}/tasks")
-    @PreAuthorize("@projectService.isTeamMember(#projectId, authentication.principal)")
+    @PreAuthorize("@projectAccess.isTeamMember(#projectId, authentication.principal)")
     public ResponseEntity<Task> createTask(@PathVariable Long projectId,
-                                         @RequestBody Task task) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-            
-        return ResponseEntity.ok(taskService.createTask(task, projectId, currentUser.getId()));
+                                         @RequestBody Task task,
+                                         CurrentUser currentUser) {
+        return ResponseEntity.ok(taskService.createTask(task, projectId, currentUser));
     }
 
     @PutMapping("/tasks/{taskId}/assign/{userId}")
-    @PreAuthorize("hasRole('ADMIN') or @projectService.isProjectManager(#taskId, authentication.principal)")
+    @PreAuthorize("hasRole('ADMIN') or @projectAccess.isTaskProjectManager(#taskId, authentication.principal)")
     public ResponseEntity<Task> assignTask(@PathVariable Long taskId,
-                                         @PathVariable Long userId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-            
+                                         @PathVariable Long userId,
+                                         CurrentUser currentUser) {
         return ResponseEntity.ok(taskService.assignTask(taskId, userId, currentUser));
     }
 
     @PutMapping("/tasks/{taskId}/status")
-    @PreAuthorize("hasRole('ADMIN') or @taskService.isAssignedUser(#taskId, authentication.principal)")
+    @PreAuthorize("hasRole('ADMIN') or @projectAccess.isAssignedUser(#taskId, authentication.principal)")
     public ResponseEntity<Task> updateTaskStatus(@PathVariable Long taskId,
-                                               @RequestParam Task.TaskStatus status) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-            
+                                               @RequestParam Task.TaskStatus status,
+                                               CurrentUser currentUser) {
         return ResponseEntity.ok(taskService.updateTaskStatus(taskId, status, currentUser));
     }
     @PostMapping("/tasks/{taskId}/comments")
-    @PreAuthorize("@projectService.isTeamMember(#taskId, authentication.principal)")
+    @PreAuthorize("@projectAccess.isTaskTeamMember(#taskId, authentication.principal)")
     public ResponseEntity<TaskComment> addTaskComment(
             @PathVariable Long taskId,
-            @RequestBody Map<String, String> payload) {  // Changed to Map
+            @RequestBody Map<String, String> payload,  // Changed to Map
+            CurrentUser currentUser) {
             
         if (!payload.containsKey("content")) {
             throw new IllegalArgumentException("Comment content is required");
@@ -96,42 +139,29 @@ public class ProjectController {
             throw new IllegalArgumentException("Comment content cannot be empty");
         }
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-            
         return ResponseEntity.ok(taskService.addTaskComment(taskId, content, currentUser));
     }
 
     @PostMapping("/tasks/{taskId}/dependencies/{dependencyTaskId}")
-    @PreAuthorize("hasRole('ADMIN') or @projectService.isProjectManager(#taskId, authentication.principal)")
+    @PreAuthorize("hasRole('ADMIN') or @projectAccess.isTaskProjectManager(#taskId, authentication.principal)")
     public ResponseEntity<Task> addTaskDependency(
             @PathVariable Long taskId,
-            @PathVariable Long dependencyTaskId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-            
+            @PathVariable Long dependencyTaskId,
+            CurrentUser currentUser) {
         return ResponseEntity.ok(taskService.addTaskDependency(taskId, dependencyTaskId, currentUser));
     }@PostMapping("/{projectId}/milestones")
-    @PreAuthorize("hasRole('ADMIN') or @projectService.isProjectManager(#projectId, authentication.principal)")
+    @PreAuthorize("hasRole('ADMIN') or @projectAccess.isProjectManager(#projectId, authentication.principal)")
     public ResponseEntity<Milestone> createMilestone(@PathVariable Long projectId,
-                                                   @RequestBody Milestone milestone) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-            
+                                                   @RequestBody Milestone milestone,
+                                                   CurrentUser currentUser) {
         return ResponseEntity.ok(milestoneService.createMilestone(milestone, projectId, currentUser));
     }
 
     @PutMapping("/milestones/{milestoneId}/status")
-    @PreAuthorize("hasRole('ADMIN') or @projectService.isProjectManager(#projectId, authentication.principal)")
+    @PreAuthorize("hasRole('ADMIN') or @projectAccess.isMilestoneProjectManager(#milestoneId, authentication.principal)")
     public ResponseEntity<Milestone> updateMilestoneStatus(@PathVariable Long milestoneId,
-                                                         @RequestParam Milestone.MilestoneStatus status) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-            
+                                                         @RequestParam Milestone.MilestoneStatus status,
+                                                         CurrentUser currentUser) {
         return ResponseEntity.ok(milestoneService.updateMilestoneStatus(milestoneId, status, currentUser));
     }
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package com.example.erpsystem.controller;
 
+import com.example.erpsystem.dto.CursorPage;
 import com.example.erpsystem.model.Role;
 import com.example.erpsystem.repository.RoleRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/admin/roles")
 public class RoleController {
@@ -25,7 +29,12 @@ public class RoleController {
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllRoles() {
-        return ResponseEntity.ok(roleRepository.findAll());
+    public ResponseEntity<List<Role>> getRoles(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        long afterId = cursor == null ? 0 : CursorPage.cursorId(CursorPage.decodeCursor(cursor, 1)[0]);
+        List<Role> rows = roleRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+        return CursorPageResponses.ok(CursorPage.of(rows, pageSize, last -> last.getId().toString()));
     }
 }
@@ -1,19 +1,37 @@
 package com.example.erpsystem.controller;
 
+import com.example.erpsystem.dto.CursorPage;
 import com.example.erpsystem.model.Invoice;
+import com.example.erpsystem.model.Money;
 import com.example.erpsystem.model.Product;
 import com.example.erpsystem.model.StockTransaction;
 import com.example.erpsystem.repository.InvoiceRepository;
+import com.example.erpsystem.service.LedgerExportService;
+import com.example.erpsystem.service.LedgerExportService.ExportFormat;
 import com.example.erpsystem.service.StockTransactionService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/inventory/transactions")
@@ -21,10 +39,18 @@ public class StockTransactionController {
 
     private final StockTransactionService transactionService;
     private final InvoiceRepository invoiceRepository;
+    private final FileDownloads fileDownloads;
+    private final LedgerExportService ledgerExportService;
 
-    public StockTransactionController(StockTransactionService transactionService, InvoiceRepository invoiceRepository) {
+    @Value("${accounting.export.timeout-minutes:30}")
+    private long exportTimeoutMinutes;
+
+    public StockTransactionController(StockTransactionService transactionService, InvoiceRepository invoiceRepository,
+            FileDownloads fileDownloads, LedgerExportService ledgerExportService) {
         this.transactionService = transactionService;
         this.invoiceRepository = invoiceRepository;
+        this.fileDownloads = fileDownloads;
+        this.ledgerExportService = ledgerExportService;
     }
 
     @PostMapping
@@ -62,6 +88,53 @@ public class StockTransactionController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> logTransactions(@RequestBody List<Map<String, Object>> transactionDataList) {
+        try {
+            // Step 1: Validate every line before touching stock
+            List<StockTransaction> transactions = new ArrayList<>(transactionDataList.size());
+            for (Map<String, Object> transactionData : transactionDataList) {
+                transactions.add(mapAndValidateTransaction(transactionData));
+            }
+
+            // Step 2: Resolve referenced invoices with a single query
+            Set<Long> invoiceIds = transactionDataList.stream()
+                    .filter(transactionData -> transactionData.get("invoiceId") != null)
+                    .map(transactionData -> Long.valueOf(transactionData.get("invoiceId").toString()))
+                    .collect(Collectors.toSet());
+            if (!invoiceIds.isEmpty()) {
+                Map<Long, Invoice> invoices = invoiceRepository.findAllById(invoiceIds).stream()
+                        .collect(Collectors.toMap(Invoice::getId, Function.identity()));
+                for (int i = 0; i < transactions.size(); i++) {
+                    Object invoiceId = transactionDataList.get(i).get("invoiceId");
+                    if (invoiceId != null) {
+                        Invoice invoice = invoices.get(Long.valueOf(invoiceId.toString()));
+                        if (invoice == null) {
+                            throw new RuntimeException("Invoice not found");
+                        }
+                        transactions.get(i).setInvoice(invoice);
+                    }
+                }
+            }
+
+            // Step 3: Log the whole batch in one transaction
+            List<Long> transactionIds = transactionService.logTransactions(transactions).stream()
+                    .map(StockTransaction::getId)
+                    .toList();
+
+            return ResponseEntity.ok(Map.of(
+                    "count", transactionIds.size(),
+                    "transactionIds", transactionIds
+            ));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("An error occurred while logging the transactions: " + e.getMessage());
+        }
+    }
+
     // Helper method to map and validate transaction data
     private StockTransaction mapAndValidateTransaction(Map<String, Object> transactionData) {
         try {
@@ -108,7 +181,7 @@ public class StockTransactionController {
             transaction.setProduct(product);
             transaction.setQuantity(quantity);
             transaction.setType(type);
-            transaction.setPricePerUnit(pricePerUnit);
+            transaction.setPricePerUnit(Money.of(pricePerUnit, RoundingMode.HALF_UP));
 
             return transaction;
 
@@ -118,13 +191,21 @@ public class StockTransactionController {
     }
 
     @GetMapping("/product/{productId}")
-    public ResponseEntity<List<StockTransaction>> getTransactionsByProduct(@PathVariable Long productId) {
+    public ResponseEntity<?> getTransactionsByProduct(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String type) {
         try {
-            List<StockTransaction> transactions = transactionService.getTransactionsByProduct(productId);
-            if (transactions.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
-            }
-            return ResponseEntity.ok(transactions);
+            CursorPage<StockTransaction> page = transactionService.getTransactionsByProduct(
+                    productId, cursor, size, from, to, type);
+            return ResponseEntity.ok(page);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                                  .body(null);
@@ -132,14 +213,26 @@ public class StockTransactionController {
     }
 
     @GetMapping
-    public ResponseEntity<List<StockTransaction>> getAllTransactions() {
-        try {
-            List<StockTransaction> transactions = transactionService.getAllTransactions();
-            return ResponseEntity.ok(transactions);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                 .body(null);
-        }
+    public ResponseEntity<List<StockTransaction>> getTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return CursorPageResponses.ok(transactionService.getTransactionsPage(cursor, size, productId, type, from, to));
+    }
+
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportTransactions(
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return LedgerExportResponses.attachment(response, exportTimeoutMinutes, "stock-transactions", exportFormat, gzip,
+                out -> ledgerExportService.exportStockTransactions(exportFormat, gzip, from, to, out));
     }
 
     @GetMapping("/bill/{transactionId}")
@@ -159,6 +252,18 @@ public class StockTransactionController {
                                  .body("Error generating bill: " + e.getMessage());
         }
     }
+
+    // Streams the stored bill, generating it on first request
+    @GetMapping("/bill/{transactionId}/download")
+    public void downloadStockTransactionBill(@PathVariable Long transactionId,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            String billFilePath = transactionService.generateBillForTransaction(transactionId);
+            fileDownloads.sendPdf(Paths.get(billFilePath), request, response);
+        } catch (NoSuchElementException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+        }
+    }
 }
 
 
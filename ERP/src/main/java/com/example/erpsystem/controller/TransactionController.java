@@ -1,21 +1,43 @@
 package com.example.erpsystem.controller;
 
 import com.example.erpsystem.model.Transaction;
+import com.example.erpsystem.service.LedgerExportService;
+import com.example.erpsystem.service.LedgerExportService.ExportFormat;
+import com.example.erpsystem.service.TransactionMetadataBackfillService;
 import com.example.erpsystem.service.TransactionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/accounting/transactions")
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final FileDownloads fileDownloads;
+    private final TransactionMetadataBackfillService transactionMetadataBackfillService;
+    private final LedgerExportService ledgerExportService;
 
-    public TransactionController(TransactionService transactionService) {
+    @Value("${accounting.export.timeout-minutes:30}")
+    private long exportTimeoutMinutes;
+
+    public TransactionController(TransactionService transactionService, FileDownloads fileDownloads,
+            TransactionMetadataBackfillService transactionMetadataBackfillService,
+            LedgerExportService ledgerExportService) {
         this.transactionService = transactionService;
+        this.fileDownloads = fileDownloads;
+        this.transactionMetadataBackfillService = transactionMetadataBackfillService;
+        this.ledgerExportService = ledgerExportService;
     }
 
     @PostMapping
@@ -30,8 +52,25 @@ public class TransactionController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
-        return ResponseEntity.ok(transactionService.getAllTransactions());
+    public ResponseEntity<List<Transaction>> getTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return CursorPageResponses.ok(transactionService.getTransactionsPage(cursor, size, type, from, to));
+    }
+
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportTransactions(
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return LedgerExportResponses.attachment(response, exportTimeoutMinutes, "transactions", exportFormat, gzip,
+                out -> ledgerExportService.exportTransactions(exportFormat, gzip, from, to, out));
     }
 
     @GetMapping("/bill/{transactionId}")
@@ -39,4 +78,19 @@ public class TransactionController {
         String message = transactionService.generateBill(transactionId);
         return ResponseEntity.ok(message);
     }
+
+    @GetMapping("/bill/{transactionId}/download")
+    public void downloadBill(@PathVariable Long transactionId,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            fileDownloads.sendPdf(transactionService.getBillFile(transactionId), request, response);
+        } catch (NoSuchElementException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @PostMapping("/metadata/backfill")
+    public ResponseEntity<Map<String, Object>> backfillMetadata() {
+        return ResponseEntity.ok(transactionMetadataBackfillService.backfill());
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.erpsystem.dto;
+
+import java.util.Set;
+
+// The authenticated caller as controllers and services see it: id and role names, no entity
+public record CurrentUser(Long id, String username, Set<String> roles) {
+
+    public boolean isAdmin() {
+        return roles.contains("ADMIN");
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+}
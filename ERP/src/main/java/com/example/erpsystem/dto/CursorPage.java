@@ -0,0 +1,84 @@
+package com.example.erpsystem.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorPage<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // Open bounds for optional date filters, so keyset queries never bind a null timestamp
+    public static final LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1970, 1, 1, 0, 0);
+    public static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final List<T> items;
+    private final String nextCursor; // null on the last page
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+
+    public static int pageSize(Integer requested) {
+        return requested == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(requested, 1), MAX_PAGE_SIZE);
+    }
+
+    // Rows are fetched with one extra row of lookahead; the key of the last row kept becomes the cursor
+    public static <T> CursorPage<T> of(List<T> rows, int pageSize, Function<T, String> cursorKey) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> page = rows.subList(0, pageSize);
+        return new CursorPage<>(page, encodeCursor(cursorKey.apply(page.get(pageSize - 1))));
+    }
+
+    public static String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Splits into exactly 'parts' fields on '|'; only the last field may itself contain '|'
+    public static String[] decodeCursor(String cursor, int parts) {
+        try {
+            String[] fields = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", parts);
+            if (fields.length != parts) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            return fields;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    public static LocalDateTime cursorTimestamp(String field) {
+        try {
+            return LocalDateTime.parse(field);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    public static long cursorId(String field) {
+        try {
+            return Long.parseLong(field);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.erpsystem.dto;
+
+// SUM (in minor units)/COUNT of the accounting ledger for one transaction type
+public interface LedgerTotalView {
+
+    String getType();
+
+    Long getTotal();
+
+    Long getTransactionCount();
+}
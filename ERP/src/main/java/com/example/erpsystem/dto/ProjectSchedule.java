@@ -0,0 +1,24 @@
+package com.example.erpsystem.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Critical path schedule of a project's tasks, in dependency order. A task's earliest start is
+// its startDate or the latest finish of its dependencies; its duration is dueDate - startDate.
+public record ProjectSchedule(
+        LocalDateTime start,
+        LocalDateTime finish,
+        List<Long> criticalPath,
+        List<TaskSchedule> tasks) {
+
+    // late: the dependencies push the earliest finish past the task's dueDate
+    public record TaskSchedule(
+            Long taskId,
+            LocalDateTime earliestStart,
+            LocalDateTime earliestFinish,
+            LocalDateTime latestStart,
+            LocalDateTime latestFinish,
+            long slackMinutes,
+            boolean critical,
+            boolean late) {}
+}
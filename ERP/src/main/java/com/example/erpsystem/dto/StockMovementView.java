@@ -0,0 +1,19 @@
+package com.example.erpsystem.dto;
+
+import com.example.erpsystem.model.Money;
+
+import java.time.LocalDateTime;
+
+// Flat read of a StockTransaction row for ledger replays (no product/invoice joins)
+public interface StockMovementView {
+
+    Long getId();
+
+    String getType();
+
+    Integer getQuantity();
+
+    Money getPricePerUnit();
+
+    LocalDateTime getTimestamp();
+}
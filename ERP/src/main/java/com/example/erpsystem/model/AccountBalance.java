@@ -0,0 +1,57 @@
+package com.example.erpsystem.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Running total of the accounting ledger for one transaction type, kept in step with every write
+@Entity
+public class AccountBalance {
+
+    @Id
+    @Column(length = 16)
+    private String type; // "INCOME" or "EXPENSE"
+
+    @Column(nullable = false)
+    private Money total;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public AccountBalance() {}
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Money getTotal() {
+        return total;
+    }
+
+    public void setTotal(Money total) {
+        this.total = total;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.erpsystem.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Checkpoint of every product's stock and value as of takenAt
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_inventory_snapshot_taken_at", columnList = "taken_at")
+})
+public class InventorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Products with non-zero stock or value; the rest are implied zero
+    @Column(nullable = false)
+    private Integer lineCount;
+
+    // Default constructor
+    public InventorySnapshot() {}
+
+    public InventorySnapshot(LocalDateTime takenAt) {
+        this.takenAt = takenAt;
+        this.createdAt = LocalDateTime.now();
+        this.lineCount = 0;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Integer getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(Integer lineCount) {
+        this.lineCount = lineCount;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.erpsystem.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+// Lines are bulk-inserted over JDBC while the ledger is streamed
+@Entity
+@Table(uniqueConstraints = {
+    @UniqueConstraint(name = "uk_inventory_snapshot_line_product", columnNames = {"snapshot_id", "product_id"})
+})
+public class InventorySnapshotLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "snapshot_id", nullable = false)
+    private Long snapshotId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer stock;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalValue;
+
+    // Default constructor
+    public InventorySnapshotLine() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+}
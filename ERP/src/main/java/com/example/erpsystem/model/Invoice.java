@@ -2,12 +2,15 @@ package com.example.erpsystem.model;
 
 import jakarta.persistence.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 public class Invoice {
 
+    public enum PdfStatus {
+        PENDING, RENDERING, READY, FAILED
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -16,7 +19,7 @@ public class Invoice {
     private String invoiceNumber;
 
     @Column(nullable = false)
-    private BigDecimal totalAmount;
+    private Money totalAmount;
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime issuedDate;
@@ -24,12 +27,21 @@ public class Invoice {
     @Column(nullable = false)
     private String customerName;
 
+    // Rendered after the sale commits by the PDF render queue
+    @Enumerated(EnumType.STRING)
+    private PdfStatus pdfStatus;
+
+    private String pdfFilePath;
+
+    // Database time of the last PDF status change; a RENDERING row older than the lease is reclaimed
+    private LocalDateTime pdfStatusChangedAt;
+
     public Invoice() {
         this.issuedDate = LocalDateTime.now();
     }
 
     // Constructor
-    public Invoice(String invoiceNumber, BigDecimal totalAmount, String customerName) {
+    public Invoice(String invoiceNumber, Money totalAmount, String customerName) {
         this.invoiceNumber = invoiceNumber;
         this.totalAmount = totalAmount;
         this.customerName = customerName;
@@ -48,11 +60,11 @@ public class Invoice {
         this.invoiceNumber = invoiceNumber;
     }
 
-    public BigDecimal getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(BigDecimal totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -67,4 +79,24 @@ public class Invoice {
     public void setCustomerName(String customerName) {
         this.customerName = customerName;
     }
+
+    public PdfStatus getPdfStatus() {
+        return pdfStatus;
+    }
+
+    public void setPdfStatus(PdfStatus pdfStatus) {
+        this.pdfStatus = pdfStatus;
+    }
+
+    public String getPdfFilePath() {
+        return pdfFilePath;
+    }
+
+    public void setPdfFilePath(String pdfFilePath) {
+        this.pdfFilePath = pdfFilePath;
+    }
+
+    public LocalDateTime getPdfStatusChangedAt() {
+        return pdfStatusChangedAt;
+    }
 }
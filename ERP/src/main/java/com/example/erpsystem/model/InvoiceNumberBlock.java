@@ -0,0 +1,35 @@
+package com.example.erpsystem.model;
+
+import jakarta.persistence.*;
+
+// High-water mark of the invoice numbers handed out in blocks for one financial year
+@Entity
+public class InvoiceNumberBlock {
+
+    @Id
+    @Column(name = "financial_year", length = 16)
+    private String financialYear;
+
+    // First number of the next block not yet reserved by any node
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    // Default constructor
+    public InvoiceNumberBlock() {}
+
+    public String getFinancialYear() {
+        return financialYear;
+    }
+
+    public void setFinancialYear(String financialYear) {
+        this.financialYear = financialYear;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
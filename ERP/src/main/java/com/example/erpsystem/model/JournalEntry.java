@@ -0,0 +1,107 @@
+package com.example.erpsystem.model;
+
+import com.fasterxml.jackson.annotation.JsonManagedReference;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(uniqueConstraints = {
+    // A business document is posted at most once, however often it is re-queued
+    @UniqueConstraint(name = "uk_journal_entry_source", columnNames = {"source_type", "source_id"})
+}, indexes = {
+    // Date-range rebuilds of the ledger rollups
+    @Index(name = "idx_journal_entry_entry_date", columnList = "entry_date")
+})
+public class JournalEntry {
+
+    public enum SourceType {
+        INVOICE, STOCK_TRANSACTION
+    }
+
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_entry_seq")
+    @SequenceGenerator(name = "journal_entry_seq", sequenceName = "journal_entry_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source_type", nullable = false, length = 32)
+    private SourceType sourceType;
+
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+
+    @Column(nullable = false)
+    private String description;
+
+    // When the business event happened
+    @Column(name = "entry_date", nullable = false)
+    private LocalDateTime entryDate;
+
+    // When the journal writer committed it
+    @Column(name = "posted_at", nullable = false)
+    private LocalDateTime postedAt;
+
+    @JsonManagedReference
+    @OneToMany(mappedBy = "entry", cascade = CascadeType.ALL)
+    private List<JournalLine> lines = new ArrayList<>();
+
+    // Default constructor
+    public JournalEntry() {}
+
+    public void addLine(JournalLine line) {
+        line.setEntry(this);
+        lines.add(line);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public SourceType getSourceType() {
+        return sourceType;
+    }
+
+    public void setSourceType(SourceType sourceType) {
+        this.sourceType = sourceType;
+    }
+
+    public Long getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(Long sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public LocalDateTime getEntryDate() {
+        return entryDate;
+    }
+
+    public void setEntryDate(LocalDateTime entryDate) {
+        this.entryDate = entryDate;
+    }
+
+    public LocalDateTime getPostedAt() {
+        return postedAt;
+    }
+
+    public void setPostedAt(LocalDateTime postedAt) {
+        this.postedAt = postedAt;
+    }
+
+    public List<JournalLine> getLines() {
+        return lines;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.erpsystem.model;
+
+import com.fasterxml.jackson.annotation.JsonBackReference;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+// One side of a journal entry: exactly one of debit/credit is non-zero
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_journal_line_entry", columnList = "entry_id")
+})
+public class JournalLine {
+
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_line_seq")
+    @SequenceGenerator(name = "journal_line_seq", sequenceName = "journal_line_seq", allocationSize = 50)
+    private Long id;
+
+    @JsonBackReference
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "entry_id", nullable = false)
+    private JournalEntry entry;
+
+    @Column(name = "account_code", nullable = false, length = 16)
+    private String accountCode;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal debit = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal credit = BigDecimal.ZERO;
+
+    // Default constructor
+    public JournalLine() {}
+
+    public JournalLine(String accountCode, BigDecimal debit, BigDecimal credit) {
+        this.accountCode = accountCode;
+        this.debit = debit;
+        this.credit = credit;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public JournalEntry getEntry() {
+        return entry;
+    }
+
+    public void setEntry(JournalEntry entry) {
+        this.entry = entry;
+    }
+
+    public String getAccountCode() {
+        return accountCode;
+    }
+
+    public void setAccountCode(String accountCode) {
+        this.accountCode = accountCode;
+    }
+
+    public BigDecimal getDebit() {
+        return debit;
+    }
+
+    public void setDebit(BigDecimal debit) {
+        this.debit = debit;
+    }
+
+    public BigDecimal getCredit() {
+        return credit;
+    }
+
+    public void setCredit(BigDecimal credit) {
+        this.credit = credit;
+    }
+}
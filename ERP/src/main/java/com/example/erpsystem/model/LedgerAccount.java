@@ -0,0 +1,90 @@
+package com.example.erpsystem.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+// One account of the chart of accounts with its posted debit/credit totals,
+// advanced by the journal writer in the same commit as the journal lines
+@Entity
+public class LedgerAccount {
+
+    public enum AccountType {
+        ASSET, LIABILITY, EQUITY, REVENUE, EXPENSE;
+
+        // Assets and expenses grow with debits, everything else with credits
+        public boolean isDebitNormal() {
+            return this == ASSET || this == EXPENSE;
+        }
+    }
+
+    @Id
+    @Column(length = 16)
+    private String code;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AccountType type;
+
+    @Column(name = "debit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal debitTotal = BigDecimal.ZERO;
+
+    @Column(name = "credit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditTotal = BigDecimal.ZERO;
+
+    // Default constructor
+    public LedgerAccount() {}
+
+    public LedgerAccount(String code, String name, AccountType type) {
+        this.code = code;
+        this.name = name;
+        this.type = type;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public AccountType getType() {
+        return type;
+    }
+
+    public void setType(AccountType type) {
+        this.type = type;
+    }
+
+    public BigDecimal getDebitTotal() {
+        return debitTotal;
+    }
+
+    public void setDebitTotal(BigDecimal debitTotal) {
+        this.debitTotal = debitTotal;
+    }
+
+    public BigDecimal getCreditTotal() {
+        return creditTotal;
+    }
+
+    public void setCreditTotal(BigDecimal creditTotal) {
+        this.creditTotal = creditTotal;
+    }
+
+    // Balance on the account's normal side
+    public BigDecimal getBalance() {
+        return type.isDebitNormal() ? debitTotal.subtract(creditTotal) : creditTotal.subtract(debitTotal);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.erpsystem.model;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+
+// Reporting periods kept by the rollup tables; names match PostgreSQL date_trunc units
+public enum PeriodGranularity {
+    DAY, MONTH, QUARTER, YEAR;
+
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> date.with(IsoFields.DAY_OF_QUARTER, 1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    public LocalDate nextPeriodStart(LocalDate periodStart) {
+        return switch (this) {
+            case DAY -> periodStart.plusDays(1);
+            case MONTH -> periodStart.plusMonths(1);
+            case QUARTER -> periodStart.plusMonths(3);
+            case YEAR -> periodStart.plusYears(1);
+        };
+    }
+}
@@ -3,6 +3,8 @@ package com.example.erpsystem.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Getter
 @Setter
@@ -42,11 +44,11 @@ public class Product {
 		this.description = description;
 	}
 
-	public Double getPrice() {
+	public Money getPrice() {
 		return price;
 	}
 
-	public void setPrice(Double price) {
+	public void setPrice(Money price) {
 		this.price = price;
 	}
 
@@ -62,8 +64,42 @@ public class Product {
     private String description;
 
     @Column(nullable = false)
-    private Double price;
+    private Money price;
 
     @Column(nullable = false)
     private Integer stock;
+
+    // Optional scan codes: a merchant SKU and a numeric GTIN/EAN/UPC barcode
+    @Column(unique = true, length = 64)
+    private String sku;
+
+    @Column(unique = true, length = 14)
+    private String barcode;
+
+    // Set on create; null for products that predate the column, which count as always existing
+    private LocalDateTime createdAt;
+
+	public String getSku() {
+		return sku;
+	}
+
+	public void setSku(String sku) {
+		this.sku = sku;
+	}
+
+	public String getBarcode() {
+		return barcode;
+	}
+
+	public void setBarcode(String barcode) {
+		this.barcode = barcode;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
 }
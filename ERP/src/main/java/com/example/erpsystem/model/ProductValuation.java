@@ -0,0 +1,74 @@
+package com.example.erpsystem.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Running inventory value of one product, maintained as movements are logged
+@Entity
+public class ProductValuation {
+
+    public enum ValuationMethod {
+        FIFO, LIFO
+    }
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ValuationMethod method;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalValue;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public ProductValuation() {}
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public ValuationMethod getMethod() {
+        return method;
+    }
+
+    public void setMethod(ValuationMethod method) {
+        this.method = method;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+
+    public void setTotalValue(BigDecimal totalValue) {
+        this.totalValue = totalValue;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.erpsystem.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Quantity still on hand from one IN movement, at the price it was received at
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_stock_cost_layer_product", columnList = "product_id, received_at, id")
+})
+public class StockCostLayer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_cost_layer_seq")
+    @SequenceGenerator(name = "stock_cost_layer_seq", sequenceName = "stock_cost_layer_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // Source IN movement; null for opening balances and manual adjustments
+    @Column(name = "stock_transaction_id")
+    private Long stockTransactionId;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(nullable = false)
+    private Integer remainingQuantity;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal pricePerUnit;
+
+    // Default constructor
+    public StockCostLayer() {}
+
+    public StockCostLayer(Long productId, Long stockTransactionId, LocalDateTime receivedAt,
+                          Integer remainingQuantity, BigDecimal pricePerUnit) {
+        this.productId = productId;
+        this.stockTransactionId = stockTransactionId;
+        this.receivedAt = receivedAt;
+        this.remainingQuantity = remainingQuantity;
+        this.pricePerUnit = pricePerUnit;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getStockTransactionId() {
+        return stockTransactionId;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+
+    public Integer getRemainingQuantity() {
+        return remainingQuantity;
+    }
+
+    public void setRemainingQuantity(Integer remainingQuantity) {
+        this.remainingQuantity = remainingQuantity;
+    }
+
+    public BigDecimal getPricePerUnit() {
+        return pricePerUnit;
+    }
+}
@@ -1,15 +1,21 @@
 package com.example.erpsystem.model;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+    // Supports per-product history pages ordered by (timestamp, id)
+    @Index(name = "idx_stock_transaction_product_timestamp", columnList = "product_id, timestamp, id"),
+    // Supports ledger-wide date ranges (snapshots, as-of replays)
+    @Index(name = "idx_stock_transaction_timestamp", columnList = "timestamp, id")
+})
 public class StockTransaction {
 
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_transaction_seq")
+    @SequenceGenerator(name = "stock_transaction_seq", sequenceName = "stock_transaction_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -25,14 +31,17 @@ public class StockTransaction {
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
-    @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal pricePerUnit;
+    @Column(nullable = false)
+    private Money pricePerUnit;
+
+    // Receipt value (IN) or cost of goods sold (OUT) assigned by the valuation engine
+    private Money costValue;
 
     // Default constructor
     public StockTransaction() {}
 
     // Constructor
-    public StockTransaction(Product product, Integer quantity, String type, LocalDateTime timestamp, BigDecimal pricePerUnit) {
+    public StockTransaction(Product product, Integer quantity, String type, LocalDateTime timestamp, Money pricePerUnit) {
         this.product = product;
         this.quantity = quantity;
         this.type = type;
@@ -77,19 +86,27 @@ public class StockTransaction {
         this.timestamp = timestamp;
     }
 
-    public BigDecimal getPricePerUnit() {
+    public Money getPricePerUnit() {
         return pricePerUnit;
     }
 
-    public void setPricePerUnit(BigDecimal pricePerUnit) {
-        if (pricePerUnit == null || pricePerUnit.compareTo(BigDecimal.ZERO) <= 0) {
+    public void setPricePerUnit(Money pricePerUnit) {
+        if (pricePerUnit == null || pricePerUnit.signum() <= 0) {
             throw new IllegalArgumentException("Price per unit must be positive.");
         }
-        this.pricePerUnit = pricePerUnit.setScale(2, RoundingMode.HALF_UP);
+        this.pricePerUnit = pricePerUnit;
+    }
+
+    public Money getCostValue() {
+        return costValue;
+    }
+
+    public void setCostValue(Money costValue) {
+        this.costValue = costValue;
     }
 
-    public BigDecimal getTotalValue() {
-        return pricePerUnit.multiply(new BigDecimal(quantity));
+    public Money getTotalValue() {
+        return pricePerUnit.times(quantity);
     }
     
     @ManyToOne
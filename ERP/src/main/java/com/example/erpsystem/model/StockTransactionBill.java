@@ -98,7 +98,7 @@ public class StockTransactionBill {
     }
 
     public static StockTransactionBill createBill(StockTransaction stockTransaction) {
-        BigDecimal totalAmount = stockTransaction.getTotalValue();
+        BigDecimal totalAmount = stockTransaction.getTotalValue().toBigDecimal();
         String description = "OUT".equals(stockTransaction.getType())
                 ? "Expense for stock purchase"
                 : "Income from stock sale";
@@ -10,6 +10,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 @Entity
+@Table(indexes = @Index(name = "idx_task_project", columnList = "project_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -4,17 +4,23 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+    // Date-range rebuilds of the period rollups
+    @Index(name = "idx_transaction_timestamp", columnList = "timestamp")
+})
 public class Transaction {
 
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String description;
 
     @Column(nullable = false)
-    private Double amount;
+    private Money amount;
 
     @Column(nullable = false)
     private String type; // "INCOME" or "EXPENSE"
@@ -22,6 +28,14 @@ public class Transaction {
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
+    // Set when the row was generated from a stock movement; bills read these instead of the description
+    @Column(name = "stock_transaction_id")
+    private Long stockTransactionId;
+
+    private Integer quantity;
+
+    private Money unitPrice;
+
     public Long getId() {
 		return id;
 	}
@@ -38,11 +52,11 @@ public class Transaction {
 		this.description = description;
 	}
 
-	public Double getAmount() {
+	public Money getAmount() {
 		return amount;
 	}
 
-	public void setAmount(Double amount) {
+	public void setAmount(Money amount) {
 		this.amount = amount;
 	}
 
@@ -62,10 +76,34 @@ public class Transaction {
 		this.timestamp = timestamp;
 	}
 
+	public Long getStockTransactionId() {
+		return stockTransactionId;
+	}
+
+	public void setStockTransactionId(Long stockTransactionId) {
+		this.stockTransactionId = stockTransactionId;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(Integer quantity) {
+		this.quantity = quantity;
+	}
+
+	public Money getUnitPrice() {
+		return unitPrice;
+	}
+
+	public void setUnitPrice(Money unitPrice) {
+		this.unitPrice = unitPrice;
+	}
+
 	// Default constructor
     public Transaction() {}
 
-    public Transaction(String description, Double amount, String type, LocalDateTime timestamp) {
+    public Transaction(String description, Money amount, String type, LocalDateTime timestamp) {
         this.description = description;
         this.amount = amount;
         this.type = type;
@@ -0,0 +1,57 @@
+package com.example.erpsystem.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Change to the totals of one transaction type on one day, written with the ledger row that caused it
+// and folded into AccountBalance and TransactionRollup by TransactionDeltaWriter. Inserts never contend.
+@Entity
+public class TransactionDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_delta_seq")
+    @SequenceGenerator(name = "transaction_delta_seq", sequenceName = "transaction_delta_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate; // Day of the transaction's timestamp
+
+    @Column(nullable = false, length = 16)
+    private String type; // "INCOME" or "EXPENSE"
+
+    @Column(nullable = false)
+    private Money amount;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    // Default constructor
+    public TransactionDelta() {}
+
+    public TransactionDelta(LocalDate entryDate, String type, Money amount, long transactionCount) {
+        this.entryDate = entryDate;
+        this.type = type;
+        this.amount = amount;
+        this.transactionCount = transactionCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+}
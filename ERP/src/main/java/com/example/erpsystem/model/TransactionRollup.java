@@ -0,0 +1,79 @@
+package com.example.erpsystem.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Income or expense total of one day/month/quarter/year, kept in step with the Transaction table
+@Entity
+@Table(uniqueConstraints = {
+    @UniqueConstraint(name = "uk_transaction_rollup_period", columnNames = {"granularity", "period_start", "type"})
+})
+public class TransactionRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private PeriodGranularity granularity;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(nullable = false, length = 16)
+    private String type; // "INCOME" or "EXPENSE"
+
+    @Column(nullable = false)
+    private Money total;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    // Default constructor
+    public TransactionRollup() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public PeriodGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(PeriodGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Money getTotal() {
+        return total;
+    }
+
+    public void setTotal(Money total) {
+        this.total = total;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+}
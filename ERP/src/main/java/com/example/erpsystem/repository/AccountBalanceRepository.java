@@ -0,0 +1,59 @@
+package com.example.erpsystem.repository;
+
+import com.example.erpsystem.dto.LedgerTotalView;
+import com.example.erpsystem.model.AccountBalance;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountBalanceRepository extends JpaRepository<AccountBalance, String> {
+
+	// Adds a batch of folded deltas to the running total; runs in the delta writer's transaction
+	@Modifying
+	@Query(value = "INSERT INTO account_balance (type, total, transaction_count, updated_at) "
+			+ "VALUES (:type, :amount, :count, :now) "
+			+ "ON CONFLICT (type) DO UPDATE SET total = account_balance.total + EXCLUDED.total, "
+			+ "transaction_count = account_balance.transaction_count + EXCLUDED.transaction_count, "
+			+ "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+	int addToBalance(@Param("type") String type,
+			@Param("amount") long amount,
+			@Param("count") long count,
+			@Param("now") LocalDateTime now);
+
+	@Modifying
+	@Query(value = "INSERT INTO account_balance (type, total, transaction_count, updated_at) "
+			+ "VALUES (:type, :total, :count, :now) "
+			+ "ON CONFLICT (type) DO UPDATE SET total = EXCLUDED.total, "
+			+ "transaction_count = EXCLUDED.transaction_count, updated_at = EXCLUDED.updated_at", nativeQuery = true)
+	int setBalance(@Param("type") String type,
+			@Param("total") long total,
+			@Param("count") long count,
+			@Param("now") LocalDateTime now);
+
+	// Makes the caller the only transaction folding deltas into or rebuilding balances and transaction
+	// rollups, on any node, until it commits; rollup rebuild chunks take the same key in shared mode
+	@Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('transaction_delta'))", nativeQuery = true)
+	int lockBalanceWriter();
+
+	// Folded totals plus the deltas not folded yet, read in one statement so a concurrent fold is never counted twice
+	@Query(value = "SELECT b.type AS type, SUM(b.total)::bigint AS total, SUM(b.transaction_count)::bigint AS transactionCount "
+			+ "FROM (SELECT type, total, transaction_count FROM account_balance "
+			+ "UNION ALL SELECT type, amount, transaction_count FROM transaction_delta) b "
+			+ "GROUP BY b.type", nativeQuery = true)
+	List<LedgerTotalView> findCurrentTotals();
+
+	// Ledger totals less the deltas still waiting to be folded, i.e. what the balances must hold right now
+	@Query(value = "SELECT b.type AS type, COALESCE(SUM(b.amount), 0)::bigint AS total, "
+			+ "COALESCE(SUM(b.transaction_count), 0)::bigint AS transactionCount "
+			+ "FROM (SELECT type, amount, 1 AS transaction_count FROM transaction "
+			+ "UNION ALL SELECT type, -amount, -transaction_count FROM transaction_delta) b "
+			+ "GROUP BY b.type", nativeQuery = true)
+	List<LedgerTotalView> sumLedgerLessPendingDeltas();
+}
@@ -0,0 +1,51 @@
+package com.example.erpsystem.repository;
+
+import com.example.erpsystem.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+	// Returns 1 when this caller now owns the key: it was unused, or its previous claim has expired
+	@Transactional
+	@Modifying
+	@Query(value = "INSERT INTO idempotency_record (idempotency_key, request_fingerprint, created_at, expires_at) "
+			+ "VALUES (:key, :fingerprint, :now, :leaseUntil) "
+			+ "ON CONFLICT (idempotency_key) DO UPDATE SET request_fingerprint = EXCLUDED.request_fingerprint, "
+			+ "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at, "
+			+ "status_code = NULL, content_type = NULL, response_body = NULL "
+			+ "WHERE idempotency_record.expires_at < EXCLUDED.created_at", nativeQuery = true)
+	int claim(@Param("key") String key,
+			@Param("fingerprint") String fingerprint,
+			@Param("now") LocalDateTime now,
+			@Param("leaseUntil") LocalDateTime leaseUntil);
+
+	@Transactional
+	@Modifying
+	@Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.contentType = :contentType, "
+			+ "r.responseBody = :responseBody, r.expiresAt = :expiresAt WHERE r.idempotencyKey = :key")
+	int complete(@Param("key") String key,
+			@Param("statusCode") int statusCode,
+			@Param("contentType") String contentType,
+			@Param("responseBody") String responseBody,
+			@Param("expiresAt") LocalDateTime expiresAt);
+
+	// Drops an unfinished claim so the key can be retried
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.statusCode IS NULL")
+	int release(@Param("key") String key);
+
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+	int deleteExpired(@Param("now") LocalDateTime now);
+}
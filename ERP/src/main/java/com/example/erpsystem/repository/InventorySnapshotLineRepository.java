@@ -0,0 +1,14 @@
+package com.example.erpsystem.repository;
+
+import com.example.erpsystem.model.InventorySnapshotLine;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InventorySnapshotLineRepository extends JpaRepository<InventorySnapshotLine, Long> {
+
+	Optional<InventorySnapshotLine> findBySnapshotIdAndProductId(Long snapshotId, Long productId);
+}
@@ -0,0 +1,17 @@
+package com.example.erpsystem.repository;
+
+import com.example.erpsystem.model.InventorySnapshot;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+	Optional<InventorySnapshot> findFirstByTakenAtLessThanEqualOrderByTakenAtDesc(LocalDateTime asOf);
+
+	Optional<InventorySnapshot> findFirstByOrderByTakenAtDesc();
+}
@@ -1,11 +1,41 @@
 package com.example.erpsystem.repository;
 
 import com.example.erpsystem.model.Invoice;
+import com.example.erpsystem.model.Invoice.PdfStatus;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 //	List<StockTransaction> findByInvoice(Invoice invoice);
+
+	// PENDING invoices, plus RENDERING ones whose worker has not reported back within the lease
+	@Query(value = "SELECT id FROM invoice WHERE pdf_status = 'PENDING' OR (pdf_status = 'RENDERING' "
+			+ "AND (pdf_status_changed_at IS NULL OR pdf_status_changed_at < now() - make_interval(secs => :leaseSeconds))) "
+			+ "ORDER BY id", nativeQuery = true)
+	List<Long> findRenderableIds(@Param("leaseSeconds") long leaseSeconds, Pageable pageable);
+
+	// Moves a renderable invoice to RENDERING; only one node gets 1 back for the same invoice
+	@Transactional
+	@Modifying
+	@Query(value = "UPDATE invoice SET pdf_status = 'RENDERING', pdf_status_changed_at = now() WHERE id = :id "
+			+ "AND (pdf_status = 'PENDING' OR (pdf_status = 'RENDERING' "
+			+ "AND (pdf_status_changed_at IS NULL OR pdf_status_changed_at < now() - make_interval(secs => :leaseSeconds))))",
+			nativeQuery = true)
+	int claimPdfRender(@Param("id") Long id, @Param("leaseSeconds") long leaseSeconds);
+
+	// Status changes from the render workers touch only the PDF columns of the invoice row
+	@Transactional
+	@Modifying
+	@Query("UPDATE Invoice i SET i.pdfStatus = :status, i.pdfFilePath = :filePath, "
+			+ "i.pdfStatusChangedAt = CURRENT_TIMESTAMP WHERE i.id = :id")
+	int updatePdfStatus(@Param("id") Long id, @Param("status") PdfStatus status, @Param("filePath") String filePath);
 }
@@ -0,0 +1,36 @@
+package com.example.erpsystem.repository;
+
+import com.example.erpsystem.model.JournalEntry;
+import com.example.erpsystem.model.JournalEntry.SourceType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long> {
+
+	@EntityGraph(attributePaths = "lines")
+	List<JournalEntry> findBySourceTypeAndSourceIdOrderByIdAsc(SourceType sourceType, Long sourceId);
+
+	// Sales in the window whose journal entry never made it (writer queue full, node restarted)
+	@Query(value = "SELECT i.id FROM invoice i WHERE i.issued_date >= :from AND i.issued_date < :to "
+			+ "AND NOT EXISTS (SELECT 1 FROM journal_entry e WHERE e.source_type = 'INVOICE' AND e.source_id = i.id) "
+			+ "ORDER BY i.id LIMIT :limit", nativeQuery = true)
+	List<Long> findUnpostedInvoiceIds(@Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to,
+			@Param("limit") int limit);
+
+	@Query(value = "SELECT s.id FROM stock_transaction s WHERE s.invoice_id IS NULL "
+			+ "AND s.timestamp >= :from AND s.timestamp < :to "
+			+ "AND NOT EXISTS (SELECT 1 FROM journal_entry e WHERE e.source_type = 'STOCK_TRANSACTION' AND e.source_id = s.id) "
+			+ "ORDER BY s.id LIMIT :limit", nativeQuery = true)
+	List<Long> findUnpostedStockTransactionIds(@Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to,
+			@Param("limit") int limit);
+}
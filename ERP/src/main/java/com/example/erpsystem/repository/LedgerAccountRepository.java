@@ -0,0 +1,14 @@
+package com.example.erpsystem.repository;
+
+import com.example.erpsystem.model.LedgerAccount;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerAccountRepository extends JpaRepository<LedgerAccount, String> {
+
+	List<LedgerAccount> findAllByOrderByCodeAsc();
+}
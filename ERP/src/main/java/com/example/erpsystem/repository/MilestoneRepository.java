@@ -1,10 +1,16 @@
 package com.example.erpsystem.repository;
 
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.example.erpsystem.model.Milestone;
 
 @Repository
 public interface MilestoneRepository extends JpaRepository<Milestone, Long> {
 
+    @Query(value = "SELECT project_id FROM milestone WHERE id = :milestoneId", nativeQuery = true)
+    Optional<Long> findProjectId(@Param("milestoneId") Long milestoneId);
 }
@@ -1,9 +1,53 @@
 package com.example.erpsystem.repository;
 
 import com.example.erpsystem.model.Product;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    @Query("SELECT p.id FROM Product p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    // A scanned code against both unique code columns in one round trip; a barcode match sorts first
+    @Query("SELECT p FROM Product p WHERE p.barcode = :code OR p.sku = :code "
+            + "ORDER BY CASE WHEN p.barcode = :code THEN 0 ELSE 1 END")
+    List<Product> findByCode(@Param("code") String code);
+
+    // Locks the product row before its valuation row, the order every stock path takes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :id")
+    Integer findStockById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Guarded decrement: matches no row when the product does not hold enough stock
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :id AND p.stock >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Keyset pages on the primary key or on the unique name index; namePrefix is a LIKE pattern
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId AND p.name LIKE :namePrefix ESCAPE '\\' ORDER BY p.id")
+    List<Product> findPageById(@Param("afterId") Long afterId, @Param("namePrefix") String namePrefix, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.name > :afterName AND p.name LIKE :namePrefix ESCAPE '\\' ORDER BY p.name")
+    List<Product> findPageByName(@Param("afterName") String afterName, @Param("namePrefix") String namePrefix,
+            Pageable pageable);
 }
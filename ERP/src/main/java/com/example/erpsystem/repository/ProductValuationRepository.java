@@ -0,0 +1,27 @@
+package com.example.erpsystem.repository;
+
+import com.example.erpsystem.model.ProductValuation;
+
+import jakarta.persistence.LockModeType;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductValuationRepository extends JpaRepository<ProductValuation, Long> {
+
+	// Row locks serialize cost-layer consumption per product; ordered to avoid deadlocks
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT v FROM ProductValuation v WHERE v.productId IN :productIds ORDER BY v.productId")
+	List<ProductValuation> findAllForUpdate(@Param("productIds") Collection<Long> productIds);
+
+	@Query("SELECT COALESCE(SUM(v.totalValue), 0) FROM ProductValuation v")
+	BigDecimal sumTotalValue();
+}
@@ -1,6 +1,12 @@
 package com.example.erpsystem.repository;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.erpsystem.model.Project;
@@ -8,5 +14,21 @@ import com.example.erpsystem.model.Project;
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long>{
 
-}
+    // Membership from the join table alone, without loading the team
+    @Query("SELECT COUNT(m) > 0 FROM Project p JOIN p.teamMembers m WHERE p.id = :projectId AND m.id = :userId")
+    boolean isTeamMember(@Param("projectId") Long projectId, @Param("userId") Long userId);
+
+    @Query(value = "SELECT project_manager_id FROM project WHERE id = :projectId", nativeQuery = true)
+    Optional<Long> findProjectManagerId(@Param("projectId") Long projectId);
 
+    // Served by the (project_id, user_id) primary key of the join table
+    @Query(value = "SELECT user_id FROM project_team_members WHERE project_id = :projectId ORDER BY user_id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findTeamMemberIds(@Param("projectId") Long projectId, @Param("limit") int limit);
+
+    // Adds one member without loading the team; a repeated add is a no-op
+    @Modifying
+    @Query(value = "INSERT INTO project_team_members (project_id, user_id) VALUES (:projectId, :userId) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addTeamMember(@Param("projectId") Long projectId, @Param("userId") Long userId);
+}
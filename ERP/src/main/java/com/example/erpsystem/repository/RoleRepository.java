@@ -1,10 +1,15 @@
 package com.example.erpsystem.repository;
 
 import com.example.erpsystem.model.Role;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
     Role findByName(String name);
+
+    List<Role> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
 }
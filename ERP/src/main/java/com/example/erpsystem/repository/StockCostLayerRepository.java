@@ -0,0 +1,23 @@
+package com.example.erpsystem.repository;
+
+import com.example.erpsystem.model.StockCostLayer;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockCostLayerRepository extends JpaRepository<StockCostLayer, Long> {
+
+	// Oldest layer first; LIFO consumption walks the same list from the end
+	List<StockCostLayer> findByProductIdInOrderByProductIdAscReceivedAtAscIdAsc(Collection<Long> productIds);
+
+	@Modifying
+	@Query("DELETE FROM StockCostLayer l WHERE l.productId = :productId")
+	int deleteByProductId(@Param("productId") Long productId);
+}
@@ -1,15 +1,62 @@
 package com.example.erpsystem.repository;
 
+import com.example.erpsystem.dto.StockMovementView;
 import com.example.erpsystem.model.Invoice;
 import com.example.erpsystem.model.StockTransaction;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface StockTransactionRepository extends JpaRepository<StockTransaction, Long> {
 
 	List<StockTransaction> findByInvoice(Invoice invoice);
+
+	// Keyset page of a product's movements, newest first, served from the (product_id, timestamp, id) index
+	@Query("SELECT st FROM StockTransaction st JOIN FETCH st.product LEFT JOIN FETCH st.invoice "
+			+ "WHERE st.product.id = :productId AND st.type IN :types "
+			+ "AND st.timestamp >= :from AND st.timestamp < :to "
+			+ "AND (st.timestamp < :cursorTimestamp OR (st.timestamp = :cursorTimestamp AND st.id < :cursorId)) "
+			+ "ORDER BY st.timestamp DESC, st.id DESC")
+	List<StockTransaction> findProductHistoryPage(@Param("productId") Long productId,
+			@Param("types") Collection<String> types,
+			@Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to,
+			@Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+			@Param("cursorId") Long cursorId,
+			Pageable pageable);
+
+	// Keyset page across all products, newest first, served from the (timestamp, id) index
+	@Query("SELECT st FROM StockTransaction st JOIN FETCH st.product LEFT JOIN FETCH st.invoice "
+			+ "WHERE st.type IN :types AND st.timestamp >= :from AND st.timestamp < :to "
+			+ "AND (st.timestamp < :cursorTimestamp OR (st.timestamp = :cursorTimestamp AND st.id < :cursorId)) "
+			+ "ORDER BY st.timestamp DESC, st.id DESC")
+	List<StockTransaction> findPage(@Param("types") Collection<String> types,
+			@Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to,
+			@Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+			@Param("cursorId") Long cursorId,
+			Pageable pageable);
+
+	@Query("SELECT COALESCE(SUM(CASE WHEN st.type = 'IN' THEN st.quantity ELSE -st.quantity END), 0) "
+			+ "FROM StockTransaction st WHERE st.product.id = :productId")
+	long netQuantityByProduct(@Param("productId") Long productId);
+
+	// Forward-only replay of one product's ledger in posting order
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+	@Query("SELECT st.id AS id, st.type AS type, st.quantity AS quantity, st.pricePerUnit AS pricePerUnit, "
+			+ "st.timestamp AS timestamp FROM StockTransaction st WHERE st.product.id = :productId "
+			+ "ORDER BY st.timestamp, st.id")
+	Stream<StockMovementView> streamMovementsByProduct(@Param("productId") Long productId);
 }
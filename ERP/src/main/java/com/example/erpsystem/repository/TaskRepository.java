@@ -1,6 +1,10 @@
 package com.example.erpsystem.repository;
 
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.erpsystem.model.Task;
@@ -8,5 +12,9 @@ import com.example.erpsystem.model.Task;
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long>{
 
+    @Query(value = "SELECT project_id FROM task WHERE id = :taskId", nativeQuery = true)
+    Optional<Long> findProjectId(@Param("taskId") Long taskId);
 
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM task WHERE id = :taskId AND assigned_to_id = :userId)", nativeQuery = true)
+    boolean isAssignedTo(@Param("taskId") Long taskId, @Param("userId") Long userId);
 }
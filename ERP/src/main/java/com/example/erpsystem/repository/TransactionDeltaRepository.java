@@ -0,0 +1,10 @@
+package com.example.erpsystem.repository;
+
+import com.example.erpsystem.model.TransactionDelta;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransactionDeltaRepository extends JpaRepository<TransactionDelta, Long> {
+}
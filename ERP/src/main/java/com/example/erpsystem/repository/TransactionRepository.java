@@ -1,17 +1,43 @@
 package com.example.erpsystem.repository;
 
+import com.example.erpsystem.dto.LedgerTotalView;
 import com.example.erpsystem.model.Transaction;
 
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 	 List<Transaction> findByType(String type);
 
+	@Query(value = "SELECT t.type AS type, COALESCE(SUM(t.amount), 0)::bigint AS total, COUNT(*) AS transactionCount "
+			+ "FROM transaction t GROUP BY t.type", nativeQuery = true)
+	List<LedgerTotalView> sumAmountGroupByType();
+
+	// Row lock so concurrent edits of one transaction reverse the right old amount/type
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT t FROM Transaction t WHERE t.id = :id")
+	Optional<Transaction> findByIdForUpdate(@Param("id") Long id);
+
+	// Keyset page, newest first, served from the timestamp index
+	@Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.invoice "
+			+ "WHERE t.type IN :types AND t.timestamp >= :from AND t.timestamp < :to "
+			+ "AND (t.timestamp < :cursorTimestamp OR (t.timestamp = :cursorTimestamp AND t.id < :cursorId)) "
+			+ "ORDER BY t.timestamp DESC, t.id DESC")
+	List<Transaction> findPage(@Param("types") Collection<String> types,
+			@Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to,
+			@Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+			@Param("cursorId") Long cursorId,
+			Pageable pageable);
 }
-
-
-
-
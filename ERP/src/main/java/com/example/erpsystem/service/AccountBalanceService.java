@@ -0,0 +1,233 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.dto.LedgerTotalView;
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.Transaction;
+import com.example.erpsystem.model.TransactionDelta;
+import com.example.erpsystem.repository.AccountBalanceRepository;
+import com.example.erpsystem.repository.TransactionDeltaRepository;
+import com.example.erpsystem.repository.TransactionRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class AccountBalanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountBalanceService.class);
+
+    private static final List<String> TYPES = List.of("EXPENSE", "INCOME");
+
+    public record BalanceSummary(Money totalIncome, Money totalExpense, Money netBalance) {}
+
+    public record BalanceDrift(String type, Money ledgerTotal, Money runningTotal,
+            long ledgerCount, long runningCount, Money drift, boolean consistent) {}
+
+    public record ConsistencyReport(LocalDateTime checkedAt, boolean consistent, List<BalanceDrift> balances) {}
+
+    private record DeltaKey(LocalDate day, String type) {}
+
+    private record BalanceDelta(long amount, long count) {}
+
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final TransactionDeltaRepository transactionDeltaRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate checkTransaction;
+    private final TransactionTemplate rebuildTransaction;
+    private final boolean autoRepair;
+
+    public AccountBalanceService(
+            AccountBalanceRepository accountBalanceRepository,
+            TransactionDeltaRepository transactionDeltaRepository,
+            TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${accounting.balance.auto-repair:false}") boolean autoRepair) {
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.transactionDeltaRepository = transactionDeltaRepository;
+        this.transactionRepository = transactionRepository;
+        // Ledger sums and running balances read from one MVCC snapshot, so in-flight writes never look like drift
+        this.checkTransaction = new TransactionTemplate(transactionManager);
+        this.checkTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.checkTransaction.setReadOnly(true);
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.autoRepair = autoRepair;
+    }
+
+    // Delta rows commit or roll back together with the ledger rows that caused them
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAdded(List<Transaction> transactions) {
+        Map<DeltaKey, BalanceDelta> deltas = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            addDelta(deltas, transaction.getTimestamp(), transaction.getType(), transaction.getAmount().minorUnits(), 1);
+        }
+        saveDeltas(deltas);
+    }
+
+    // The timestamp never changes on edit, so old and new amounts land on the same day
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanged(LocalDateTime timestamp, String oldType, Money oldAmount, String newType, Money newAmount) {
+        Map<DeltaKey, BalanceDelta> deltas = new LinkedHashMap<>();
+        addDelta(deltas, timestamp, oldType, -oldAmount.minorUnits(), -1);
+        addDelta(deltas, timestamp, newType, newAmount.minorUnits(), 1);
+        saveDeltas(deltas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(LocalDateTime timestamp, String type, Money amount) {
+        Map<DeltaKey, BalanceDelta> deltas = new LinkedHashMap<>();
+        addDelta(deltas, timestamp, type, -amount.minorUnits(), -1);
+        saveDeltas(deltas);
+    }
+
+    private void addDelta(Map<DeltaKey, BalanceDelta> deltas, LocalDateTime timestamp, String type, long amount, long count) {
+        deltas.merge(new DeltaKey(timestamp.toLocalDate(), type), new BalanceDelta(amount, count),
+                (a, b) -> new BalanceDelta(Math.addExact(a.amount(), b.amount()), a.count() + b.count()));
+    }
+
+    // Plain inserts: concurrent sales never wait on each other's balance or rollup rows
+    private void saveDeltas(Map<DeltaKey, BalanceDelta> deltas) {
+        List<TransactionDelta> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            if (delta.amount() != 0 || delta.count() != 0) {
+                rows.add(new TransactionDelta(key.day(), key.type(), Money.ofMinor(delta.amount()), delta.count()));
+            }
+        });
+        if (!rows.isEmpty()) {
+            transactionDeltaRepository.saveAll(rows);
+        }
+    }
+
+    // Folded balance plus the deltas the writer has not picked up yet, so reads never lag the ledger
+    public Money getBalance(String type) {
+        return currentTotals().getOrDefault(type, Money.ZERO);
+    }
+
+    public BalanceSummary getSummary() {
+        Map<String, Money> totals = currentTotals();
+        Money income = totals.getOrDefault("INCOME", Money.ZERO);
+        Money expense = totals.getOrDefault("EXPENSE", Money.ZERO);
+        return new BalanceSummary(income, expense, income.minus(expense));
+    }
+
+    private Map<String, Money> currentTotals() {
+        Map<String, Money> totals = new TreeMap<>();
+        for (LedgerTotalView total : accountBalanceRepository.findCurrentTotals()) {
+            totals.put(total.getType(), Money.ofMinor(total.getTotal()));
+        }
+        return totals;
+    }
+
+    // Recomputes every type from the ledger and compares it with the running balances
+    public ConsistencyReport checkConsistency() {
+        return checkTransaction.execute(status -> compare());
+    }
+
+    // Overwrites the folded balances with the ledger totals less the deltas still pending. Holding the
+    // writer lock keeps folds out; ledger writers are not blocked, and since they insert their ledger
+    // row and delta row in one commit, a single statement sees both or neither.
+    public ConsistencyReport rebuildFromLedger() {
+        rebuildTransaction.executeWithoutResult(status -> {
+            accountBalanceRepository.lockBalanceWriter();
+            Map<String, LedgerTotalView> ledger = new TreeMap<>();
+            for (LedgerTotalView total : accountBalanceRepository.sumLedgerLessPendingDeltas()) {
+                ledger.put(total.getType(), total);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (String type : balanceTypes(ledger)) {
+                LedgerTotalView total = ledger.get(type);
+                accountBalanceRepository.setBalance(type,
+                        total == null ? 0 : total.getTotal(),
+                        total == null ? 0 : total.getTransactionCount(),
+                        now);
+            }
+        });
+        log.info("Rebuilt accounting balances from the ledger");
+        return checkConsistency();
+    }
+
+    // Seeds the table for ledgers written before running balances existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedBalances() {
+        if (accountBalanceRepository.count() == 0) {
+            rebuildFromLedger();
+        }
+    }
+
+    @Scheduled(cron = "${accounting.balance.check-cron:0 15 * * * *}")
+    public void scheduledConsistencyCheck() {
+        ConsistencyReport report = checkConsistency();
+        if (report.consistent()) {
+            return;
+        }
+        for (BalanceDrift drift : report.balances()) {
+            if (!drift.consistent()) {
+                log.warn("Accounting balance for {} drifted by {} (ledger {} in {} rows, running {} in {} rows)",
+                        drift.type(), drift.drift(), drift.ledgerTotal(), drift.ledgerCount(),
+                        drift.runningTotal(), drift.runningCount());
+            }
+        }
+        if (autoRepair) {
+            rebuildFromLedger();
+        }
+    }
+
+    private ConsistencyReport compare() {
+        Map<String, LedgerTotalView> ledger = ledgerTotals();
+        Map<String, LedgerTotalView> running = new TreeMap<>();
+        for (LedgerTotalView total : accountBalanceRepository.findCurrentTotals()) {
+            running.put(total.getType(), total);
+        }
+
+        List<String> types = balanceTypes(ledger);
+        running.keySet().stream().filter(type -> !types.contains(type)).forEach(types::add);
+
+        List<BalanceDrift> balances = new ArrayList<>();
+        boolean consistent = true;
+        for (String type : types) {
+            LedgerTotalView ledgerTotal = ledger.get(type);
+            LedgerTotalView balance = running.get(type);
+            long ledgerAmount = ledgerTotal == null ? 0 : ledgerTotal.getTotal();
+            long ledgerCount = ledgerTotal == null ? 0 : ledgerTotal.getTransactionCount();
+            long runningAmount = balance == null ? 0 : balance.getTotal();
+            long runningCount = balance == null ? 0 : balance.getTransactionCount();
+            long drift = runningAmount - ledgerAmount;
+            boolean matches = drift == 0 && runningCount == ledgerCount;
+            consistent &= matches;
+            balances.add(new BalanceDrift(type, Money.ofMinor(ledgerAmount), Money.ofMinor(runningAmount),
+                    ledgerCount, runningCount, Money.ofMinor(drift), matches));
+        }
+        return new ConsistencyReport(LocalDateTime.now(), consistent, balances);
+    }
+
+    private Map<String, LedgerTotalView> ledgerTotals() {
+        Map<String, LedgerTotalView> totals = new TreeMap<>();
+        for (LedgerTotalView total : transactionRepository.sumAmountGroupByType()) {
+            totals.put(total.getType(), total);
+        }
+        return totals;
+    }
+
+    private List<String> balanceTypes(Map<String, LedgerTotalView> ledger) {
+        List<String> types = new ArrayList<>(TYPES);
+        ledger.keySet().stream().filter(type -> !types.contains(type)).forEach(types::add);
+        return types;
+    }
+}
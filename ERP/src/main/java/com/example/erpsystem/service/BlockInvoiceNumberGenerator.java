@@ -0,0 +1,76 @@
+package com.example.erpsystem.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hi/lo numbering: each node reserves a block of numbers per financial year from the
+// database and hands them out from memory, e.g. INV/2026-27/000123.
+// Numbers are unique and increase on each node; blocks left unused on shutdown become gaps.
+@Service
+public class BlockInvoiceNumberGenerator implements InvoiceNumberGenerator {
+
+    private static final Month FINANCIAL_YEAR_START = Month.APRIL;
+
+    private final InvoiceNumberBlockSource blockSource;
+    private final int blockSize;
+    private final String prefix;
+    private final Map<String, YearCounter> counters = new ConcurrentHashMap<>();
+
+    public BlockInvoiceNumberGenerator(InvoiceNumberBlockSource blockSource,
+            @Value("${invoice.number.block-size:100}") int blockSize,
+            @Value("${invoice.number.prefix:INV}") String prefix) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Invoice number block size must be greater than zero.");
+        }
+        this.blockSource = blockSource;
+        this.blockSize = blockSize;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public String nextInvoiceNumber(LocalDate issueDate) {
+        String financialYear = financialYear(issueDate);
+        long number = counters.computeIfAbsent(financialYear, YearCounter::new).next();
+        return String.format("%s/%s/%06d", prefix, financialYear, number);
+    }
+
+    static String financialYear(LocalDate date) {
+        int startYear = date.getMonthValue() >= FINANCIAL_YEAR_START.getValue() ? date.getYear() : date.getYear() - 1;
+        return String.format("%d-%02d", startYear, (startYear + 1) % 100);
+    }
+
+    private record Block(AtomicLong next, long last) {}
+
+    private final class YearCounter {
+
+        private final String financialYear;
+        private volatile Block block = new Block(new AtomicLong(1), 0);
+
+        YearCounter(String financialYear) {
+            this.financialYear = financialYear;
+        }
+
+        long next() {
+            while (true) {
+                Block current = block;
+                long number = current.next().getAndIncrement();
+                if (number <= current.last()) {
+                    return number;
+                }
+                // Block used up: one thread reserves the next one, the others wait for it
+                synchronized (this) {
+                    if (block == current) {
+                        long first = blockSource.reserveBlock(financialYear, blockSize);
+                        block = new Block(new AtomicLong(first), first + blockSize - 1);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.Invoice;
+import com.example.erpsystem.model.JournalEntry;
+import com.example.erpsystem.model.JournalEntry.SourceType;
+import com.example.erpsystem.model.LedgerAccount;
+import com.example.erpsystem.model.LedgerAccount.AccountType;
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.StockTransaction;
+import com.example.erpsystem.repository.InvoiceRepository;
+import com.example.erpsystem.repository.JournalEntryRepository;
+import com.example.erpsystem.repository.LedgerAccountRepository;
+import com.example.erpsystem.repository.StockTransactionRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Double-entry postings for sales and stock movements. Postings are handed to
+// JournalBatchWriter after the business transaction commits; per-account totals
+// live on LedgerAccount so the trial balance never reads journal lines.
+@Service
+public class GeneralLedgerService {
+
+    public static final String CASH = "1000";
+    public static final String INVENTORY = "1300";
+    public static final String SALES_REVENUE = "4000";
+    public static final String COST_OF_GOODS_SOLD = "5000";
+
+    private static final int SWEEP_LIMIT = 500;
+
+    public record PostingLine(String accountCode, BigDecimal debit, BigDecimal credit) {}
+
+    public record Posting(SourceType sourceType, Long sourceId, String description,
+            LocalDateTime entryDate, List<PostingLine> lines) {
+
+        public Posting {
+            if (lines.isEmpty()) {
+                throw new IllegalArgumentException("A journal entry needs at least one line.");
+            }
+            BigDecimal debits = BigDecimal.ZERO;
+            BigDecimal credits = BigDecimal.ZERO;
+            for (PostingLine line : lines) {
+                if (line.debit().signum() < 0 || line.credit().signum() < 0
+                        || (line.debit().signum() == 0) == (line.credit().signum() == 0)) {
+                    throw new IllegalArgumentException(
+                            "Each journal line must carry a positive debit or a positive credit.");
+                }
+                debits = debits.add(line.debit());
+                credits = credits.add(line.credit());
+            }
+            if (debits.compareTo(credits) != 0) {
+                throw new IllegalArgumentException(
+                        "Journal entry is not balanced: debits " + debits + ", credits " + credits);
+            }
+            lines = List.copyOf(lines);
+        }
+
+        public String sourceKey() {
+            return sourceType + ":" + sourceId;
+        }
+    }
+
+    public record TrialBalanceLine(String code, String name, AccountType type,
+            BigDecimal debitTotal, BigDecimal creditTotal, BigDecimal balance) {}
+
+    public record TrialBalance(List<TrialBalanceLine> accounts,
+            BigDecimal totalDebits, BigDecimal totalCredits, boolean balanced) {}
+
+    @Value("${ledger.posting.sweep-lookback-hours:48}")
+    private long sweepLookbackHours;
+
+    @Value("${ledger.posting.sweep-lag-seconds:60}")
+    private long sweepLagSeconds;
+
+    private final LedgerAccountRepository ledgerAccountRepository;
+    private final JournalEntryRepository journalEntryRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final JournalBatchWriter journalBatchWriter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public GeneralLedgerService(
+            LedgerAccountRepository ledgerAccountRepository,
+            JournalEntryRepository journalEntryRepository,
+            InvoiceRepository invoiceRepository,
+            StockTransactionRepository stockTransactionRepository,
+            JournalBatchWriter journalBatchWriter,
+            ApplicationEventPublisher eventPublisher) {
+        this.ledgerAccountRepository = ledgerAccountRepository;
+        this.journalEntryRepository = journalEntryRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.stockTransactionRepository = stockTransactionRepository;
+        this.journalBatchWriter = journalBatchWriter;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Creates the standard accounts that postings refer to; existing accounts are left alone
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedChartOfAccounts() {
+        List<LedgerAccount> missing = new ArrayList<>();
+        for (LedgerAccount account : List.of(
+                new LedgerAccount(CASH, "Cash", AccountType.ASSET),
+                new LedgerAccount(INVENTORY, "Inventory", AccountType.ASSET),
+                new LedgerAccount(SALES_REVENUE, "Sales Revenue", AccountType.REVENUE),
+                new LedgerAccount(COST_OF_GOODS_SOLD, "Cost of Goods Sold", AccountType.EXPENSE))) {
+            if (!ledgerAccountRepository.existsById(account.getCode())) {
+                missing.add(account);
+            }
+        }
+        ledgerAccountRepository.saveAll(missing);
+    }
+
+    // Must be called inside the sale's transaction; the entry is written only if the sale commits
+    public void postInvoice(Invoice invoice, List<StockTransaction> lines) {
+        Posting posting = invoicePosting(invoice, lines);
+        if (posting != null) {
+            eventPublisher.publishEvent(posting);
+        }
+    }
+
+    // Stock movements that belong to an invoice are posted with the invoice
+    public void postStockTransactions(List<StockTransaction> transactions) {
+        for (StockTransaction transaction : transactions) {
+            Posting posting = stockTransactionPosting(transaction);
+            if (posting != null) {
+                eventPublisher.publishEvent(posting);
+            }
+        }
+    }
+
+    Posting invoicePosting(Invoice invoice, List<StockTransaction> lines) {
+        long costOfGoodsSold = 0;
+        for (StockTransaction line : lines) {
+            if (line.getCostValue() != null) {
+                costOfGoodsSold = Math.addExact(costOfGoodsSold, line.getCostValue().minorUnits());
+            }
+        }
+        List<PostingLine> postingLines = new ArrayList<>();
+        transfer(postingLines, CASH, SALES_REVENUE, invoice.getTotalAmount());
+        transfer(postingLines, COST_OF_GOODS_SOLD, INVENTORY, Money.ofMinor(costOfGoodsSold));
+        if (postingLines.isEmpty()) {
+            return null;
+        }
+        return new Posting(SourceType.INVOICE, invoice.getId(),
+                "Sale, Invoice: " + invoice.getInvoiceNumber(), invoice.getIssuedDate(), postingLines);
+    }
+
+    Posting stockTransactionPosting(StockTransaction transaction) {
+        if (transaction.getInvoice() != null) {
+            return null;
+        }
+        List<PostingLine> postingLines = new ArrayList<>();
+        String description;
+        if ("IN".equals(transaction.getType())) {
+            Money receiptValue = transaction.getCostValue() != null
+                    ? transaction.getCostValue()
+                    : transaction.getTotalValue();
+            transfer(postingLines, INVENTORY, CASH, receiptValue);
+            description = "Purchase of " + transaction.getQuantity() + " units of " + transaction.getProduct().getName();
+        } else {
+            transfer(postingLines, CASH, SALES_REVENUE, transaction.getTotalValue());
+            if (transaction.getCostValue() != null) {
+                transfer(postingLines, COST_OF_GOODS_SOLD, INVENTORY, transaction.getCostValue());
+            }
+            description = "Sale of " + transaction.getQuantity() + " units of " + transaction.getProduct().getName();
+        }
+        if (postingLines.isEmpty()) {
+            return null;
+        }
+        return new Posting(SourceType.STOCK_TRANSACTION, transaction.getId(),
+                description, transaction.getTimestamp(), postingLines);
+    }
+
+    private static void transfer(List<PostingLine> lines, String debitAccount, String creditAccount, Money amount) {
+        if (amount.isZero()) {
+            return;
+        }
+        if (amount.signum() < 0) {
+            // A negative amount is the same movement in the other direction
+            transfer(lines, creditAccount, debitAccount, amount.negate());
+            return;
+        }
+        BigDecimal value = amount.toBigDecimal();
+        lines.add(new PostingLine(debitAccount, value, BigDecimal.ZERO));
+        lines.add(new PostingLine(creditAccount, BigDecimal.ZERO, value));
+    }
+
+    public TrialBalance getTrialBalance() {
+        List<TrialBalanceLine> accounts = new ArrayList<>();
+        BigDecimal totalDebits = BigDecimal.ZERO;
+        BigDecimal totalCredits = BigDecimal.ZERO;
+        for (LedgerAccount account : ledgerAccountRepository.findAllByOrderByCodeAsc()) {
+            accounts.add(new TrialBalanceLine(account.getCode(), account.getName(), account.getType(),
+                    account.getDebitTotal(), account.getCreditTotal(), account.getBalance()));
+            totalDebits = totalDebits.add(account.getDebitTotal());
+            totalCredits = totalCredits.add(account.getCreditTotal());
+        }
+        return new TrialBalance(accounts, totalDebits, totalCredits, totalDebits.compareTo(totalCredits) == 0);
+    }
+
+    public List<LedgerAccount> getAccounts() {
+        return ledgerAccountRepository.findAllByOrderByCodeAsc();
+    }
+
+    public List<JournalEntry> getEntries(SourceType sourceType, Long sourceId) {
+        return journalEntryRepository.findBySourceTypeAndSourceIdOrderByIdAsc(sourceType, sourceId);
+    }
+
+    // Re-queues sales and movements from the recent past that have no journal entry yet
+    @Scheduled(fixedDelayString = "${ledger.posting.sweep-interval-ms:60000}")
+    public void postMissingEntries() {
+        LocalDateTime to = LocalDateTime.now().minusSeconds(sweepLagSeconds);
+        LocalDateTime from = to.minusHours(sweepLookbackHours);
+
+        List<Long> invoiceIds = journalEntryRepository.findUnpostedInvoiceIds(from, to, SWEEP_LIMIT);
+        for (Invoice invoice : invoiceRepository.findAllById(invoiceIds)) {
+            Posting posting = invoicePosting(invoice, stockTransactionRepository.findByInvoice(invoice));
+            if (posting != null) {
+                journalBatchWriter.enqueue(posting);
+            }
+        }
+
+        List<Long> transactionIds = journalEntryRepository.findUnpostedStockTransactionIds(from, to, SWEEP_LIMIT);
+        for (StockTransaction transaction : stockTransactionRepository.findAllById(transactionIds)) {
+            Posting posting = stockTransactionPosting(transaction);
+            if (posting != null) {
+                journalBatchWriter.enqueue(posting);
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.IdempotencyRecord;
+import com.example.erpsystem.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Runs a request at most once per Idempotency-Key and replays the stored response to retries.
+// Recent keys are answered from a bounded in-memory map; the idempotency_record table
+// covers other nodes and restarts. Duplicates arriving while the first request runs wait for it.
+@Service
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private record StoredResponse(int statusCode, String contentType, String body, String fingerprint,
+            LocalDateTime expiresAt) {}
+
+    private record Outcome(StoredResponse response, boolean replayed) {}
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Map<String, StoredResponse> recentResponses;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+            ObjectMapper objectMapper,
+            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${idempotency.cache-size:10000}") int cacheSize,
+            @Value("${idempotency.wait-timeout-ms:30000}") long waitTimeoutMillis) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitTimeout = Duration.ofMillis(waitTimeoutMillis);
+        this.recentResponses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public ResponseEntity<?> execute(String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters.");
+        }
+        String fingerprint = fingerprint(request);
+
+        // Step 1: Recently completed keys are answered from memory
+        StoredResponse cached = cachedResponse(key);
+        if (cached != null) {
+            return replay(cached, fingerprint);
+        }
+
+        // Step 2: A duplicate already running on this node; wait for its result
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, pending);
+        if (running != null) {
+            return replay(await(running), fingerprint);
+        }
+
+        // Step 3: This thread owns the key on this node
+        try {
+            Outcome outcome = executeOnce(key, fingerprint, action);
+            pending.complete(outcome.response());
+            return outcome.replayed()
+                    ? replay(outcome.response(), fingerprint)
+                    : toResponseEntity(outcome.response(), false);
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private Outcome executeOnce(String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            StoredResponse cached = cachedResponse(key);
+            if (cached != null) {
+                return new Outcome(cached, true);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            if (idempotencyRecordRepository.claim(key, fingerprint, now, now.plus(waitTimeout)) == 1) {
+                return new Outcome(run(key, fingerprint, action), false);
+            }
+
+            // Claimed elsewhere: replay once it has finished, or keep waiting
+            Optional<IdempotencyRecord> record = idempotencyRecordRepository.findById(key);
+            if (record.isPresent() && record.get().getStatusCode() != null) {
+                StoredResponse stored = new StoredResponse(record.get().getStatusCode(), record.get().getContentType(),
+                        record.get().getResponseBody(), record.get().getRequestFingerprint(), record.get().getExpiresAt());
+                recentResponses.put(key, stored);
+                return new Outcome(stored, true);
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("A request with this Idempotency-Key is still in progress.");
+            }
+            sleep();
+        }
+    }
+
+    private StoredResponse run(String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.release(key);
+            throw e;
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        StoredResponse response = toStoredResponse(result, fingerprint, expiresAt);
+        if (result.getStatusCode().is2xxSuccessful()) {
+            idempotencyRecordRepository.complete(key, response.statusCode(), response.contentType(), response.body(), expiresAt);
+            recentResponses.put(key, response);
+        } else {
+            // Failed attempts are not remembered, so the client may retry with the same key
+            idempotencyRecordRepository.release(key);
+        }
+        return response;
+    }
+
+    @Scheduled(cron = "${idempotency.purge-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private StoredResponse cachedResponse(String key) {
+        StoredResponse cached = recentResponses.get(key);
+        if (cached != null && cached.expiresAt().isBefore(LocalDateTime.now())) {
+            recentResponses.remove(key);
+            return null;
+        }
+        return cached;
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request.", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("A request with this Idempotency-Key is still in progress.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse response, String fingerprint) {
+        if (!response.fingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request.");
+        }
+        return toResponseEntity(response, true);
+    }
+
+    private ResponseEntity<?> toResponseEntity(StoredResponse response, boolean replayed) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.statusCode());
+        if (replayed) {
+            builder.header(REPLAYED_HEADER, "true");
+        }
+        if (response.contentType() != null) {
+            builder.contentType(MediaType.parseMediaType(response.contentType()));
+        }
+        return builder.body(response.body());
+    }
+
+    private StoredResponse toStoredResponse(ResponseEntity<?> result, String fingerprint, LocalDateTime expiresAt) {
+        Object body = result.getBody();
+        String contentType;
+        String serialized;
+        if (body == null) {
+            contentType = null;
+            serialized = null;
+        } else if (body instanceof String text) {
+            contentType = MediaType.TEXT_PLAIN_VALUE;
+            serialized = text;
+        } else {
+            contentType = MediaType.APPLICATION_JSON_VALUE;
+            serialized = toJson(body);
+        }
+        return new StoredResponse(result.getStatusCode().value(), contentType, serialized, fingerprint, expiresAt);
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize response for idempotent replay: " + e.getMessage(), e);
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request.", e);
+        }
+    }
+}
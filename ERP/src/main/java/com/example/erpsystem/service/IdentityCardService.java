@@ -2,40 +2,41 @@ package com.example.erpsystem.service;
 
 import com.example.erpsystem.model.User;
 import com.example.erpsystem.repository.UserRepository;
-import com.itextpdf.barcodes.BarcodeQRCode;
+import com.example.erpsystem.service.PdfRenderingEngine.DocumentType;
+import com.example.erpsystem.service.PdfRenderingEngine.Fragment;
+import com.example.erpsystem.service.PdfRenderingEngine.RenderContext;
+import com.example.erpsystem.service.UserCache.UserChanged;
 import com.itextpdf.kernel.colors.DeviceRgb;
-import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.*;
 import com.itextpdf.layout.properties.*;
 import com.itextpdf.layout.borders.SolidBorder;
-import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
-import com.itextpdf.io.font.constants.StandardFonts;
 import com.itextpdf.io.image.ImageData;
 import com.itextpdf.io.image.ImageDataFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @Service
 public class IdentityCardService {
 
+    private static final Logger log = LoggerFactory.getLogger(IdentityCardService.class);
+
     private final UserRepository userRepository;
-    private static final DeviceRgb RED_COLOR = new DeviceRgb(255, 0, 0);
+    private final PdfRenderingEngine pdfRenderingEngine;
     private static final DeviceRgb BLACK_COLOR = new DeviceRgb(0, 0, 0);
-    private static final DeviceRgb BLUE_COLOR = new DeviceRgb(0, 0, 255);
     private static final DeviceRgb CALM_GREEN = new DeviceRgb(220, 238, 220);
-    private static final float CARD_WIDTH = 240f;
-    private static final float CARD_HEIGHT = 336f;
     private static final float PHOTO_WIDTH = 80f;
     private static final float PHOTO_HEIGHT = 100f;
 
@@ -45,8 +46,36 @@ public class IdentityCardService {
     @Value("${identity.card.storage.path}")
     private String identityCardPath;
 
-    public IdentityCardService(UserRepository userRepository) {
+    public IdentityCardService(UserRepository userRepository, PdfRenderingEngine pdfRenderingEngine) {
         this.userRepository = userRepository;
+        this.pdfRenderingEngine = pdfRenderingEngine;
+    }
+
+    // Stored card for download; rendered when it does not exist yet or was dropped by a profile change
+    public Path getIdentityCardFile(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NoSuchElementException("User not found");
+        }
+        Path cardFile = identityCardFile(userId);
+        if (!Files.isRegularFile(cardFile)) {
+            generateIdentityCard(userId);
+        }
+        return cardFile;
+    }
+
+    // Name, email and photo are printed on the card, so the next download renders it again
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChanged event) {
+        Path cardFile = identityCardFile(event.userId());
+        try {
+            Files.deleteIfExists(cardFile);
+        } catch (IOException e) {
+            log.warn("Could not delete stale identity card {}: {}", cardFile, e.getMessage());
+        }
+    }
+
+    private Path identityCardFile(Long userId) {
+        return Paths.get(identityCardPath, "IdentityCard_User_" + userId + ".pdf");
     }
 
     public String generateIdentityCard(Long userId) {
@@ -64,35 +93,27 @@ public class IdentityCardService {
         }
 
         // Create file path using the specified directory
-        String fileName = "IdentityCard_User_" + user.getId() + ".pdf";
-        String filePath = Paths.get(identityCardPath, fileName).toString();
-
-        try (PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-             PdfDocument pdfDoc = new PdfDocument(writer);
-             Document document = new Document(pdfDoc, new PageSize(CARD_WIDTH, CARD_HEIGHT))) {
+        String filePath = identityCardFile(user.getId()).toString();
 
-            PdfFont boldFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
-            PdfFont normalFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        pdfRenderingEngine.render(DocumentType.IDENTITY_CARD, filePath, pdf -> {
+            Document document = pdf.document();
 
             // Front side of the card
-            Div frontSide = createCardSide(user, boldFont, normalFont, true, pdfDoc);
+            Div frontSide = createCardSide(user, pdf, true);
             document.add(frontSide);
 
             // Add new page for back side
             document.add(new AreaBreak(AreaBreakType.NEXT_PAGE));
 
             // Back side of the card
-            Div backSide = createCardSide(user, boldFont, normalFont, false, pdfDoc);
+            Div backSide = createCardSide(user, pdf, false);
             document.add(backSide);
-
-        } catch (IOException e) {
-            throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
-        }
+        });
 
         return "Identity card generated successfully at: " + filePath;
     }
 
-    private Div createCardSide(User user, PdfFont boldFont, PdfFont normalFont, boolean isFrontSide, PdfDocument pdfDoc) throws IOException {
+    private Div createCardSide(User user, RenderContext pdf, boolean isFrontSide) throws IOException {
         Div cardSide = new Div()
                 .setMargins(5, 5, 5, 5)
                 .setBorder(new SolidBorder(BLACK_COLOR, 1))
@@ -100,34 +121,8 @@ public class IdentityCardService {
                 .setBackgroundColor(CALM_GREEN);
 
         if (isFrontSide) {
-            // 1. University name
-            Paragraph universityName = new Paragraph()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setFontSize(10)
-                    .setMarginBottom(5);
-            
-            universityName
-                    .add(new Text("S").setFont(boldFont).setFontColor(RED_COLOR))
-                    .add(new Text("iksha '").setFont(boldFont).setFontColor(BLACK_COLOR))
-                    .add(new Text("O").setFont(boldFont).setFontColor(RED_COLOR))
-                    .add(new Text("' ").setFont(boldFont).setFontColor(BLACK_COLOR))
-                    .add(new Text("A").setFont(boldFont).setFontColor(RED_COLOR))
-                    .add(new Text("nusandhan").setFont(boldFont).setFontColor(BLACK_COLOR));
-
-            cardSide.add(universityName);
-
-            // 2. Identity Card title
-            Div titleDiv = new Div()
-                    .setBorder(new SolidBorder(BLUE_COLOR, 1))
-                    .setPadding(3)
-                    .setMarginBottom(15);
-            
-            titleDiv.add(new Paragraph("IDENTITY CARD")
-                    .setFont(boldFont)
-                    .setFontSize(11)
-                    .setTextAlignment(TextAlignment.CENTER));
-
-            cardSide.add(titleDiv);
+            // 1-2. University name and Identity Card title (prebuilt)
+            cardSide.add(pdf.fragment(Fragment.HEADER));
 
             // 3. Photo without border
             if (user.getImageUrl() != null && !user.getImageUrl().isEmpty()) {
@@ -152,7 +147,7 @@ public class IdentityCardService {
 
             // 4. Name below photo
             Paragraph nameParagraph = new Paragraph()
-                    .add(new Text(user.getUsername().toUpperCase()).setFont(boldFont))
+                    .add(new Text(user.getUsername().toUpperCase()).setFont(pdf.boldFont()))
                     .setFontSize(10)
                     .setTextAlignment(TextAlignment.CENTER)
                     .setMarginBottom(10);
@@ -161,13 +156,9 @@ public class IdentityCardService {
 
         } else {
             // Back side content
-            BarcodeQRCode qrCode = new BarcodeQRCode(
+            Image qrImage = pdf.qrCode(
                     String.format("ID: %s\nName: %s\nEmail: %s",
-                            user.getId(), user.getUsername(), user.getEmail()));
-            
-            Image qrImage = new Image(qrCode.createFormXObject(pdfDoc))
-                    .setWidth(100)
-                    .setHeight(100)
+                            user.getId(), user.getUsername(), user.getEmail()), 100)
                     .setHorizontalAlignment(HorizontalAlignment.CENTER);
 
             Div qrContainer = new Div()
@@ -175,19 +166,10 @@ public class IdentityCardService {
                     .setPadding(5)
                     .setMarginBottom(30);
 
-            Div signatureDiv = new Div();
-            signatureDiv.add(new Paragraph("_________________")
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setFontSize(10));
-            signatureDiv.add(new Paragraph("Signature")
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setFontSize(8)
-                    .setFont(normalFont));
-
             cardSide.add(qrContainer);
-            cardSide.add(signatureDiv);
+            cardSide.add(pdf.fragment(Fragment.SIGNATURE));
         }
 
         return cardSide;
     }
-}
\ No newline at end of file
+}
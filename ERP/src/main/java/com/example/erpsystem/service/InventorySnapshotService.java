@@ -0,0 +1,241 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.InventorySnapshot;
+import com.example.erpsystem.model.InventorySnapshotLine;
+import com.example.erpsystem.model.Product;
+import com.example.erpsystem.model.ProductValuation;
+import com.example.erpsystem.repository.InventorySnapshotLineRepository;
+import com.example.erpsystem.repository.InventorySnapshotRepository;
+import com.example.erpsystem.repository.ProductRepository;
+import com.example.erpsystem.repository.ProductValuationRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+@Service
+public class InventorySnapshotService {
+
+    private static final int LINE_BATCH_SIZE = 1_000;
+
+    private static final String MOVEMENT_DELTAS_SQL =
+            "SELECT product_id, "
+            + "SUM(CASE WHEN type = 'IN' THEN quantity ELSE -quantity END) AS quantity_delta, "
+            + "SUM(CASE WHEN type = 'IN' THEN COALESCE(cost_value, 0) / 100.0 ELSE -COALESCE(cost_value, 0) / 100.0 END) AS value_delta "
+            + "FROM stock_transaction WHERE timestamp > ? AND timestamp <= ? GROUP BY product_id";
+
+    // Initial stock is not a ledger movement, so products created after the cutoff are left out
+    private static final String EXISTED_AT_SQL = "WHERE p.created_at IS NULL OR p.created_at <= ? ";
+
+    // Current stock/value minus every movement after the cutoff
+    private static final String STOCK_BEFORE_SQL =
+            "SELECT p.id, p.stock - COALESCE(d.quantity_delta, 0) AS stock, "
+            + "COALESCE(v.total_value, 0) - COALESCE(d.value_delta, 0) AS total_value "
+            + "FROM product p "
+            + "LEFT JOIN product_valuation v ON v.product_id = p.id "
+            + "LEFT JOIN (" + MOVEMENT_DELTAS_SQL + ") d ON d.product_id = p.id "
+            + EXISTED_AT_SQL
+            + "ORDER BY p.id";
+
+    // Movements after the as-of date of products created after the snapshot, which have no line
+    private static final String NEW_PRODUCT_DELTAS_SQL =
+            "SELECT t.product_id, "
+            + "SUM(CASE WHEN t.type = 'IN' THEN t.quantity ELSE -t.quantity END) AS quantity_delta, "
+            + "SUM(CASE WHEN t.type = 'IN' THEN COALESCE(t.cost_value, 0) / 100.0 ELSE -COALESCE(t.cost_value, 0) / 100.0 END) AS value_delta "
+            + "FROM stock_transaction t JOIN product np ON np.id = t.product_id AND np.created_at > ? "
+            + "WHERE t.timestamp > ? AND t.timestamp <= ? GROUP BY t.product_id";
+
+    // A snapshot's lines plus the movements between the snapshot and the as-of date; products
+    // created after the snapshot are walked back from their current stock instead
+    private static final String STOCK_FROM_SNAPSHOT_SQL =
+            "SELECT p.id, "
+            + "CASE WHEN p.created_at > ? THEN p.stock - COALESCE(a.quantity_delta, 0) "
+            + "ELSE COALESCE(l.stock, 0) + COALESCE(d.quantity_delta, 0) END AS stock, "
+            + "CASE WHEN p.created_at > ? THEN COALESCE(v.total_value, 0) - COALESCE(a.value_delta, 0) "
+            + "ELSE COALESCE(l.total_value, 0) + COALESCE(d.value_delta, 0) END AS total_value "
+            + "FROM product p "
+            + "LEFT JOIN inventory_snapshot_line l ON l.product_id = p.id AND l.snapshot_id = ? "
+            + "LEFT JOIN product_valuation v ON v.product_id = p.id "
+            + "LEFT JOIN (" + MOVEMENT_DELTAS_SQL + ") d ON d.product_id = p.id "
+            + "LEFT JOIN (" + NEW_PRODUCT_DELTAS_SQL + ") a ON a.product_id = p.id "
+            + EXISTED_AT_SQL
+            + "ORDER BY p.id";
+
+    private static final String PRODUCT_DELTA_SQL =
+            "SELECT COALESCE(SUM(CASE WHEN type = 'IN' THEN quantity ELSE -quantity END), 0), "
+            + "COALESCE(SUM(CASE WHEN type = 'IN' THEN COALESCE(cost_value, 0) / 100.0 ELSE -COALESCE(cost_value, 0) / 100.0 END), 0) "
+            + "FROM stock_transaction WHERE product_id = ? AND timestamp > ? AND timestamp <= ?";
+
+    private static final Timestamp END_OF_TIME = Timestamp.valueOf(LocalDateTime.of(9999, 12, 31, 23, 59, 59));
+
+    @Value("${inventory.snapshot.cutoff-lag-seconds:60}")
+    private long cutoffLagSeconds;
+
+    private final InventorySnapshotRepository inventorySnapshotRepository;
+    private final InventorySnapshotLineRepository inventorySnapshotLineRepository;
+    private final ProductRepository productRepository;
+    private final ProductValuationRepository productValuationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+
+    public InventorySnapshotService(
+            InventorySnapshotRepository inventorySnapshotRepository,
+            InventorySnapshotLineRepository inventorySnapshotLineRepository,
+            ProductRepository productRepository,
+            ProductValuationRepository productValuationRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.inventorySnapshotRepository = inventorySnapshotRepository;
+        this.inventorySnapshotLineRepository = inventorySnapshotLineRepository;
+        this.productRepository = productRepository;
+        this.productValuationRepository = productValuationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // One MVCC snapshot for product stock, valuations and the ledger; plain reads never block writers
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @Scheduled(cron = "${inventory.snapshot.cron:0 0 0 * * *}")
+    public void createScheduledSnapshot() {
+        createSnapshot();
+    }
+
+    public InventorySnapshot createSnapshot() {
+        // Movements are timestamped before they commit, so stay a little behind "now"
+        // to make sure every movement up to the cutoff is already visible
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(cutoffLagSeconds);
+        return snapshotTransaction.execute(status -> writeSnapshot(cutoff));
+    }
+
+    private InventorySnapshot writeSnapshot(LocalDateTime cutoff) {
+        InventorySnapshot snapshot = inventorySnapshotRepository.saveAndFlush(new InventorySnapshot(cutoff));
+        Long snapshotId = snapshot.getId();
+
+        List<Object[]> batch = new ArrayList<>(LINE_BATCH_SIZE);
+        int[] lineCount = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(STOCK_BEFORE_SQL);
+            statement.setFetchSize(LINE_BATCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(cutoff));
+            statement.setTimestamp(2, END_OF_TIME);
+            statement.setTimestamp(3, Timestamp.valueOf(cutoff));
+            return statement;
+        }, resultSet -> {
+            int stock = resultSet.getInt(2);
+            BigDecimal totalValue = resultSet.getBigDecimal(3);
+            if (stock == 0 && totalValue.signum() == 0) {
+                return;
+            }
+            batch.add(new Object[] { snapshotId, resultSet.getLong(1), stock, totalValue });
+            lineCount[0]++;
+            if (batch.size() == LINE_BATCH_SIZE) {
+                insertLines(batch);
+            }
+        });
+        insertLines(batch);
+
+        snapshot.setLineCount(lineCount[0]);
+        return snapshot;
+    }
+
+    private void insertLines(List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO inventory_snapshot_line (snapshot_id, product_id, stock, total_value) VALUES (?, ?, ?, ?)",
+                    batch);
+            batch.clear();
+        }
+    }
+
+    public List<InventorySnapshot> getSnapshots() {
+        return inventorySnapshotRepository.findAll();
+    }
+
+    // Nearest earlier snapshot plus the deltas after it; before the first snapshot, or for a
+    // product created after it, walk back from the current stock instead. Nothing before creation.
+    public Map<String, Object> getProductStockAsOf(Long productId, LocalDateTime asOf) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new NoSuchElementException("Product not found"));
+
+        Optional<InventorySnapshot> snapshot = inventorySnapshotRepository.findFirstByTakenAtLessThanEqualOrderByTakenAtDesc(asOf)
+                .filter(candidate -> !createdAfter(product, candidate.getTakenAt()));
+        long stock;
+        BigDecimal totalValue;
+        if (createdAfter(product, asOf)) {
+            stock = 0;
+            totalValue = BigDecimal.ZERO;
+        } else if (snapshot.isPresent()) {
+            Optional<InventorySnapshotLine> line = inventorySnapshotLineRepository
+                    .findBySnapshotIdAndProductId(snapshot.get().getId(), productId);
+            Object[] delta = productDelta(productId, snapshot.get().getTakenAt(), asOf);
+            stock = line.map(InventorySnapshotLine::getStock).orElse(0) + (Long) delta[0];
+            totalValue = line.map(InventorySnapshotLine::getTotalValue).orElse(BigDecimal.ZERO).add((BigDecimal) delta[1]);
+        } else {
+            BigDecimal currentValue = productValuationRepository.findById(productId)
+                    .map(ProductValuation::getTotalValue)
+                    .orElse(BigDecimal.ZERO);
+            Object[] delta = productDelta(productId, asOf, END_OF_TIME.toLocalDateTime());
+            stock = product.getStock() - (Long) delta[0];
+            totalValue = currentValue.subtract((BigDecimal) delta[1]);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("productId", productId);
+        result.put("asOf", asOf);
+        result.put("stock", stock);
+        result.put("totalValue", totalValue);
+        result.put("snapshotId", snapshot.map(InventorySnapshot::getId).orElse(null));
+        return result;
+    }
+
+    public List<Map<String, Object>> getStockAsOf(LocalDateTime asOf) {
+        Optional<InventorySnapshot> snapshot = inventorySnapshotRepository.findFirstByTakenAtLessThanEqualOrderByTakenAtDesc(asOf);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Timestamp asOfTimestamp = Timestamp.valueOf(asOf);
+        if (snapshot.isPresent()) {
+            Timestamp takenAt = Timestamp.valueOf(snapshot.get().getTakenAt());
+            jdbcTemplate.query(STOCK_FROM_SNAPSHOT_SQL, resultSet -> {
+                rows.add(stockRow(resultSet.getLong(1), resultSet.getLong(2), resultSet.getBigDecimal(3)));
+            }, takenAt, takenAt, snapshot.get().getId(), takenAt, asOfTimestamp,
+                    takenAt, asOfTimestamp, END_OF_TIME, asOfTimestamp);
+        } else {
+            jdbcTemplate.query(STOCK_BEFORE_SQL, resultSet -> {
+                rows.add(stockRow(resultSet.getLong(1), resultSet.getLong(2), resultSet.getBigDecimal(3)));
+            }, asOfTimestamp, END_OF_TIME, asOfTimestamp);
+        }
+        return rows;
+    }
+
+    private static boolean createdAfter(Product product, LocalDateTime time) {
+        return product.getCreatedAt() != null && product.getCreatedAt().isAfter(time);
+    }
+
+    private Object[] productDelta(Long productId, LocalDateTime after, LocalDateTime upTo) {
+        return jdbcTemplate.queryForObject(PRODUCT_DELTA_SQL,
+                (resultSet, rowNum) -> new Object[] { resultSet.getLong(1), resultSet.getBigDecimal(2) },
+                productId, Timestamp.valueOf(after), Timestamp.valueOf(upTo));
+    }
+
+    private Map<String, Object> stockRow(long productId, long stock, BigDecimal totalValue) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("productId", productId);
+        row.put("stock", stock);
+        row.put("totalValue", totalValue);
+        return row;
+    }
+}
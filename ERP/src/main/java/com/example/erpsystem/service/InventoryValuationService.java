@@ -0,0 +1,318 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.dto.StockMovementView;
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.Product;
+import com.example.erpsystem.model.ProductValuation;
+import com.example.erpsystem.model.ProductValuation.ValuationMethod;
+import com.example.erpsystem.model.StockCostLayer;
+import com.example.erpsystem.model.StockTransaction;
+import com.example.erpsystem.repository.ProductRepository;
+import com.example.erpsystem.repository.ProductValuationRepository;
+import com.example.erpsystem.repository.StockCostLayerRepository;
+import com.example.erpsystem.repository.StockTransactionRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+@Service
+public class InventoryValuationService {
+
+    // Receipt date given to stock that predates the first recorded movement
+    private static final LocalDateTime OPENING_BALANCE_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final int COST_UPDATE_BATCH_SIZE = 1_000;
+
+    @Value("${inventory.valuation.method:FIFO}")
+    private ValuationMethod defaultMethod;
+
+    @Value("${inventory.valuation.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    private final ProductValuationRepository productValuationRepository;
+    private final StockCostLayerRepository stockCostLayerRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryValuationService(
+            ProductValuationRepository productValuationRepository,
+            StockCostLayerRepository stockCostLayerRepository,
+            StockTransactionRepository stockTransactionRepository,
+            ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            JdbcTemplate jdbcTemplate) {
+        this.productValuationRepository = productValuationRepository;
+        this.stockCostLayerRepository = stockCostLayerRepository;
+        this.stockTransactionRepository = stockTransactionRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Applies logged movements to the cost layers and running values.
+    // Returns the value of each movement in order: receipt value for IN, cost of goods for OUT.
+    @Transactional
+    public List<BigDecimal> recordMovements(List<StockTransaction> movements) {
+        List<BigDecimal> values = new ArrayList<>(movements.size());
+        if (movements.isEmpty()) {
+            return values;
+        }
+
+        Set<Long> productIds = new TreeSet<>();
+        for (StockTransaction movement : movements) {
+            productIds.add(movement.getProduct().getId());
+        }
+        Map<Long, ProductValuation> valuations = lockValuations(productIds);
+        Map<Long, Deque<StockCostLayer>> layers = loadLayers(productIds);
+
+        List<StockCostLayer> exhausted = new ArrayList<>();
+        for (StockTransaction movement : movements) {
+            Long productId = movement.getProduct().getId();
+            BigDecimal value = applyMovement(
+                    valuations.get(productId),
+                    layers.get(productId),
+                    movement.getType(),
+                    movement.getQuantity(),
+                    movement.getPricePerUnit().toBigDecimal(),
+                    movement.getId(),
+                    movement.getTimestamp(),
+                    exhausted);
+            movement.setCostValue(Money.of(value, RoundingMode.HALF_UP));
+            values.add(value);
+        }
+
+        persistLayers(layers, exhausted);
+        return values;
+    }
+
+    // Stock changed outside the ledger (initial stock on create, manual edits)
+    @Transactional
+    public void recordAdjustment(Long productId, int quantityDelta, BigDecimal pricePerUnit) {
+        if (quantityDelta == 0) {
+            return;
+        }
+        Set<Long> productIds = Set.of(productId);
+        ProductValuation valuation = lockValuations(productIds).get(productId);
+        Map<Long, Deque<StockCostLayer>> layers = loadLayers(productIds);
+
+        List<StockCostLayer> exhausted = new ArrayList<>();
+        applyMovement(valuation, layers.get(productId), quantityDelta > 0 ? "IN" : "OUT",
+                Math.abs(quantityDelta), pricePerUnit, null, LocalDateTime.now(), exhausted);
+        persistLayers(layers, exhausted);
+    }
+
+    @Transactional
+    public void removeProduct(Long productId) {
+        stockCostLayerRepository.deleteByProductId(productId);
+        productValuationRepository.deleteById(productId);
+    }
+
+    public ProductValuation getProductValuation(Long productId) {
+        return productValuationRepository.findById(productId).orElseGet(() -> {
+            ProductValuation empty = new ProductValuation();
+            empty.setProductId(productId);
+            empty.setMethod(defaultMethod);
+            empty.setQuantity(0);
+            empty.setTotalValue(BigDecimal.ZERO);
+            return empty;
+        });
+    }
+
+    public BigDecimal getTotalValue() {
+        return productValuationRepository.sumTotalValue();
+    }
+
+    public ValuationMethod getDefaultMethod() {
+        return defaultMethod;
+    }
+
+    // Replays the stock ledger into fresh cost layers, one product per task
+    public Map<String, Object> rebuildFromLedger(ValuationMethod method) {
+        ValuationMethod rebuildMethod = method == null ? defaultMethod : method;
+        List<Long> productIds = productRepository.findAllIds();
+        long start = System.currentTimeMillis();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, rebuildThreads));
+        BigDecimal totalValue = BigDecimal.ZERO;
+        try {
+            List<Future<BigDecimal>> results = new ArrayList<>(productIds.size());
+            for (Long productId : productIds) {
+                results.add(executor.submit(() ->
+                        transactionTemplate.execute(status -> rebuildProduct(productId, rebuildMethod))));
+            }
+            for (Future<BigDecimal> result : results) {
+                totalValue = totalValue.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Valuation rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Valuation rebuild failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("method", rebuildMethod);
+        summary.put("products", productIds.size());
+        summary.put("totalValue", totalValue);
+        summary.put("elapsedMillis", System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    private BigDecimal rebuildProduct(Long productId, ValuationMethod method) {
+        // Holding the valuation lock keeps live movements for this product out until we commit
+        ProductValuation valuation = lockValuations(Set.of(productId)).get(productId);
+        Product product = productRepository.findById(productId).orElse(null);
+        if (product == null) {
+            return BigDecimal.ZERO;
+        }
+
+        stockCostLayerRepository.deleteByProductId(productId);
+        valuation.setMethod(method);
+        valuation.setQuantity(0);
+        valuation.setTotalValue(BigDecimal.ZERO);
+
+        Deque<StockCostLayer> layers = new ArrayDeque<>();
+        List<StockCostLayer> exhausted = new ArrayList<>();
+
+        // Stock on hand before the first recorded movement is valued at the list price
+        long openingQuantity = product.getStock() - stockTransactionRepository.netQuantityByProduct(productId);
+        if (openingQuantity > 0) {
+            applyMovement(valuation, layers, "IN", (int) openingQuantity,
+                    product.getPrice().toBigDecimal(),
+                    null, OPENING_BALANCE_DATE, exhausted);
+        }
+
+        // Re-stamp each movement's cost, since the replay may use a different method
+        List<Object[]> costUpdates = new ArrayList<>();
+        try (Stream<StockMovementView> movements = stockTransactionRepository.streamMovementsByProduct(productId)) {
+            movements.forEach(movement -> {
+                BigDecimal value = applyMovement(valuation, layers, movement.getType(),
+                        movement.getQuantity(), movement.getPricePerUnit().toBigDecimal(), movement.getId(),
+                        movement.getTimestamp(), exhausted);
+                costUpdates.add(new Object[] { Money.of(value, RoundingMode.HALF_UP).minorUnits(), movement.getId() });
+                if (costUpdates.size() == COST_UPDATE_BATCH_SIZE) {
+                    writeCostValues(costUpdates);
+                }
+            });
+        }
+        writeCostValues(costUpdates);
+
+        stockCostLayerRepository.saveAll(layers);
+        valuation.setUpdatedAt(LocalDateTime.now());
+        return valuation.getTotalValue();
+    }
+
+    private void writeCostValues(List<Object[]> costUpdates) {
+        if (!costUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE stock_transaction SET cost_value = ? WHERE id = ?", costUpdates);
+            costUpdates.clear();
+        }
+    }
+
+    private BigDecimal applyMovement(
+            ProductValuation valuation,
+            Deque<StockCostLayer> layers,
+            String type,
+            int quantity,
+            BigDecimal pricePerUnit,
+            Long stockTransactionId,
+            LocalDateTime timestamp,
+            List<StockCostLayer> exhausted) {
+        valuation.setUpdatedAt(LocalDateTime.now());
+
+        if ("IN".equals(type)) {
+            BigDecimal value = pricePerUnit.multiply(BigDecimal.valueOf(quantity));
+            layers.addLast(new StockCostLayer(valuation.getProductId(), stockTransactionId, timestamp, quantity, pricePerUnit));
+            valuation.setQuantity(valuation.getQuantity() + quantity);
+            valuation.setTotalValue(valuation.getTotalValue().add(value));
+            return value;
+        }
+
+        // OUT: FIFO takes the oldest layers first, LIFO the newest
+        boolean fifo = valuation.getMethod() == ValuationMethod.FIFO;
+        BigDecimal cost = BigDecimal.ZERO;
+        int remaining = quantity;
+        while (remaining > 0 && !layers.isEmpty()) {
+            StockCostLayer layer = fifo ? layers.peekFirst() : layers.peekLast();
+            int taken = Math.min(remaining, layer.getRemainingQuantity());
+            cost = cost.add(layer.getPricePerUnit().multiply(BigDecimal.valueOf(taken)));
+            layer.setRemainingQuantity(layer.getRemainingQuantity() - taken);
+            valuation.setQuantity(valuation.getQuantity() - taken);
+            remaining -= taken;
+
+            if (layer.getRemainingQuantity() == 0) {
+                exhausted.add(fifo ? layers.pollFirst() : layers.pollLast());
+            }
+        }
+        // Units without a cost layer (stock older than the layers) carry no value until a rebuild
+        valuation.setTotalValue(valuation.getTotalValue().subtract(cost));
+        return cost;
+    }
+
+    private Map<Long, ProductValuation> lockValuations(Set<Long> productIds) {
+        // Plain JDBC so Hibernate does not flush the caller's pending stock rows
+        // before the engine has stamped their cost values
+        jdbcTemplate.update("INSERT INTO product_valuation (product_id, method, quantity, total_value, updated_at) "
+                + "SELECT ids.id, ?, 0, 0, now() FROM unnest(?::bigint[]) AS ids(id) "
+                + "ON CONFLICT (product_id) DO NOTHING",
+                defaultMethod.name(), productIds.toArray(new Long[0]));
+        Map<Long, ProductValuation> valuations = new HashMap<>();
+        for (ProductValuation valuation : productValuationRepository.findAllForUpdate(productIds)) {
+            valuations.put(valuation.getProductId(), valuation);
+        }
+        return valuations;
+    }
+
+    private Map<Long, Deque<StockCostLayer>> loadLayers(Set<Long> productIds) {
+        Map<Long, Deque<StockCostLayer>> layers = new HashMap<>();
+        for (Long productId : productIds) {
+            layers.put(productId, new ArrayDeque<>());
+        }
+        for (StockCostLayer layer : stockCostLayerRepository.findByProductIdInOrderByProductIdAscReceivedAtAscIdAsc(productIds)) {
+            layers.get(layer.getProductId()).addLast(layer);
+        }
+        return layers;
+    }
+
+    private void persistLayers(Map<Long, Deque<StockCostLayer>> layers, List<StockCostLayer> exhausted) {
+        // Partially consumed layers are managed entities and flush as batched updates
+        List<StockCostLayer> created = new ArrayList<>();
+        for (Deque<StockCostLayer> productLayers : layers.values()) {
+            for (StockCostLayer layer : productLayers) {
+                if (layer.getId() == null) {
+                    created.add(layer);
+                }
+            }
+        }
+        stockCostLayerRepository.saveAll(created);
+
+        // Layers created and used up within the same call were never persisted
+        stockCostLayerRepository.deleteAll(exhausted.stream().filter(layer -> layer.getId() != null).toList());
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.erpsystem.service;
+
+// Reserves a contiguous range of invoice numbers for one financial year
+public interface InvoiceNumberBlockSource {
+
+    // Returns the first number of a freshly reserved block of blockSize numbers
+    long reserveBlock(String financialYear, int blockSize);
+}
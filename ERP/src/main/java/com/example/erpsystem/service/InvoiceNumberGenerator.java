@@ -0,0 +1,8 @@
+package com.example.erpsystem.service;
+
+import java.time.LocalDate;
+
+public interface InvoiceNumberGenerator {
+
+    String nextInvoiceNumber(LocalDate issueDate);
+}
@@ -0,0 +1,169 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.Invoice;
+import com.example.erpsystem.model.Invoice.PdfStatus;
+import com.example.erpsystem.repository.InvoiceRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Renders invoice PDFs on a small worker pool once the sale has committed,
+// so checkout never holds a connection or row locks while iText lays out the page
+@Service
+public class InvoicePdfRenderQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoicePdfRenderQueue.class);
+
+    public record RenderRequest(Long invoiceId) {}
+
+    @Value("${invoice.pdf.render-threads:2}")
+    private int renderThreads;
+
+    @Value("${invoice.pdf.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${invoice.pdf.render-lease-seconds:300}")
+    private long renderLeaseSeconds;
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceService invoiceService;
+    private final MeterRegistry meterRegistry;
+    // Invoices queued or rendering on this node, so the sweep never queues one twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor executor;
+    private Timer waitTimer;
+    private Timer renderTimer;
+    private Counter failedCounter;
+    private Counter rejectedCounter;
+
+    public InvoicePdfRenderQueue(InvoiceRepository invoiceRepository,
+            InvoiceService invoiceService,
+            MeterRegistry meterRegistry) {
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceService = invoiceService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(renderThreads, renderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "invoice-pdf-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("invoice.pdf.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Invoices waiting for a PDF render worker")
+                .register(meterRegistry);
+        Gauge.builder("invoice.pdf.workers.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        waitTimer = Timer.builder("invoice.pdf.queue.wait")
+                .description("Time from enqueue until a worker picks the invoice up")
+                .register(meterRegistry);
+        renderTimer = Timer.builder("invoice.pdf.render")
+                .description("Time spent laying out and writing one invoice PDF")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("invoice.pdf.failed").register(meterRegistry);
+        rejectedCounter = Counter.builder("invoice.pdf.rejected")
+                .description("Render requests left for the sweep because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        // Anything still queued stays PENDING and is picked up by the sweep on the next start
+        executor.shutdownNow();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRenderRequested(RenderRequest request) {
+        submit(request.invoiceId());
+    }
+
+    // Marks the invoice PENDING again and queues it, e.g. after a failed render
+    public void requestRender(Long invoiceId) {
+        invoiceRepository.updatePdfStatus(invoiceId, PdfStatus.PENDING, null);
+        submit(invoiceId);
+    }
+
+    public boolean submit(Long invoiceId) {
+        if (!inFlight.add(invoiceId)) {
+            return true;
+        }
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> render(invoiceId, enqueuedAt));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Queue is full; the invoice stays PENDING until the sweep finds room for it
+            inFlight.remove(invoiceId);
+            rejectedCounter.increment();
+            return false;
+        }
+    }
+
+    private void render(Long invoiceId, long enqueuedAt) {
+        waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+        try {
+            // Another node may have queued the same invoice; whoever flips the row renders it
+            if (invoiceRepository.claimPdfRender(invoiceId, renderLeaseSeconds) == 0) {
+                return;
+            }
+            Optional<Invoice> invoice = invoiceRepository.findById(invoiceId);
+            if (invoice.isEmpty()) {
+                return;
+            }
+            String filePath = renderTimer.recordCallable(() -> invoiceService.generateInvoicePdf(invoice.get()));
+            invoiceRepository.updatePdfStatus(invoiceId, PdfStatus.READY, filePath);
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("Rendering PDF for invoice {} failed", invoiceId, e);
+            invoiceRepository.updatePdfStatus(invoiceId, PdfStatus.FAILED, null);
+        } finally {
+            inFlight.remove(invoiceId);
+        }
+    }
+
+    // Picks up invoices whose render was rejected, or left RENDERING past the lease by a crashed node
+    @Scheduled(fixedDelayString = "${invoice.pdf.sweep-interval-ms:30000}")
+    public void sweepPending() {
+        int room = queueCapacity - executor.getQueue().size();
+        if (room <= 0) {
+            return;
+        }
+        List<Long> invoiceIds = invoiceRepository.findRenderableIds(renderLeaseSeconds, PageRequest.of(0, room));
+        for (Long invoiceId : invoiceIds) {
+            if (!inFlight.contains(invoiceId) && !submit(invoiceId)) {
+                break;
+            }
+        }
+    }
+}
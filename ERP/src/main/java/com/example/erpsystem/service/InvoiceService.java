@@ -1,40 +1,36 @@
 package com.example.erpsystem.service;
 
 import com.example.erpsystem.model.Invoice;
+import com.example.erpsystem.model.Money;
 import com.example.erpsystem.model.Product;
 import com.example.erpsystem.model.StockTransaction;
 import com.example.erpsystem.repository.InvoiceRepository;
+import com.example.erpsystem.repository.ProductRepository;
 import com.example.erpsystem.repository.StockTransactionRepository;
-import com.itextpdf.barcodes.BarcodeQRCode;
-import com.itextpdf.io.font.constants.StandardFonts;
-import com.itextpdf.kernel.colors.ColorConstants;
-import com.itextpdf.kernel.colors.DeviceRgb;
-import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
-import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
+import com.example.erpsystem.service.PdfRenderingEngine.DocumentType;
+import com.example.erpsystem.service.PdfRenderingEngine.Fragment;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.borders.Border;
-import com.itextpdf.layout.borders.SolidBorder;
 import com.itextpdf.layout.element.Cell;
-import com.itextpdf.layout.element.Image;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.HorizontalAlignment;
 import com.itextpdf.layout.properties.TextAlignment;
-import java.io.FileOutputStream;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class InvoiceService {
@@ -47,14 +43,32 @@ public class InvoiceService {
     private final InvoiceRepository invoiceRepository;
     private final StockTransactionRepository stockTransactionRepository;
     private final TransactionService transactionService;
+    private final InventoryValuationService inventoryValuationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductRepository productRepository;
+    private final InvoiceNumberGenerator invoiceNumberGenerator;
+    private final PdfRenderingEngine pdfRenderingEngine;
+    private final GeneralLedgerService generalLedgerService;
     public InvoiceService(InvoiceRepository invoiceRepository,
             StockTransactionRepository stockTransactionRepository,
             TransactionService transactionService,
-            ProductService productService) throws IOException {
+            ProductService productService,
+            InventoryValuationService inventoryValuationService,
+            ApplicationEventPublisher eventPublisher,
+            ProductRepository productRepository,
+            InvoiceNumberGenerator invoiceNumberGenerator,
+            PdfRenderingEngine pdfRenderingEngine,
+            GeneralLedgerService generalLedgerService) throws IOException {
     		this.invoiceRepository = invoiceRepository;
     		this.stockTransactionRepository = stockTransactionRepository;
     		this.transactionService = transactionService;
     		 this.productService = productService;
+    		this.inventoryValuationService = inventoryValuationService;
+    		this.eventPublisher = eventPublisher;
+    		this.productRepository = productRepository;
+    		this.invoiceNumberGenerator = invoiceNumberGenerator;
+    		this.pdfRenderingEngine = pdfRenderingEngine;
+    		this.generalLedgerService = generalLedgerService;
 }
 
     @Transactional
@@ -63,17 +77,6 @@ public class InvoiceService {
             List<StockTransaction> stockTransactions,
             LocalDateTime dateOfSale) {
     	
-    	for (StockTransaction stockTransaction : stockTransactions) {
-            Product product = stockTransaction.getProduct();
-            if (product.getStock() < stockTransaction.getQuantity()) {
-                throw new IllegalStateException(
-                    "Insufficient stock for product: " + product.getName() +
-                    ". Available: " + product.getStock() +
-                    ", Requested: " + stockTransaction.getQuantity()
-                );
-            }
-        }
-    	
     	//debugging, to be removed later
 //    	System.out.println("Generating invoice for customer: " + customerName);
 //        System.out.println("Number of transactions: " + stockTransactions.size());
@@ -84,49 +87,69 @@ public class InvoiceService {
 //        
         
         
-        // Calculate total amount
-        BigDecimal totalAmount = stockTransactions.stream()
-                .map(tx -> tx.getPricePerUnit().multiply(BigDecimal.valueOf(tx.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Step 1: Take the stock for every line in one guarded, set-based update
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (StockTransaction stockTransaction : stockTransactions) {
+            deltas.merge(stockTransaction.getProduct().getId(), -stockTransaction.getQuantity(), Integer::sum);
+        }
+        productService.updateProductStocks(deltas);
+
+        // Step 2: Resolve the products with a single query (after the update, so stock is current)
+        Map<Long, Product> products = productRepository.findAllById(deltas.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Calculate total amount in cents
+        long totalMinorUnits = 0;
+        for (StockTransaction stockTransaction : stockTransactions) {
+            totalMinorUnits = Math.addExact(totalMinorUnits,
+                    Math.multiplyExact(stockTransaction.getPricePerUnit().minorUnits(), stockTransaction.getQuantity()));
+        }
+        Money totalAmount = Money.ofMinor(totalMinorUnits);
 
         // Create and save invoice
         Invoice invoice = new Invoice();
         invoice.setCustomerName(customerName);
         invoice.setTotalAmount(totalAmount);
-        invoice.setInvoiceNumber(generateInvoiceNumber());
+        invoice.setInvoiceNumber(invoiceNumberGenerator.nextInvoiceNumber(invoice.getIssuedDate().toLocalDate()));
+        invoice.setPdfStatus(Invoice.PdfStatus.PENDING);
         
         invoice = invoiceRepository.save(invoice);
 
-        // Process stock transactions
+        // Step 3: Insert the lines as JDBC batches
+        LocalDateTime now = LocalDateTime.now();
         for (StockTransaction stockTransaction : stockTransactions) {
-        	
-        	 // Update product stock
-        	productService.updateProductStock(
-                    stockTransaction.getProduct().getId(),
-                    stockTransaction.getQuantity(),
-                    "OUT"
-                );
-        	
-        	//save stock transaction
+            stockTransaction.setProduct(products.get(stockTransaction.getProduct().getId()));
             stockTransaction.setType("OUT");
             stockTransaction.setInvoice(invoice);
-            stockTransaction.setTimestamp(LocalDateTime.now());
-            stockTransactionRepository.save(stockTransaction);
+            stockTransaction.setTimestamp(now);
         }
+        stockTransactionRepository.saveAll(stockTransactions);
+
+        // Consume cost layers for the sold quantities
+        inventoryValuationService.recordMovements(stockTransactions);
 
         // Record financial transaction
         String description = "Income from sale, Invoice: " + invoice.getInvoiceNumber();
         transactionService.recordTransaction(
             description,
-            totalAmount.doubleValue(),
+            totalAmount,
             "INCOME",
             invoice
         );
+
+        // Revenue and cost of goods sold go to the general ledger once this transaction commits
+        generalLedgerService.postInvoice(invoice, stockTransactions);
         
-        generateInvoicePdf(invoice);
+        // The PDF is rendered by InvoicePdfRenderQueue once this transaction commits
+        eventPublisher.publishEvent(new InvoicePdfRenderQueue.RenderRequest(invoice.getId()));
 
         return invoice;
     }
+
+    public Invoice getInvoice(Long invoiceId) {
+        return invoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new NoSuchElementException("Invoice not found"));
+    }
     
     
 
@@ -153,95 +176,57 @@ public class InvoiceService {
 //            .reduce(BigDecimal.ZERO, BigDecimal::add);
 //    }
 
-    private String generateInvoiceNumber() {
-        String uuid = UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
-        return "INV-" + uuid;
-    }
-
 	public String generateInvoicePdf(Invoice invoice) {
-	    String filePath = invoiceStoragePath + "Invoice_" + invoice.getInvoiceNumber() + ".pdf";
-	    //debugging purpose
-	    System.out.println("Starting PDF generation for invoice: " + invoice.getInvoiceNumber());
-	    
-	    try (FileOutputStream fos = new FileOutputStream(filePath);
-	            PdfWriter writer = new PdfWriter(fos);
-	            PdfDocument pdfDoc = new PdfDocument(writer);
-	            Document document = new Document(pdfDoc, PageSize.A4)) {
-	        document.setMargins(40, 40, 40, 40);
-	
-	        PdfFont regularFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-	        PdfFont boldFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
-	
-	        // Header
+	    // Invoice numbers contain '/' (INV/2026-27/000123), which cannot appear in a file name
+	    String filePath = invoiceStoragePath + "Invoice_" + invoice.getInvoiceNumber().replace('/', '_') + ".pdf";
+	    // Get stock transactions for this invoice
+	    List<StockTransaction> transactions = stockTransactionRepository.findByInvoice(invoice);
+
+	    return pdfRenderingEngine.render(DocumentType.INVOICE, filePath, pdf -> {
+	        // Header: prebuilt university block on the left, invoice details on the right
 	        Table header = new Table(2).useAllAvailableWidth();
-	        
-	        // Left side - University details
-	        Cell universityCell = new Cell().setBorder(Border.NO_BORDER);
-	        universityCell.add(new Paragraph("SIKSHA 'O' ANUSANDHAN").setFont(boldFont).setFontSize(20));
-	        universityCell.add(new Paragraph("University Address Line 1").setFont(regularFont).setFontSize(10));
-	        universityCell.add(new Paragraph("City, State, PIN").setFont(regularFont).setFontSize(10));
-	        universityCell.add(new Paragraph("Phone: +91-XXXXXXXXXX").setFont(regularFont).setFontSize(10));
-	        header.addCell(universityCell);
-	
-	        // Right side - Invoice details
+	        header.addCell(new Cell().setBorder(Border.NO_BORDER).add(pdf.fragment(Fragment.HEADER)));
+
 	        Cell invoiceDetailCell = new Cell().setBorder(Border.NO_BORDER);
 	        invoiceDetailCell.setTextAlignment(TextAlignment.RIGHT);
-	        invoiceDetailCell.add(new Paragraph("INVOICE").setFont(boldFont).setFontSize(24).setMarginBottom(10));
-	        invoiceDetailCell.add(new Paragraph("Invoice No: " + invoice.getInvoiceNumber()).setFont(boldFont).setFontSize(11));
-	        invoiceDetailCell.add(new Paragraph("Date: " + invoice.getIssuedDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))).setFont(regularFont).setFontSize(11));
+	        invoiceDetailCell.add(new Paragraph("INVOICE").setFont(pdf.boldFont()).setFontSize(24).setMarginBottom(10));
+	        invoiceDetailCell.add(new Paragraph("Invoice No: " + invoice.getInvoiceNumber()).setFont(pdf.boldFont()).setFontSize(11));
+	        invoiceDetailCell.add(new Paragraph("Date: " + invoice.getIssuedDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))).setFont(pdf.regularFont()).setFontSize(11));
 	        header.addCell(invoiceDetailCell);
-	
+
 	        // Bill To section
 	        Table billTo = new Table(1).useAllAvailableWidth().setMarginTop(30);
 	        Cell billToCell = new Cell().setBorder(Border.NO_BORDER);
-	        billToCell.add(new Paragraph("Bill To:").setFont(boldFont).setFontSize(11));
-	        billToCell.add(new Paragraph(invoice.getCustomerName()).setFont(regularFont).setFontSize(11));
+	        billToCell.add(new Paragraph("Bill To:").setFont(pdf.boldFont()).setFontSize(11));
+	        billToCell.add(new Paragraph(invoice.getCustomerName()).setFont(pdf.regularFont()).setFontSize(11));
 	        billTo.addCell(billToCell);
-	
+
 	        // Items Table
 	        Table items = new Table(new float[]{3, 1, 2, 2, 2}).useAllAvailableWidth().setMarginTop(20);
-	        
-	        // Table Header
-	        items.addHeaderCell(createTableHeader("Item Description", boldFont));
-	        items.addHeaderCell(createTableHeader("Qty", boldFont));
-	        items.addHeaderCell(createTableHeader("Price/Unit", boldFont));
-	        items.addHeaderCell(createTableHeader("Amount", boldFont));
-	        items.addHeaderCell(createTableHeader("Tax", boldFont));
-	
-	        // Get stock transactions for this invoice
-	        List<StockTransaction> transactions = stockTransactionRepository.findByInvoice(invoice);
-	        
-	        // Add items
-	        BigDecimal subtotal = BigDecimal.ZERO;
+	        items.addHeaderCell(pdf.tableHeaderCell("Item Description"));
+	        items.addHeaderCell(pdf.tableHeaderCell("Qty"));
+	        items.addHeaderCell(pdf.tableHeaderCell("Price/Unit"));
+	        items.addHeaderCell(pdf.tableHeaderCell("Amount"));
+	        items.addHeaderCell(pdf.tableHeaderCell("Tax"));
+
+	        Money subtotal = Money.ZERO;
 	        for (StockTransaction tx : transactions) {
-	            BigDecimal amount = tx.getPricePerUnit().multiply(BigDecimal.valueOf(tx.getQuantity()));
-	            subtotal = subtotal.add(amount);
-	            
-	            items.addCell(createTableCell(tx.getProduct().getName(), regularFont));
-	            items.addCell(createTableCell(tx.getQuantity().toString(), regularFont));
-	            items.addCell(createTableCell("$" + tx.getPricePerUnit().toString(), regularFont));
-	            items.addCell(createTableCell("$" + amount.toString(), regularFont));
-	            items.addCell(createTableCell("N/A", regularFont)); // Add tax calculation if needed
+	            Money amount = tx.getTotalValue();
+	            subtotal = subtotal.plus(amount);
+
+	            items.addCell(pdf.tableCell(tx.getProduct().getName()));
+	            items.addCell(pdf.tableCell(tx.getQuantity().toString()));
+	            items.addCell(pdf.tableCell("$" + tx.getPricePerUnit().toString()));
+	            items.addCell(pdf.tableCell("$" + amount.toString()));
+	            items.addCell(pdf.tableCell("N/A")); // Add tax calculation if needed
 	        }
-	
+
 	        // Totals section
 	        Table totals = new Table(new float[]{4, 1}).useAllAvailableWidth().setMarginTop(10);
-	        addTotalRow(totals, "Subtotal:", "$" + subtotal.toString(), boldFont, regularFont);
-	        addTotalRow(totals, "Tax (0%):", "$0.00", boldFont, regularFont);
-	        addTotalRow(totals, "Total:", "$" + invoice.getTotalAmount().toString(), boldFont, regularFont);
-	
-	        // Terms and Conditions
-	        Paragraph terms = new Paragraph("\nTerms and Conditions:")
-	            .setFont(boldFont)
-	            .setFontSize(11)
-	            .setMarginTop(40);
-	
-	        Paragraph termsContent = new Paragraph(
-	            "1. Payment is due within 30 days\n" +
-	            "2. Please include invoice number on your payment\n" +
-	            "3. Make all checks payable to Siksha 'O' Anusandhan"
-	        ).setFont(regularFont).setFontSize(9);
-	
+	        pdf.addTotalRow(totals, "Subtotal:", "$" + subtotal.toString());
+	        pdf.addTotalRow(totals, "Tax (0%):", "$0.00");
+	        pdf.addTotalRow(totals, "Total:", "$" + invoice.getTotalAmount().toString());
+
 	        // Add QR Code
 	        String qrContent = String.format("INV:%s|Date:%s|Amount:%s|Customer:%s",
 	            invoice.getInvoiceNumber(),
@@ -249,61 +234,14 @@ public class InvoiceService {
 	            invoice.getTotalAmount().toString(),
 	            invoice.getCustomerName()
 	        );
-	        
-	        BarcodeQRCode qrCode = new BarcodeQRCode(qrContent);
-	        Image qrImage = new Image(qrCode.createFormXObject(pdfDoc))
-	            .setWidth(60)
-	            .setHeight(60)
-	            .setHorizontalAlignment(HorizontalAlignment.RIGHT);
-	
-	        // Add all elements to document
+
+	        Document document = pdf.document();
 	        document.add(header);
 	        document.add(billTo);
 	        document.add(items);
 	        document.add(totals);
-	        document.add(terms);
-	        document.add(termsContent);
-	        document.add(qrImage);
-	
-	        return filePath;
-	
-	    } catch (IOException e) {
-	        throw new RuntimeException("Error generating invoice PDF: " + e.getMessage(), e);
-	    } 
+	        document.add(pdf.fragment(Fragment.TERMS));
+	        document.add(pdf.qrCode(qrContent, 60).setHorizontalAlignment(HorizontalAlignment.RIGHT));
+	    });
 	}
-	
-	
-	
-	// Helper methods
-	private Cell createTableHeader(String text,PdfFont boldFont) {
-	    return new Cell()
-	        .setBackgroundColor(new DeviceRgb(242, 242, 242))
-	        .setBorder(new SolidBorder(ColorConstants.BLACK, 1))
-	        .setTextAlignment(TextAlignment.CENTER)
-	        .setPadding(5)
-	        .add(new Paragraph(text).setFont(boldFont).setFontSize(10));
-	}
-	
-	private Cell createTableCell(String text, PdfFont regularFont) {
-	    return new Cell()
-	        .setBorder(new SolidBorder(ColorConstants.BLACK, 1))
-	        .setTextAlignment(TextAlignment.CENTER)
-	        .setPadding(5)
-	        .add(new Paragraph(text).setFont(regularFont).setFontSize(10));
-	}
-	
-	private void addTotalRow(Table table, String label, String value, PdfFont boldFont, PdfFont regularFont) {
-	    table.addCell(new Cell()
-	        .setBorder(Border.NO_BORDER)
-	        .setTextAlignment(TextAlignment.RIGHT)
-	        .add(new Paragraph(label).setFont(boldFont).setFontSize(10)));
-	    
-	    table.addCell(new Cell()
-	        .setBorder(Border.NO_BORDER)
-	        .setTextAlignment(TextAlignment.RIGHT)
-	        .add(new Paragraph(value).setFont(regularFont).setFontSize(10)));
-	}
-    
-    
-    
 }
@@ -0,0 +1,35 @@
+package com.example.erpsystem.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class JdbcInvoiceNumberBlockSource implements InvoiceNumberBlockSource {
+
+    // Creates the year's row on first use, otherwise bumps the high-water mark; one round trip either way
+    private static final String RESERVE_BLOCK_SQL =
+            "INSERT INTO invoice_number_block (financial_year, next_value) VALUES (?, 1 + ?) "
+            + "ON CONFLICT (financial_year) DO UPDATE SET next_value = invoice_number_block.next_value + EXCLUDED.next_value - 1 "
+            + "RETURNING next_value - ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reservationTransaction;
+
+    public JdbcInvoiceNumberBlockSource(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Commits on its own, so the row lock is released at once and a rolled-back sale
+        // never hands the same block out twice (it only leaves a gap)
+        this.reservationTransaction = new TransactionTemplate(transactionManager);
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long reserveBlock(String financialYear, int blockSize) {
+        Long firstValue = reservationTransaction.execute(status ->
+                jdbcTemplate.queryForObject(RESERVE_BLOCK_SQL, Long.class, financialYear, blockSize, blockSize));
+        return firstValue;
+    }
+}
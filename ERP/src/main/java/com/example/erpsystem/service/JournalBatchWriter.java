@@ -0,0 +1,255 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.JournalEntry;
+import com.example.erpsystem.model.JournalLine;
+import com.example.erpsystem.repository.JournalEntryRepository;
+import com.example.erpsystem.service.GeneralLedgerService.Posting;
+import com.example.erpsystem.service.GeneralLedgerService.PostingLine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Single writer thread that drains committed postings and writes up to batch-size
+// journal entries per database transaction: the lines go in as JDBC batches and every
+// touched account is advanced once per batch instead of once per entry.
+@Service
+public class JournalBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalBatchWriter.class);
+
+    private static final String POSTED_SOURCES_SQL =
+            "SELECT e.source_type || ':' || e.source_id FROM journal_entry e "
+            + "JOIN unnest(?::varchar[], ?::bigint[]) AS s(source_type, source_id) "
+            + "ON e.source_type = s.source_type AND e.source_id = s.source_id";
+
+    // Locks the accounts in code order before adding the batch totals, like the product stock update
+    private static final String ADVANCE_ACCOUNTS_SQL =
+            "WITH locked AS (SELECT code FROM ledger_account WHERE code = ANY(?::varchar[]) ORDER BY code FOR UPDATE) "
+            + "UPDATE ledger_account a SET debit_total = a.debit_total + d.debit, credit_total = a.credit_total + d.credit "
+            + "FROM unnest(?::varchar[], ?::numeric[], ?::numeric[]) AS d(code, debit, credit) JOIN locked l ON l.code = d.code "
+            + "WHERE a.code = d.code";
+
+    private static final String ROLLUP_WRITER_LOCK_SQL = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('ledger_rollup'))";
+
+    private record AccountTotals(BigDecimal debit, BigDecimal credit) {}
+
+    @Value("${ledger.posting.batch-size:200}")
+    private int batchSize;
+
+    @Value("${ledger.posting.linger-ms:20}")
+    private long lingerMillis;
+
+    @Value("${ledger.posting.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private final JournalEntryRepository journalEntryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final PeriodRollupService periodRollupService;
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<Posting> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+    private Timer batchTimer;
+    private DistributionSummary batchSizeSummary;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Counter rejectedCounter;
+
+    public JournalBatchWriter(JournalEntryRepository journalEntryRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            PeriodRollupService periodRollupService,
+            MeterRegistry meterRegistry) {
+        this.journalEntryRepository = journalEntryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.periodRollupService = periodRollupService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("ledger.posting.queue.depth", queue, BlockingQueue::size)
+                .description("Committed postings waiting for the journal writer")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("ledger.posting.batch")
+                .description("Time spent writing one batch of journal entries")
+                .register(meterRegistry);
+        batchSizeSummary = DistributionSummary.builder("ledger.posting.batch.size")
+                .description("Journal entries written per commit")
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("ledger.posting.written").register(meterRegistry);
+        failedCounter = Counter.builder("ledger.posting.failed").register(meterRegistry);
+        rejectedCounter = Counter.builder("ledger.posting.rejected")
+                .description("Postings left for the sweep because the queue was full")
+                .register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::drainLoop, "journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // The loop finishes what is queued; anything left over is picked up by the sweep on the next start
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPosting(Posting posting) {
+        enqueue(posting);
+    }
+
+    public boolean enqueue(Posting posting) {
+        if (queue.offer(posting)) {
+            return true;
+        }
+        // Queue is full; the sale is committed and GeneralLedgerService.postMissingEntries will post it
+        rejectedCounter.increment();
+        return false;
+    }
+
+    private void drainLoop() {
+        List<Posting> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Posting first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Wait up to linger-ms for more postings so busy periods share a commit
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Posting next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Journal writer failed to write a batch", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void write(List<Posting> batch) {
+        try {
+            int written = batchTimer.record(() -> batchTransaction.execute(status -> persist(batch)));
+            batchSizeSummary.record(written);
+            writtenCounter.increment(written);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failedCounter.increment();
+                log.error("Posting journal entry for {} failed", batch.get(0).sourceKey(), e);
+                return;
+            }
+            // One bad posting must not hold back the rest of the batch
+            for (Posting posting : batch) {
+                write(List.of(posting));
+            }
+        }
+    }
+
+    private int persist(List<Posting> batch) {
+        // Step 1: Drop postings whose source is already in the journal or repeated in this batch
+        Map<String, Posting> pending = new LinkedHashMap<>();
+        for (Posting posting : batch) {
+            pending.putIfAbsent(posting.sourceKey(), posting);
+        }
+        String[] sourceTypes = new String[pending.size()];
+        Long[] sourceIds = new Long[pending.size()];
+        int index = 0;
+        for (Posting posting : pending.values()) {
+            sourceTypes[index] = posting.sourceType().name();
+            sourceIds[index] = posting.sourceId();
+            index++;
+        }
+        Set<String> posted = new HashSet<>(jdbcTemplate.queryForList(
+                POSTED_SOURCES_SQL, String.class, sourceTypes, sourceIds));
+        pending.keySet().removeAll(posted);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // Step 2: Insert entries and lines; pooled sequences let Hibernate batch both
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, AccountTotals> totals = new TreeMap<>();
+        List<JournalEntry> entries = new ArrayList<>(pending.size());
+        for (Posting posting : pending.values()) {
+            JournalEntry entry = new JournalEntry();
+            entry.setSourceType(posting.sourceType());
+            entry.setSourceId(posting.sourceId());
+            entry.setDescription(posting.description());
+            entry.setEntryDate(posting.entryDate());
+            entry.setPostedAt(now);
+            for (PostingLine line : posting.lines()) {
+                entry.addLine(new JournalLine(line.accountCode(), line.debit(), line.credit()));
+                totals.merge(line.accountCode(), new AccountTotals(line.debit(), line.credit()),
+                        (a, b) -> new AccountTotals(a.debit().add(b.debit()), a.credit().add(b.credit())));
+            }
+            entries.add(entry);
+        }
+        journalEntryRepository.saveAll(entries);
+
+        // Step 3: Advance each touched account once for the whole batch
+        String[] codes = totals.keySet().toArray(new String[0]);
+        // Exact decimal text, cast to numeric by the statement
+        String[] debits = totals.values().stream().map(t -> t.debit().toPlainString()).toArray(String[]::new);
+        String[] credits = totals.values().stream().map(t -> t.credit().toPlainString()).toArray(String[]::new);
+        int updated = jdbcTemplate.update(ADVANCE_ACCOUNTS_SQL, codes, codes, debits, credits);
+        if (updated != codes.length) {
+            throw new IllegalStateException("Posting refers to an unknown ledger account: " + totals.keySet());
+        }
+
+        // Step 4: Add the batch to the day/month/quarter/year ledger rollups; a rollup rebuild holds this
+        // lock in shared mode while it recounts, so the batch lands either before or after the recount
+        jdbcTemplate.queryForObject(ROLLUP_WRITER_LOCK_SQL, Integer.class);
+        periodRollupService.recordJournalEntries(entries);
+        return entries.size();
+    }
+}
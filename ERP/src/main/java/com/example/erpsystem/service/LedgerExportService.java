@@ -0,0 +1,169 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.dto.CursorPage;
+import com.example.erpsystem.model.Money;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Full-ledger exports for the accountants. Rows come from a forward-only server-side
+// cursor (PostgreSQL only uses one inside a transaction with a fetch size) and are
+// written as they arrive, so no entity or result list is ever built.
+@Service
+public class LedgerExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerExportService.class);
+
+    private static final int FETCH_SIZE = 1_000;
+
+    private static final String[] TRANSACTION_COLUMNS = {
+            "id", "timestamp", "type", "amount", "description", "invoiceNumber",
+            "stockTransactionId", "quantity", "unitPrice"};
+
+    private static final String TRANSACTIONS_SQL =
+            "SELECT t.id, t.timestamp, t.type, t.amount, t.description, i.invoice_number, "
+            + "t.stock_transaction_id, t.quantity, t.unit_price "
+            + "FROM transaction t LEFT JOIN invoice i ON i.id = t.invoice_id "
+            + "WHERE t.timestamp >= ? AND t.timestamp < ? ORDER BY t.timestamp, t.id";
+
+    private static final String[] STOCK_TRANSACTION_COLUMNS = {
+            "id", "timestamp", "type", "productId", "productName", "quantity", "pricePerUnit",
+            "costValue", "invoiceNumber"};
+
+    private static final String STOCK_TRANSACTIONS_SQL =
+            "SELECT st.id, st.timestamp, st.type, st.product_id, p.name, st.quantity, st.price_per_unit, "
+            + "st.cost_value, i.invoice_number "
+            + "FROM stock_transaction st JOIN product p ON p.id = st.product_id "
+            + "LEFT JOIN invoice i ON i.id = st.invoice_id "
+            + "WHERE st.timestamp >= ? AND st.timestamp < ? ORDER BY st.timestamp, st.id";
+
+    public enum ExportFormat {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static ExportFormat parse(String format) {
+            if (format == null || format.equalsIgnoreCase("csv")) {
+                return CSV;
+            }
+            if (format.equalsIgnoreCase("ndjson")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Format must be either 'csv' or 'ndjson'.");
+        }
+    }
+
+    private final JdbcTemplate exportJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonFactory jsonFactory;
+
+    public LedgerExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        // Own template so the fetch size does not leak into the shared one
+        this.exportJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.exportJdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public long exportTransactions(ExportFormat format, boolean gzip, LocalDateTime from, LocalDateTime to,
+            OutputStream out) throws IOException {
+        return export("transactions", TRANSACTIONS_SQL, TRANSACTION_COLUMNS, format, gzip, from, to, out,
+                (rs, writer) -> writer.writeRow(
+                        rs.getLong(1),
+                        rs.getTimestamp(2).toLocalDateTime(),
+                        rs.getString(3),
+                        money(rs, 4),
+                        rs.getString(5),
+                        rs.getString(6),
+                        nullableLong(rs, 7),
+                        nullableInt(rs, 8),
+                        money(rs, 9)));
+    }
+
+    public long exportStockTransactions(ExportFormat format, boolean gzip, LocalDateTime from, LocalDateTime to,
+            OutputStream out) throws IOException {
+        return export("stock transactions", STOCK_TRANSACTIONS_SQL, STOCK_TRANSACTION_COLUMNS, format, gzip, from, to, out,
+                (rs, writer) -> writer.writeRow(
+                        rs.getLong(1),
+                        rs.getTimestamp(2).toLocalDateTime(),
+                        rs.getString(3),
+                        rs.getLong(4),
+                        rs.getString(5),
+                        rs.getInt(6),
+                        money(rs, 7),
+                        money(rs, 8),
+                        rs.getString(9)));
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs, LedgerExportWriter writer) throws SQLException, IOException;
+    }
+
+    private long export(String name, String sql, String[] columns, ExportFormat format, boolean gzip,
+            LocalDateTime from, LocalDateTime to, OutputStream out, RowWriter rowWriter) throws IOException {
+        long start = System.currentTimeMillis();
+        Timestamp fromBound = Timestamp.valueOf(from == null ? CursorPage.MIN_TIMESTAMP : from);
+        Timestamp toBound = Timestamp.valueOf(to == null ? CursorPage.MAX_TIMESTAMP : to);
+
+        try (LedgerExportWriter writer = new LedgerExportWriter(format, columns, out, gzip, jsonFactory)) {
+            readOnlyTransaction.executeWithoutResult(status -> exportJdbcTemplate.query(sql, rs -> {
+                try {
+                    rowWriter.write(rs, writer);
+                } catch (IOException e) {
+                    // Client went away; abandon the cursor
+                    throw new UncheckedIOException(e);
+                }
+            }, fromBound, toBound));
+            log.info("Exported {} {} as {} in {} ms", writer.getRows(), name, format, System.currentTimeMillis() - start);
+            return writer.getRows();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Money money(ResultSet rs, int column) throws SQLException {
+        long minorUnits = rs.getLong(column);
+        return rs.wasNull() ? null : Money.ofMinor(minorUnits);
+    }
+
+    private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Integer nullableInt(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
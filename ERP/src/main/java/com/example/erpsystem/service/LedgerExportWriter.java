@@ -0,0 +1,118 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.service.LedgerExportService.ExportFormat;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+// Writes one export row at a time as CSV or NDJSON, optionally gzipped. Nothing is
+// kept per row, so memory stays at the buffer sizes however many rows pass through.
+class LedgerExportWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExportFormat format;
+    private final String[] columns;
+    private final Writer writer;
+    private final JsonGenerator generator;
+    private long rows;
+
+    LedgerExportWriter(ExportFormat format, String[] columns, OutputStream out, boolean gzip, JsonFactory jsonFactory)
+            throws IOException {
+        this.format = format;
+        this.columns = columns;
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+        this.writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ExportFormat.NDJSON) {
+            this.generator = jsonFactory.createGenerator(writer);
+            this.generator.setRootValueSeparator(null);
+        } else {
+            this.generator = null;
+            writeCsvRow(columns);
+        }
+    }
+
+    // values line up with the column names; Money is written in its decimal form
+    void writeRow(Object... values) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                writeJsonValue(values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } else {
+            writeCsvRow(values);
+        }
+        rows++;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+        }
+        writer.close();
+    }
+
+    private void writeJsonValue(Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Money money) {
+            generator.writeNumber(money.toString());
+        } else if (value instanceof Long number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Integer number) {
+            generator.writeNumber(number);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    private void writeCsvRow(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeCsvField(values[i].toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsvField(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.erpsystem.service;
+
+import java.util.concurrent.locks.StampedLock;
+
+// long -> long map with open addressing (linear probing) over one interleaved long[]
+// of key/value pairs: no boxing, no entry objects, 16 bytes per slot. Readers take an
+// optimistic StampedLock read and retry only if a writer got in; writers are exclusive.
+// Removal shifts later entries back instead of leaving tombstones.
+class LongLongOpenHashMap {
+
+    static final long NO_VALUE = Long.MIN_VALUE;
+
+    private static final long EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+
+    // key 0 marks an empty slot, so a 0 key lives outside the table
+    private long[] table;
+    private int mask;
+    private int size;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    LongLongOpenHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    long get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        long value = find(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    void put(long key, long value) {
+        long stamp = lock.writeLock();
+        try {
+            if (key == EMPTY) {
+                if (!hasZeroKey) {
+                    size++;
+                }
+                hasZeroKey = true;
+                zeroValue = value;
+                return;
+            }
+            if (insert(table, mask, key, value)) {
+                size++;
+                if (size > (mask + 1) * 3L / 4) {
+                    resize((mask + 1) * 2);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Removes the key only while it still maps to expectedValue, so a stale removal cannot drop a newer mapping
+    void remove(long key, long expectedValue) {
+        long stamp = lock.writeLock();
+        try {
+            if (key == EMPTY) {
+                if (hasZeroKey && zeroValue == expectedValue) {
+                    hasZeroKey = false;
+                    size--;
+                }
+                return;
+            }
+            long[] slots = table;
+            int slot = slot(key, mask);
+            while (slots[slot << 1] != EMPTY) {
+                if (slots[slot << 1] == key) {
+                    if (slots[(slot << 1) + 1] == expectedValue) {
+                        shiftBack(slots, slot);
+                        size--;
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    long footprintBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) table.length * Long.BYTES;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long find(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : NO_VALUE;
+        }
+        long[] slots = table;
+        int slotMask = (slots.length >> 1) - 1;
+        int slot = slot(key, slotMask);
+        // Bounded so a torn optimistic read of a table being resized cannot spin forever
+        for (int probes = 0; probes <= slotMask; probes++) {
+            long candidate = slots[slot << 1];
+            if (candidate == key) {
+                return slots[(slot << 1) + 1];
+            }
+            if (candidate == EMPTY) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return NO_VALUE;
+    }
+
+    private static boolean insert(long[] slots, int mask, long key, long value) {
+        int slot = slot(key, mask);
+        while (slots[slot << 1] != EMPTY) {
+            if (slots[slot << 1] == key) {
+                slots[(slot << 1) + 1] = value;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot << 1] = key;
+        slots[(slot << 1) + 1] = value;
+        return true;
+    }
+
+    // Backward-shift deletion: moves every entry of the probe run that would no longer be reachable
+    private void shiftBack(long[] slots, int freed) {
+        int slot = freed;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = slots[slot << 1];
+            if (key == EMPTY) {
+                break;
+            }
+            int home = slot(key, mask);
+            boolean reachable = freed <= slot ? freed < home && home <= slot : freed < home || home <= slot;
+            if (!reachable) {
+                slots[freed << 1] = key;
+                slots[(freed << 1) + 1] = slots[(slot << 1) + 1];
+                freed = slot;
+            }
+        }
+        slots[freed << 1] = EMPTY;
+        slots[(freed << 1) + 1] = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] old = table;
+        long[] slots = new long[capacity * 2];
+        int newMask = capacity - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != EMPTY) {
+                insert(slots, newMask, old[i], old[i + 1]);
+            }
+        }
+        table = slots;
+        mask = newMask;
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity * 2];
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 4 / 3 + 1);
+        return (int) Long.highestOneBit(needed - 1) << 1;
+    }
+
+    // Barcodes and ids are often sequential; mix the bits so they spread over the table
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.erpsystem.service;
 
+import com.example.erpsystem.dto.CurrentUser;
 import com.example.erpsystem.model.*;
 import com.example.erpsystem.repository.*;
+import com.example.erpsystem.service.ProjectTimelineService.ProjectTimelineChanged;
+
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -9,48 +13,50 @@ import org.springframework.transaction.annotation.Transactional;
 public class MilestoneService {
     private final MilestoneRepository milestoneRepository;
     private final ProjectRepository projectRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public MilestoneService(MilestoneRepository milestoneRepository, 
-                           ProjectRepository projectRepository) {
+                           ProjectRepository projectRepository,
+                           ApplicationEventPublisher eventPublisher) {
         this.milestoneRepository = milestoneRepository;
         this.projectRepository = projectRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
-    public Milestone createMilestone(Milestone milestone, Long projectId, User requestingUser) {
+    public Milestone createMilestone(Milestone milestone, Long projectId, CurrentUser requestingUser) {
         Project project = projectRepository.findById(projectId)
             .orElseThrow(() -> new RuntimeException("Project not found"));
 
         // Only project manager or admins can create milestones
-        if (!hasAdminRole(requestingUser) && 
-            !project.getProjectManager().equals(requestingUser)) {
+        if (!requestingUser.isAdmin() && 
+            !project.getProjectManager().getId().equals(requestingUser.id())) {
             throw new RuntimeException("Unauthorized to create milestones");
         }
 
         milestone.setProject(project);
         milestone.setStatus(Milestone.MilestoneStatus.PENDING);
-        return milestoneRepository.save(milestone);
+        Milestone saved = milestoneRepository.save(milestone);
+        eventPublisher.publishEvent(new ProjectTimelineChanged(projectId));
+        return saved;
     }
 
     @Transactional
     public Milestone updateMilestoneStatus(Long milestoneId, 
                                          Milestone.MilestoneStatus newStatus, 
-                                         User requestingUser) {
+                                         CurrentUser requestingUser) {
         Milestone milestone = milestoneRepository.findById(milestoneId)
             .orElseThrow(() -> new RuntimeException("Milestone not found"));
 
         // Only project manager or admins can update milestone status
-        if (!hasAdminRole(requestingUser) && 
-            !milestone.getProject().getProjectManager().equals(requestingUser)) {
+        if (!requestingUser.isAdmin() && 
+            !milestone.getProject().getProjectManager().getId().equals(requestingUser.id())) {
             throw new RuntimeException("Unauthorized to update milestone status");
         }
 
         milestone.setStatus(newStatus);
-        return milestoneRepository.save(milestone);
-    }
-
-    private boolean hasAdminRole(User user) {
-        return user.getRoles().stream()
-            .anyMatch(role -> role.getName().equals("ADMIN"));
+        Milestone saved = milestoneRepository.save(milestone);
+        eventPublisher.publishEvent(new ProjectTimelineChanged(milestone.getProject().getId()));
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,403 @@
+package com.example.erpsystem.service;
+
+import com.itextpdf.barcodes.BarcodeQRCode;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.IBlockElement;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.element.Text;
+import com.itextpdf.layout.properties.HorizontalAlignment;
+import com.itextpdf.layout.properties.TextAlignment;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Shared PDF rendering for invoices, bills and identity cards.
+// The static parts of each document type (university header, terms, footers) are laid out once
+// at startup into small single-page PDFs, parsed once, and copied into each document as form
+// XObjects; font programs are parsed once and only bound to each document.
+@Service
+public class PdfRenderingEngine {
+
+    public enum DocumentType {
+        INVOICE, TRANSACTION_BILL, STOCK_BILL, IDENTITY_CARD
+    }
+
+    public enum Fragment {
+        HEADER, TERMS, FOOTER, SIGNATURE
+    }
+
+    @FunctionalInterface
+    public interface DocumentWriter {
+        void write(RenderContext context) throws IOException;
+    }
+
+    private record Template(PageSize pageSize, float margin, Map<Fragment, ParsedFragment> fragments) {}
+
+    // A laid-out fragment kept open for reading. iText documents are not thread-safe, so
+    // copies out of one are serialized; a copy only walks a handful of small objects.
+    private static final class ParsedFragment {
+
+        private final PdfDocument source;
+
+        private ParsedFragment(byte[] pdf) throws IOException {
+            this.source = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)));
+        }
+
+        private synchronized PdfFormXObject copyTo(PdfDocument target) throws IOException {
+            return source.getFirstPage().copyAsFormXObject(target);
+        }
+
+        private synchronized void close() {
+            source.close();
+        }
+    }
+
+    @FunctionalInterface
+    private interface FragmentLayout {
+        List<IBlockElement> build(PdfFont regularFont, PdfFont boldFont);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(PdfRenderingEngine.class);
+
+    private static final String UNIVERSITY_NAME = "SIKSHA 'O' ANUSANDHAN";
+    private static final PageSize RECEIPT_SIZE = new PageSize(226.77f, 340.16f);
+    private static final float RECEIPT_CONTENT_WIDTH = 206.77f;
+    private static final float INVOICE_CONTENT_WIDTH = PageSize.A4.getWidth() - 80;
+    // Card page minus the default 36pt margins and the card border, margin and padding
+    private static final float CARD_CONTENT_WIDTH = 240f - 72 - 26;
+    private static final float NO_MARGIN = -1;
+
+    private static final DeviceRgb RED_COLOR = new DeviceRgb(255, 0, 0);
+    private static final DeviceRgb BLACK_COLOR = new DeviceRgb(0, 0, 0);
+    private static final DeviceRgb BLUE_COLOR = new DeviceRgb(0, 0, 255);
+    private static final DeviceRgb TABLE_HEADER_BACKGROUND = new DeviceRgb(242, 242, 242);
+
+    private final FontProgram regularFontProgram;
+    private final FontProgram boldFontProgram;
+    private final Map<DocumentType, Template> templates = new EnumMap<>(DocumentType.class);
+
+    public PdfRenderingEngine() throws IOException {
+        this.regularFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+        this.boldFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+
+        ParsedFragment receiptFooter = layoutFragment(RECEIPT_CONTENT_WIDTH, (regular, bold) -> List.of(
+                new Paragraph("*** FOR OFFICE USE ONLY ***")
+                        .setFont(regular)
+                        .setFontSize(7)
+                        .setTextAlignment(TextAlignment.CENTER)
+                        .setMarginTop(10)));
+
+        templates.put(DocumentType.INVOICE, new Template(PageSize.A4, 40, Map.of(
+                Fragment.HEADER, layoutFragment(INVOICE_CONTENT_WIDTH / 2 - 8, (regular, bold) -> List.of(
+                        new Paragraph(UNIVERSITY_NAME).setFont(bold).setFontSize(20),
+                        new Paragraph("University Address Line 1").setFont(regular).setFontSize(10),
+                        new Paragraph("City, State, PIN").setFont(regular).setFontSize(10),
+                        new Paragraph("Phone: +91-XXXXXXXXXX").setFont(regular).setFontSize(10))),
+                Fragment.TERMS, layoutFragment(INVOICE_CONTENT_WIDTH, (regular, bold) -> List.of(
+                        new Paragraph("\nTerms and Conditions:")
+                                .setFont(bold)
+                                .setFontSize(11)
+                                .setMarginTop(40),
+                        new Paragraph(
+                                "1. Payment is due within 30 days\n" +
+                                "2. Please include invoice number on your payment\n" +
+                                "3. Make all checks payable to Siksha 'O' Anusandhan")
+                                .setFont(regular)
+                                .setFontSize(9))))));
+
+        templates.put(DocumentType.TRANSACTION_BILL, new Template(RECEIPT_SIZE, 10, Map.of(
+                Fragment.HEADER, layoutFragment(RECEIPT_CONTENT_WIDTH, receiptHeader("Transaction Bill")),
+                Fragment.FOOTER, receiptFooter)));
+
+        templates.put(DocumentType.STOCK_BILL, new Template(RECEIPT_SIZE, 10, Map.of(
+                Fragment.HEADER, layoutFragment(RECEIPT_CONTENT_WIDTH, receiptHeader("STOCK BILL")),
+                Fragment.FOOTER, receiptFooter)));
+
+        templates.put(DocumentType.IDENTITY_CARD, new Template(new PageSize(240f, 336f), NO_MARGIN, Map.of(
+                Fragment.HEADER, layoutFragment(CARD_CONTENT_WIDTH, (regular, bold) -> List.of(
+                        new Paragraph()
+                                .setTextAlignment(TextAlignment.CENTER)
+                                .setFontSize(10)
+                                .setMarginBottom(5)
+                                .add(new Text("S").setFont(bold).setFontColor(RED_COLOR))
+                                .add(new Text("iksha '").setFont(bold).setFontColor(BLACK_COLOR))
+                                .add(new Text("O").setFont(bold).setFontColor(RED_COLOR))
+                                .add(new Text("' ").setFont(bold).setFontColor(BLACK_COLOR))
+                                .add(new Text("A").setFont(bold).setFontColor(RED_COLOR))
+                                .add(new Text("nusandhan").setFont(bold).setFontColor(BLACK_COLOR)),
+                        new Div()
+                                .setBorder(new SolidBorder(BLUE_COLOR, 1))
+                                .setPadding(3)
+                                .setMarginBottom(15)
+                                .add(new Paragraph("IDENTITY CARD")
+                                        .setFont(bold)
+                                        .setFontSize(11)
+                                        .setTextAlignment(TextAlignment.CENTER)))),
+                Fragment.SIGNATURE, layoutFragment(CARD_CONTENT_WIDTH, (regular, bold) -> List.of(
+                        new Paragraph("_________________")
+                                .setFont(regular)
+                                .setTextAlignment(TextAlignment.CENTER)
+                                .setFontSize(10),
+                        new Paragraph("Signature")
+                                .setTextAlignment(TextAlignment.CENTER)
+                                .setFontSize(8)
+                                .setFont(regular))))));
+    }
+
+    @PreDestroy
+    void close() {
+        templates.values().stream()
+                .flatMap(template -> template.fragments().values().stream())
+                .distinct()
+                .forEach(ParsedFragment::close);
+    }
+
+    // Renders next to the target and moves it into place, so readers never see a half-written file.
+    // Each render gets its own temp file, so concurrent renders of one document never share it.
+    public String render(DocumentType type, String filePath, DocumentWriter writer) {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        Path partial = null;
+        try {
+            partial = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                write(type, out, writer);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return filePath;
+        } catch (IOException e) {
+            throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    // A failed render leaves its temp file behind; after a successful move it is already gone
+    private static void deleteQuietly(Path partial) {
+        if (partial == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            log.warn("Could not delete partial PDF {}: {}", partial, e.getMessage());
+        }
+    }
+
+    public byte[] renderToBytes(DocumentType type, DocumentWriter writer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(type, out, writer);
+        } catch (IOException e) {
+            throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
+        }
+        return out.toByteArray();
+    }
+
+    private void write(DocumentType type, OutputStream out, DocumentWriter writer) throws IOException {
+        Template template = templates.get(type);
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfWriter(out));
+             Document document = new Document(pdfDoc, template.pageSize())) {
+            if (template.margin() != NO_MARGIN) {
+                document.setMargins(template.margin(), template.margin(), template.margin(), template.margin());
+            }
+            writer.write(new RenderContext(this, template, pdfDoc, document));
+        }
+    }
+
+    private FragmentLayout receiptHeader(String subtitle) {
+        return (regular, bold) -> List.of(
+                new Paragraph(UNIVERSITY_NAME)
+                        .setFont(bold)
+                        .setFontSize(12)
+                        .setTextAlignment(TextAlignment.CENTER)
+                        .setMarginBottom(5),
+                new Paragraph(subtitle)
+                        .setFont(bold)
+                        .setFontSize(10)
+                        .setTextAlignment(TextAlignment.CENTER)
+                        .setMarginBottom(10)
+                        .setBorderBottom(new SolidBorder(1)));
+    }
+
+    // Lays the elements out twice: once on a tall page to measure them, then on a page cut to fit
+    private ParsedFragment layoutFragment(float width, FragmentLayout layout) throws IOException {
+        float measuringHeight = 2000;
+        float height;
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()));
+             Document document = new Document(pdfDoc, new PageSize(width, measuringHeight), false)) {
+            document.setMargins(0, 0, 0, 0);
+            for (IBlockElement element : layout.build(newFont(regularFontProgram), newFont(boldFontProgram))) {
+                document.add(element);
+            }
+            height = measuringHeight - document.getRenderer().getCurrentArea().getBBox().getHeight();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfWriter(out));
+             Document document = new Document(pdfDoc, new PageSize(width, height + 1))) {
+            document.setMargins(0, 0, 0, 0);
+            for (IBlockElement element : layout.build(newFont(regularFontProgram), newFont(boldFontProgram))) {
+                document.add(element);
+            }
+        }
+        return new ParsedFragment(out.toByteArray());
+    }
+
+    private static PdfFont newFont(FontProgram fontProgram) {
+        return PdfFontFactory.createFont(fontProgram, PdfEncodings.WINANSI);
+    }
+
+    // Per-document handle given to the services: fonts bound to this document, the prebuilt
+    // fragments of the template and the table styling shared by all documents
+    public static final class RenderContext {
+
+        private final PdfRenderingEngine engine;
+        private final Template template;
+        private final PdfDocument pdfDoc;
+        private final Document document;
+        private PdfFont regularFont;
+        private PdfFont boldFont;
+        private final Map<Fragment, PdfFormXObject> fragments = new EnumMap<>(Fragment.class);
+
+        private RenderContext(PdfRenderingEngine engine, Template template, PdfDocument pdfDoc, Document document) {
+            this.engine = engine;
+            this.template = template;
+            this.pdfDoc = pdfDoc;
+            this.document = document;
+        }
+
+        public Document document() {
+            return document;
+        }
+
+        public PdfDocument pdfDocument() {
+            return pdfDoc;
+        }
+
+        public PdfFont regularFont() {
+            if (regularFont == null) {
+                regularFont = newFont(engine.regularFontProgram);
+            }
+            return regularFont;
+        }
+
+        public PdfFont boldFont() {
+            if (boldFont == null) {
+                boldFont = newFont(engine.boldFontProgram);
+            }
+            return boldFont;
+        }
+
+        // Copied into this document once, however often it is placed
+        public Image fragment(Fragment fragment) throws IOException {
+            PdfFormXObject xObject = fragments.get(fragment);
+            if (xObject == null) {
+                ParsedFragment source = template.fragments().get(fragment);
+                if (source == null) {
+                    throw new IllegalArgumentException("No " + fragment + " fragment for this document type.");
+                }
+                xObject = source.copyTo(pdfDoc);
+                fragments.put(fragment, xObject);
+            }
+            return new Image(xObject);
+        }
+
+        public Image qrCode(String content, float size) {
+            return new Image(new BarcodeQRCode(content).createFormXObject(pdfDoc))
+                    .setWidth(size)
+                    .setHeight(size);
+        }
+
+        public Cell tableHeaderCell(String text) {
+            return new Cell()
+                    .setBackgroundColor(TABLE_HEADER_BACKGROUND)
+                    .setBorder(new SolidBorder(ColorConstants.BLACK, 1))
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setPadding(5)
+                    .add(new Paragraph(text).setFont(boldFont()).setFontSize(10));
+        }
+
+        public Cell tableCell(String text) {
+            return new Cell()
+                    .setBorder(new SolidBorder(ColorConstants.BLACK, 1))
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setPadding(5)
+                    .add(new Paragraph(text).setFont(regularFont()).setFontSize(10));
+        }
+
+        public void addTotalRow(Table table, String label, String value) {
+            table.addCell(new Cell()
+                    .setBorder(Border.NO_BORDER)
+                    .setTextAlignment(TextAlignment.RIGHT)
+                    .add(new Paragraph(label).setFont(boldFont()).setFontSize(10)));
+            table.addCell(new Cell()
+                    .setBorder(Border.NO_BORDER)
+                    .setTextAlignment(TextAlignment.RIGHT)
+                    .add(new Paragraph(value).setFont(regularFont()).setFontSize(10)));
+        }
+
+        public Table receiptTable() {
+            Table table = new Table(2).setWidth(RECEIPT_CONTENT_WIDTH);
+            table.setFont(regularFont()).setFontSize(8);
+            return table;
+        }
+
+        public void addReceiptRow(Table table, String label, String value) {
+            table.addCell(new Cell().setBorder(Border.NO_BORDER)
+                    .add(new Paragraph(label).setFontSize(8)));
+            table.addCell(new Cell().setBorder(Border.NO_BORDER)
+                    .add(new Paragraph(value).setFontSize(8)));
+        }
+
+        public void addReceiptTotalRow(Table table, String label, String value) {
+            table.addCell(new Cell().setBorder(Border.NO_BORDER)
+                    .add(new Paragraph(label).setFont(boldFont()).setFontSize(9)));
+            table.addCell(new Cell().setBorder(Border.NO_BORDER)
+                    .add(new Paragraph(value).setFont(boldFont()).setFontSize(9)));
+        }
+
+        // Header, details, QR code and footer in the layout shared by both receipt bills
+        public void addReceipt(Table details, String qrContent) throws IOException {
+            document.add(fragment(Fragment.HEADER));
+            document.add(new Paragraph("\n").setFontSize(5));
+            document.add(details);
+            document.add(new Paragraph("\n").setFontSize(5));
+            document.add(qrCode(qrContent, 50).setHorizontalAlignment(HorizontalAlignment.CENTER));
+            document.add(fragment(Fragment.FOOTER));
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.JournalEntry;
+import com.example.erpsystem.model.JournalLine;
+import com.example.erpsystem.model.LedgerAccount;
+import com.example.erpsystem.model.LedgerAccount.AccountType;
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.PeriodGranularity;
+import com.example.erpsystem.repository.LedgerAccountRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Day/month/quarter/year totals for the accounting transactions (income statement)
+// and for the general ledger accounts (balance sheet). The single writers (TransactionDeltaWriter
+// and JournalBatchWriter) add each batch to all four periods, so reports read a handful of rows.
+@Service
+public class PeriodRollupService {
+
+    private static final String TRANSACTION_DELTAS_SQL =
+            "INSERT INTO transaction_rollup (granularity, period_start, type, total, transaction_count) "
+            + "SELECT upper(g.unit), date_trunc(g.unit, d.day::timestamp)::date, d.type, SUM(d.amount), SUM(d.cnt) "
+            + "FROM unnest(?::date[], ?::varchar[], ?::bigint[], ?::bigint[]) AS d(day, type, amount, cnt) "
+            + "CROSS JOIN unnest(ARRAY['day', 'month', 'quarter', 'year']) AS g(unit) "
+            + "GROUP BY 1, 2, 3 ORDER BY 1, 2, 3 "
+            + "ON CONFLICT (granularity, period_start, type) DO UPDATE SET "
+            + "total = transaction_rollup.total + EXCLUDED.total, "
+            + "transaction_count = transaction_rollup.transaction_count + EXCLUDED.transaction_count";
+
+    private static final String LEDGER_DELTAS_SQL =
+            "INSERT INTO ledger_rollup (granularity, period_start, account_code, debit_total, credit_total) "
+            + "SELECT upper(g.unit), date_trunc(g.unit, d.day::timestamp)::date, d.code, SUM(d.debit), SUM(d.credit) "
+            + "FROM unnest(?::date[], ?::varchar[], ?::numeric[], ?::numeric[]) AS d(day, code, debit, credit) "
+            + "CROSS JOIN unnest(ARRAY['day', 'month', 'quarter', 'year']) AS g(unit) "
+            + "GROUP BY 1, 2, 3 ORDER BY 1, 2, 3 "
+            + "ON CONFLICT (granularity, period_start, account_code) DO UPDATE SET "
+            + "debit_total = ledger_rollup.debit_total + EXCLUDED.debit_total, "
+            + "credit_total = ledger_rollup.credit_total + EXCLUDED.credit_total";
+
+    // Folded rollup rows plus the transaction deltas not folded yet, in one snapshot
+    private static final String INCOME_STATEMENT_SQL =
+            "SELECT p.period_start, p.type, SUM(p.total), SUM(p.transaction_count) FROM ("
+            + "SELECT period_start, type, total, transaction_count FROM transaction_rollup WHERE granularity = ? "
+            + "UNION ALL SELECT date_trunc(?, entry_date::timestamp)::date, type, amount, transaction_count "
+            + "FROM transaction_delta) p "
+            + "WHERE p.period_start >= ? AND p.period_start <= ? GROUP BY 1, 2 ORDER BY 1";
+
+    // Whole years before the as-of year, whole months before the as-of month, then single days
+    private static final String BALANCES_AS_OF_SQL =
+            "SELECT account_code, SUM(debit_total), SUM(credit_total) FROM ledger_rollup "
+            + "WHERE (granularity = 'YEAR' AND period_start < ?) "
+            + "OR (granularity = 'MONTH' AND period_start >= ? AND period_start < ?) "
+            + "OR (granularity = 'DAY' AND period_start >= ? AND period_start <= ?) "
+            + "GROUP BY account_code";
+
+    public record IncomeStatementPeriod(LocalDate periodStart, LocalDate periodEnd,
+            Money income, Money expense, Money netIncome, long transactionCount) {}
+
+    public record BalanceSheetLine(String code, String name, BigDecimal balance) {}
+
+    public record BalanceSheet(LocalDate asOf, List<BalanceSheetLine> assets, List<BalanceSheetLine> liabilities,
+            List<BalanceSheetLine> equity, BigDecimal retainedEarnings, BigDecimal totalAssets,
+            BigDecimal totalLiabilitiesAndEquity, boolean balanced) {}
+
+    // How one rollup table is recomputed from its source for a date range; writerLock names the
+    // advisory lock its single writer holds while adding a batch
+    private record RollupTable(String name, String writerLock, String deleteRange,
+            String insertDaysAndMonths, String insertQuartersAndYears) {}
+
+    private static final RollupTable TRANSACTION_ROLLUP = new RollupTable(
+            "transaction_rollup",
+            "transaction_delta",
+            "DELETE FROM transaction_rollup WHERE granularity IN (?, ?) AND period_start >= ? AND period_start < ?",
+            // Pending deltas are subtracted: they are added again when the writer folds them
+            "INSERT INTO transaction_rollup (granularity, period_start, type, total, transaction_count) "
+            + "WITH r AS (SELECT ?::timestamp AS lo, ?::timestamp AS hi) "
+            + "SELECT upper(g.unit), date_trunc(g.unit, s.day)::date, s.type, SUM(s.amount), SUM(s.cnt) "
+            + "FROM (SELECT t.timestamp AS day, t.type, t.amount, 1 AS cnt FROM transaction t, r "
+            + "WHERE t.timestamp >= r.lo AND t.timestamp < r.hi "
+            + "UNION ALL SELECT d.entry_date::timestamp, d.type, -d.amount, -d.transaction_count "
+            + "FROM transaction_delta d, r WHERE d.entry_date >= r.lo AND d.entry_date < r.hi) s "
+            + "CROSS JOIN unnest(ARRAY['day', 'month']) AS g(unit) GROUP BY 1, 2, 3",
+            "INSERT INTO transaction_rollup (granularity, period_start, type, total, transaction_count) "
+            + "SELECT upper(g.unit), date_trunc(g.unit, r.period_start::timestamp)::date, r.type, "
+            + "SUM(r.total), SUM(r.transaction_count) "
+            + "FROM transaction_rollup r CROSS JOIN unnest(ARRAY['quarter', 'year']) AS g(unit) "
+            + "WHERE r.granularity = 'MONTH' AND r.period_start >= ? AND r.period_start < ? GROUP BY 1, 2, 3");
+
+    private static final RollupTable LEDGER_ROLLUP = new RollupTable(
+            "ledger_rollup",
+            "ledger_rollup",
+            "DELETE FROM ledger_rollup WHERE granularity IN (?, ?) AND period_start >= ? AND period_start < ?",
+            "INSERT INTO ledger_rollup (granularity, period_start, account_code, debit_total, credit_total) "
+            + "SELECT upper(g.unit), date_trunc(g.unit, e.entry_date)::date, l.account_code, SUM(l.debit), SUM(l.credit) "
+            + "FROM journal_entry e JOIN journal_line l ON l.entry_id = e.id "
+            + "CROSS JOIN unnest(ARRAY['day', 'month']) AS g(unit) "
+            + "WHERE e.entry_date >= ? AND e.entry_date < ? GROUP BY 1, 2, 3",
+            "INSERT INTO ledger_rollup (granularity, period_start, account_code, debit_total, credit_total) "
+            + "SELECT upper(g.unit), date_trunc(g.unit, r.period_start::timestamp)::date, r.account_code, "
+            + "SUM(r.debit_total), SUM(r.credit_total) "
+            + "FROM ledger_rollup r CROSS JOIN unnest(ARRAY['quarter', 'year']) AS g(unit) "
+            + "WHERE r.granularity = 'MONTH' AND r.period_start >= ? AND r.period_start < ? GROUP BY 1, 2, 3");
+
+    private static final String WRITER_LOCK_SHARED_SQL = "SELECT 1 FROM pg_advisory_xact_lock_shared(hashtext(?))";
+
+    @Value("${accounting.rollup.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerAccountRepository ledgerAccountRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public PeriodRollupService(
+            JdbcTemplate jdbcTemplate,
+            LedgerAccountRepository ledgerAccountRepository,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerAccountRepository = ledgerAccountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Called by the transaction delta writer inside its fold transaction
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransactionDeltas(List<String> days, List<String> types, List<Long> amounts, List<Long> counts) {
+        if (days.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(TRANSACTION_DELTAS_SQL,
+                days.toArray(new String[0]),
+                types.toArray(new String[0]),
+                amounts.toArray(new Long[0]),
+                counts.toArray(new Long[0]));
+    }
+
+    // Called by the journal writer inside its batch transaction
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordJournalEntries(List<JournalEntry> entries) {
+        List<String> days = new ArrayList<>();
+        List<String> codes = new ArrayList<>();
+        List<String> debits = new ArrayList<>();
+        List<String> credits = new ArrayList<>();
+        for (JournalEntry entry : entries) {
+            String day = entry.getEntryDate().toLocalDate().toString();
+            for (JournalLine line : entry.getLines()) {
+                days.add(day);
+                codes.add(line.getAccountCode());
+                debits.add(line.getDebit().toPlainString());
+                credits.add(line.getCredit().toPlainString());
+            }
+        }
+        if (days.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(LEDGER_DELTAS_SQL,
+                days.toArray(new String[0]),
+                codes.toArray(new String[0]),
+                debits.toArray(new String[0]),
+                credits.toArray(new String[0]));
+    }
+
+    public List<IncomeStatementPeriod> getIncomeStatement(PeriodGranularity granularity, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'.");
+        }
+        // Minor units: [income, expense]
+        Map<LocalDate, long[]> totals = new TreeMap<>();
+        Map<LocalDate, Long> counts = new HashMap<>();
+        jdbcTemplate.query(INCOME_STATEMENT_SQL, resultSet -> {
+            LocalDate periodStart = resultSet.getDate(1).toLocalDate();
+            long[] amounts = totals.computeIfAbsent(periodStart, start -> new long[2]);
+            amounts["INCOME".equals(resultSet.getString(2)) ? 0 : 1] += resultSet.getLong(3);
+            counts.merge(periodStart, resultSet.getLong(4), Long::sum);
+        }, granularity.name(), granularity.name().toLowerCase(), Date.valueOf(granularity.periodStart(from)),
+                Date.valueOf(to));
+
+        List<IncomeStatementPeriod> periods = new ArrayList<>(totals.size());
+        totals.forEach((periodStart, amounts) -> periods.add(new IncomeStatementPeriod(
+                periodStart,
+                granularity.nextPeriodStart(periodStart).minusDays(1),
+                Money.ofMinor(amounts[0]),
+                Money.ofMinor(amounts[1]),
+                Money.ofMinor(amounts[0] - amounts[1]),
+                counts.get(periodStart))));
+        return periods;
+    }
+
+    public BalanceSheet getBalanceSheet(LocalDate asOf) {
+        Date yearStart = Date.valueOf(PeriodGranularity.YEAR.periodStart(asOf));
+        Date monthStart = Date.valueOf(PeriodGranularity.MONTH.periodStart(asOf));
+        Map<String, BigDecimal[]> movements = new HashMap<>();
+        jdbcTemplate.query(BALANCES_AS_OF_SQL, resultSet -> {
+            movements.put(resultSet.getString(1),
+                    new BigDecimal[] { resultSet.getBigDecimal(2), resultSet.getBigDecimal(3) });
+        }, yearStart, yearStart, monthStart, monthStart, Date.valueOf(asOf));
+
+        List<BalanceSheetLine> assets = new ArrayList<>();
+        List<BalanceSheetLine> liabilities = new ArrayList<>();
+        List<BalanceSheetLine> equity = new ArrayList<>();
+        BigDecimal totalAssets = BigDecimal.ZERO;
+        BigDecimal totalLiabilitiesAndEquity = BigDecimal.ZERO;
+        BigDecimal retainedEarnings = BigDecimal.ZERO;
+        for (LedgerAccount account : ledgerAccountRepository.findAllByOrderByCodeAsc()) {
+            BigDecimal[] totals = movements.getOrDefault(account.getCode(),
+                    new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+            BigDecimal debitBalance = totals[0].subtract(totals[1]);
+            AccountType type = account.getType();
+            BigDecimal balance = type.isDebitNormal() ? debitBalance : debitBalance.negate();
+            BalanceSheetLine line = new BalanceSheetLine(account.getCode(), account.getName(), balance);
+            switch (type) {
+                case ASSET -> {
+                    assets.add(line);
+                    totalAssets = totalAssets.add(balance);
+                }
+                case LIABILITY -> {
+                    liabilities.add(line);
+                    totalLiabilitiesAndEquity = totalLiabilitiesAndEquity.add(balance);
+                }
+                case EQUITY -> {
+                    equity.add(line);
+                    totalLiabilitiesAndEquity = totalLiabilitiesAndEquity.add(balance);
+                }
+                // Profit or loss not yet closed to an equity account
+                case REVENUE, EXPENSE -> retainedEarnings = retainedEarnings.subtract(debitBalance);
+            }
+        }
+        totalLiabilitiesAndEquity = totalLiabilitiesAndEquity.add(retainedEarnings);
+        return new BalanceSheet(asOf, assets, liabilities, equity, retainedEarnings,
+                totalAssets, totalLiabilitiesAndEquity, totalAssets.compareTo(totalLiabilitiesAndEquity) == 0);
+    }
+
+    // Recomputes both rollup tables from their ledgers for every year touching [from, to].
+    // Months are rebuilt in parallel; quarters and years are then summed from the months.
+    public Map<String, Object> rebuild(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'.");
+        }
+        LocalDate firstYear = PeriodGranularity.YEAR.periodStart(from);
+        LocalDate endYear = PeriodGranularity.YEAR.nextPeriodStart(PeriodGranularity.YEAR.periodStart(to));
+        long start = System.currentTimeMillis();
+
+        List<LocalDate> months = new ArrayList<>();
+        for (LocalDate month = firstYear; month.isBefore(endYear); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        List<LocalDate> years = new ArrayList<>();
+        for (LocalDate year = firstYear; year.isBefore(endYear); year = year.plusYears(1)) {
+            years.add(year);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, rebuildThreads));
+        int rows = 0;
+        try {
+            // Step 1: Day and month rows, one month of one table per task
+            List<Future<Integer>> results = new ArrayList<>();
+            for (RollupTable table : List.of(TRANSACTION_ROLLUP, LEDGER_ROLLUP)) {
+                for (LocalDate month : months) {
+                    results.add(executor.submit(() -> transactionTemplate.execute(status ->
+                            rebuildRange(table, month, month.plusMonths(1), PeriodGranularity.DAY,
+                                    PeriodGranularity.MONTH, table.insertDaysAndMonths()))));
+                }
+            }
+            rows += sum(results);
+
+            // Step 2: Quarter and year rows from the fresh months
+            results.clear();
+            for (RollupTable table : List.of(TRANSACTION_ROLLUP, LEDGER_ROLLUP)) {
+                for (LocalDate year : years) {
+                    results.add(executor.submit(() -> transactionTemplate.execute(status ->
+                            rebuildRange(table, year, year.plusYears(1), PeriodGranularity.QUARTER,
+                                    PeriodGranularity.YEAR, table.insertQuartersAndYears()))));
+                }
+            }
+            rows += sum(results);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Rollup rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Rollup rebuild failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("from", firstYear);
+        summary.put("to", endYear.minusDays(1));
+        summary.put("rollupRows", rows);
+        summary.put("elapsedMillis", System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    private int rebuildRange(RollupTable table, LocalDate from, LocalDate to,
+            PeriodGranularity first, PeriodGranularity second, String insertSql) {
+        // Shared with the other chunks, exclusive against the table's writer: no batch lands between the
+        // delete and the recount. Ledger writes are not blocked; the recount reads one statement snapshot.
+        jdbcTemplate.queryForObject(WRITER_LOCK_SHARED_SQL, Integer.class, table.writerLock());
+        jdbcTemplate.update(table.deleteRange(), first.name(), second.name(), Date.valueOf(from), Date.valueOf(to));
+        return jdbcTemplate.update(insertSql, from.atStartOfDay(), to.atStartOfDay());
+    }
+
+    private static int sum(List<Future<Integer>> results) throws InterruptedException, ExecutionException {
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        return total;
+    }
+}
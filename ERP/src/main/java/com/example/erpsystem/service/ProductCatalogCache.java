@@ -0,0 +1,93 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.Product;
+import com.example.erpsystem.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+// Two-tier read cache for product lookups (POS scans). Catalog attributes change a few
+// times a day and live for seconds; stock changes constantly, so it sits in its own tier
+// with a TTL of about a second and is dropped as soon as a stock write commits.
+// Invalidation only reaches this node: another node keeps serving the old name or price
+// until its catalog TTL runs out, so that TTL is the bound on cross-node staleness.
+@Component
+public class ProductCatalogCache {
+
+    private record CatalogEntry(Long id, String name, String description, Money price, String sku, String barcode) {}
+
+    // Published by every product or stock write; applied only after the writing transaction commits,
+    // so a concurrent reader cannot cache the old row again after the eviction
+    public record ProductsChanged(Collection<Long> productIds, boolean catalogChanged) {}
+
+    private final ProductRepository productRepository;
+    private final Cache<Long, CatalogEntry> catalog;
+    private final Cache<Long, Integer> stock;
+
+    public ProductCatalogCache(
+            ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.product-cache.catalog-max-size:10000}") long catalogMaxSize,
+            @Value("${inventory.product-cache.catalog-ttl-seconds:30}") long catalogTtlSeconds,
+            @Value("${inventory.product-cache.stock-ttl-millis:1000}") long stockTtlMillis) {
+        this.productRepository = productRepository;
+        this.catalog = Caffeine.newBuilder()
+                .maximumSize(catalogMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(catalogTtlSeconds))
+                .recordStats()
+                .build();
+        this.stock = Caffeine.newBuilder()
+                .maximumSize(catalogMaxSize)
+                .expireAfterWrite(Duration.ofMillis(stockTtlMillis))
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size, ... tagged cache=products.catalog|products.stock
+        CaffeineCacheMetrics.monitor(meterRegistry, catalog, "products.catalog");
+        CaffeineCacheMetrics.monitor(meterRegistry, stock, "products.stock");
+    }
+
+    // A detached copy assembled from both tiers; callers that modify the product must load the entity
+    public Product get(Long productId) {
+        CatalogEntry entry = catalog.get(productId, this::loadCatalog);
+        Integer currentStock = stock.get(productId, productRepository::findStockById);
+        if (entry == null || currentStock == null) {
+            throw new NoSuchElementException("Product not found");
+        }
+        Product product = new Product();
+        product.setId(entry.id());
+        product.setName(entry.name());
+        product.setDescription(entry.description());
+        product.setPrice(entry.price());
+        product.setStock(currentStock);
+        product.setSku(entry.sku());
+        product.setBarcode(entry.barcode());
+        return product;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductsChanged event) {
+        stock.invalidateAll(event.productIds());
+        if (event.catalogChanged()) {
+            catalog.invalidateAll(event.productIds());
+        }
+    }
+
+    private CatalogEntry loadCatalog(Long productId) {
+        return productRepository.findById(productId)
+                .map(product -> new CatalogEntry(product.getId(), product.getName(), product.getDescription(),
+                        product.getPrice(), product.getSku(), product.getBarcode()))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.erpsystem.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Scan code -> product id, held in primitive open-addressing maps so a POS lookup is a
+// couple of array reads. Barcodes are numeric and used as keys directly; SKUs are keyed
+// by a 64-bit hash, so callers confirm the SKU on the product they get back.
+@Component
+public class ProductCodeIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCodeIndex.class);
+
+    private static final int INITIAL_CAPACITY = 1_024;
+    private static final int MAX_BARCODE_DIGITS = 14;
+
+    // Published by product create/update/delete with the codes before and after the change
+    public record ProductCodesChanged(Long productId, String oldSku, String oldBarcode, String newSku, String newBarcode) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LongLongOpenHashMap barcodes = new LongLongOpenHashMap(INITIAL_CAPACITY);
+    private final LongLongOpenHashMap skus = new LongLongOpenHashMap(INITIAL_CAPACITY);
+
+    public ProductCodeIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.query("SELECT id, sku, barcode FROM product WHERE sku IS NOT NULL OR barcode IS NOT NULL",
+                rs -> {
+                    add(rs.getLong(1), rs.getString(2), rs.getString(3));
+                });
+        log.info("Indexed {} barcodes and {} SKUs in {} ms", barcodes.size(), skus.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    // Product id for a scanned code, or null. A SKU hit is only a candidate until the caller checks it.
+    public Long lookup(String code) {
+        long barcodeKey = barcodeKey(code);
+        if (barcodeKey >= 0) {
+            long productId = barcodes.get(barcodeKey);
+            if (productId != LongLongOpenHashMap.NO_VALUE) {
+                return productId;
+            }
+        }
+        long productId = skus.get(skuKey(code));
+        return productId == LongLongOpenHashMap.NO_VALUE ? null : productId;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductCodesChanged(ProductCodesChanged event) {
+        long productId = event.productId();
+        if (event.oldBarcode() != null) {
+            barcodes.remove(barcodeKey(event.oldBarcode()), productId);
+        }
+        if (event.oldSku() != null) {
+            skus.remove(skuKey(event.oldSku()), productId);
+        }
+        add(productId, event.newSku(), event.newBarcode());
+    }
+
+    public int barcodeCount() {
+        return barcodes.size();
+    }
+
+    public int skuCount() {
+        return skus.size();
+    }
+
+    public long footprintBytes() {
+        return barcodes.footprintBytes() + skus.footprintBytes();
+    }
+
+    void add(long productId, String sku, String barcode) {
+        if (barcode != null && barcodeKey(barcode) >= 0) {
+            barcodes.put(barcodeKey(barcode), productId);
+        }
+        if (sku != null) {
+            skus.put(skuKey(sku), productId);
+        }
+    }
+
+    // The digits as a number, or -1 when the code cannot be a barcode
+    static long barcodeKey(String code) {
+        if (code.isEmpty() || code.length() > MAX_BARCODE_DIGITS) {
+            return -1;
+        }
+        long key = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            key = key * 10 + (c - '0');
+        }
+        // Leading zeros are significant in GTINs; the length keeps "0012" and "12" apart
+        return key * 100 + code.length();
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars, without copying the string
+    static long skuKey(String sku) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < sku.length(); i++) {
+            hash ^= sku.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
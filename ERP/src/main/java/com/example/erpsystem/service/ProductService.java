@@ -1,61 +1,183 @@
 package com.example.erpsystem.service;
 
+import com.example.erpsystem.dto.CursorPage;
 import com.example.erpsystem.model.Product;
 import com.example.erpsystem.repository.ProductRepository;
+import com.example.erpsystem.service.ProductCatalogCache.ProductsChanged;
+import com.example.erpsystem.service.ProductCodeIndex.ProductCodesChanged;
+import com.example.erpsystem.service.StockMutationService.StockMutationResult;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final StockMutationService stockMutationService;
+    private final InventoryValuationService inventoryValuationService;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductCodeIndex productCodeIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository,
+                          StockMutationService stockMutationService,
+                          InventoryValuationService inventoryValuationService,
+                          ProductCatalogCache productCatalogCache,
+                          ProductCodeIndex productCodeIndex,
+                          ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.stockMutationService = stockMutationService;
+        this.inventoryValuationService = inventoryValuationService;
+        this.productCatalogCache = productCatalogCache;
+        this.productCodeIndex = productCodeIndex;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        normalizeCodes(product);
+        // Point-in-time stock leaves the product out before this, as its initial stock is not a ledger movement
+        product.setCreatedAt(LocalDateTime.now());
+        Product savedProduct = productRepository.save(product);
+        // Initial stock becomes an opening cost layer at the list price
+        inventoryValuationService.recordAdjustment(savedProduct.getId(), savedProduct.getStock(), unitCost(savedProduct));
+        // Drops a cached "not found" stock miss or a stale row left by an earlier product with this id
+        eventPublisher.publishEvent(new ProductsChanged(List.of(savedProduct.getId()), true));
+        eventPublisher.publishEvent(new ProductCodesChanged(savedProduct.getId(), null, null,
+                savedProduct.getSku(), savedProduct.getBarcode()));
+        return savedProduct;
     }
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    // Keyset page ordered by id (default) or by the unique name, optionally narrowed to a name prefix
+    public CursorPage<Product> getProductsPage(String cursor, Integer size, String sort, String namePrefix) {
+        int pageSize = CursorPage.pageSize(size);
+        String pattern = namePrefix == null ? "%" : namePrefix.replaceAll("([\\\\%_])", "\\\\$1") + "%";
+        PageRequest lookahead = PageRequest.of(0, pageSize + 1);
+
+        if (sort == null || sort.equals("id")) {
+            long afterId = cursor == null ? 0 : CursorPage.cursorId(CursorPage.decodeCursor(cursor, 1)[0]);
+            List<Product> rows = productRepository.findPageById(afterId, pattern, lookahead);
+            return CursorPage.of(rows, pageSize, last -> last.getId().toString());
+        }
+        if (sort.equals("name")) {
+            String afterName = cursor == null ? "" : CursorPage.decodeCursor(cursor, 1)[0];
+            List<Product> rows = productRepository.findPageByName(afterName, pattern, lookahead);
+            return CursorPage.of(rows, pageSize, Product::getName);
+        }
+        throw new IllegalArgumentException("Sort must be either 'id' or 'name'.");
     }
 
+    // Served from the catalog and stock cache tiers; returns a detached copy
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        return productCatalogCache.get(id);
     }
 
+    // Scanned SKU or barcode, resolved through the in-memory code index
+    public Product getProductByCode(String code) {
+        if (code == null || code.isBlank()) {
+            throw new IllegalArgumentException("Code is required.");
+        }
+        String trimmed = code.trim();
+        Long productId = productCodeIndex.lookup(trimmed);
+        if (productId != null) {
+            Product product = productCatalogCache.get(productId);
+            if (trimmed.equals(product.getBarcode()) || trimmed.equals(product.getSku())) {
+                return product;
+            }
+        }
+        // Not indexed yet (created on another node), or a SKU hash collision: one query over both columns
+        return productRepository.findByCode(trimmed).stream()
+                .findFirst()
+                .map(product -> productCatalogCache.get(product.getId()))
+                .orElseThrow(() -> new NoSuchElementException("No product with code " + trimmed));
+    }
+
+    @Transactional
     public Product updateProduct(Long id, Product updatedProduct) {
-        Product product = getProductById(id);
+        normalizeCodes(updatedProduct);
+        // Locked so no sale commits between reading the stock and writing the new one
+        Product product = productRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        int stockDelta = updatedProduct.getStock() - product.getStock();
+        String oldSku = product.getSku();
+        String oldBarcode = product.getBarcode();
         product.setName(updatedProduct.getName());
         product.setDescription(updatedProduct.getDescription());
         product.setPrice(updatedProduct.getPrice());
         product.setStock(updatedProduct.getStock());
-        return productRepository.save(product);
+        product.setSku(updatedProduct.getSku());
+        product.setBarcode(updatedProduct.getBarcode());
+        Product savedProduct = productRepository.save(product);
+        // Manual stock corrections bypass the ledger, so adjust the cost layers directly
+        inventoryValuationService.recordAdjustment(id, stockDelta, unitCost(savedProduct));
+        eventPublisher.publishEvent(new ProductsChanged(List.of(id), true));
+        eventPublisher.publishEvent(new ProductCodesChanged(id, oldSku, oldBarcode,
+                savedProduct.getSku(), savedProduct.getBarcode()));
+        return savedProduct;
     }
 
+    private BigDecimal unitCost(Product product) {
+        return product.getPrice().toBigDecimal();
+    }
+
+    // Codes are stored trimmed, as scans are looked up trimmed; blank codes are stored as null.
+    // Barcodes are GTIN-8/12/13/14 digit strings.
+    private static void normalizeCodes(Product product) {
+        product.setSku(trimToNull(product.getSku()));
+        product.setBarcode(trimToNull(product.getBarcode()));
+        String barcode = product.getBarcode();
+        if (barcode != null && !barcode.matches("\\d{8}|\\d{12,14}")) {
+            throw new IllegalArgumentException("Barcode must be 8, 12, 13 or 14 digits.");
+        }
+    }
+
+    private static String trimToNull(String code) {
+        return code == null || code.isBlank() ? null : code.trim();
+    }
+
+    @Transactional
     public void deleteProduct(Long id) {
-        productRepository.deleteById(id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        inventoryValuationService.removeProduct(id);
+        productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductsChanged(List.of(id), true));
+        eventPublisher.publishEvent(new ProductCodesChanged(id, product.getSku(), product.getBarcode(), null, null));
     }
     @Transactional
     public void updateProductStock(Long productId, Integer quantity, String transactionType) {
-        Product product = getProductById(productId);
-        
-        if (transactionType.equals("IN")) {
-            product.setStock(product.getStock() + quantity);
-        } else if (transactionType.equals("OUT")) {
-            if (product.getStock() < quantity) {
-                throw new IllegalStateException("Insufficient stock for product: " + product.getName());
-            }
-            product.setStock(product.getStock() - quantity);
-        } else {
-            throw new IllegalArgumentException("Invalid transaction type. Must be either 'IN' or 'OUT'");
+        StockMutationResult result = stockMutationService.apply(productId, quantity, transactionType);
+
+        if (result == StockMutationResult.PRODUCT_NOT_FOUND) {
+            throw new RuntimeException("Product not found");
+        }
+        if (result == StockMutationResult.INSUFFICIENT_STOCK) {
+            throw new IllegalStateException("Insufficient stock for product: " + getProductById(productId).getName()
+                    + ". Requested: " + quantity);
         }
-        
-        productRepository.save(product);
+    }
+
+    // Signed deltas (positive IN, negative OUT) for several products, applied all-or-nothing
+    @Transactional
+    public void updateProductStocks(Map<Long, Integer> deltas) {
+        List<Long> rejected = stockMutationService.applyAll(deltas);
+        if (rejected.isEmpty()) {
+            return;
+        }
+
+        // The exception rolls back the deltas that did apply
+        Long productId = rejected.get(0);
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + productId));
+        throw new IllegalStateException("Insufficient stock for product: " + product.getName()
+                + ". Requested: " + Math.abs(deltas.get(productId)));
     }
 }
@@ -0,0 +1,174 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.repository.MilestoneRepository;
+import com.example.erpsystem.repository.ProjectRepository;
+import com.example.erpsystem.repository.TaskRepository;
+import com.example.erpsystem.service.TokenService.TokenClaims;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+// Project authorization checks for @PreAuthorize and the project services. Each project's
+// manager id and sorted member ids are cached as a long[], so a membership check is a
+// binary search. Teams larger than max-members-per-project are not held; their checks
+// go to an exists query on the join table instead.
+// Team writes only invalidate this node's entry. A "no" from the cache is therefore
+// confirmed against the database, so an added member or a new manager is let in at once
+// on every node; a removal on another node takes effect within the TTL.
+@Component
+public class ProjectAccess {
+
+    private static final int MAX_CACHED_PARENTS = 100_000;
+
+    // Published by writes to a project's team or manager
+    public record ProjectMembersChanged(Long projectId) {}
+
+    // memberIds is null for a team too large to cache
+    private record ProjectMembers(long managerId, long[] memberIds) {}
+
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+    private final MilestoneRepository milestoneRepository;
+    private final int maxMembersPerProject;
+    private final Cache<Long, ProjectMembers> projects;
+    // Tasks and milestones never move between projects
+    private final Cache<Long, Long> taskProjects;
+    private final Cache<Long, Long> milestoneProjects;
+
+    public ProjectAccess(
+            ProjectRepository projectRepository,
+            TaskRepository taskRepository,
+            MilestoneRepository milestoneRepository,
+            MeterRegistry meterRegistry,
+            @Value("${projects.access-cache.max-member-ids:1000000}") long maxMemberIds,
+            @Value("${projects.access-cache.max-members-per-project:20000}") int maxMembersPerProject,
+            @Value("${projects.access-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+        this.milestoneRepository = milestoneRepository;
+        this.maxMembersPerProject = maxMembersPerProject;
+        this.projects = Caffeine.newBuilder()
+                .maximumWeight(maxMemberIds)
+                .<Long, ProjectMembers>weigher((projectId, members) ->
+                        1 + (members.memberIds() == null ? 0 : members.memberIds().length))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.taskProjects = Caffeine.newBuilder().maximumSize(MAX_CACHED_PARENTS).recordStats().build();
+        this.milestoneProjects = Caffeine.newBuilder().maximumSize(MAX_CACHED_PARENTS).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, projects, "projects.members");
+        CaffeineCacheMetrics.monitor(meterRegistry, taskProjects, "projects.tasks");
+        CaffeineCacheMetrics.monitor(meterRegistry, milestoneProjects, "projects.milestones");
+    }
+
+    public boolean isTeamMember(Long projectId, Object principal) {
+        return isMember(projectId, userId(principal));
+    }
+
+    public boolean isProjectManager(Long projectId, Object principal) {
+        return isManager(projectId, userId(principal));
+    }
+
+    public boolean isTaskTeamMember(Long taskId, Object principal) {
+        return isMember(taskProject(taskId), userId(principal));
+    }
+
+    public boolean isTaskProjectManager(Long taskId, Object principal) {
+        return isManager(taskProject(taskId), userId(principal));
+    }
+
+    public boolean isMilestoneProjectManager(Long milestoneId, Object principal) {
+        return isManager(milestoneProject(milestoneId), userId(principal));
+    }
+
+    // Assignment changes with every reassignment, so it is not cached
+    public boolean isAssignedUser(Long taskId, Object principal) {
+        Long userId = userId(principal);
+        return taskId != null && userId != null && taskRepository.isAssignedTo(taskId, userId);
+    }
+
+    public boolean isMember(Long projectId, Long userId) {
+        ProjectMembers members = members(projectId);
+        if (members == null || userId == null) {
+            return false;
+        }
+        if (members.memberIds() == null) {
+            return projectRepository.isTeamMember(projectId, userId);
+        }
+        if (Arrays.binarySearch(members.memberIds(), userId) >= 0) {
+            return true;
+        }
+        return confirm(projectId, projectRepository.isTeamMember(projectId, userId));
+    }
+
+    public boolean isManager(Long projectId, Long userId) {
+        ProjectMembers members = members(projectId);
+        if (members == null || userId == null) {
+            return false;
+        }
+        if (members.managerId() == userId) {
+            return true;
+        }
+        return confirm(projectId, projectRepository.findProjectManagerId(projectId).filter(userId::equals).isPresent());
+    }
+
+    public boolean projectExists(Long projectId) {
+        return members(projectId) != null;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectMembersChanged(ProjectMembersChanged event) {
+        projects.invalidate(event.projectId());
+    }
+
+    // The database said yes where the cache said no: the entry predates a write on another node
+    private boolean confirm(Long projectId, boolean granted) {
+        if (granted) {
+            projects.invalidate(projectId);
+        }
+        return granted;
+    }
+
+    private ProjectMembers members(Long projectId) {
+        return projectId == null ? null : projects.get(projectId, this::load);
+    }
+
+    private Long taskProject(Long taskId) {
+        return taskId == null ? null : taskProjects.get(taskId, id -> taskRepository.findProjectId(id).orElse(null));
+    }
+
+    private Long milestoneProject(Long milestoneId) {
+        return milestoneId == null ? null
+                : milestoneProjects.get(milestoneId, id -> milestoneRepository.findProjectId(id).orElse(null));
+    }
+
+    private ProjectMembers load(Long projectId) {
+        Long managerId = projectRepository.findProjectManagerId(projectId).orElse(null);
+        if (managerId == null) {
+            return null;
+        }
+        // One row past the limit tells us the team is too large without counting it
+        List<Long> memberIds = projectRepository.findTeamMemberIds(projectId, maxMembersPerProject + 1);
+        if (memberIds.size() > maxMembersPerProject) {
+            return new ProjectMembers(managerId, null);
+        }
+        long[] sorted = memberIds.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return new ProjectMembers(managerId, sorted);
+    }
+
+    private static Long userId(Object principal) {
+        return principal instanceof TokenClaims claims ? claims.userId() : null;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.erpsystem.service;
 
+import com.example.erpsystem.dto.CurrentUser;
 import com.example.erpsystem.model.*;
 import com.example.erpsystem.repository.*;
+import com.example.erpsystem.service.ProjectAccess.ProjectMembersChanged;
+
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -9,10 +13,15 @@ import org.springframework.transaction.annotation.Transactional;
 public class ProjectService {
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
+    private final ProjectAccess projectAccess;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProjectService(ProjectRepository projectRepository, UserRepository userRepository) {
+    public ProjectService(ProjectRepository projectRepository, UserRepository userRepository,
+                          ProjectAccess projectAccess, ApplicationEventPublisher eventPublisher) {
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
+        this.projectAccess = projectAccess;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -31,20 +40,23 @@ public class ProjectService {
     }
 
     @Transactional
-    public void addTeamMember(Long projectId, Long userId, User requestingUser) {
-        Project project = projectRepository.findById(projectId)
-            .orElseThrow(() -> new RuntimeException("Project not found"));
+    public void addTeamMember(Long projectId, Long userId, CurrentUser requestingUser) {
+        if (!projectAccess.projectExists(projectId)) {
+            throw new RuntimeException("Project not found");
+        }
             
         // Only project manager or admins can add team members
-        if (!hasAdminRole(requestingUser) && !project.getProjectManager().equals(requestingUser)) {
+        if (!requestingUser.isAdmin() && !projectAccess.isManager(projectId, requestingUser.id())) {
             throw new RuntimeException("Unauthorized to modify project team");
         }
 
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
             
-        project.getTeamMembers().add(user);
-        projectRepository.save(project);
+        // Inserted into the join table directly, so a large team is not loaded to add one member
+        projectRepository.addTeamMember(projectId, userId);
+        eventPublisher.publishEvent(new ProjectMembersChanged(projectId));
     }
 
     private boolean hasAdminRole(User user) {
@@ -0,0 +1,287 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.Milestone.MilestoneStatus;
+import com.example.erpsystem.model.Task.TaskStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+// Flat, immutable projection of a project's tasks and milestones for timeline/Gantt views,
+// held column by column (dates as UTC epoch seconds, statuses as enum ordinals, absent
+// assignee/milestone as 0). Task dependencies are one id array with per-task offsets.
+public final class ProjectTimeline {
+
+    private static final TaskStatus[] TASK_STATUSES = TaskStatus.values();
+    private static final MilestoneStatus[] MILESTONE_STATUSES = MilestoneStatus.values();
+
+    // Binary layout: "ERPT", a format version, then every column back to back (see writeColumnar)
+    private static final int MAGIC = 0x45525054;
+    private static final byte COLUMNAR_VERSION = 1;
+
+    private final long projectId;
+    private final int taskCount;
+    private final long[] taskIds;
+    private final String[] titles;
+    private final long[] startDates;
+    private final long[] dueDates;
+    private final byte[] statuses;
+    private final byte[] progress;
+    private final long[] assigneeIds;
+    private final long[] milestoneIds;
+    private final int[] dependencyOffsets;
+    private final long[] dependencyIds;
+
+    private final int milestoneCount;
+    private final long[] milestoneIdColumn;
+    private final String[] milestoneTitles;
+    private final long[] milestoneDueDates;
+    private final byte[] milestoneStatuses;
+
+    private final String contentHash;
+
+    private ProjectTimeline(Builder builder) {
+        projectId = builder.projectId;
+        taskCount = builder.taskCount;
+        taskIds = Arrays.copyOf(builder.taskIds, taskCount);
+        titles = Arrays.copyOf(builder.titles, taskCount);
+        startDates = Arrays.copyOf(builder.startDates, taskCount);
+        dueDates = Arrays.copyOf(builder.dueDates, taskCount);
+        statuses = Arrays.copyOf(builder.statuses, taskCount);
+        progress = Arrays.copyOf(builder.progress, taskCount);
+        assigneeIds = Arrays.copyOf(builder.assigneeIds, taskCount);
+        milestoneIds = Arrays.copyOf(builder.milestoneIds, taskCount);
+        dependencyOffsets = Arrays.copyOf(builder.dependencyOffsets, taskCount + 1);
+        dependencyIds = Arrays.copyOf(builder.dependencyIds, dependencyOffsets[taskCount]);
+        milestoneCount = builder.milestoneCount;
+        milestoneIdColumn = Arrays.copyOf(builder.milestoneIdColumn, milestoneCount);
+        milestoneTitles = Arrays.copyOf(builder.milestoneTitles, milestoneCount);
+        milestoneDueDates = Arrays.copyOf(builder.milestoneDueDates, milestoneCount);
+        milestoneStatuses = Arrays.copyOf(builder.milestoneStatuses, milestoneCount);
+        contentHash = Long.toHexString(hash());
+    }
+
+    public int taskCount() {
+        return taskCount;
+    }
+
+    public int milestoneCount() {
+        return milestoneCount;
+    }
+
+    // Same data on any node gives the same tag, so it holds behind a load balancer and across restarts
+    public String contentHash() {
+        return contentHash;
+    }
+
+    void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("projectId", projectId);
+        generator.writeArrayFieldStart("tasks");
+        for (int i = 0; i < taskCount; i++) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", taskIds[i]);
+            generator.writeStringField("title", titles[i]);
+            generator.writeStringField("startDate", dateTime(startDates[i]).toString());
+            generator.writeStringField("dueDate", dateTime(dueDates[i]).toString());
+            generator.writeStringField("status", TASK_STATUSES[statuses[i]].name());
+            generator.writeNumberField("progress", progress[i]);
+            // Absent values and empty lists are left out rather than written as null/[]
+            if (assigneeIds[i] != 0) {
+                generator.writeNumberField("assigneeId", assigneeIds[i]);
+            }
+            if (milestoneIds[i] != 0) {
+                generator.writeNumberField("milestoneId", milestoneIds[i]);
+            }
+            if (dependencyOffsets[i + 1] > dependencyOffsets[i]) {
+                generator.writeFieldName("dependencyIds");
+                generator.writeArray(dependencyIds, dependencyOffsets[i], dependencyOffsets[i + 1] - dependencyOffsets[i]);
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("milestones");
+        for (int i = 0; i < milestoneCount; i++) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", milestoneIdColumn[i]);
+            generator.writeStringField("title", milestoneTitles[i]);
+            generator.writeStringField("dueDate", dateTime(milestoneDueDates[i]).toString());
+            generator.writeStringField("status", MILESTONE_STATUSES[milestoneStatuses[i]].name());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    // Big-endian, fixed-width columns so a client can map each one straight onto a typed array:
+    // header (magic, version, projectId, task/milestone/dependency counts, status names), then
+    // task ids, start and due seconds, status and progress bytes, assignee and milestone ids,
+    // dependency offsets (taskCount + 1 ints), dependency ids, titles (DataOutput.writeUTF);
+    // then milestone ids, due seconds, status bytes and titles
+    void writeColumnar(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(COLUMNAR_VERSION);
+        out.writeLong(projectId);
+        out.writeInt(taskCount);
+        out.writeInt(milestoneCount);
+        out.writeInt(dependencyIds.length);
+        out.writeByte(TASK_STATUSES.length);
+        for (TaskStatus status : TASK_STATUSES) {
+            out.writeUTF(status.name());
+        }
+        out.writeByte(MILESTONE_STATUSES.length);
+        for (MilestoneStatus status : MILESTONE_STATUSES) {
+            out.writeUTF(status.name());
+        }
+
+        writeLongs(out, taskIds);
+        writeLongs(out, startDates);
+        writeLongs(out, dueDates);
+        out.write(statuses);
+        out.write(progress);
+        writeLongs(out, assigneeIds);
+        writeLongs(out, milestoneIds);
+        for (int offset : dependencyOffsets) {
+            out.writeInt(offset);
+        }
+        writeLongs(out, dependencyIds);
+        for (String title : titles) {
+            out.writeUTF(title);
+        }
+
+        writeLongs(out, milestoneIdColumn);
+        writeLongs(out, milestoneDueDates);
+        out.write(milestoneStatuses);
+        for (String title : milestoneTitles) {
+            out.writeUTF(title);
+        }
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    private long hash() {
+        long h = mix(projectId);
+        h = mix(h ^ Arrays.hashCode(taskIds));
+        h = mix(h ^ Arrays.hashCode(titles));
+        h = mix(h ^ Arrays.hashCode(startDates));
+        h = mix(h ^ Arrays.hashCode(dueDates));
+        h = mix(h ^ Arrays.hashCode(statuses));
+        h = mix(h ^ Arrays.hashCode(progress));
+        h = mix(h ^ Arrays.hashCode(assigneeIds));
+        h = mix(h ^ Arrays.hashCode(milestoneIds));
+        h = mix(h ^ Arrays.hashCode(dependencyOffsets));
+        h = mix(h ^ Arrays.hashCode(dependencyIds));
+        h = mix(h ^ Arrays.hashCode(milestoneIdColumn));
+        h = mix(h ^ Arrays.hashCode(milestoneTitles));
+        h = mix(h ^ Arrays.hashCode(milestoneDueDates));
+        return mix(h ^ Arrays.hashCode(milestoneStatuses));
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    private static long seconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime dateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    // Filled row by row while the query result streams in, then trimmed into the projection
+    static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final long projectId;
+        private int taskCount;
+        private long[] taskIds = new long[INITIAL_CAPACITY];
+        private String[] titles = new String[INITIAL_CAPACITY];
+        private long[] startDates = new long[INITIAL_CAPACITY];
+        private long[] dueDates = new long[INITIAL_CAPACITY];
+        private byte[] statuses = new byte[INITIAL_CAPACITY];
+        private byte[] progress = new byte[INITIAL_CAPACITY];
+        private long[] assigneeIds = new long[INITIAL_CAPACITY];
+        private long[] milestoneIds = new long[INITIAL_CAPACITY];
+        private int[] dependencyOffsets = new int[INITIAL_CAPACITY + 1];
+        private long[] dependencyIds = new long[INITIAL_CAPACITY];
+
+        private int milestoneCount;
+        private long[] milestoneIdColumn = new long[0];
+        private String[] milestoneTitles = new String[0];
+        private long[] milestoneDueDates = new long[0];
+        private byte[] milestoneStatuses = new byte[0];
+
+        Builder(long projectId) {
+            this.projectId = projectId;
+        }
+
+        // assigneeId and milestoneId may be null; dependencyIds may be null for none
+        Builder addTask(long taskId, String title, LocalDateTime startDate, LocalDateTime dueDate, TaskStatus status,
+                int progressPercentage, Long assigneeId, Long milestoneId, long[] taskDependencyIds) {
+            if (taskCount == taskIds.length) {
+                int capacity = taskCount * 2;
+                taskIds = Arrays.copyOf(taskIds, capacity);
+                titles = Arrays.copyOf(titles, capacity);
+                startDates = Arrays.copyOf(startDates, capacity);
+                dueDates = Arrays.copyOf(dueDates, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                progress = Arrays.copyOf(progress, capacity);
+                assigneeIds = Arrays.copyOf(assigneeIds, capacity);
+                milestoneIds = Arrays.copyOf(milestoneIds, capacity);
+                dependencyOffsets = Arrays.copyOf(dependencyOffsets, capacity + 1);
+            }
+            int i = taskCount++;
+            taskIds[i] = taskId;
+            titles[i] = title;
+            startDates[i] = seconds(startDate);
+            dueDates[i] = seconds(dueDate);
+            statuses[i] = (byte) status.ordinal();
+            progress[i] = (byte) Math.max(0, Math.min(100, progressPercentage));
+            assigneeIds[i] = assigneeId == null ? 0 : assigneeId;
+            milestoneIds[i] = milestoneId == null ? 0 : milestoneId;
+
+            int offset = dependencyOffsets[i];
+            int count = taskDependencyIds == null ? 0 : taskDependencyIds.length;
+            if (offset + count > dependencyIds.length) {
+                dependencyIds = Arrays.copyOf(dependencyIds, Math.max(dependencyIds.length * 2, offset + count));
+            }
+            if (count > 0) {
+                System.arraycopy(taskDependencyIds, 0, dependencyIds, offset, count);
+            }
+            dependencyOffsets[i + 1] = offset + count;
+            return this;
+        }
+
+        Builder addMilestone(long milestoneId, String title, LocalDateTime dueDate, MilestoneStatus status) {
+            if (milestoneCount == milestoneIdColumn.length) {
+                int capacity = Math.max(8, milestoneCount * 2);
+                milestoneIdColumn = Arrays.copyOf(milestoneIdColumn, capacity);
+                milestoneTitles = Arrays.copyOf(milestoneTitles, capacity);
+                milestoneDueDates = Arrays.copyOf(milestoneDueDates, capacity);
+                milestoneStatuses = Arrays.copyOf(milestoneStatuses, capacity);
+            }
+            int i = milestoneCount++;
+            milestoneIdColumn[i] = milestoneId;
+            milestoneTitles[i] = title;
+            milestoneDueDates[i] = seconds(dueDate);
+            milestoneStatuses[i] = (byte) status.ordinal();
+            return this;
+        }
+
+        ProjectTimeline build() {
+            return new ProjectTimeline(this);
+        }
+    }
+}
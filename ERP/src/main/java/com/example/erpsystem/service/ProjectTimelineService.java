@@ -0,0 +1,192 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.Milestone.MilestoneStatus;
+import com.example.erpsystem.model.Task.TaskStatus;
+import com.example.erpsystem.service.TaskScheduleService.TaskDatesChanged;
+import com.example.erpsystem.service.TaskScheduleService.TaskDependencyAdded;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+// Timeline/Gantt data for a project, served from a cached flat projection instead of the
+// Project entity graph. The projection is read with one query for the tasks (dependency ids
+// aggregated per row) and one for the milestones, and dropped when a task or milestone commits.
+// Those commits only reach this node, so each projection is also reloaded ttl-minutes after loading.
+@Service
+public class ProjectTimelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectTimelineService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String TASKS_SQL =
+            "SELECT t.id, t.title, t.start_date, t.due_date, t.status, t.progress_percentage, t.assigned_to_id, "
+            + "t.milestone_id, (SELECT array_agg(d.dependent_task_id ORDER BY d.dependent_task_id) "
+            + "FROM task_dependencies d WHERE d.task_id = t.id) "
+            + "FROM task t WHERE t.project_id = ? ORDER BY t.start_date, t.id";
+
+    private static final String MILESTONES_SQL =
+            "SELECT id, title, due_date, status FROM milestone WHERE project_id = ? ORDER BY due_date, id";
+
+    // Published by task and milestone writes the other project events do not cover
+    public record ProjectTimelineChanged(Long projectId) {}
+
+    public enum TimelineFormat {
+        JSON("application/json", "json"),
+        COLUMNAR("application/octet-stream", "bin");
+
+        private final String contentType;
+        private final String extension;
+
+        TimelineFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static TimelineFormat parse(String format) {
+            if (format == null || format.equalsIgnoreCase("json")) {
+                return JSON;
+            }
+            if (format.equalsIgnoreCase("columnar") || format.equalsIgnoreCase("bin")) {
+                return COLUMNAR;
+            }
+            throw new IllegalArgumentException("Format must be either 'json' or 'columnar'.");
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProjectAccess projectAccess;
+    private final JsonFactory jsonFactory;
+    private final Cache<Long, ProjectTimeline> timelines;
+
+    public ProjectTimelineService(
+            JdbcTemplate jdbcTemplate,
+            ProjectAccess projectAccess,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${projects.timeline-cache.max-rows:1000000}") long maxRows,
+            @Value("${projects.timeline-cache.ttl-minutes:5}") long ttlMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.projectAccess = projectAccess;
+        this.jsonFactory = objectMapper.getFactory();
+        this.timelines = Caffeine.newBuilder()
+                .maximumWeight(maxRows)
+                .<Long, ProjectTimeline>weigher((projectId, timeline) -> 1 + timeline.taskCount() + timeline.milestoneCount())
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, timelines, "projects.timeline");
+    }
+
+    public ProjectTimeline getTimeline(Long projectId) {
+        if (!projectAccess.projectExists(projectId)) {
+            throw new RuntimeException("Project not found");
+        }
+        return timelines.get(projectId, this::load);
+    }
+
+    public void write(ProjectTimeline timeline, TimelineFormat format, boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = new BufferedOutputStream(gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out, BUFFER_SIZE);
+        if (format == TimelineFormat.COLUMNAR) {
+            try (DataOutputStream data = new DataOutputStream(target)) {
+                timeline.writeColumnar(data);
+            }
+        } else {
+            try (JsonGenerator generator = jsonFactory.createGenerator(target)) {
+                timeline.writeJson(generator);
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectTimelineChanged(ProjectTimelineChanged event) {
+        timelines.invalidate(event.projectId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskDatesChanged(TaskDatesChanged event) {
+        timelines.invalidate(event.projectId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskDependencyAdded(TaskDependencyAdded event) {
+        timelines.invalidate(event.projectId());
+    }
+
+    private ProjectTimeline load(Long projectId) {
+        long started = System.currentTimeMillis();
+        ProjectTimeline.Builder builder = new ProjectTimeline.Builder(projectId);
+        jdbcTemplate.query(TASKS_SQL, rs -> {
+            builder.addTask(
+                    rs.getLong(1),
+                    rs.getString(2),
+                    rs.getTimestamp(3).toLocalDateTime(),
+                    rs.getTimestamp(4).toLocalDateTime(),
+                    TaskStatus.valueOf(rs.getString(5)),
+                    rs.getInt(6),
+                    nullableLong(rs, 7),
+                    nullableLong(rs, 8),
+                    longs(rs.getArray(9)));
+        }, projectId);
+        jdbcTemplate.query(MILESTONES_SQL, rs -> {
+            builder.addMilestone(
+                    rs.getLong(1),
+                    rs.getString(2),
+                    rs.getTimestamp(3).toLocalDateTime(),
+                    MilestoneStatus.valueOf(rs.getString(4)));
+        }, projectId);
+        ProjectTimeline timeline = builder.build();
+        log.info("Loaded timeline of project {}: {} tasks, {} milestones in {} ms", projectId, timeline.taskCount(),
+                timeline.milestoneCount(), System.currentTimeMillis() - started);
+        return timeline;
+    }
+
+    private static long[] longs(Array array) throws SQLException {
+        if (array == null) {
+            return null;
+        }
+        Object[] values = (Object[]) array.getArray();
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = ((Number) values[i]).longValue();
+        }
+        array.free();
+        return result;
+    }
+
+    private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+}
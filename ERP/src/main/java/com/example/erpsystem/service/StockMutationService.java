@@ -0,0 +1,93 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.repository.ProductRepository;
+import com.example.erpsystem.service.ProductCatalogCache.ProductsChanged;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class StockMutationService {
+
+    public enum StockMutationResult {
+        APPLIED, INSUFFICIENT_STOCK, PRODUCT_NOT_FOUND
+    }
+
+    // Locks the rows in id order first, so concurrent multi-product sales cannot deadlock,
+    // then applies every guarded delta in the same statement
+    private static final String APPLY_DELTAS_SQL =
+            "WITH locked AS (SELECT id FROM product WHERE id = ANY(?::bigint[]) ORDER BY id FOR UPDATE) "
+            + "UPDATE product p SET stock = p.stock + d.delta "
+            + "FROM unnest(?::bigint[], ?::int[]) AS d(id, delta) JOIN locked l ON l.id = d.id "
+            + "WHERE p.id = d.id AND p.stock + d.delta >= 0 "
+            + "RETURNING p.id";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockMutationService(ProductRepository productRepository, JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Applies an IN/OUT delta as a single conditional UPDATE, so concurrent sales
+    // of the same product can never drive stock below zero.
+    @Transactional
+    public StockMutationResult apply(Long productId, int quantity, String transactionType) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero.");
+        }
+
+        int updatedRows;
+        if ("IN".equals(transactionType)) {
+            updatedRows = productRepository.incrementStock(productId, quantity);
+        } else if ("OUT".equals(transactionType)) {
+            updatedRows = productRepository.decrementStock(productId, quantity);
+        } else {
+            throw new IllegalArgumentException("Invalid transaction type. Must be either 'IN' or 'OUT'");
+        }
+
+        if (updatedRows == 1) {
+            eventPublisher.publishEvent(new ProductsChanged(List.of(productId), false));
+            return StockMutationResult.APPLIED;
+        }
+        // Nothing matched: either the stock guard rejected it or the product is gone
+        return productRepository.existsById(productId)
+                ? StockMutationResult.INSUFFICIENT_STOCK
+                : StockMutationResult.PRODUCT_NOT_FOUND;
+    }
+
+    // Applies signed stock deltas for many products in one round trip.
+    // Returns the products whose delta was not applied (missing or not enough stock);
+    // callers must roll back when the list is not empty.
+    @Transactional
+    public List<Long> applyAll(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return List.of();
+        }
+        Long[] productIds = deltas.keySet().toArray(new Long[0]);
+        Integer[] quantities = deltas.values().toArray(new Integer[0]);
+
+        Set<Long> applied = new HashSet<>(jdbcTemplate.queryForList(
+                APPLY_DELTAS_SQL, Long.class, productIds, productIds, quantities));
+        eventPublisher.publishEvent(new ProductsChanged(applied, false));
+
+        List<Long> rejected = new ArrayList<>();
+        for (Long productId : productIds) {
+            if (!applied.contains(productId)) {
+                rejected.add(productId);
+            }
+        }
+        return rejected;
+    }
+}
@@ -1,39 +1,32 @@
 package com.example.erpsystem.service;
 
+import com.example.erpsystem.dto.CursorPage;
 import com.example.erpsystem.model.*;
 import com.example.erpsystem.repository.*;
-import java.io.IOException;
-
-import com.itextpdf.barcodes.BarcodeQRCode;
-import com.itextpdf.io.font.constants.StandardFonts;
-import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
-import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.borders.Border;
-import com.itextpdf.layout.borders.SolidBorder;
-import com.itextpdf.layout.element.Cell;
-import com.itextpdf.layout.element.Image;
-import com.itextpdf.layout.element.Paragraph;
+import com.example.erpsystem.service.PdfRenderingEngine.DocumentType;
 import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.properties.HorizontalAlignment;
-import com.itextpdf.layout.properties.TextAlignment;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class StockTransactionService {
+
+    public static final int MAX_BATCH_SIZE = 10_000;
 	
 	@Value("${stock.bill.storage.path}")
     private String stockBillStoragePath; 
@@ -43,18 +36,27 @@ public class StockTransactionService {
     private final TransactionService transactionService;
     private final StockTransactionBillRepository stockTransactionBillRepository;
     private final ProductService productService;
+    private final InventoryValuationService inventoryValuationService;
+    private final PdfRenderingEngine pdfRenderingEngine;
+    private final GeneralLedgerService generalLedgerService;
     public StockTransactionService(
             StockTransactionRepository stockTransactionRepository,
             ProductRepository productRepository,
             TransactionService transactionService,
             StockTransactionBillRepository stockTransactionBillRepository,
-            ProductService productService
+            ProductService productService,
+            InventoryValuationService inventoryValuationService,
+            PdfRenderingEngine pdfRenderingEngine,
+            GeneralLedgerService generalLedgerService
     ) {
         this.stockTransactionRepository = stockTransactionRepository;
         this.productRepository = productRepository;
         this.transactionService = transactionService;
         this.stockTransactionBillRepository = stockTransactionBillRepository;
         this.productService= productService;
+        this.inventoryValuationService = inventoryValuationService;
+        this.pdfRenderingEngine = pdfRenderingEngine;
+        this.generalLedgerService = generalLedgerService;
     }
     
    
@@ -76,7 +78,7 @@ public class StockTransactionService {
         return stockTransactionRepository.save(transaction);
     }
     
-    public StockTransaction createPurchaseTransaction(Long productId, Integer quantity, BigDecimal pricePerUnit) {
+    public StockTransaction createPurchaseTransaction(Long productId, Integer quantity, Money pricePerUnit) {
         Product product = productRepository.findById(productId)
             .orElseThrow(() -> new RuntimeException("Product not found"));
 
@@ -95,7 +97,7 @@ public class StockTransactionService {
             Long productId,
             Integer quantity,
             String type,
-            BigDecimal pricePerUnit,
+            Money pricePerUnit,
             Invoice invoice) {
     	
     	
@@ -118,29 +120,95 @@ public class StockTransactionService {
         
         // Save the stock transaction
         StockTransaction savedTransaction = stockTransactionRepository.save(transaction);
+
+        // Update the product's cost layers and running value
+        inventoryValuationService.recordMovements(List.of(savedTransaction));
+
+        // Post to the general ledger once this transaction commits
+        generalLedgerService.postStockTransactions(List.of(savedTransaction));
         
         // Create corresponding accounting transaction if not part of an invoice
         if (invoice == null) {
-            String description = String.format(
-                "%s of %d units of %s at %.2f per unit",
-                type.equals("IN") ? "Purchase" : "Sale",
-                quantity,
-                product.getName(),
-                pricePerUnit.doubleValue()
-            );
-            
-            String transactionType = type.equals("IN") ? "EXPENSE" : "INCOME";
-            
-            transactionService.recordTransaction(
-                description,
-                savedTransaction.getTotalValue().doubleValue(),
-                transactionType,
-                null
-            );
+            transactionService.recordTransactions(List.of(toAccountingTransaction(savedTransaction)));
         }
         
         return savedTransaction;
     }
+
+    @Transactional
+    public List<StockTransaction> logTransactions(List<StockTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            throw new IllegalArgumentException("At least one stock transaction is required.");
+        }
+        if (transactions.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch may contain at most " + MAX_BATCH_SIZE + " stock transactions.");
+        }
+
+        // Step 1: Resolve every referenced product with a single query
+        Set<Long> productIds = transactions.stream()
+                .map(transaction -> transaction.getProduct().getId())
+                .collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Long productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new RuntimeException("Product with ID " + productId + " not found");
+            }
+        }
+
+        // Step 2: Apply one net stock delta per product in a single set-based update
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (StockTransaction transaction : transactions) {
+            int delta = "IN".equals(transaction.getType()) ? transaction.getQuantity() : -transaction.getQuantity();
+            deltas.merge(transaction.getProduct().getId(), delta, Integer::sum);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        productService.updateProductStocks(deltas);
+
+        // Step 3: Insert the stock rows as JDBC batches
+        LocalDateTime now = LocalDateTime.now();
+        for (StockTransaction transaction : transactions) {
+            transaction.setProduct(products.get(transaction.getProduct().getId()));
+            transaction.setTimestamp(now);
+            transaction.validateTransaction();
+        }
+        List<StockTransaction> savedTransactions = stockTransactionRepository.saveAll(transactions);
+        inventoryValuationService.recordMovements(savedTransactions);
+        generalLedgerService.postStockTransactions(savedTransactions);
+
+        // Step 4: Batch the accounting rows for movements that are not part of an invoice
+        List<Transaction> accountingTransactions = savedTransactions.stream()
+                .filter(transaction -> transaction.getInvoice() == null)
+                .map(this::toAccountingTransaction)
+                .toList();
+        if (!accountingTransactions.isEmpty()) {
+            transactionService.recordTransactions(accountingTransactions);
+        }
+
+        return savedTransactions;
+    }
+
+    private Transaction toAccountingTransaction(StockTransaction stockTransaction) {
+        String type = stockTransaction.getType();
+        String description = String.format(
+            "%s of %d units of %s at %s per unit",
+            type.equals("IN") ? "Purchase" : "Sale",
+            stockTransaction.getQuantity(),
+            stockTransaction.getProduct().getName(),
+            stockTransaction.getPricePerUnit()
+        );
+
+        Transaction transaction = new Transaction(
+            description,
+            stockTransaction.getTotalValue(),
+            type.equals("IN") ? "EXPENSE" : "INCOME",
+            null
+        );
+        transaction.setStockTransactionId(stockTransaction.getId());
+        transaction.setQuantity(stockTransaction.getQuantity());
+        transaction.setUnitPrice(stockTransaction.getPricePerUnit());
+        return transaction;
+    }
     
     
 
@@ -155,7 +223,7 @@ public class StockTransactionService {
     public String generateBillForTransaction(Long transactionId) {
         // First check if the transaction exists
         StockTransaction transaction = stockTransactionRepository.findById(transactionId)
-                .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + transactionId));
+                .orElseThrow(() -> new NoSuchElementException("Transaction not found with ID: " + transactionId));
 
         // Check if a bill already exists
         StockTransactionBill existingBill = stockTransactionBillRepository.findByStockTransaction(transaction)
@@ -177,17 +245,54 @@ public class StockTransactionService {
 
 
     
-    public List<StockTransaction> getTransactionsByProduct(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        return stockTransactionRepository.findAll().stream()
-                .filter(transaction -> transaction.getProduct().equals(product))
-                .toList();
+    public CursorPage<StockTransaction> getTransactionsByProduct(
+            Long productId,
+            String cursor,
+            Integer size,
+            LocalDateTime from,
+            LocalDateTime to,
+            String type) {
+        if (!productRepository.existsById(productId)) {
+            throw new NoSuchElementException("Product not found");
+        }
+        return getTransactionsPage(cursor, size, productId, type, from, to);
     }
 
-    public List<StockTransaction> getAllTransactions() {
-        return stockTransactionRepository.findAll();
+    // Newest first, keyed on (timestamp, id); a product filter switches to the per-product index
+    public CursorPage<StockTransaction> getTransactionsPage(
+            String cursor,
+            Integer size,
+            Long productId,
+            String type,
+            LocalDateTime from,
+            LocalDateTime to) {
+        int pageSize = CursorPage.pageSize(size);
+        List<String> types;
+        if (type == null) {
+            types = List.of("IN", "OUT");
+        } else if (type.equals("IN") || type.equals("OUT")) {
+            types = List.of(type);
+        } else {
+            throw new IllegalArgumentException("Transaction type must be either 'IN' or 'OUT'.");
+        }
+
+        LocalDateTime cursorTimestamp = CursorPage.MAX_TIMESTAMP;
+        long cursorId = Long.MAX_VALUE;
+        if (cursor != null) {
+            String[] parts = CursorPage.decodeCursor(cursor, 2);
+            cursorTimestamp = CursorPage.cursorTimestamp(parts[0]);
+            cursorId = CursorPage.cursorId(parts[1]);
+        }
+        LocalDateTime fromBound = from == null ? CursorPage.MIN_TIMESTAMP : from;
+        LocalDateTime toBound = to == null ? CursorPage.MAX_TIMESTAMP : to;
+
+        // Fetch one extra row to learn whether another page follows
+        PageRequest lookahead = PageRequest.of(0, pageSize + 1);
+        List<StockTransaction> rows = productId == null
+                ? stockTransactionRepository.findPage(types, fromBound, toBound, cursorTimestamp, cursorId, lookahead)
+                : stockTransactionRepository.findProductHistoryPage(productId, types, fromBound, toBound,
+                        cursorTimestamp, cursorId, lookahead);
+        return CursorPage.of(rows, pageSize, last -> last.getTimestamp() + "|" + last.getId());
     }
 
     public String generateBillPdf(StockTransactionBill bill) {
@@ -199,61 +304,30 @@ public class StockTransactionService {
         String billFilePath = stockBillStoragePath + File.separator + 
                              "Stock_Bill_" + bill.getStockTransaction().getId() + "_" + billIdentifier + ".pdf";
 
-        try (PdfWriter writer = new PdfWriter(new FileOutputStream(billFilePath));
-             PdfDocument pdfDoc = new PdfDocument(writer)) {
-            
-            PageSize receiptSize = new PageSize(226.77f, 340.16f);
-            Document document = new Document(pdfDoc, receiptSize);
-            document.setMargins(10, 10, 10, 10);
-
-            PdfFont regularFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-            PdfFont boldFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
-
-            // University Header
-            Paragraph universityHeader = new Paragraph("SIKSHA 'O' ANUSANDHAN")
-                .setFont(boldFont)
-                .setFontSize(12)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(5);
-
-            // Subtitle with underline
-            Paragraph subtitle = new Paragraph("STOCK BILL")
-                .setFont(boldFont)
-                .setFontSize(10)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(10)
-                .setBorderBottom(new SolidBorder(1));
-
+        return pdfRenderingEngine.render(DocumentType.STOCK_BILL, billFilePath, pdf -> {
             // Create table for details
-            Table detailsTable = new Table(2).setWidth(206.77f);
-            detailsTable.setFont(regularFont).setFontSize(8);
+            Table detailsTable = pdf.receiptTable();
 
             // Format date
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
             
             // Add rows to the table
-            addReceiptRow(detailsTable, "Transaction ID", bill.getStockTransaction().getId().toString());
-            addReceiptRow(detailsTable, "Date", bill.getBillDate().format(formatter));
-            addReceiptRow(detailsTable, "Transaction Type", bill.getBillType());
+            pdf.addReceiptRow(detailsTable, "Transaction ID", bill.getStockTransaction().getId().toString());
+            pdf.addReceiptRow(detailsTable, "Date", bill.getBillDate().format(formatter));
+            pdf.addReceiptRow(detailsTable, "Transaction Type", bill.getBillType());
             
             // Product Details
             StockTransaction stockTx = bill.getStockTransaction();
-            addReceiptRow(detailsTable, "Product", stockTx.getProduct().getName());
-            addReceiptRow(detailsTable, "Quantity", stockTx.getQuantity().toString() + " units");
-            addReceiptRow(detailsTable, "Price/Unit", "$" + stockTx.getPricePerUnit().toString());
+            pdf.addReceiptRow(detailsTable, "Product", stockTx.getProduct().getName());
+            pdf.addReceiptRow(detailsTable, "Quantity", stockTx.getQuantity().toString() + " units");
+            pdf.addReceiptRow(detailsTable, "Price/Unit", "$" + stockTx.getPricePerUnit().toString());
 
             // If it's a sale, add invoice reference
             if (stockTx.getInvoice() != null) {
-                addReceiptRow(detailsTable, "Invoice Ref", stockTx.getInvoice().getInvoiceNumber());
+                pdf.addReceiptRow(detailsTable, "Invoice Ref", stockTx.getInvoice().getInvoiceNumber());
             }
 
-            // Add total amount with bold formatting
-            Cell amountLabelCell = new Cell().setBorder(Border.NO_BORDER)
-                .add(new Paragraph("Total Amount").setFont(boldFont).setFontSize(9));
-            Cell amountValueCell = new Cell().setBorder(Border.NO_BORDER)
-                .add(new Paragraph("$" + bill.getTotalAmount().toString()).setFont(boldFont).setFontSize(9));
-            detailsTable.addCell(amountLabelCell);
-            detailsTable.addCell(amountValueCell);
+            pdf.addReceiptTotalRow(detailsTable, "Total Amount", "$" + bill.getTotalAmount().toString());
 
             // Generate QR Code content
             String qrContent = String.format("TxID:%d|Type:%s|Product:%s|Qty:%d|PPU:$%s|Total:$%s|Date:%s",
@@ -266,35 +340,8 @@ public class StockTransactionService {
                 bill.getBillDate().format(formatter)
             );
 
-            // Create and add QR Code
-            BarcodeQRCode qrCode = new BarcodeQRCode(qrContent);
-            Image qrImage = new Image(qrCode.createFormXObject(pdfDoc))
-                .setWidth(50)
-                .setHeight(50)
-                .setHorizontalAlignment(HorizontalAlignment.CENTER);
-
-            // Footer
-            Paragraph footer = new Paragraph("*** FOR OFFICE USE ONLY ***")
-                .setFont(regularFont)
-                .setFontSize(7)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginTop(10);
-
-            // Add all elements to the document
-            document.add(universityHeader);
-            document.add(subtitle);
-            document.add(new Paragraph("\n").setFontSize(5));
-            document.add(detailsTable);
-            document.add(new Paragraph("\n").setFontSize(5));
-            document.add(qrImage);
-            document.add(footer);
-
-            document.close();
-            return billFilePath;
-
-        } catch (IOException e) {
-            throw new RuntimeException("Error generating stock bill PDF", e);
-        }
+            pdf.addReceipt(detailsTable, qrContent);
+        });
     }
 
     // Update the createOrUpdateBill method to save the bill first
@@ -312,7 +359,7 @@ public class StockTransactionService {
             billType = "SALE";
         }
 
-        BigDecimal totalAmount = transaction.getPricePerUnit().multiply(new BigDecimal(transaction.getQuantity()));
+        BigDecimal totalAmount = transaction.getTotalValue().toBigDecimal();
 
         // Check if bill already exists
         StockTransactionBill bill = stockTransactionBillRepository.findByStockTransaction(transaction)
@@ -335,15 +382,4 @@ public class StockTransactionService {
         // Save again with the file path
         return stockTransactionBillRepository.save(bill);
     }
-
-    // Helper method to add rows to the receipt
-    private void addReceiptRow(Table table, String label, String value) {
-        Cell labelCell = new Cell().setBorder(Border.NO_BORDER)
-            .add(new Paragraph(label).setFontSize(8));
-        Cell valueCell = new Cell().setBorder(Border.NO_BORDER)
-            .add(new Paragraph(value).setFontSize(8));
-        table.addCell(labelCell);
-        table.addCell(valueCell);
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,518 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.dto.ProjectSchedule;
+import com.example.erpsystem.dto.ProjectSchedule.TaskSchedule;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// One project's task dependencies as primitive adjacency arrays, kept in topological order
+// with the critical path method's earliest/latest start and finish per task (epoch seconds).
+// A task depends on its dependencies: an edge runs dependency -> task. Inserting an edge
+// reorders only the affected range of the order (Pearce-Kelly) and re-propagates dates only
+// through tasks whose values actually change. Not thread-safe; TaskScheduleService locks it.
+class TaskDependencyGraph {
+
+    private static final int[] NO_NODES = new int[0];
+    private static final int MIN_CAPACITY = 16;
+
+    private final LongLongOpenHashMap nodesByTaskId;
+
+    private int size;
+    private int edgeCount;
+    private long[] taskIds;
+    private long[] start;
+    private long[] duration;
+    private int[][] successors;
+    private int[] successorCount;
+    private int[][] predecessors;
+    private int[] predecessorCount;
+
+    // order[position] = node, position[node] = position; every edge goes to a higher position
+    private int[] order;
+    private int[] position;
+
+    private long[] earliestStart;
+    private long[] earliestFinish;
+    private long[] latestStart;
+    private long[] latestFinish;
+    private long projectStart;
+    private long projectFinish;
+
+    // Scratch space for searches and propagation
+    private int[] mark;
+    private int markEpoch;
+    private int[] stack;
+    private int[] reached;
+    private int[] heap;
+    private int heapSize;
+
+    private ProjectSchedule schedule;
+
+    TaskDependencyGraph(int expectedTasks) {
+        int capacity = Math.max(MIN_CAPACITY, expectedTasks);
+        nodesByTaskId = new LongLongOpenHashMap(capacity);
+        taskIds = new long[capacity];
+        start = new long[capacity];
+        duration = new long[capacity];
+        successors = new int[capacity][];
+        successorCount = new int[capacity];
+        predecessors = new int[capacity][];
+        predecessorCount = new int[capacity];
+        order = new int[capacity];
+        position = new int[capacity];
+        earliestStart = new long[capacity];
+        earliestFinish = new long[capacity];
+        latestStart = new long[capacity];
+        latestFinish = new long[capacity];
+        mark = new int[capacity];
+        stack = new int[capacity];
+        reached = new int[capacity];
+        heap = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int edgeCount() {
+        return edgeCount;
+    }
+
+    // Bulk loading: tasks and edges go in unchecked, then recompute() sorts and schedules everything
+    void loadTask(long taskId, LocalDateTime startDate, LocalDateTime dueDate) {
+        if (node(taskId) < 0) {
+            addNode(taskId, seconds(startDate), seconds(dueDate));
+        }
+    }
+
+    void loadDependency(long taskId, long dependencyTaskId) {
+        int task = node(taskId);
+        int dependency = node(dependencyTaskId);
+        if (task >= 0 && dependency >= 0) {
+            link(dependency, task);
+        }
+    }
+
+    // Full Kahn sort and both CPM passes, O(V + E)
+    void recompute() {
+        int[] remaining = Arrays.copyOf(predecessorCount, size);
+        int head = 0;
+        int tail = 0;
+        for (int node = 0; node < size; node++) {
+            if (remaining[node] == 0) {
+                order[tail++] = node;
+            }
+        }
+        while (head < tail) {
+            int node = order[head++];
+            int[] next = successors[node];
+            for (int i = 0; i < successorCount[node]; i++) {
+                if (--remaining[next[i]] == 0) {
+                    order[tail++] = next[i];
+                }
+            }
+        }
+        if (tail < size) {
+            throw new IllegalStateException("Task dependencies contain a cycle");
+        }
+        for (int p = 0; p < size; p++) {
+            position[order[p]] = p;
+        }
+        for (int p = 0; p < size; p++) {
+            forwardNode(order[p]);
+        }
+        updateProjectBounds();
+        backwardAll();
+        schedule = null;
+    }
+
+    // New task, or new dates for a known one
+    void putTask(long taskId, LocalDateTime startDate, LocalDateTime dueDate) {
+        int node = node(taskId);
+        long newStart = seconds(startDate);
+        long newDuration = Math.max(0, seconds(dueDate) - newStart);
+        if (node < 0) {
+            node = addNode(taskId, newStart, newStart + newDuration);
+            order[size - 1] = node;
+            position[node] = size - 1;
+        } else if (start[node] == newStart && duration[node] == newDuration) {
+            return;
+        } else {
+            start[node] = newStart;
+            duration[node] = newDuration;
+        }
+        propagate(node, node);
+    }
+
+    // Adds "taskId depends on dependencyTaskId"; throws IllegalArgumentException if that closes a cycle
+    void addDependency(long taskId, long dependencyTaskId) {
+        int task = node(taskId);
+        int dependency = node(dependencyTaskId);
+        if (task < 0 || dependency < 0) {
+            throw new IllegalArgumentException("Task not in project");
+        }
+        if (task == dependency) {
+            throw new IllegalArgumentException("Dependency would create a cycle");
+        }
+        if (contains(successors[dependency], successorCount[dependency], task)) {
+            return;
+        }
+        if (position[dependency] > position[task]) {
+            reorder(task, dependency);
+        }
+        link(dependency, task);
+        propagate(task, dependency);
+    }
+
+    // Cached until the next change
+    ProjectSchedule schedule() {
+        if (schedule == null) {
+            schedule = buildSchedule();
+        }
+        return schedule;
+    }
+
+    // Pearce-Kelly: only the tasks between the two positions that are reachable from task,
+    // or reach the dependency, are moved; the dependency side goes first
+    private void reorder(int task, int dependency) {
+        int lowerBound = position[task];
+        int upperBound = position[dependency];
+        int forwardCount = reachForward(task, dependency, upperBound);
+        if (forwardCount < 0) {
+            throw new IllegalArgumentException("Dependency would create a cycle");
+        }
+        int[] forward = positionsOf(reached, forwardCount);
+        int backwardCount = reachBackward(dependency, lowerBound);
+        int[] backward = positionsOf(reached, backwardCount);
+        Arrays.sort(forward);
+        Arrays.sort(backward);
+
+        int[] moved = new int[forwardCount + backwardCount];
+        for (int i = 0; i < backwardCount; i++) {
+            moved[i] = order[backward[i]];
+        }
+        for (int i = 0; i < forwardCount; i++) {
+            moved[backwardCount + i] = order[forward[i]];
+        }
+        int[] slots = new int[moved.length];
+        System.arraycopy(backward, 0, slots, 0, backwardCount);
+        System.arraycopy(forward, 0, slots, backwardCount, forwardCount);
+        Arrays.sort(slots);
+        for (int i = 0; i < moved.length; i++) {
+            order[slots[i]] = moved[i];
+            position[moved[i]] = slots[i];
+        }
+    }
+
+    // Depth-first from node along successors, staying at or below maxPosition. Leaves the visited
+    // nodes in reached[0..count) and returns count, or -1 if target was reached.
+    private int reachForward(int node, int target, int maxPosition) {
+        nextEpoch();
+        int found = 0;
+        int top = 0;
+        mark[node] = markEpoch;
+        stack[top++] = node;
+        while (top > 0) {
+            int current = stack[--top];
+            reached[found++] = current;
+            int[] next = successors[current];
+            for (int i = 0; i < successorCount[current]; i++) {
+                int successor = next[i];
+                if (successor == target) {
+                    return -1;
+                }
+                if (mark[successor] != markEpoch && position[successor] <= maxPosition) {
+                    mark[successor] = markEpoch;
+                    stack[top++] = successor;
+                }
+            }
+        }
+        return found;
+    }
+
+    // Same walk along predecessors, staying at or above minPosition
+    private int reachBackward(int node, int minPosition) {
+        nextEpoch();
+        int found = 0;
+        int top = 0;
+        mark[node] = markEpoch;
+        stack[top++] = node;
+        while (top > 0) {
+            int current = stack[--top];
+            reached[found++] = current;
+            int[] previous = predecessors[current];
+            for (int i = 0; i < predecessorCount[current]; i++) {
+                int predecessor = previous[i];
+                if (mark[predecessor] != markEpoch && position[predecessor] >= minPosition) {
+                    mark[predecessor] = markEpoch;
+                    stack[top++] = predecessor;
+                }
+            }
+        }
+        return found;
+    }
+
+    private int[] positionsOf(int[] nodes, int count) {
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = position[nodes[i]];
+        }
+        return positions;
+    }
+
+    // Step 1: earliest dates from forwardSeed on, in topological order, stopping where nothing changes.
+    // Step 2: latest dates from backwardSeed back, or for every task if the project finish moved.
+    private void propagate(int forwardSeed, int backwardSeed) {
+        nextEpoch();
+        heapSize = 0;
+        push(position[forwardSeed]);
+        mark[forwardSeed] = markEpoch;
+        boolean earliestChanged = false;
+        while (heapSize > 0) {
+            int node = order[pop()];
+            if (forwardNode(node)) {
+                earliestChanged = true;
+                int[] next = successors[node];
+                for (int i = 0; i < successorCount[node]; i++) {
+                    if (mark[next[i]] != markEpoch) {
+                        mark[next[i]] = markEpoch;
+                        push(position[next[i]]);
+                    }
+                }
+            }
+        }
+
+        long previousFinish = projectFinish;
+        if (earliestChanged) {
+            updateProjectBounds();
+        }
+        if (projectFinish != previousFinish) {
+            backwardAll();
+        } else {
+            // Positions are pushed negated so the min-heap yields reverse topological order
+            nextEpoch();
+            heapSize = 0;
+            push(-position[backwardSeed]);
+            mark[backwardSeed] = markEpoch;
+            while (heapSize > 0) {
+                int node = order[-pop()];
+                if (backwardNode(node)) {
+                    int[] previous = predecessors[node];
+                    for (int i = 0; i < predecessorCount[node]; i++) {
+                        if (mark[previous[i]] != markEpoch) {
+                            mark[previous[i]] = markEpoch;
+                            push(-position[previous[i]]);
+                        }
+                    }
+                }
+            }
+        }
+        schedule = null;
+    }
+
+    // Returns whether the earliest start or finish changed
+    private boolean forwardNode(int node) {
+        long es = start[node];
+        int[] previous = predecessors[node];
+        for (int i = 0; i < predecessorCount[node]; i++) {
+            es = Math.max(es, earliestFinish[previous[i]]);
+        }
+        long ef = es + duration[node];
+        boolean changed = es != earliestStart[node] || ef != earliestFinish[node];
+        earliestStart[node] = es;
+        earliestFinish[node] = ef;
+        return changed;
+    }
+
+    // Returns whether the latest start changed
+    private boolean backwardNode(int node) {
+        long lf = projectFinish;
+        int[] next = successors[node];
+        for (int i = 0; i < successorCount[node]; i++) {
+            lf = Math.min(lf, latestStart[next[i]]);
+        }
+        long ls = lf - duration[node];
+        boolean startChanged = ls != latestStart[node];
+        latestFinish[node] = lf;
+        latestStart[node] = ls;
+        return startChanged;
+    }
+
+    private void backwardAll() {
+        for (int p = size - 1; p >= 0; p--) {
+            backwardNode(order[p]);
+        }
+    }
+
+    private void updateProjectBounds() {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int node = 0; node < size; node++) {
+            first = Math.min(first, earliestStart[node]);
+            last = Math.max(last, earliestFinish[node]);
+        }
+        projectStart = size == 0 ? 0 : first;
+        projectFinish = size == 0 ? 0 : last;
+    }
+
+    private ProjectSchedule buildSchedule() {
+        List<TaskSchedule> tasks = new ArrayList<>(size);
+        for (int p = 0; p < size; p++) {
+            int node = order[p];
+            long slack = latestStart[node] - earliestStart[node];
+            tasks.add(new TaskSchedule(taskIds[node], dateTime(earliestStart[node]), dateTime(earliestFinish[node]),
+                    dateTime(latestStart[node]), dateTime(latestFinish[node]), slack / 60, slack == 0,
+                    earliestFinish[node] > start[node] + duration[node]));
+        }
+        return new ProjectSchedule(size == 0 ? null : dateTime(projectStart), size == 0 ? null : dateTime(projectFinish),
+                criticalPath(), tasks);
+    }
+
+    // From a zero-slack task that finishes last, back through zero-slack predecessors that hold it up
+    private List<Long> criticalPath() {
+        int node = -1;
+        for (int p = size - 1; p >= 0; p--) {
+            int candidate = order[p];
+            if (earliestFinish[candidate] == projectFinish && latestStart[candidate] == earliestStart[candidate]) {
+                node = candidate;
+                break;
+            }
+        }
+        List<Long> path = new ArrayList<>();
+        while (node >= 0) {
+            path.add(taskIds[node]);
+            int driver = -1;
+            int[] previous = predecessors[node];
+            for (int i = 0; i < predecessorCount[node]; i++) {
+                int predecessor = previous[i];
+                if (earliestFinish[predecessor] == earliestStart[node]
+                        && latestStart[predecessor] == earliestStart[predecessor]) {
+                    driver = predecessor;
+                    break;
+                }
+            }
+            node = driver;
+        }
+        return path.reversed();
+    }
+
+    private int addNode(long taskId, long startSeconds, long dueSeconds) {
+        if (size == taskIds.length) {
+            grow(size * 2);
+        }
+        int node = size++;
+        nodesByTaskId.put(taskId, node);
+        taskIds[node] = taskId;
+        start[node] = startSeconds;
+        duration[node] = Math.max(0, dueSeconds - startSeconds);
+        successors[node] = NO_NODES;
+        predecessors[node] = NO_NODES;
+        // Not scheduled yet, so the first forward pass always registers a change
+        earliestStart[node] = Long.MIN_VALUE;
+        earliestFinish[node] = Long.MIN_VALUE;
+        return node;
+    }
+
+    private void link(int dependency, int task) {
+        successors[dependency] = append(successors[dependency], successorCount[dependency]++, task);
+        predecessors[task] = append(predecessors[task], predecessorCount[task]++, dependency);
+        edgeCount++;
+    }
+
+    private static int[] append(int[] nodes, int count, int node) {
+        if (count == nodes.length) {
+            nodes = Arrays.copyOf(nodes, Math.max(4, count * 2));
+        }
+        nodes[count] = node;
+        return nodes;
+    }
+
+    private static boolean contains(int[] nodes, int count, int node) {
+        for (int i = 0; i < count; i++) {
+            if (nodes[i] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int node(long taskId) {
+        long node = nodesByTaskId.get(taskId);
+        return node == LongLongOpenHashMap.NO_VALUE ? -1 : (int) node;
+    }
+
+    private void grow(int capacity) {
+        taskIds = Arrays.copyOf(taskIds, capacity);
+        start = Arrays.copyOf(start, capacity);
+        duration = Arrays.copyOf(duration, capacity);
+        successors = Arrays.copyOf(successors, capacity);
+        successorCount = Arrays.copyOf(successorCount, capacity);
+        predecessors = Arrays.copyOf(predecessors, capacity);
+        predecessorCount = Arrays.copyOf(predecessorCount, capacity);
+        order = Arrays.copyOf(order, capacity);
+        position = Arrays.copyOf(position, capacity);
+        earliestStart = Arrays.copyOf(earliestStart, capacity);
+        earliestFinish = Arrays.copyOf(earliestFinish, capacity);
+        latestStart = Arrays.copyOf(latestStart, capacity);
+        latestFinish = Arrays.copyOf(latestFinish, capacity);
+        mark = Arrays.copyOf(mark, capacity);
+        stack = Arrays.copyOf(stack, capacity);
+        reached = Arrays.copyOf(reached, capacity);
+        heap = Arrays.copyOf(heap, capacity);
+    }
+
+    private void nextEpoch() {
+        if (markEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            markEpoch = 0;
+        }
+        markEpoch++;
+    }
+
+    private void push(int value) {
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        int last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    private static long seconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime dateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
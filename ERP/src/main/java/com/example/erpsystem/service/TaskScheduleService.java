@@ -0,0 +1,168 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.dto.ProjectSchedule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Per-project dependency graphs, loaded from task/task_dependencies and then kept current
+// from committed task and dependency changes instead of being rebuilt. Those changes only
+// reach this node's graphs, so each graph is reloaded once ttl-minutes after it was loaded.
+@Service
+public class TaskScheduleService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskScheduleService.class);
+
+    // Per project, on any node; the second key is the project id folded to an int, and a collision only serializes more
+    private static final String DEPENDENCY_LOCK_SQL =
+            "SELECT 1 FROM pg_advisory_xact_lock(hashtext('task_dependencies'), ?)";
+
+    // Whether "from" already depends on "to", directly or through other tasks; UNION stops at a committed cycle
+    private static final String DEPENDS_ON_SQL =
+            "WITH RECURSIVE reached(id) AS (SELECT CAST(? AS bigint) "
+            + "UNION SELECT d.dependent_task_id FROM task_dependencies d JOIN reached r ON d.task_id = r.id) "
+            + "SELECT EXISTS (SELECT 1 FROM reached WHERE id = ?)";
+
+    private static final String TASKS_SQL = "SELECT id, start_date, due_date FROM task WHERE project_id = ?";
+
+    private static final String DEPENDENCIES_SQL = "SELECT d.task_id, d.dependent_task_id FROM task_dependencies d "
+            + "JOIN task t ON t.id = d.task_id WHERE t.project_id = ?";
+
+    // Published when "taskId depends on dependencyTaskId" is saved
+    public record TaskDependencyAdded(Long projectId, Long taskId, Long dependencyTaskId) {}
+
+    // Published when a task is created or its dates change
+    public record TaskDatesChanged(Long projectId, Long taskId, LocalDateTime startDate, LocalDateTime dueDate) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, TaskDependencyGraph> graphs;
+
+    public TaskScheduleService(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${projects.schedule-cache.max-tasks:2000000}") long maxTasks,
+            @Value("${projects.schedule-cache.ttl-minutes:5}") long ttlMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.graphs = Caffeine.newBuilder()
+                .maximumWeight(maxTasks)
+                .<Long, TaskDependencyGraph>weigher((projectId, graph) -> Math.max(1, graph.size()))
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, graphs, "projects.schedule");
+    }
+
+    public ProjectSchedule getSchedule(Long projectId) {
+        TaskDependencyGraph graph = graphs.get(projectId, this::load);
+        synchronized (graph) {
+            return graph.schedule();
+        }
+    }
+
+    // Throws IllegalArgumentException if the dependency would close a cycle. Checked against the
+    // committed edges under a per-project lock that is held until the inserting transaction ends,
+    // so two inserts that only form a cycle together cannot both pass.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void checkDependency(Long projectId, Long taskId, Long dependencyTaskId) {
+        if (taskId.equals(dependencyTaskId)) {
+            throw new IllegalArgumentException("Dependency would create a cycle");
+        }
+        jdbcTemplate.queryForObject(DEPENDENCY_LOCK_SQL, Integer.class, Long.hashCode(projectId));
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(DEPENDS_ON_SQL, Boolean.class, dependencyTaskId, taskId))) {
+            throw new IllegalArgumentException("Dependency would create a cycle");
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskDependencyAdded(TaskDependencyAdded event) {
+        TaskDependencyGraph graph = graphs.getIfPresent(event.projectId());
+        if (graph == null) {
+            return;
+        }
+        synchronized (graph) {
+            try {
+                graph.addDependency(event.taskId(), event.dependencyTaskId());
+            } catch (IllegalArgumentException e) {
+                // The graph missed edges committed on another node; reload what was committed
+                log.warn("Dropping schedule of project {}: {}", event.projectId(), e.getMessage());
+                graphs.invalidate(event.projectId());
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskDatesChanged(TaskDatesChanged event) {
+        TaskDependencyGraph graph = graphs.getIfPresent(event.projectId());
+        if (graph == null) {
+            return;
+        }
+        synchronized (graph) {
+            graph.putTask(event.taskId(), event.startDate(), event.dueDate());
+        }
+    }
+
+    private TaskDependencyGraph load(Long projectId) {
+        long started = System.currentTimeMillis();
+        TaskDependencyGraph graph = loadTasks(projectId);
+        jdbcTemplate.query(DEPENDENCIES_SQL,
+                rs -> {
+                    graph.loadDependency(rs.getLong(1), rs.getLong(2));
+                }, projectId);
+        TaskDependencyGraph loaded = graph;
+        try {
+            graph.recompute();
+        } catch (IllegalStateException e) {
+            loaded = loadSkippingCycles(projectId);
+        }
+        log.info("Loaded schedule of project {}: {} tasks, {} dependencies in {} ms", projectId, loaded.size(),
+                loaded.edgeCount(), System.currentTimeMillis() - started);
+        return loaded;
+    }
+
+    // A cycle committed before the dependency lock existed would otherwise fail every load of the
+    // project: schedule it without the edges that close a cycle, and say which ones were left out
+    private TaskDependencyGraph loadSkippingCycles(Long projectId) {
+        TaskDependencyGraph graph = loadTasks(projectId);
+        graph.recompute();
+        List<String> skipped = new ArrayList<>();
+        jdbcTemplate.query(DEPENDENCIES_SQL,
+                rs -> {
+                    try {
+                        graph.addDependency(rs.getLong(1), rs.getLong(2));
+                    } catch (IllegalArgumentException e) {
+                        skipped.add(rs.getLong(1) + "->" + rs.getLong(2));
+                    }
+                }, projectId);
+        log.warn("Task dependencies of project {} contain a cycle; scheduling without {}", projectId, skipped);
+        return graph;
+    }
+
+    private TaskDependencyGraph loadTasks(Long projectId) {
+        Integer taskCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task WHERE project_id = ?",
+                Integer.class, projectId);
+        TaskDependencyGraph graph = new TaskDependencyGraph(taskCount == null ? 0 : taskCount);
+        jdbcTemplate.query(TASKS_SQL,
+                rs -> {
+                    graph.loadTask(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(),
+                            rs.getTimestamp(3).toLocalDateTime());
+                }, projectId);
+        return graph;
+    }
+}
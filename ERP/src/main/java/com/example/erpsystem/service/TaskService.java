@@ -1,12 +1,18 @@
 package com.example.erpsystem.service;
 
+import com.example.erpsystem.dto.CurrentUser;
 import com.example.erpsystem.model.*;
 import com.example.erpsystem.repository.TaskRepository;
 import com.example.erpsystem.repository.ProjectRepository;
 import com.example.erpsystem.repository.UserRepository;
 
+import com.example.erpsystem.service.ProjectTimelineService.ProjectTimelineChanged;
+import com.example.erpsystem.service.TaskScheduleService.TaskDatesChanged;
+import com.example.erpsystem.service.TaskScheduleService.TaskDependencyAdded;
+
 import java.time.LocalDateTime;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,92 +21,99 @@ public class TaskService {
     private final TaskRepository taskRepository;
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
+    private final ProjectAccess projectAccess;
+    private final TaskScheduleService taskScheduleService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public TaskService(TaskRepository taskRepository, 
                        ProjectRepository projectRepository,
-                       UserRepository userRepository) {
+                       UserRepository userRepository,
+                       ProjectAccess projectAccess,
+                       TaskScheduleService taskScheduleService,
+                       ApplicationEventPublisher eventPublisher) {
         this.taskRepository = taskRepository;
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
+        this.projectAccess = projectAccess;
+        this.taskScheduleService = taskScheduleService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
-    public Task createTask(Task task, Long projectId, Long createdById) {
+    public Task createTask(Task task, Long projectId, CurrentUser creator) {
         Project project = projectRepository.findById(projectId)
             .orElseThrow(() -> new RuntimeException("Project not found"));
-            
-        User creator = userRepository.findById(createdById)
-            .orElseThrow(() -> new RuntimeException("Creator not found"));
 
         // Verify creator is project team member
-        if (!project.getTeamMembers().contains(creator)) {
+        if (!projectAccess.isMember(projectId, creator.id())) {
             throw new RuntimeException("Only team members can create tasks");
         }
 
         task.setProject(project);
-        task.setCreatedBy(creator);
+        task.setCreatedBy(userRepository.getReferenceById(creator.id()));
         task.setStatus(Task.TaskStatus.TODO);
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        eventPublisher.publishEvent(new TaskDatesChanged(projectId, saved.getId(), saved.getStartDate(), saved.getDueDate()));
+        return saved;
     }
 
     @Transactional
-    public Task assignTask(Long taskId, Long userId, User requestingUser) {
+    public Task assignTask(Long taskId, Long userId, CurrentUser requestingUser) {
         Task task = taskRepository.findById(taskId)
             .orElseThrow(() -> new RuntimeException("Task not found"));
-            
-        User assignee = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
 
         // Only project manager or admins can assign tasks
-        if (!hasAdminRole(requestingUser) && 
-            !task.getProject().getProjectManager().equals(requestingUser)) {
+        if (!requestingUser.isAdmin() && 
+            !isProjectManager(task.getProject(), requestingUser)) {
             throw new RuntimeException("Unauthorized to assign tasks");
         }
 
         // Verify assignee is project team member
-        if (!task.getProject().getTeamMembers().contains(assignee)) {
+        if (!projectAccess.isMember(task.getProject().getId(), userId)) {
             throw new RuntimeException("Can only assign tasks to team members");
         }
 
-        task.setAssignedTo(assignee);
-        return taskRepository.save(task);
+        task.setAssignedTo(userRepository.getReferenceById(userId));
+        Task saved = taskRepository.save(task);
+        eventPublisher.publishEvent(new ProjectTimelineChanged(task.getProject().getId()));
+        return saved;
     }
 
     @Transactional
-    public Task updateTaskStatus(Long taskId, Task.TaskStatus newStatus, User requestingUser) {
+    public Task updateTaskStatus(Long taskId, Task.TaskStatus newStatus, CurrentUser requestingUser) {
         Task task = taskRepository.findById(taskId)
             .orElseThrow(() -> new RuntimeException("Task not found"));
 
         // Only assigned user or admin can update status
-        if (!hasAdminRole(requestingUser) && 
-            !task.getAssignedTo().equals(requestingUser)) {
+        if (!requestingUser.isAdmin() && 
+            (task.getAssignedTo() == null || !task.getAssignedTo().getId().equals(requestingUser.id()))) {
             throw new RuntimeException("Unauthorized to update task status");
         }
 
         task.setStatus(newStatus);
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        eventPublisher.publishEvent(new ProjectTimelineChanged(task.getProject().getId()));
+        return saved;
     }
 
-    // Add this method to check admin role
-    private boolean hasAdminRole(User user) {
-        return user.getRoles().stream()
-            .anyMatch(role -> role.getName().equals("ADMIN"));
+    private boolean isProjectManager(Project project, CurrentUser user) {
+        return project.getProjectManager().getId().equals(user.id());
     }
     
     @Transactional
-    public TaskComment addTaskComment(Long taskId, String content, User commenter) {
+    public TaskComment addTaskComment(Long taskId, String content, CurrentUser commenter) {
         Task task = taskRepository.findById(taskId)
             .orElseThrow(() -> new RuntimeException("Task not found"));
 
         // Verify commenter is project team member
-        if (!task.getProject().getTeamMembers().contains(commenter)) {
+        if (!projectAccess.isMember(task.getProject().getId(), commenter.id())) {
             throw new RuntimeException("Only team members can comment on tasks");
         }
 
         TaskComment comment = new TaskComment();
         comment.setContent(content);
         comment.setTask(task);
-        comment.setUser (commenter);
+        comment.setUser(userRepository.getReferenceById(commenter.id()));
         comment.setCreatedAt(LocalDateTime.now());
 
         task.getComments().add(comment);
@@ -109,15 +122,15 @@ public class TaskService {
     }
 
     @Transactional
-    public Task addTaskDependency(Long taskId, Long dependencyTaskId, User requestingUser) {
+    public Task addTaskDependency(Long taskId, Long dependencyTaskId, CurrentUser requestingUser) {
         Task task = taskRepository.findById(taskId)
             .orElseThrow(() -> new RuntimeException("Task not found"));
         Task dependencyTask = taskRepository.findById(dependencyTaskId)
             .orElseThrow(() -> new RuntimeException("Dependency task not found"));
 
         // Only project manager or admin can manage dependencies
-        if (!hasAdminRole(requestingUser) && 
-            !task.getProject().getProjectManager().equals(requestingUser)) {
+        if (!requestingUser.isAdmin() && 
+            !isProjectManager(task.getProject(), requestingUser)) {
             throw new RuntimeException("Unauthorized to manage task dependencies");
         }
 
@@ -126,8 +139,14 @@ public class TaskService {
             throw new RuntimeException("Cannot add dependency from different project");
         }
 
+        // Checked against the project's dependency graph; applied to it once this commits
+        Long projectId = task.getProject().getId();
+        taskScheduleService.checkDependency(projectId, taskId, dependencyTaskId);
+
         task.getDependencies().add(dependencyTask);
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        eventPublisher.publishEvent(new TaskDependencyAdded(projectId, taskId, dependencyTaskId));
+        return saved;
     }
 
    
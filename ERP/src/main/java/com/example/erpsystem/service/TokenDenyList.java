@@ -0,0 +1,35 @@
+package com.example.erpsystem.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Revoked token ids, kept only until the token would have expired anyway. Held in memory
+// on each node: a revocation is not shared across instances.
+@Component
+public class TokenDenyList {
+
+    // token id -> expiry (epoch seconds)
+    private final ConcurrentMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    // True only for the call that revoked the token, so a refresh token can be redeemed once
+    public boolean revoke(String tokenId, long expiresAt) {
+        return revoked.putIfAbsent(tokenId, expiresAt) == null;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return revoked.containsKey(tokenId);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.token.deny-list-purge-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis() / 1000;
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.Role;
+import com.example.erpsystem.model.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Principal;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+// Signed bearer tokens in the compact JWT form (HS256). An access token carries the user
+// id, username and roles, so a request is authenticated by one HMAC over a few hundred
+// bytes instead of a user lookup and a BCrypt check. Refresh tokens are only accepted by
+// /api/auth/refresh, which re-reads the user so role changes apply within one access TTL.
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    public record TokenPair(String accessToken, String refreshToken, long accessExpiresIn) {}
+
+    // The verified claims; also the request principal, so getName() is the username
+    public record TokenClaims(String tokenId, String type, Long userId, String username, List<String> roles,
+            long expiresAt) implements Principal {
+        @Override
+        public String getName() {
+            return username;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final TokenDenyList denyList;
+    private final SecretKeySpec key;
+    private final long accessTtlSeconds;
+    private final long refreshTtlSeconds;
+    // Mac instances are not thread-safe and costly to look up, so each thread keeps an initialised one
+    private final ThreadLocal<Mac> macs;
+
+    public TokenService(
+            ObjectMapper objectMapper,
+            TokenDenyList denyList,
+            @Value("${auth.token.secret:}") String secret,
+            @Value("${auth.token.access-ttl-seconds:900}") long accessTtlSeconds,
+            @Value("${auth.token.refresh-ttl-seconds:604800}") long refreshTtlSeconds) {
+        this.objectMapper = objectMapper;
+        this.denyList = denyList;
+        this.key = new SecretKeySpec(secretBytes(secret), ALGORITHM);
+        this.accessTtlSeconds = accessTtlSeconds;
+        this.refreshTtlSeconds = refreshTtlSeconds;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public TokenPair issue(User user) {
+        List<String> roles = user.getRoles().stream().map(Role::getName).sorted().toList();
+        long now = System.currentTimeMillis() / 1000;
+        String accessToken = sign(new TokenClaims(UUID.randomUUID().toString(), ACCESS, user.getId(),
+                user.getUsername(), roles, now + accessTtlSeconds), now);
+        String refreshToken = sign(new TokenClaims(UUID.randomUUID().toString(), REFRESH, user.getId(),
+                user.getUsername(), List.of(), now + refreshTtlSeconds), now);
+        return new TokenPair(accessToken, refreshToken, accessTtlSeconds);
+    }
+
+    // Checks signature, type, expiry and the deny-list; throws IllegalArgumentException otherwise
+    public TokenClaims verify(String token, String expectedType) {
+        // Step 1: split header.payload.signature and check the signature before reading anything
+        int firstDot = token.indexOf('.');
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (firstDot < 0 || secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+        byte[] signature;
+        try {
+            signature = DECODER.decode(token.substring(secondDot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+        byte[] expected = mac(token.substring(0, secondDot));
+        if (!MessageDigest.isEqual(expected, signature)
+                || !HEADER.equals(token.substring(0, firstDot))) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+
+        // Step 2: read the claims
+        TokenClaims claims;
+        try {
+            JsonNode payload = objectMapper.readTree(DECODER.decode(token.substring(firstDot + 1, secondDot)));
+            List<String> roles = new ArrayList<>();
+            payload.path("roles").forEach(role -> roles.add(role.asText()));
+            claims = new TokenClaims(payload.path("jti").asText(), payload.path("typ").asText(),
+                    payload.path("uid").asLong(), payload.path("sub").asText(), List.copyOf(roles),
+                    payload.path("exp").asLong());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+
+        // Step 3: type, expiry and revocation
+        if (!expectedType.equals(claims.type())) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+        if (claims.expiresAt() <= System.currentTimeMillis() / 1000) {
+            throw new IllegalArgumentException("Token expired");
+        }
+        if (denyList.isRevoked(claims.tokenId())) {
+            throw new IllegalArgumentException("Token revoked");
+        }
+        return claims;
+    }
+
+    // False when the token was already revoked, possibly by a concurrent request
+    public boolean revoke(TokenClaims claims) {
+        return denyList.revoke(claims.tokenId(), claims.expiresAt());
+    }
+
+    private String sign(TokenClaims claims, long issuedAt) {
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("jti", claims.tokenId());
+        payload.put("typ", claims.type());
+        payload.put("uid", claims.userId());
+        payload.put("sub", claims.username());
+        ArrayNode roles = payload.putArray("roles");
+        claims.roles().forEach(roles::add);
+        payload.put("iat", issuedAt);
+        payload.put("exp", claims.expiresAt());
+        try {
+            String unsigned = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(payload));
+            return unsigned + "." + ENCODER.encodeToString(mac(unsigned));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write token", e);
+        }
+    }
+
+    private byte[] mac(String signingInput) {
+        return macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            // Tokens then do not survive a restart and are not accepted by other nodes
+            log.warn("auth.token.secret is not set; signing tokens with a random per-process key");
+            byte[] random = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] bytes = Base64.getDecoder().decode(secret.trim());
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("auth.token.secret must be at least " + MIN_SECRET_BYTES + " bytes (Base64)");
+        }
+        return bytes;
+    }
+}
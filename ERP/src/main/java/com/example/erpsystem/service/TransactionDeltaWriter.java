@@ -0,0 +1,123 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.repository.AccountBalanceRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Single writer that folds the delta rows left by accounting transactions into the running
+// balances and the period rollups: up to batch-size deltas are taken per commit and every
+// touched row is advanced once, so sales only ever insert and never queue up behind a hot row.
+@Service
+public class TransactionDeltaWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionDeltaWriter.class);
+
+    private static final String TAKE_DELTAS_SQL =
+            "DELETE FROM transaction_delta WHERE id IN (SELECT id FROM transaction_delta ORDER BY id LIMIT ?) "
+            + "RETURNING entry_date, type, amount, transaction_count";
+
+    @Value("${accounting.balance.fold-batch-size:1000}")
+    private int batchSize;
+
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final PeriodRollupService periodRollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final Timer foldTimer;
+    private final Counter foldedCounter;
+
+    public TransactionDeltaWriter(AccountBalanceRepository accountBalanceRepository,
+            PeriodRollupService periodRollupService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.periodRollupService = periodRollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.foldTimer = Timer.builder("accounting.balance.fold")
+                .description("Time spent folding one batch of transaction deltas")
+                .register(meterRegistry);
+        this.foldedCounter = Counter.builder("accounting.balance.folded").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${accounting.balance.fold-delay-ms:200}")
+    public void foldPending() {
+        try {
+            int folded;
+            do {
+                folded = foldTimer.record(() -> batchTransaction.execute(status -> fold()));
+                foldedCounter.increment(folded);
+            } while (folded == batchSize);
+        } catch (RuntimeException e) {
+            // The deltas stay in the table and are retried on the next run
+            log.error("Folding transaction deltas into the balances and rollups failed", e);
+        }
+    }
+
+    int fold() {
+        // Step 1: Become the only writer on any node; the balance and rollup rebuilds take the same lock
+        accountBalanceRepository.lockBalanceWriter();
+
+        // Step 2: Take the oldest deltas and total them per type and per day and type
+        Map<String, long[]> totals = new TreeMap<>();
+        Map<String, long[]> dailyTotals = new TreeMap<>();
+        int[] taken = new int[1];
+        jdbcTemplate.query(TAKE_DELTAS_SQL, resultSet -> {
+            String day = resultSet.getDate(1).toLocalDate().toString();
+            String type = resultSet.getString(2);
+            long amount = resultSet.getLong(3);
+            long count = resultSet.getLong(4);
+            add(totals.computeIfAbsent(type, key -> new long[2]), amount, count);
+            add(dailyTotals.computeIfAbsent(day + "|" + type, key -> new long[2]), amount, count);
+            taken[0]++;
+        }, batchSize);
+
+        // Step 3: Advance each balance once, in type order
+        LocalDateTime now = LocalDateTime.now();
+        totals.forEach((type, total) -> {
+            if (total[0] != 0 || total[1] != 0) {
+                accountBalanceRepository.addToBalance(type, total[0], total[1], now);
+            }
+        });
+
+        // Step 4: Add the batch to the day/month/quarter/year rollups
+        List<String> days = new ArrayList<>(dailyTotals.size());
+        List<String> types = new ArrayList<>(dailyTotals.size());
+        List<Long> amounts = new ArrayList<>(dailyTotals.size());
+        List<Long> counts = new ArrayList<>(dailyTotals.size());
+        dailyTotals.forEach((key, total) -> {
+            if (total[0] != 0 || total[1] != 0) {
+                int separator = key.indexOf('|');
+                days.add(key.substring(0, separator));
+                types.add(key.substring(separator + 1));
+                amounts.add(total[0]);
+                counts.add(total[1]);
+            }
+        });
+        periodRollupService.recordTransactionDeltas(days, types, amounts, counts);
+        return taken[0];
+    }
+
+    private static void add(long[] total, long amount, long count) {
+        total[0] = Math.addExact(total[0], amount);
+        total[1] += count;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.model.Money;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Accounting rows written before quantity/unit price/invoice were stored as columns only
+// have them inside the description. Parses those descriptions once, in id ranges on a
+// small thread pool. Every range is flagged metadata_backfilled once it has been looked
+// at, whether or not its descriptions matched, so no row is ever parsed twice.
+@Service
+@DependsOn("entityManagerFactory")
+public class TransactionMetadataBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionMetadataBackfillService.class);
+
+    // "Sale of 3 units of Pen at 12.50 per unit", as formatted by StockTransactionService
+    private static final Pattern QUANTITY_PATTERN =
+            Pattern.compile(".*?\\s+of\\s+(\\d+)\\s+units?\\s+of\\s+.*?\\s+at\\s+(\\d+\\.?\\d*)\\s+per\\s+unit.*");
+    // "Income from sale, Invoice: INV/2026-27/000001", as formatted by InvoiceService
+    private static final Pattern INVOICE_PATTERN = Pattern.compile(".*?,\\s*Invoice:\\s*([\\w/-]+)");
+
+    // Unmapped column: rows that existed when it was added start out false, later inserts take the default true
+    private static final String ADD_MARKER_SQL =
+            "ALTER TABLE transaction ADD COLUMN metadata_backfilled boolean NOT NULL DEFAULT false; "
+            + "ALTER TABLE transaction ALTER COLUMN metadata_backfilled SET DEFAULT true; "
+            + "CREATE INDEX idx_transaction_metadata_pending ON transaction (id) WHERE NOT metadata_backfilled";
+
+    private static final String PENDING_RANGE_SQL =
+            "SELECT MIN(id), MAX(id) FROM transaction WHERE NOT metadata_backfilled";
+
+    private static final String CANDIDATES_SQL =
+            "SELECT id, description FROM transaction "
+            + "WHERE id >= ? AND id < ? AND NOT metadata_backfilled AND quantity IS NULL AND invoice_id IS NULL "
+            + "AND (description LIKE '% per unit%' OR description LIKE '%Invoice:%')";
+
+    private static final String MARK_RANGE_SQL =
+            "UPDATE transaction SET metadata_backfilled = true WHERE id >= ? AND id < ? AND NOT metadata_backfilled";
+
+    private static final String SET_QUANTITY_SQL =
+            "UPDATE transaction SET quantity = ?, unit_price = ? WHERE id = ? AND quantity IS NULL";
+
+    private static final String SET_INVOICE_SQL =
+            "UPDATE transaction t SET invoice_id = i.id FROM invoice i "
+            + "WHERE t.id = ? AND t.invoice_id IS NULL AND i.invoice_number = ?";
+
+    record ParsedDescription(Integer quantity, Money unitPrice, String invoiceNumber) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${accounting.transaction.backfill-threads:4}")
+    private int backfillThreads;
+
+    @Value("${accounting.transaction.backfill-batch-size:5000}")
+    private int backfillBatchSize;
+
+    public TransactionMetadataBackfillService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Before the web server starts, so no row can be inserted between adding the column and switching its default
+    @PostConstruct
+    void addBackfillMarker() {
+        Integer columns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = current_schema() "
+                + "AND table_name = 'transaction' AND column_name = 'metadata_backfilled'", Integer.class);
+        if (columns == 0) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute(ADD_MARKER_SQL));
+        }
+    }
+
+    // Only rows never looked at are scanned; once they are all flagged this is one index probe
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        Map<String, Object> summary = backfill();
+        if ((int) summary.get("quantityRows") > 0 || (int) summary.get("invoiceRows") > 0) {
+            log.info("Backfilled accounting transaction metadata: {}", summary);
+        }
+    }
+
+    public Map<String, Object> backfill() {
+        long start = System.currentTimeMillis();
+        Long[] range = jdbcTemplate.queryForObject(PENDING_RANGE_SQL,
+                (rs, rowNum) -> new Long[] {(Long) rs.getObject(1), (Long) rs.getObject(2)});
+        Long minId = range[0];
+        Long maxId = range[1];
+
+        int[] rows = new int[2];
+        if (minId != null) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, backfillThreads));
+            try {
+                // Step 1: One id range per task, each parsed and updated in its own transaction
+                List<Future<int[]>> results = new ArrayList<>();
+                int batchSize = Math.max(1, backfillBatchSize);
+                for (long from = minId; from <= maxId; from += batchSize) {
+                    long rangeStart = from;
+                    long rangeEnd = from + batchSize;
+                    results.add(executor.submit(() -> transactionTemplate.execute(status ->
+                            backfillRange(rangeStart, rangeEnd))));
+                }
+
+                // Step 2: Add up the rows each range updated
+                for (Future<int[]> result : results) {
+                    int[] updated = result.get();
+                    rows[0] += updated[0];
+                    rows[1] += updated[1];
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Transaction metadata backfill interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Transaction metadata backfill failed: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("quantityRows", rows[0]);
+        summary.put("invoiceRows", rows[1]);
+        summary.put("elapsedMillis", System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    private int[] backfillRange(long fromId, long toId) {
+        List<Object[]> quantities = new ArrayList<>();
+        List<Object[]> invoices = new ArrayList<>();
+        jdbcTemplate.query(CANDIDATES_SQL, rs -> {
+            long id = rs.getLong("id");
+            ParsedDescription parsed = parse(rs.getString("description"));
+            if (parsed == null) {
+                return;
+            }
+            if (parsed.quantity() != null) {
+                quantities.add(new Object[] {parsed.quantity(), parsed.unitPrice().minorUnits(), id});
+            } else {
+                invoices.add(new Object[] {id, parsed.invoiceNumber()});
+            }
+        }, fromId, toId);
+
+        int[] updated = new int[2];
+        if (!quantities.isEmpty()) {
+            updated[0] = countUpdated(jdbcTemplate.batchUpdate(SET_QUANTITY_SQL, quantities));
+        }
+        if (!invoices.isEmpty()) {
+            updated[1] = countUpdated(jdbcTemplate.batchUpdate(SET_INVOICE_SQL, invoices));
+        }
+        // Descriptions that did not parse and invoice numbers that no longer exist are not retried
+        jdbcTemplate.update(MARK_RANGE_SQL, fromId, toId);
+        return updated;
+    }
+
+    // Quantity and unit price of a stock movement row, or the invoice number of an invoice row; null if neither
+    static ParsedDescription parse(String description) {
+        if (description == null) {
+            return null;
+        }
+        Matcher quantityMatcher = QUANTITY_PATTERN.matcher(description);
+        if (quantityMatcher.matches()) {
+            Money unitPrice = Money.of(new BigDecimal(quantityMatcher.group(2)), RoundingMode.HALF_UP);
+            return new ParsedDescription(Integer.parseInt(quantityMatcher.group(1)), unitPrice, null);
+        }
+        Matcher invoiceMatcher = INVOICE_PATTERN.matcher(description);
+        if (invoiceMatcher.matches()) {
+            return new ParsedDescription(null, null, invoiceMatcher.group(1));
+        }
+        return null;
+    }
+
+    private static int countUpdated(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+}
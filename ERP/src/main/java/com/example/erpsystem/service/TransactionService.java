@@ -1,49 +1,61 @@
 package com.example.erpsystem.service;
 
+import com.example.erpsystem.dto.CursorPage;
 import com.example.erpsystem.model.Invoice;
+import com.example.erpsystem.model.Money;
 import com.example.erpsystem.model.Transaction;
 import com.example.erpsystem.repository.TransactionRepository;
-import com.itextpdf.barcodes.BarcodeQRCode;
-import com.itextpdf.io.font.constants.StandardFonts;
-//import com.itextpdf.kernel.colors.DeviceRgb;
-import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
-import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.borders.Border;
-import com.itextpdf.layout.borders.SolidBorder;
-import com.itextpdf.layout.element.*;
-import com.itextpdf.layout.properties.TextAlignment;
-import com.itextpdf.layout.properties.HorizontalAlignment;
+import com.example.erpsystem.service.PdfRenderingEngine.DocumentType;
+import com.itextpdf.layout.element.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Service
 public class TransactionService {
 
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+
+    // Published by edits and deletes; the stored bill no longer matches the row
+    public record TransactionChanged(Long transactionId) {}
+
     @Value("${bill.storage.path}")
     private String billStoragePath;
  
     private final TransactionRepository transactionRepository;
-
-    public TransactionService(TransactionRepository transactionRepository) {
+    private final PdfRenderingEngine pdfRenderingEngine;
+    private final AccountBalanceService accountBalanceService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TransactionService(
+            TransactionRepository transactionRepository,
+            PdfRenderingEngine pdfRenderingEngine,
+            AccountBalanceService accountBalanceService,
+            ApplicationEventPublisher eventPublisher) {
         this.transactionRepository = transactionRepository;
+        this.pdfRenderingEngine = pdfRenderingEngine;
+        this.accountBalanceService = accountBalanceService;
+        this.eventPublisher = eventPublisher;
     }
 
-    public Transaction recordTransaction(String description, Double amount, String type, Invoice invoice) {
+    @Transactional
+    public Transaction recordTransaction(String description, Money amount, String type, Invoice invoice) {
         if (!type.equalsIgnoreCase("INCOME") && !type.equalsIgnoreCase("EXPENSE")) {
             throw new IllegalArgumentException("Invalid transaction type. Use 'INCOME' or 'EXPENSE'.");
         }
@@ -54,13 +66,54 @@ public class TransactionService {
         transaction.setType(type.toUpperCase());
         transaction.setTimestamp(LocalDateTime.now());
         transaction.setInvoice(invoice);
-        return transactionRepository.save(transaction);
-        
-        
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        accountBalanceService.recordAdded(List.of(savedTransaction));
+        return savedTransaction;
     }
 
-    public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+    // Inserts many accounting rows at once; saveAll is flushed as JDBC batches
+    @Transactional
+    public List<Transaction> recordTransactions(List<Transaction> transactions) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Transaction transaction : transactions) {
+            String type = transaction.getType();
+            if (!type.equalsIgnoreCase("INCOME") && !type.equalsIgnoreCase("EXPENSE")) {
+                throw new IllegalArgumentException("Invalid transaction type. Use 'INCOME' or 'EXPENSE'.");
+            }
+            transaction.setType(type.toUpperCase());
+            transaction.setTimestamp(now);
+        }
+        List<Transaction> savedTransactions = transactionRepository.saveAll(transactions);
+        accountBalanceService.recordAdded(savedTransactions);
+        return savedTransactions;
+    }
+
+    // Newest first, keyed on (timestamp, id)
+    public CursorPage<Transaction> getTransactionsPage(String cursor, Integer size, String type,
+            LocalDateTime from, LocalDateTime to) {
+        int pageSize = CursorPage.pageSize(size);
+        List<String> types;
+        if (type == null) {
+            types = List.of("INCOME", "EXPENSE");
+        } else if (type.equalsIgnoreCase("INCOME") || type.equalsIgnoreCase("EXPENSE")) {
+            types = List.of(type.toUpperCase());
+        } else {
+            throw new IllegalArgumentException("Invalid transaction type. Use 'INCOME' or 'EXPENSE'.");
+        }
+
+        LocalDateTime cursorTimestamp = CursorPage.MAX_TIMESTAMP;
+        long cursorId = Long.MAX_VALUE;
+        if (cursor != null) {
+            String[] parts = CursorPage.decodeCursor(cursor, 2);
+            cursorTimestamp = CursorPage.cursorTimestamp(parts[0]);
+            cursorId = CursorPage.cursorId(parts[1]);
+        }
+
+        List<Transaction> rows = transactionRepository.findPage(types,
+                from == null ? CursorPage.MIN_TIMESTAMP : from,
+                to == null ? CursorPage.MAX_TIMESTAMP : to,
+                cursorTimestamp, cursorId, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, last -> last.getTimestamp() + "|" + last.getId());
     }
 
     public Optional<Transaction> getTransactionById(Long id) {
@@ -71,24 +124,22 @@ public class TransactionService {
         return transactionRepository.findByType(type.toUpperCase());
     }
 
-    public Double calculateTotalIncome() {
-        return transactionRepository.findByType("INCOME").stream()
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    // Totals come from the running balances plus pending deltas instead of loading the ledger
+    public Money calculateTotalIncome() {
+        return accountBalanceService.getBalance("INCOME");
     }
 
-    public Double calculateTotalExpense() {
-        return transactionRepository.findByType("EXPENSE").stream()
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    public Money calculateTotalExpense() {
+        return accountBalanceService.getBalance("EXPENSE");
     }
 
-    public Double calculateNetBalance() {
-        return calculateTotalIncome() - calculateTotalExpense();
+    public Money calculateNetBalance() {
+        return accountBalanceService.getSummary().netBalance();
     }
 
-    public Transaction updateTransaction(Long id, String description, Double amount, String type) {
-        Optional<Transaction> transactionOpt = transactionRepository.findById(id);
+    @Transactional
+    public Transaction updateTransaction(Long id, String description, Money amount, String type) {
+        Optional<Transaction> transactionOpt = transactionRepository.findByIdForUpdate(id);
         if (transactionOpt.isEmpty()) {
             throw new RuntimeException("Transaction not found");
         }
@@ -98,18 +149,53 @@ public class TransactionService {
         }
 
         Transaction transaction = transactionOpt.get();
+        String oldType = transaction.getType();
+        Money oldAmount = transaction.getAmount();
         transaction.setDescription(description);
         transaction.setAmount(amount);
         transaction.setType(type.toUpperCase());
 
-        return transactionRepository.save(transaction);
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        accountBalanceService.recordChanged(savedTransaction.getTimestamp(),
+                oldType, oldAmount, savedTransaction.getType(), savedTransaction.getAmount());
+        eventPublisher.publishEvent(new TransactionChanged(id));
+        return savedTransaction;
     }
 
+    @Transactional
     public void deleteTransaction(Long id) {
-        if (!transactionRepository.existsById(id)) {
-            throw new RuntimeException("Transaction not found");
+        Transaction transaction = transactionRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        transactionRepository.delete(transaction);
+        accountBalanceService.recordRemoved(transaction.getTimestamp(), transaction.getType(), transaction.getAmount());
+        eventPublisher.publishEvent(new TransactionChanged(id));
+    }
+
+    // The next download renders the bill again from the committed row
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionChanged(TransactionChanged event) {
+        Path billFile = Paths.get(billFilePath(event.transactionId()));
+        try {
+            Files.deleteIfExists(billFile);
+        } catch (IOException e) {
+            log.warn("Could not delete stale bill {}: {}", billFile, e.getMessage());
+        }
+    }
+
+    // Stored bill for download; rendered when it does not exist yet or was dropped by a change
+    public Path getBillFile(Long transactionId) throws IOException {
+        if (!transactionRepository.existsById(transactionId)) {
+            throw new NoSuchElementException("Transaction not found");
+        }
+        Path billFile = Paths.get(billFilePath(transactionId));
+        if (!Files.isRegularFile(billFile)) {
+            generateBill(transactionId);
         }
-        transactionRepository.deleteById(id);
+        return billFile;
+    }
+
+    private String billFilePath(Long transactionId) {
+        return billStoragePath + "Bill_Transaction_" + transactionId + ".pdf";
     }
 
     public String generateBill(Long transactionId) throws IOException {
@@ -119,147 +205,51 @@ public class TransactionService {
         }
 
         Transaction transaction = transactionOpt.get();
-        String filePath = billStoragePath + "Bill_Transaction_" + transaction.getId() + ".pdf";
-
-        try (PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-             PdfDocument pdfDoc = new PdfDocument(writer)) {
-            
-            PageSize receiptSize = new PageSize(226.77f, 340.16f); // Slightly increased height for additional details
-            Document document = new Document(pdfDoc, receiptSize);
-            document.setMargins(10, 10, 10, 10);
-
-            PdfFont regularFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-            PdfFont boldFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
-
-            // Header section
-            Paragraph universityHeader = new Paragraph("SIKSHA 'O' ANUSANDHAN")
-                .setFont(boldFont)
-                .setFontSize(12)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(5);
-
-            Paragraph subtitle = new Paragraph("Transaction Bill")
-                .setFont(boldFont)
-                .setFontSize(10)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(10)
-                .setBorderBottom(new SolidBorder(1));
-
-            // Parse description for details
-            Map<String, String> parsedDetails = parseDescription(transaction.getDescription());
-            
+        String filePath = billFilePath(transaction.getId());
+
+        pdfRenderingEngine.render(DocumentType.TRANSACTION_BILL, filePath, pdf -> {
             // Create details table
-            Table detailsTable = new Table(2).setWidth(206.77f);
-            detailsTable.setFont(regularFont).setFontSize(8);
+            Table detailsTable = pdf.receiptTable();
 
             // Add basic transaction details
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-            addReceiptRow(detailsTable, "Transaction ID", transaction.getId().toString());
-            addReceiptRow(detailsTable, "Date", transaction.getTimestamp().format(formatter));
-            addReceiptRow(detailsTable, "Description", parsedDetails.get("description"));
-            
-            // Add quantity and price details if present
-            if (parsedDetails.containsKey("units")) {
-                addReceiptRow(detailsTable, "Quantity", parsedDetails.get("units") + " units");
-                addReceiptRow(detailsTable, "Price per Unit", "$" + parsedDetails.get("pricePerUnit"));
+            pdf.addReceiptRow(detailsTable, "Transaction ID", transaction.getId().toString());
+            pdf.addReceiptRow(detailsTable, "Date", transaction.getTimestamp().format(formatter));
+            pdf.addReceiptRow(detailsTable, "Description", transaction.getDescription());
+
+            // Add quantity and price details for rows generated from stock movements
+            boolean hasQuantity = transaction.getQuantity() != null && transaction.getUnitPrice() != null;
+            if (hasQuantity) {
+                pdf.addReceiptRow(detailsTable, "Quantity", transaction.getQuantity() + " units");
+                pdf.addReceiptRow(detailsTable, "Price per Unit", "$" + transaction.getUnitPrice());
             }
-            
+
             // Add invoice number if present
-            if (parsedDetails.containsKey("invoice")) {
-                addReceiptRow(detailsTable, "Reference", parsedDetails.get("invoice"));
+            if (transaction.getInvoice() != null) {
+                pdf.addReceiptRow(detailsTable, "Reference", "Invoice: " + transaction.getInvoice().getInvoiceNumber());
             }
-            
+
             // Add transaction type and amount
-            addReceiptRow(detailsTable, "Type", transaction.getType());
-            
-            // Amount row with bold formatting
-            Cell amountLabelCell = new Cell().setBorder(Border.NO_BORDER)
-                .add(new Paragraph("Amount").setFont(boldFont).setFontSize(9));
-            Cell amountValueCell = new Cell().setBorder(Border.NO_BORDER)
-                .add(new Paragraph(String.format("$%.2f", transaction.getAmount())).setFont(boldFont).setFontSize(9));
-            detailsTable.addCell(amountLabelCell);
-            detailsTable.addCell(amountValueCell);
+            pdf.addReceiptRow(detailsTable, "Type", transaction.getType());
+            pdf.addReceiptTotalRow(detailsTable, "Amount", "$" + transaction.getAmount());
 
             // QR Code with enhanced information
             StringBuilder qrContent = new StringBuilder();
-            qrContent.append(String.format("ID:%s|Amt:$%.2f|Type:%s|Time:%s",
-                transaction.getId(), 
+            qrContent.append(String.format("ID:%s|Amt:$%s|Type:%s|Time:%s",
+                transaction.getId(),
                 transaction.getAmount(),
                 transaction.getType(),
                 transaction.getTimestamp().format(formatter)));
-                
-            if (parsedDetails.containsKey("units")) {
-                qrContent.append(String.format("|Qty:%s|PPU:$%s", 
-                    parsedDetails.get("units"),
-                    parsedDetails.get("pricePerUnit")));
+
+            if (hasQuantity) {
+                qrContent.append(String.format("|Qty:%s|PPU:$%s",
+                    transaction.getQuantity(),
+                    transaction.getUnitPrice()));
             }
-            
-            BarcodeQRCode qrCode = new BarcodeQRCode(qrContent.toString());
-            Image qrImage = new Image(qrCode.createFormXObject(pdfDoc))
-                .setWidth(50)
-                .setHeight(50)
-                .setHorizontalAlignment(HorizontalAlignment.CENTER);
-
-            // Footer
-            Paragraph footer = new Paragraph("*** FOR OFFICE USE ONLY ***")
-                .setFont(regularFont)
-                .setFontSize(7)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginTop(10);
-
-            // Add all elements to document
-            document.add(universityHeader);
-            document.add(subtitle);
-            document.add(new Paragraph("\n").setFontSize(5));
-            document.add(detailsTable);
-            document.add(new Paragraph("\n").setFontSize(5));
-            document.add(qrImage);
-            document.add(footer);
-            
-            document.close();
 
-        } catch (IOException e) {
-            throw new RuntimeException("Error generating PDF", e);
-        }
+            pdf.addReceipt(detailsTable, qrContent.toString());
+        });
 
         return "Bill generated at: " + filePath;
     }
-
-    // Helper method to parse quantity from description
-    private Map<String, String> parseDescription(String description) {
-        Map<String, String> result = new HashMap<>();
-        result.put("description", description); // Default to full description
-        
-        // Pattern for quantity and price per unit
-        Pattern quantityPattern = Pattern.compile("(.*?)\\s+of\\s+(\\d+)\\s+units?\\s+of\\s+(.*?)\\s+at\\s+(\\d+\\.?\\d*)\\s+per\\s+unit.*");
-        Matcher quantityMatcher = quantityPattern.matcher(description);
-        
-        // Pattern for invoice numbers
-        Pattern invoicePattern = Pattern.compile("(.*?),\\s*(Invoice:\\s*[\\w-]+)");
-        Matcher invoiceMatcher = invoicePattern.matcher(description);
-        
-        if (quantityMatcher.matches()) {
-            result.put("description", quantityMatcher.group(1) + " of " + quantityMatcher.group(3));
-            result.put("quantity", quantityMatcher.group(2));
-            result.put("pricePerUnit", quantityMatcher.group(4));
-            result.put("units", quantityMatcher.group(2));
-        } else if (invoiceMatcher.matches()) {
-            result.put("description", invoiceMatcher.group(1));
-            result.put("invoice", invoiceMatcher.group(2));
-        }
-        
-        return result;
-    }
-
-    // Existing addReceiptRow method remains the same
-    private void addReceiptRow(Table table, String label, String value) {
-        Cell labelCell = new Cell().setBorder(Border.NO_BORDER)
-            .add(new Paragraph(label).setFontSize(8));
-        Cell valueCell = new Cell().setBorder(Border.NO_BORDER)
-            .add(new Paragraph(value).setFontSize(8));
-        table.addCell(labelCell);
-        table.addCell(valueCell);
-    }
-    
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.example.erpsystem.service;
+
+import com.example.erpsystem.dto.CurrentUser;
+import com.example.erpsystem.model.Role;
+import com.example.erpsystem.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+// User id -> id, username and role names, so resolving the caller of a request does not
+// query the users and roles tables. Entries are dropped when a user write commits.
+@Component
+public class UserCache {
+
+    // Published by every write to a user or its roles
+    public record UserChanged(Long userId) {}
+
+    private final UserRepository userRepository;
+    private final Cache<Long, CurrentUser> users;
+
+    public UserCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${auth.user-cache.max-size:10000}") long maxSize,
+            @Value("${auth.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
+
+    public CurrentUser get(Long userId) {
+        CurrentUser user = users.get(userId, this::load);
+        if (user == null) {
+            throw new NoSuchElementException("User not found");
+        }
+        return user;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChanged event) {
+        users.invalidate(event.userId());
+    }
+
+    private CurrentUser load(Long userId) {
+        return userRepository.findWithRolesById(userId)
+                .map(user -> new CurrentUser(user.getId(), user.getUsername(),
+                        user.getRoles().stream().map(Role::getName).collect(Collectors.toUnmodifiableSet())))
+                .orElse(null);
+    }
+}
@@ -2,18 +2,25 @@ package com.example.erpsystem.service;
 
 import com.example.erpsystem.model.User;
 import com.example.erpsystem.repository.UserRepository;
+import com.example.erpsystem.service.UserCache.UserChanged;
+
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public User saveUser(User user) {
-        return userRepository.save(user); // Saves the user to the database, including imageUrl
+        User saved = userRepository.save(user); // Saves the user to the database, including imageUrl
+        eventPublisher.publishEvent(new UserChanged(saved.getId()));
+        return saved;
     }
 }
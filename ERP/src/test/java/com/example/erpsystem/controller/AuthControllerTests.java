@@ -0,0 +1,87 @@
+package com.example.erpsystem.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.example.erpsystem.GlobalExceptionHandler;
+import com.example.erpsystem.model.Role;
+import com.example.erpsystem.model.User;
+import com.example.erpsystem.repository.UserRepository;
+import com.example.erpsystem.service.AuthService;
+import com.example.erpsystem.service.TokenDenyList;
+import com.example.erpsystem.service.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class AuthControllerTests {
+
+	private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final TokenService tokenService = new TokenService(new ObjectMapper(), new TokenDenyList(), SECRET, 900, 3_600);
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		AuthController controller = new AuthController(mock(AuthService.class), userRepository, mock(PasswordEncoder.class),
+				tokenService);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller)
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	@Test
+	void refreshResolvesTheUserByIdAfterARename() throws Exception {
+		String refreshToken = tokenService.issue(user(7L, "alice")).refreshToken();
+		when(userRepository.findWithRolesById(7L)).thenReturn(Optional.of(user(7L, "alice.smith")));
+
+		MvcResult result = refresh(refreshToken).andExpect(status().isOk()).andReturn();
+
+		String accessToken = new ObjectMapper().readTree(result.getResponse().getContentAsString()).get("accessToken").asText();
+		assertEquals("alice.smith", tokenService.verify(accessToken, TokenService.ACCESS).username());
+		verify(userRepository, never()).findByUsername(anyString());
+	}
+
+	@Test
+	void refreshNeverResolvesAReusedUsername() throws Exception {
+		String refreshToken = tokenService.issue(user(7L, "alice")).refreshToken();
+		// The account is gone and someone else has registered its username since
+		when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user(8L, "alice")));
+		when(userRepository.findWithRolesById(7L)).thenReturn(Optional.empty());
+
+		refresh(refreshToken)
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("Invalid token"));
+	}
+
+	private ResultActions refresh(String refreshToken) throws Exception {
+		return mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+	}
+
+	private static User user(Long id, String username) {
+		Role role = new Role();
+		role.setName("USER");
+		return User.builder().id(id).username(username).password("hash").email(username + "@example.com")
+				.roles(Set.of(role)).build();
+	}
+}
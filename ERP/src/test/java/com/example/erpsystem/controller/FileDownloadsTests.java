@@ -0,0 +1,116 @@
+package com.example.erpsystem.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class FileDownloadsTests {
+
+	private static final int FILE_SIZE = 1024 * 1024;
+
+	@TempDir
+	Path storage;
+
+	private final FileDownloads fileDownloads = new FileDownloads();
+	private Path file;
+	private byte[] content;
+
+	@BeforeEach
+	void writeFile() throws Exception {
+		content = new byte[FILE_SIZE];
+		new Random(42).nextBytes(content);
+		file = Files.write(storage.resolve("Invoice_INV_2026-27_000001.pdf"), content);
+	}
+
+	@Test
+	void servesWholeFileWithValidators() throws Exception {
+		MockHttpServletResponse response = download(new MockHttpServletRequest("GET", "/pdf"));
+
+		assertEquals(200, response.getStatus());
+		assertEquals("application/pdf", response.getContentType());
+		assertNotNull(response.getHeader("ETag"));
+		assertNotNull(response.getHeader("Last-Modified"));
+		assertArrayEquals(content, response.getContentAsByteArray());
+	}
+
+	@Test
+	void answersMatchingEtagWithNotModified() throws Exception {
+		String etag = download(new MockHttpServletRequest("GET", "/pdf")).getHeader("ETag");
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/pdf");
+		request.addHeader("If-None-Match", etag);
+		MockHttpServletResponse response = download(request);
+
+		assertEquals(304, response.getStatus());
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	void servesSingleByteRange() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/pdf");
+		request.addHeader("Range", "bytes=100-199");
+		MockHttpServletResponse response = download(request);
+
+		assertEquals(206, response.getStatus());
+		assertEquals("bytes 100-199/" + FILE_SIZE, response.getHeader("Content-Range"));
+		assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+	}
+
+	@Test
+	void rejectsRangeBeyondEndOfFile() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/pdf");
+		request.addHeader("Range", "bytes=" + FILE_SIZE + "-");
+		MockHttpServletResponse response = download(request);
+
+		assertEquals(416, response.getStatus());
+		assertEquals("bytes */" + FILE_SIZE, response.getHeader("Content-Range"));
+	}
+
+	@Test
+	void usesSendfileWhenConnectorSupportsIt() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/pdf");
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		MockHttpServletResponse response = download(request);
+
+		assertEquals(file.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals((long) FILE_SIZE, request.getAttribute("org.apache.tomcat.sendfile.end"));
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	void ignoresRangeWhenIfRangeNoLongerMatches() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/pdf");
+		request.addHeader("Range", "bytes=100-199");
+		request.addHeader("If-Range", "\"stale\"");
+		MockHttpServletResponse response = download(request);
+
+		assertEquals(200, response.getStatus());
+		assertArrayEquals(content, response.getContentAsByteArray());
+	}
+
+	@Test
+	void headSendsHeadersWithoutBody() throws Exception {
+		MockHttpServletResponse response = download(new MockHttpServletRequest("HEAD", "/pdf"));
+
+		assertEquals(200, response.getStatus());
+		assertEquals(FILE_SIZE, response.getContentLengthLong());
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	private MockHttpServletResponse download(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		fileDownloads.sendPdf(file, request, response);
+		return response;
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.erpsystem.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.example.erpsystem.GlobalExceptionHandler;
+import com.example.erpsystem.service.LedgerExportService;
+import com.example.erpsystem.service.LedgerExportService.ExportFormat;
+import com.example.erpsystem.service.TransactionMetadataBackfillService;
+import com.example.erpsystem.service.TransactionService;
+
+class LedgerExportResponsesTests {
+
+	private final LedgerExportService ledgerExportService = mock(LedgerExportService.class);
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(4);
+			out.write("id\r\n1\r\n".getBytes(StandardCharsets.UTF_8));
+			return 1L;
+		}).when(ledgerExportService).exportTransactions(eq(ExportFormat.CSV), eq(false), any(), any(), any());
+
+		TransactionController controller = new TransactionController(mock(TransactionService.class),
+				mock(FileDownloads.class), mock(TransactionMetadataBackfillService.class), ledgerExportService);
+		ReflectionTestUtils.setField(controller, "exportTimeoutMinutes", 30L);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller)
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	@Test
+	void exportRunsWithItsOwnTimeoutAndStreamsTheBody() throws Exception {
+		MvcResult started = mockMvc.perform(get("/api/accounting/transactions/export"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		assertEquals(TimeUnit.MINUTES.toMillis(30), started.getRequest().getAsyncContext().getTimeout());
+
+		mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.csv\""))
+				.andExpect(content().string("id\r\n1\r\n"));
+	}
+
+	@Test
+	void unknownFormatIsRejectedBeforeStreaming() throws Exception {
+		mockMvc.perform(get("/api/accounting/transactions/export").param("format", "xlsx"))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("Format must be either 'csv' or 'ndjson'."));
+	}
+}
@@ -0,0 +1,203 @@
+package com.example.erpsystem.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import org.hibernate.bytecode.internal.bytebuddy.ByteBuddyState;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.ProxyConfiguration;
+import org.hibernate.proxy.pojo.bytebuddy.ByteBuddyInterceptor;
+import org.hibernate.proxy.pojo.bytebuddy.ByteBuddyProxyHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.example.erpsystem.GlobalExceptionHandler;
+import com.example.erpsystem.dto.CurrentUser;
+import com.example.erpsystem.model.Project;
+import com.example.erpsystem.model.Task;
+import com.example.erpsystem.model.TaskComment;
+import com.example.erpsystem.model.User;
+import com.example.erpsystem.service.MilestoneService;
+import com.example.erpsystem.service.ProjectService;
+import com.example.erpsystem.service.ProjectTimeline;
+import com.example.erpsystem.service.ProjectTimelineService;
+import com.example.erpsystem.service.ProjectTimelineService.TimelineFormat;
+import com.example.erpsystem.service.TaskScheduleService;
+import com.example.erpsystem.service.TaskService;
+
+// Task writes attach users with getReferenceById, so the response holds Hibernate proxies
+// rather than loaded users; these tests serialize such responses the way Spring MVC does.
+// The timeline tests check how a gzipped timeline is labelled.
+class ProjectControllerTests {
+
+	private static final CurrentUser MANAGER = new CurrentUser(3L, "manager", Set.of("USER"));
+
+	private final TaskService taskService = mock(TaskService.class);
+	private final ProjectTimelineService projectTimelineService = mock(ProjectTimelineService.class);
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		ProjectController controller = new ProjectController(mock(ProjectService.class), taskService,
+				mock(MilestoneService.class), mock(TaskScheduleService.class), projectTimelineService);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller)
+				.setCustomArgumentResolvers(new FixedCurrentUser())
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	@Test
+	void createdTaskWithAProxyCreatorSerializes() throws Exception {
+		Task task = task(11L);
+		task.setCreatedBy(userProxy(3L, "manager"));
+		when(taskService.createTask(any(Task.class), eq(5L), eq(MANAGER))).thenReturn(task);
+
+		mockMvc.perform(post("/api/projects/5/tasks").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"title\":\"Design\",\"priority\":\"HIGH\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(11))
+				.andExpect(jsonPath("$.createdBy.id").value(3))
+				.andExpect(jsonPath("$.createdBy.username").value("manager"))
+				.andExpect(jsonPath("$.createdBy.hibernateLazyInitializer").doesNotExist());
+	}
+
+	@Test
+	void assignedTaskWithAProxyAssigneeSerializes() throws Exception {
+		Task task = task(11L);
+		task.setCreatedBy(userProxy(3L, "manager"));
+		task.setAssignedTo(userProxy(4L, "member"));
+		when(taskService.assignTask(11L, 4L, MANAGER)).thenReturn(task);
+
+		mockMvc.perform(put("/api/projects/tasks/11/assign/4"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.assignedTo.id").value(4))
+				.andExpect(jsonPath("$.assignedTo.hibernateLazyInitializer").doesNotExist());
+	}
+
+	@Test
+	void commentWithAProxyAuthorSerializes() throws Exception {
+		TaskComment comment = new TaskComment();
+		comment.setId(21L);
+		comment.setContent("Looks good");
+		comment.setTask(task(11L));
+		comment.setUser(userProxy(4L, "member"));
+		comment.setCreatedAt(LocalDateTime.of(2026, 5, 4, 9, 0));
+		when(taskService.addTaskComment(11L, "Looks good", MANAGER)).thenReturn(comment);
+
+		mockMvc.perform(post("/api/projects/tasks/11/comments").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"content\":\"Looks good\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(21))
+				.andExpect(jsonPath("$.user.username").value("member"))
+				.andExpect(jsonPath("$.user.hibernateLazyInitializer").doesNotExist());
+	}
+
+	@Test
+	void gzippedTimelineKeepsItsMediaTypeAndIsEncoded() throws Exception {
+		ProjectTimeline timeline = timeline();
+
+		MvcResult started = mockMvc.perform(get("/api/projects/5/timeline?gzip=true")
+						.header("Accept-Encoding", "deflate, gzip;q=0.8"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Type", "application/json"))
+				.andExpect(header().string("Content-Encoding", "gzip"))
+				.andExpect(header().string("Vary", "Accept-Encoding"))
+				.andExpect(header().string("ETag", "\"c0ffee-json-gz\""));
+		verify(projectTimelineService).write(eq(timeline), eq(TimelineFormat.JSON), eq(true), any());
+	}
+
+	@Test
+	void timelineIsNotEncodedForClientsThatRefuseGzip() throws Exception {
+		ProjectTimeline timeline = timeline();
+
+		for (String acceptEncoding : new String[] { null, "identity", "gzip;q=0" }) {
+			MockHttpServletRequestBuilder get = get("/api/projects/5/timeline?format=columnar&gzip=true");
+			if (acceptEncoding != null) {
+				get.header("Accept-Encoding", acceptEncoding);
+			}
+			MvcResult started = mockMvc.perform(get).andExpect(request().asyncStarted()).andReturn();
+			mockMvc.perform(asyncDispatch(started))
+					.andExpect(status().isOk())
+					.andExpect(header().string("Content-Type", "application/octet-stream"))
+					.andExpect(header().doesNotExist("Content-Encoding"))
+					.andExpect(header().string("Vary", "Accept-Encoding"))
+					.andExpect(header().string("ETag", "\"c0ffee-bin\""));
+		}
+		verify(projectTimelineService, times(3)).write(eq(timeline), eq(TimelineFormat.COLUMNAR), eq(false), any());
+	}
+
+	private ProjectTimeline timeline() {
+		ProjectTimeline timeline = mock(ProjectTimeline.class);
+		when(timeline.contentHash()).thenReturn("c0ffee");
+		when(projectTimelineService.getTimeline(5L)).thenReturn(timeline);
+		return timeline;
+	}
+
+	private static Task task(Long id) {
+		Project project = new Project();
+		project.setId(5L);
+		project.setName("Rollout");
+		Task task = new Task();
+		task.setId(id);
+		task.setTitle("Design");
+		task.setProject(project);
+		task.setStatus(Task.TaskStatus.TODO);
+		task.setPriority(Task.TaskPriority.HIGH);
+		return task;
+	}
+
+	// A Hibernate ByteBuddy proxy as getReferenceById returns it, already initialized so the getters answer
+	private static User userProxy(Long id, String username) throws Exception {
+		Class<?> proxyClass = new ByteBuddyProxyHelper(new ByteBuddyState())
+				.buildProxy(User.class, new Class<?>[] { HibernateProxy.class });
+		User proxy = (User) proxyClass.getDeclaredConstructor().newInstance();
+		ByteBuddyInterceptor interceptor = new ByteBuddyInterceptor(User.class.getName(), User.class,
+				new Class<?>[] { HibernateProxy.class }, id, User.class.getMethod("getId"), null, null, null, false);
+		interceptor.setImplementation(User.builder().id(id).username(username).password("hash")
+				.email(username + "@example.com").roles(Set.of()).build());
+		((ProxyConfiguration) proxy).$$_hibernate_set_interceptor(interceptor);
+		return proxy;
+	}
+
+	private static class FixedCurrentUser implements HandlerMethodArgumentResolver {
+
+		@Override
+		public boolean supportsParameter(MethodParameter parameter) {
+			return parameter.getParameterType() == CurrentUser.class;
+		}
+
+		@Override
+		public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+				NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+			return MANAGER;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.example.erpsystem.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+class MoneyTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void arithmeticIsExact() {
+		Money total = Money.ZERO;
+		for (int i = 0; i < 10; i++) {
+			total = total.plus(Money.parse("0.10"));
+		}
+
+		assertEquals(Money.parse("1.00"), total);
+		assertEquals("-0.05", Money.ofMinor(-5).toString());
+		assertEquals(Money.parse("37.50"), Money.parse("12.50").times(3));
+		assertThrows(IllegalArgumentException.class, () -> Money.parse("0.005"));
+		assertEquals(Money.ofMinor(1), Money.of(new BigDecimal("0.005"), RoundingMode.HALF_UP));
+	}
+
+	@Test
+	void jsonKeepsThePlainNumberShape() throws Exception {
+		assertEquals("1234.50", objectMapper.writeValueAsString(Money.parse("1234.5")));
+		assertEquals(Money.parse("19.99"), objectMapper.readValue("19.99", Money.class));
+		assertEquals(Money.parse("19.99"), objectMapper.readValue("\"19.99\"", Money.class));
+	}
+
+	@Test
+	void roundingOnlyWhereAskedFor() {
+		assertEquals(Money.parse("2.68"), Money.of(new BigDecimal("2.675"), RoundingMode.HALF_UP));
+		assertEquals(Money.parse("2.68"), Money.of(new BigDecimal("2.675"), RoundingMode.HALF_EVEN));
+		assertEquals(Money.parse("2.66"), Money.of(new BigDecimal("2.665"), RoundingMode.HALF_EVEN));
+		assertEquals(Money.parse("-2.68"), Money.of(new BigDecimal("-2.675"), RoundingMode.HALF_UP));
+		assertEquals(Money.parse("1.50"), Money.of(new BigDecimal("1.5000")));
+		assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1.001")));
+	}
+
+	@Test
+	void overflowFailsInsteadOfWrapping() {
+		Money max = Money.ofMinor(Long.MAX_VALUE);
+
+		assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+		assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).minus(Money.ofMinor(1)));
+		assertThrows(ArithmeticException.class, () -> max.times(2));
+		assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).negate());
+	}
+
+	@Test
+	void textAndDecimalForms() {
+		assertEquals("0.00", Money.ZERO.toString());
+		assertEquals("0.07", Money.ofMinor(7).toString());
+		assertEquals("-12.30", Money.parse("-12.3").toString());
+		assertEquals(new BigDecimal("-12.30"), Money.parse("-12.3").toBigDecimal());
+		assertEquals(Money.parse("3.00"), Money.parse(" 3 "));
+		assertSame(Money.ZERO, Money.parse("0.00"));
+		assertSame(Money.ZERO, Money.parse("5.00").minus(Money.parse("5")));
+		assertTrue(Money.parse("-0.01").compareTo(Money.ZERO) < 0);
+		assertEquals(-1, Money.parse("-0.01").signum());
+	}
+
+	@Test
+	void jsonRoundTripsInsideObjects() throws Exception {
+		Line line = new Line("Widget", Money.parse("-1234.05"));
+
+		String json = objectMapper.writeValueAsString(line);
+
+		assertEquals("{\"name\":\"Widget\",\"amount\":-1234.05}", json);
+		assertEquals(line, objectMapper.readValue(json, Line.class));
+		assertEquals(new Line("Widget", Money.parse("7.00")),
+				objectMapper.readValue("{\"name\":\"Widget\",\"amount\":7}", Line.class));
+	}
+
+	@Test
+	void jsonRejectsFractionsOfACent() {
+		assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("19.999", Money.class));
+		assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("\"0.001\"", Money.class));
+	}
+
+	@Test
+	void converterStoresMinorUnits() {
+		MoneyConverter converter = new MoneyConverter();
+
+		assertEquals(123_456L, converter.convertToDatabaseColumn(Money.parse("1234.56")));
+		assertEquals(Money.parse("-0.05"), converter.convertToEntityAttribute(-5L));
+		assertNull(converter.convertToDatabaseColumn(null));
+		assertNull(converter.convertToEntityAttribute(null));
+	}
+
+	private record Line(String name, Money amount) {}
+}
@@ -0,0 +1,35 @@
+package com.example.erpsystem.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+class PeriodGranularityTests {
+
+	@Test
+	void periodStartsMatchDateTrunc() {
+		LocalDate date = LocalDate.of(2026, 8, 17);
+
+		assertEquals(date, PeriodGranularity.DAY.periodStart(date));
+		assertEquals(LocalDate.of(2026, 8, 1), PeriodGranularity.MONTH.periodStart(date));
+		assertEquals(LocalDate.of(2026, 7, 1), PeriodGranularity.QUARTER.periodStart(date));
+		assertEquals(LocalDate.of(2026, 1, 1), PeriodGranularity.YEAR.periodStart(date));
+	}
+
+	@Test
+	void quarterBoundaries() {
+		assertEquals(LocalDate.of(2026, 1, 1), PeriodGranularity.QUARTER.periodStart(LocalDate.of(2026, 3, 31)));
+		assertEquals(LocalDate.of(2026, 4, 1), PeriodGranularity.QUARTER.periodStart(LocalDate.of(2026, 4, 1)));
+		assertEquals(LocalDate.of(2026, 10, 1), PeriodGranularity.QUARTER.periodStart(LocalDate.of(2026, 12, 31)));
+	}
+
+	@Test
+	void nextPeriodStartsAtTheFollowingBoundary() {
+		assertEquals(LocalDate.of(2028, 3, 1), PeriodGranularity.DAY.nextPeriodStart(LocalDate.of(2028, 2, 29)));
+		assertEquals(LocalDate.of(2027, 1, 1), PeriodGranularity.MONTH.nextPeriodStart(LocalDate.of(2026, 12, 1)));
+		assertEquals(LocalDate.of(2027, 1, 1), PeriodGranularity.QUARTER.nextPeriodStart(LocalDate.of(2026, 10, 1)));
+		assertEquals(LocalDate.of(2027, 1, 1), PeriodGranularity.YEAR.nextPeriodStart(LocalDate.of(2026, 1, 1)));
+	}
+}
@@ -0,0 +1,167 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.erpsystem.dto.LedgerTotalView;
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.Transaction;
+import com.example.erpsystem.model.TransactionDelta;
+import com.example.erpsystem.repository.AccountBalanceRepository;
+import com.example.erpsystem.repository.TransactionDeltaRepository;
+import com.example.erpsystem.repository.TransactionRepository;
+import com.example.erpsystem.service.AccountBalanceService.BalanceDrift;
+import com.example.erpsystem.service.AccountBalanceService.ConsistencyReport;
+
+class AccountBalanceServiceTests {
+
+	private static final LocalDateTime AT = LocalDateTime.of(2026, 3, 31, 23, 30);
+	private static final LocalDate DAY = AT.toLocalDate();
+
+	private AccountBalanceRepository accountBalanceRepository;
+	private TransactionDeltaRepository transactionDeltaRepository;
+	private TransactionRepository transactionRepository;
+	private AccountBalanceService accountBalanceService;
+
+	@BeforeEach
+	void setUp() {
+		accountBalanceRepository = mock(AccountBalanceRepository.class);
+		transactionDeltaRepository = mock(TransactionDeltaRepository.class);
+		transactionRepository = mock(TransactionRepository.class);
+		accountBalanceService = new AccountBalanceService(accountBalanceRepository, transactionDeltaRepository,
+				transactionRepository, mock(PlatformTransactionManager.class), false);
+	}
+
+	@Test
+	void changingTypeWritesOneDeltaPerType() {
+		accountBalanceService.recordChanged(AT, "INCOME", Money.parse("100.00"), "EXPENSE", Money.parse("40.00"));
+
+		List<TransactionDelta> deltas = savedDeltas();
+		assertEquals(2, deltas.size());
+		assertDelta(deltas.get(0), DAY, "INCOME", -10_000L, -1L);
+		assertDelta(deltas.get(1), DAY, "EXPENSE", 4_000L, 1L);
+		verify(accountBalanceRepository, never()).addToBalance(anyString(), anyLong(), anyLong(), any());
+	}
+
+	@Test
+	void editWithinOneTypeIsASingleDelta() {
+		accountBalanceService.recordChanged(AT, "INCOME", Money.parse("100.00"), "INCOME", Money.parse("100.00"));
+		verify(transactionDeltaRepository, never()).saveAll(anyList());
+
+		accountBalanceService.recordChanged(AT, "INCOME", Money.parse("100.00"), "INCOME", Money.parse("120.01"));
+		List<TransactionDelta> deltas = savedDeltas();
+		assertEquals(1, deltas.size());
+		assertDelta(deltas.get(0), DAY, "INCOME", 2_001L, 0L);
+	}
+
+	@Test
+	void removalIsANegativeDeltaOnTheTransactionDay() {
+		accountBalanceService.recordRemoved(AT, "EXPENSE", Money.parse("19.99"));
+
+		List<TransactionDelta> deltas = savedDeltas();
+		assertEquals(1, deltas.size());
+		assertDelta(deltas.get(0), DAY, "EXPENSE", -1_999L, -1L);
+	}
+
+	@Test
+	void bulkInsertIsOneDeltaPerDayAndType() {
+		accountBalanceService.recordAdded(List.of(
+				transaction(AT, "INCOME", "10.00"),
+				transaction(AT, "EXPENSE", "2.50"),
+				transaction(AT.minusHours(1), "INCOME", "0.05"),
+				transaction(AT.plusDays(1), "INCOME", "3.00")));
+
+		List<TransactionDelta> deltas = savedDeltas();
+		assertEquals(3, deltas.size());
+		assertDelta(deltas.get(0), DAY, "INCOME", 1_005L, 2L);
+		assertDelta(deltas.get(1), DAY, "EXPENSE", 250L, 1L);
+		assertDelta(deltas.get(2), DAY.plusDays(1), "INCOME", 300L, 1L);
+	}
+
+	@Test
+	void balancesIncludePendingDeltas() {
+		when(accountBalanceRepository.findCurrentTotals()).thenReturn(List.of(
+				ledgerTotal("INCOME", 100_010L, 3),
+				ledgerTotal("EXPENSE", 25_000L, 2)));
+
+		assertEquals(Money.parse("1000.10"), accountBalanceService.getBalance("INCOME"));
+		assertEquals(Money.parse("750.10"), accountBalanceService.getSummary().netBalance());
+	}
+
+	@Test
+	void consistencyCheckReportsExactDriftPerType() {
+		when(transactionRepository.sumAmountGroupByType()).thenReturn(List.of(
+				ledgerTotal("INCOME", 100_010L, 3),
+				ledgerTotal("EXPENSE", 25_000L, 2)));
+		when(accountBalanceRepository.findCurrentTotals()).thenReturn(List.of(
+				ledgerTotal("INCOME", 100_010L, 3),
+				ledgerTotal("EXPENSE", 24_999L, 2)));
+
+		ConsistencyReport report = accountBalanceService.checkConsistency();
+
+		assertFalse(report.consistent());
+		BalanceDrift expense = report.balances().get(0);
+		assertEquals("EXPENSE", expense.type());
+		assertFalse(expense.consistent());
+		assertEquals(Money.parse("-0.01"), expense.drift());
+		BalanceDrift income = report.balances().get(1);
+		assertEquals("INCOME", income.type());
+		assertTrue(income.consistent());
+	}
+
+	private static LedgerTotalView ledgerTotal(String type, long total, long count) {
+		return new LedgerTotalView() {
+			public String getType() {
+				return type;
+			}
+
+			public Long getTotal() {
+				return total;
+			}
+
+			public Long getTransactionCount() {
+				return count;
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<TransactionDelta> savedDeltas() {
+		ArgumentCaptor<List<TransactionDelta>> captor = ArgumentCaptor.forClass(List.class);
+		verify(transactionDeltaRepository).saveAll(captor.capture());
+		return captor.getValue();
+	}
+
+	private static void assertDelta(TransactionDelta delta, LocalDate day, String type, long amount, long count) {
+		assertEquals(day, delta.getEntryDate());
+		assertEquals(type, delta.getType());
+		assertEquals(amount, delta.getAmount().minorUnits());
+		assertEquals(count, delta.getTransactionCount());
+	}
+
+	private static Transaction transaction(LocalDateTime timestamp, String type, String amount) {
+		Transaction transaction = new Transaction();
+		transaction.setTimestamp(timestamp);
+		transaction.setType(type);
+		transaction.setAmount(Money.parse(amount));
+		return transaction;
+	}
+}
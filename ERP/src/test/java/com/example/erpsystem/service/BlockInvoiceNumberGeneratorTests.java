@@ -0,0 +1,94 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class BlockInvoiceNumberGeneratorTests {
+
+	private static final int NODES = 4;
+	private static final int THREADS_PER_NODE = 16;
+	private static final int NUMBERS_PER_THREAD = 2_000;
+	private static final int BLOCK_SIZE = 50;
+
+	// Stands in for the invoice_number_block table shared by all nodes
+	private static class InMemoryBlockSource implements InvoiceNumberBlockSource {
+
+		private final Map<String, AtomicLong> nextValues = new ConcurrentHashMap<>();
+		private final AtomicInteger reservations = new AtomicInteger();
+
+		@Override
+		public long reserveBlock(String financialYear, int blockSize) {
+			reservations.incrementAndGet();
+			return nextValues.computeIfAbsent(financialYear, year -> new AtomicLong(1)).getAndAdd(blockSize);
+		}
+	}
+
+	@Test
+	void formatsNumbersPerFinancialYear() {
+		BlockInvoiceNumberGenerator generator = new BlockInvoiceNumberGenerator(new InMemoryBlockSource(), BLOCK_SIZE, "INV");
+
+		assertEquals("INV/2025-26/000001", generator.nextInvoiceNumber(LocalDate.of(2026, 3, 31)));
+		assertEquals("INV/2026-27/000001", generator.nextInvoiceNumber(LocalDate.of(2026, 4, 1)));
+		assertEquals("INV/2026-27/000002", generator.nextInvoiceNumber(LocalDate.of(2027, 3, 31)));
+		assertEquals("INV/2099-00/000001", generator.nextInvoiceNumber(LocalDate.of(2099, 12, 1)));
+	}
+
+	@Test
+	void concurrentNodesHandOutUniqueMonotonicNumbers() throws Exception {
+		InMemoryBlockSource blockSource = new InMemoryBlockSource();
+		List<BlockInvoiceNumberGenerator> nodes = new ArrayList<>();
+		for (int i = 0; i < NODES; i++) {
+			nodes.add(new BlockInvoiceNumberGenerator(blockSource, BLOCK_SIZE, "INV"));
+		}
+
+		LocalDate issueDate = LocalDate.of(2026, 10, 18);
+		Set<String> issued = ConcurrentHashMap.newKeySet();
+		List<Callable<Boolean>> workers = new ArrayList<>();
+		for (BlockInvoiceNumberGenerator node : nodes) {
+			for (int t = 0; t < THREADS_PER_NODE; t++) {
+				workers.add(() -> {
+					long previous = 0;
+					boolean monotonic = true;
+					for (int n = 0; n < NUMBERS_PER_THREAD; n++) {
+						String number = node.nextInvoiceNumber(issueDate);
+						long value = Long.parseLong(number.substring(number.lastIndexOf('/') + 1));
+						monotonic &= value > previous;
+						previous = value;
+						issued.add(number);
+					}
+					return monotonic;
+				});
+			}
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+		try {
+			for (Future<Boolean> result : executor.invokeAll(workers)) {
+				assertTrue(result.get(), "Numbers seen by one thread must increase");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		int total = NODES * THREADS_PER_NODE * NUMBERS_PER_THREAD;
+		assertEquals(total, issued.size(), "Every invoice number must be unique");
+		// One reservation per block, plus at most one partly used block per node
+		assertTrue(blockSource.reservations.get() <= total / BLOCK_SIZE + NODES,
+				"Unexpected number of block reservations: " + blockSource.reservations.get());
+	}
+}
@@ -0,0 +1,92 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.example.erpsystem.model.Invoice;
+import com.example.erpsystem.model.JournalEntry.SourceType;
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.Product;
+import com.example.erpsystem.model.StockTransaction;
+import com.example.erpsystem.repository.InvoiceRepository;
+import com.example.erpsystem.repository.JournalEntryRepository;
+import com.example.erpsystem.repository.LedgerAccountRepository;
+import com.example.erpsystem.repository.StockTransactionRepository;
+import com.example.erpsystem.service.GeneralLedgerService.Posting;
+import com.example.erpsystem.service.GeneralLedgerService.PostingLine;
+
+class GeneralLedgerServiceTests {
+
+	private GeneralLedgerService generalLedgerService;
+
+	@BeforeEach
+	void setUp() {
+		generalLedgerService = new GeneralLedgerService(mock(LedgerAccountRepository.class),
+				mock(JournalEntryRepository.class), mock(InvoiceRepository.class),
+				mock(StockTransactionRepository.class), mock(JournalBatchWriter.class),
+				mock(ApplicationEventPublisher.class));
+	}
+
+	@Test
+	void invoicePostsRevenueAndCostOfGoodsSold() {
+		Invoice invoice = new Invoice("INV/2026-27/000001", Money.parse("150.00"), "Walk-in");
+		StockTransaction pens = line("OUT", 10, "5.00", "32.50");
+		StockTransaction books = line("OUT", 2, "50.00", "60.00");
+
+		Posting posting = generalLedgerService.invoicePosting(invoice, List.of(pens, books));
+
+		assertEquals(SourceType.INVOICE, posting.sourceType());
+		assertEquals(List.of(
+				new PostingLine(GeneralLedgerService.CASH, new BigDecimal("150.00"), BigDecimal.ZERO),
+				new PostingLine(GeneralLedgerService.SALES_REVENUE, BigDecimal.ZERO, new BigDecimal("150.00")),
+				new PostingLine(GeneralLedgerService.COST_OF_GOODS_SOLD, new BigDecimal("92.50"), BigDecimal.ZERO),
+				new PostingLine(GeneralLedgerService.INVENTORY, BigDecimal.ZERO, new BigDecimal("92.50"))),
+				posting.lines());
+	}
+
+	@Test
+	void purchaseMovesCashIntoInventoryAndInvoiceLinesAreSkipped() {
+		StockTransaction purchase = line("IN", 4, "12.50", "50.00");
+
+		Posting posting = generalLedgerService.stockTransactionPosting(purchase);
+
+		assertEquals(List.of(
+				new PostingLine(GeneralLedgerService.INVENTORY, new BigDecimal("50.00"), BigDecimal.ZERO),
+				new PostingLine(GeneralLedgerService.CASH, BigDecimal.ZERO, new BigDecimal("50.00"))),
+				posting.lines());
+
+		StockTransaction sold = line("OUT", 1, "12.50", "12.50");
+		sold.setInvoice(new Invoice());
+		assertNull(generalLedgerService.stockTransactionPosting(sold));
+	}
+
+	@Test
+	void unbalancedEntriesAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new Posting(SourceType.INVOICE, 1L, "Broken",
+				LocalDateTime.now(), List.of(
+						new PostingLine(GeneralLedgerService.CASH, new BigDecimal("10.00"), BigDecimal.ZERO),
+						new PostingLine(GeneralLedgerService.SALES_REVENUE, BigDecimal.ZERO, new BigDecimal("9.99")))));
+		assertThrows(IllegalArgumentException.class, () -> new Posting(SourceType.INVOICE, 1L, "Both sides",
+				LocalDateTime.now(), List.of(
+						new PostingLine(GeneralLedgerService.CASH, new BigDecimal("10.00"), new BigDecimal("10.00")))));
+	}
+
+	private static StockTransaction line(String type, int quantity, String pricePerUnit, String costValue) {
+		Product product = new Product();
+		product.setName("Notebook");
+		StockTransaction transaction = new StockTransaction(product, quantity, type, LocalDateTime.now(),
+				Money.parse(pricePerUnit));
+		transaction.setCostValue(Money.parse(costValue));
+		return transaction;
+	}
+}
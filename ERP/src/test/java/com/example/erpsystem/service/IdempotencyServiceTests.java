@@ -0,0 +1,121 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import com.example.erpsystem.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class IdempotencyServiceTests {
+
+	private static final int REQUESTS = 100;
+
+	private IdempotencyRecordRepository repository;
+	private IdempotencyService idempotencyService;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(IdempotencyRecordRepository.class);
+		when(repository.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+		idempotencyService = new IdempotencyService(repository, new ObjectMapper(), 24, 100, 10_000);
+	}
+
+	@Test
+	void parallelRequestsWithSameKeyRunOnce() throws Exception {
+		Map<String, Object> request = Map.of("customerName", "Retrying POS terminal");
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+
+		List<Callable<ResponseEntity<?>>> requests = new ArrayList<>();
+		for (int i = 0; i < REQUESTS; i++) {
+			requests.add(() -> {
+				start.await();
+				return idempotencyService.execute("sale-42", request, () -> {
+					executions.incrementAndGet();
+					sleep(50);
+					return ResponseEntity.ok(Map.of("invoiceNumber", "INV/2026-27/000001"));
+				});
+			});
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+		List<Future<ResponseEntity<?>>> responses = new ArrayList<>();
+		try {
+			for (Callable<ResponseEntity<?>> call : requests) {
+				responses.add(executor.submit(call));
+			}
+			start.countDown();
+
+			int replayed = 0;
+			for (Future<ResponseEntity<?>> response : responses) {
+				ResponseEntity<?> entity = response.get();
+				assertEquals(200, entity.getStatusCode().value());
+				assertEquals("{\"invoiceNumber\":\"INV/2026-27/000001\"}", entity.getBody());
+				if (entity.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)) {
+					replayed++;
+				}
+			}
+			assertEquals(REQUESTS - 1, replayed);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, executions.get());
+		verify(repository, times(1)).complete(eq("sale-42"), eq(200), anyString(), anyString(), any());
+	}
+
+	@Test
+	void sameKeyWithDifferentRequestIsRejected() {
+		idempotencyService.execute("sale-43", Map.of("customerName", "A"), () -> ResponseEntity.ok("first"));
+
+		assertThrows(IllegalArgumentException.class, () ->
+				idempotencyService.execute("sale-43", Map.of("customerName", "B"), () -> ResponseEntity.ok("second")));
+	}
+
+	@Test
+	void failedAttemptIsReleasedForRetry() {
+		AtomicInteger executions = new AtomicInteger();
+		idempotencyService.execute("sale-44", Map.of(), () -> {
+			executions.incrementAndGet();
+			return ResponseEntity.badRequest().body("Insufficient stock");
+		});
+		idempotencyService.execute("sale-44", Map.of(), () -> {
+			executions.incrementAndGet();
+			return ResponseEntity.ok("created");
+		});
+
+		assertEquals(2, executions.get());
+		verify(repository, times(1)).release("sale-44");
+		verify(repository, times(1)).complete(eq("sale-44"), anyInt(), anyString(), eq("created"), any());
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.erpsystem.model.InventorySnapshot;
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.Product;
+import com.example.erpsystem.model.ProductValuation;
+import com.example.erpsystem.repository.InventorySnapshotLineRepository;
+import com.example.erpsystem.repository.InventorySnapshotRepository;
+import com.example.erpsystem.repository.ProductRepository;
+import com.example.erpsystem.repository.ProductValuationRepository;
+
+class InventorySnapshotServiceTests {
+
+	private static final LocalDateTime SNAPSHOT_TAKEN = LocalDateTime.of(2026, 5, 1, 0, 0);
+	private static final LocalDateTime CREATED = LocalDateTime.of(2026, 5, 3, 12, 0);
+
+	private final InventorySnapshotRepository snapshotRepository = mock(InventorySnapshotRepository.class);
+	private final InventorySnapshotLineRepository lineRepository = mock(InventorySnapshotLineRepository.class);
+	private final ProductRepository productRepository = mock(ProductRepository.class);
+	private final ProductValuationRepository valuationRepository = mock(ProductValuationRepository.class);
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final InventorySnapshotService service = new InventorySnapshotService(snapshotRepository, lineRepository,
+			productRepository, valuationRepository, jdbcTemplate, mock(PlatformTransactionManager.class));
+
+	@BeforeEach
+	void setUp() {
+		// Created on May 3rd with 40 units, 10 of them sold since
+		Product product = new Product();
+		product.setId(5L);
+		product.setPrice(Money.ofMinor(250));
+		product.setStock(30);
+		product.setCreatedAt(CREATED);
+		when(productRepository.findById(5L)).thenReturn(Optional.of(product));
+
+		ProductValuation valuation = new ProductValuation();
+		valuation.setProductId(5L);
+		valuation.setQuantity(30);
+		valuation.setTotalValue(new BigDecimal("75.00"));
+		when(valuationRepository.findById(5L)).thenReturn(Optional.of(valuation));
+
+		InventorySnapshot snapshot = new InventorySnapshot(SNAPSHOT_TAKEN);
+		ReflectionTestUtils.setField(snapshot, "id", 1L);
+		when(snapshotRepository.findFirstByTakenAtLessThanEqualOrderByTakenAtDesc(any())).thenReturn(Optional.of(snapshot));
+	}
+
+	@Test
+	void productHasNoStockBeforeItWasCreated() {
+		Map<String, Object> result = service.getProductStockAsOf(5L, CREATED.minusDays(1));
+
+		assertEquals(0L, result.get("stock"));
+		assertEquals(BigDecimal.ZERO, result.get("totalValue"));
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	@Test
+	void productCreatedAfterTheSnapshotKeepsItsInitialStock() {
+		LocalDateTime asOf = CREATED.plusDays(1);
+		when(jdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<Object[]>>any(), anyLong(), eq(Timestamp.valueOf(asOf)), any()))
+				.thenReturn(new Object[] { -10L, new BigDecimal("-25.00") });
+
+		Map<String, Object> result = service.getProductStockAsOf(5L, asOf);
+
+		// Walked back from today's 30 units rather than 0 from the snapshot plus later movements
+		assertEquals(40L, result.get("stock"));
+		assertEquals(new BigDecimal("100.00"), result.get("totalValue"));
+		assertNull(result.get("snapshotId"));
+	}
+}
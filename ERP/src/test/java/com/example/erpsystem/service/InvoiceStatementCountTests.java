@@ -0,0 +1,200 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.Product;
+import com.example.erpsystem.model.StockTransaction;
+import com.example.erpsystem.repository.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+
+// Rolled back after each test, so nothing is committed and no PDF render is queued
+@SpringBootTest
+@Transactional
+class InvoiceStatementCountTests {
+
+	private static final int SMALL_INVOICE_LINES = 4;
+	private static final int LARGE_INVOICE_LINES = 40;
+
+	@Autowired
+	private InvoiceService invoiceService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private final List<Long> productIds = new ArrayList<>();
+
+	@BeforeEach
+	void createProducts() {
+		long suffix = System.nanoTime();
+		for (int i = 0; i < LARGE_INVOICE_LINES; i++) {
+			Product product = new Product();
+			product.setName("statement-count-test-" + suffix + "-" + i);
+			product.setDescription("Product for statement count test");
+			product.setPrice(Money.ofMinor(100));
+			product.setStock(100);
+			productIds.add(productRepository.save(product).getId());
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void statementCountDoesNotGrowWithInvoiceLines() {
+		List<String> smallInvoice = statementsFor(SMALL_INVOICE_LINES);
+		List<String> largeInvoice = statementsFor(LARGE_INVOICE_LINES);
+
+		assertEquals(smallInvoice.size(), largeInvoice.size(),
+				() -> "Statements for " + SMALL_INVOICE_LINES + " lines: " + smallInvoice
+						+ "\nStatements for " + LARGE_INVOICE_LINES + " lines: " + largeInvoice);
+	}
+
+	@Test
+	void unknownProductIsRejectedAsAnInvalidLine() {
+		Product missing = new Product();
+		missing.setId(-1L);
+		StockTransaction item = new StockTransaction();
+		item.setProduct(missing);
+		item.setQuantity(1);
+		item.setPricePerUnit(Money.ofMinor(100));
+
+		// Mapped to 400 by InvoiceController, like the other invalid lines
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> invoiceService
+				.generateInvoiceAndRecordTransaction("statement-count-test", List.of(item), LocalDateTime.now()));
+		assertEquals("Product not found with ID: -1", e.getMessage());
+	}
+
+	private List<String> statementsFor(int lines) {
+		List<StockTransaction> items = new ArrayList<>();
+		for (int i = 0; i < lines; i++) {
+			Product product = new Product();
+			product.setId(productIds.get(i));
+			StockTransaction item = new StockTransaction();
+			item.setProduct(product);
+			item.setQuantity(1);
+			item.setPricePerUnit(Money.ofMinor(100));
+			items.add(item);
+		}
+
+		List<String> statements = new ArrayList<>();
+		StatementCountingDataSource.statements.set(statements);
+		try {
+			invoiceService.generateInvoiceAndRecordTransaction("statement-count-test", items, LocalDateTime.now());
+			entityManager.flush();
+		} finally {
+			StatementCountingDataSource.statements.remove();
+		}
+		entityManager.clear();
+		// Pooled sequence fetches depend on where the allocation block happens to end
+		statements.removeIf(sql -> sql.contains("nextval"));
+		return statements;
+	}
+
+	@TestConfiguration
+	static class StatementCountingConfiguration {
+
+		@Bean
+		static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+						return new StatementCountingDataSource(dataSource);
+					}
+					return bean;
+				}
+			};
+		}
+	}
+
+	// Records every statement execution (a JDBC batch counts once) made by the current thread
+	static class StatementCountingDataSource extends DelegatingDataSource {
+
+		static final ThreadLocal<List<String>> statements = new ThreadLocal<>();
+
+		StatementCountingDataSource(DataSource target) {
+			super(target);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return countingConnection(super.getConnection());
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return countingConnection(super.getConnection(username, password));
+		}
+
+		private static Connection countingConnection(Connection connection) {
+			return proxy(Connection.class, connection, (target, method, args) -> {
+				Object result = method.invoke(target, args);
+				if (result instanceof CallableStatement callable) {
+					return countingStatement(CallableStatement.class, callable, (String) args[0]);
+				}
+				if (result instanceof PreparedStatement prepared) {
+					return countingStatement(PreparedStatement.class, prepared, (String) args[0]);
+				}
+				if (result instanceof Statement statement) {
+					return countingStatement(Statement.class, statement, null);
+				}
+				return result;
+			});
+		}
+
+		private static <T extends Statement> T countingStatement(Class<T> type, T statement, String preparedSql) {
+			return proxy(type, statement, (target, method, args) -> {
+				List<String> recorded = statements.get();
+				if (recorded != null && method.getName().startsWith("execute")) {
+					recorded.add(preparedSql != null ? preparedSql : String.valueOf(args == null ? null : args[0]));
+				}
+				return method.invoke(target, args);
+			});
+		}
+
+		private interface Invocation {
+			Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T> T proxy(Class<T> type, T target, Invocation invocation) {
+			InvocationHandler handler = (proxy, method, args) -> {
+				try {
+					return invocation.invoke(target, method, args);
+				} catch (InvocationTargetException e) {
+					throw e.getTargetException();
+				}
+			};
+			return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+		}
+	}
+}
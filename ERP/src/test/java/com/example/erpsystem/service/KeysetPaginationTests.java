@@ -0,0 +1,168 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.example.erpsystem.GlobalExceptionHandler;
+import com.example.erpsystem.controller.FileDownloads;
+import com.example.erpsystem.controller.StockTransactionController;
+import com.example.erpsystem.dto.CursorPage;
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.StockTransaction;
+import com.example.erpsystem.repository.InvoiceRepository;
+import com.example.erpsystem.repository.ProductRepository;
+import com.example.erpsystem.repository.StockTransactionBillRepository;
+import com.example.erpsystem.repository.StockTransactionRepository;
+
+class KeysetPaginationTests {
+
+	private static final LocalDateTime DAY_ZERO = LocalDateTime.of(2026, 5, 4, 9, 0);
+	private static final int MOVEMENTS = 23;
+
+	private final List<StockTransaction> movements = new ArrayList<>();
+	private StockTransactionService stockTransactionService;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		// Groups of three share a timestamp, so every page boundary has to break ties on id
+		for (long id = 1; id <= MOVEMENTS; id++) {
+			movements.add(movement(id, DAY_ZERO.plusMinutes((id - 1) / 3), id % 2 == 0 ? "IN" : "OUT"));
+		}
+
+		StockTransactionRepository repository = mock(StockTransactionRepository.class);
+		when(repository.findPage(anyCollection(), any(), any(), any(), anyLong(), any())).thenAnswer(invocation ->
+				findPage(invocation.getArgument(0), invocation.getArgument(3), invocation.getArgument(4),
+						invocation.getArgument(5)));
+		stockTransactionService = new StockTransactionService(repository, mock(ProductRepository.class),
+				mock(TransactionService.class), mock(StockTransactionBillRepository.class), mock(ProductService.class),
+				mock(InventoryValuationService.class), mock(PdfRenderingEngine.class), mock(GeneralLedgerService.class));
+		mockMvc = MockMvcBuilders.standaloneSetup(new StockTransactionController(stockTransactionService,
+						mock(InvoiceRepository.class), mock(FileDownloads.class), mock(LedgerExportService.class)))
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	@Test
+	void cursorRoundTripsItsFields() {
+		String cursor = CursorPage.encodeCursor("2026-05-04T09:07|42");
+
+		assertArrayEquals(new String[] { "2026-05-04T09:07", "42" }, CursorPage.decodeCursor(cursor, 2));
+		// Only the last field may contain the separator, e.g. a product name
+		assertArrayEquals(new String[] { "Pen | Blue" }, CursorPage.decodeCursor(CursorPage.encodeCursor("Pen | Blue"), 1));
+		assertThrows(IllegalArgumentException.class, () -> CursorPage.decodeCursor(cursor, 3));
+		assertThrows(IllegalArgumentException.class, () -> CursorPage.decodeCursor("not base64!", 1));
+		assertThrows(IllegalArgumentException.class, () -> CursorPage.cursorId("forty-two"));
+	}
+
+	@Test
+	void pagesCoverEveryRowOnceAcrossTies() {
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			CursorPage<StockTransaction> page = stockTransactionService.getTransactionsPage(cursor, 5, null, null, null, null);
+			page.getItems().forEach(movement -> seen.add(movement.getId()));
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		List<Long> expected = newestFirst(movements).stream().map(StockTransaction::getId).toList();
+		assertEquals(expected, seen);
+		assertEquals(5, pages);
+	}
+
+	@Test
+	void exactlyFullLastPageHasNoCursor() {
+		CursorPage<StockTransaction> page = stockTransactionService.getTransactionsPage(null, MOVEMENTS, null, null, null, null);
+
+		assertEquals(MOVEMENTS, page.getItems().size());
+		assertNull(page.getNextCursor());
+	}
+
+	@Test
+	void nextPageHeadersCarryTheCursorAndFilters() throws Exception {
+		MvcResult first = mockMvc.perform(get("/api/inventory/transactions?size=4&type=IN"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(4))
+				.andExpect(jsonPath("$[0].id").value(22))
+				.andReturn();
+		String cursor = first.getResponse().getHeader("X-Next-Cursor");
+		assertEquals("<http://localhost/api/inventory/transactions?size=4&type=IN&cursor=" + cursor + ">; rel=\"next\"",
+				first.getResponse().getHeader("Link"));
+
+		mockMvc.perform(get("/api/inventory/transactions?size=4&type=IN&cursor=" + cursor))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id").value(14));
+
+		// 11 IN rows: the third page holds the last three and sends no cursor
+		mockMvc.perform(get("/api/inventory/transactions?size=8&type=IN&cursor=" + cursor))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(7))
+				.andExpect(header().doesNotExist("X-Next-Cursor"))
+				.andExpect(header().doesNotExist("Link"));
+	}
+
+	@Test
+	void badCursorOrTypeIsABadRequest() throws Exception {
+		mockMvc.perform(get("/api/inventory/transactions").param("cursor", "bm90LWEtY3Vyc29y"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("Invalid cursor."));
+		mockMvc.perform(get("/api/inventory/transactions").param("type", "SIDEWAYS"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("Transaction type must be either 'IN' or 'OUT'."));
+	}
+
+	// Same predicate and order as StockTransactionRepository.findPage
+	private List<StockTransaction> findPage(Collection<String> types, LocalDateTime cursorTimestamp, long cursorId,
+			Pageable pageable) {
+		return newestFirst(movements).stream()
+				.filter(movement -> types.contains(movement.getType()))
+				.filter(movement -> movement.getTimestamp().isBefore(cursorTimestamp)
+						|| (movement.getTimestamp().equals(cursorTimestamp) && movement.getId() < cursorId))
+				.limit(pageable.getPageSize())
+				.toList();
+	}
+
+	private static List<StockTransaction> newestFirst(List<StockTransaction> movements) {
+		return movements.stream()
+				.sorted(Comparator.comparing(StockTransaction::getTimestamp).thenComparing(StockTransaction::getId).reversed())
+				.toList();
+	}
+
+	private static StockTransaction movement(long id, LocalDateTime timestamp, String type) {
+		StockTransaction movement = new StockTransaction();
+		ReflectionTestUtils.setField(movement, "id", id);
+		movement.setTimestamp(timestamp);
+		movement.setType(type);
+		movement.setQuantity(1);
+		movement.setPricePerUnit(Money.ofMinor(250));
+		return movement;
+	}
+}
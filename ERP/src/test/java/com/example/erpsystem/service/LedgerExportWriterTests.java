@@ -0,0 +1,118 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.service.LedgerExportService.ExportFormat;
+import com.fasterxml.jackson.core.JsonFactory;
+
+class LedgerExportWriterTests {
+
+	private static final String[] COLUMNS = {"id", "timestamp", "type", "amount", "description"};
+
+	private final JsonFactory jsonFactory = new JsonFactory();
+	private final LocalDateTime timestamp = LocalDateTime.of(2026, 4, 1, 9, 30);
+
+	@Test
+	void csvQuotesFieldsThatNeedIt() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (LedgerExportWriter writer = new LedgerExportWriter(ExportFormat.CSV, COLUMNS, out, false, jsonFactory)) {
+			writer.writeRow(1L, timestamp, "INCOME", Money.parse("12.50"), "Sale, Invoice: \"INV/1\"");
+			writer.writeRow(2L, timestamp, "EXPENSE", null, "Rent");
+		}
+
+		assertEquals("id,timestamp,type,amount,description\r\n"
+				+ "1,2026-04-01T09:30,INCOME,12.50,\"Sale, Invoice: \"\"INV/1\"\"\"\r\n"
+				+ "2,2026-04-01T09:30,EXPENSE,,Rent\r\n", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void ndjsonWritesOneObjectPerLine() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (LedgerExportWriter writer = new LedgerExportWriter(ExportFormat.NDJSON, COLUMNS, out, true, jsonFactory)) {
+			writer.writeRow(1L, timestamp, "INCOME", Money.parse("12.50"), "Sale");
+			writer.writeRow(2L, timestamp, "EXPENSE", null, "Rent");
+		}
+
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			assertEquals("{\"id\":1,\"timestamp\":\"2026-04-01T09:30\",\"type\":\"INCOME\",\"amount\":12.50,\"description\":\"Sale\"}\n"
+					+ "{\"id\":2,\"timestamp\":\"2026-04-01T09:30\",\"type\":\"EXPENSE\",\"amount\":null,\"description\":\"Rent\"}\n",
+					new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	void csvKeepsLineBreaksInsideQuotedFields() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (LedgerExportWriter writer = new LedgerExportWriter(ExportFormat.CSV, COLUMNS, out, false, jsonFactory)) {
+			writer.writeRow(1L, timestamp, "INCOME", Money.ofMinor(-5), "Two\nlines");
+			writer.writeRow(2L, timestamp, "INCOME", Money.ZERO, "Carriage\rreturn");
+			writer.writeRow(3L, timestamp, "INCOME", Money.ZERO, "\"");
+			assertEquals(3, writer.getRows());
+		}
+
+		assertEquals("id,timestamp,type,amount,description\r\n"
+				+ "1,2026-04-01T09:30,INCOME,-0.05,\"Two\nlines\"\r\n"
+				+ "2,2026-04-01T09:30,INCOME,0.00,\"Carriage\rreturn\"\r\n"
+				+ "3,2026-04-01T09:30,INCOME,0.00,\"\"\"\"\r\n", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void ndjsonEscapesStringsSoEachRowStaysOnOneLine() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (LedgerExportWriter writer = new LedgerExportWriter(ExportFormat.NDJSON, new String[] {"id", "quantity", "note"},
+				out, false, jsonFactory)) {
+			writer.writeRow(1L, 3, "Said \"hi\"\nthen left");
+			writer.writeRow(2L, null, "Zoë");
+		}
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+		assertEquals(3, lines.length);
+		assertEquals("{\"id\":1,\"quantity\":3,\"note\":\"Said \\\"hi\\\"\\nthen left\"}", lines[0]);
+		assertEquals("{\"id\":2,\"quantity\":null,\"note\":\"Zoë\"}", lines[1]);
+		assertEquals("", lines[2]);
+	}
+
+	@Test
+	void gzippedCsvIsOneCompleteMember() throws Exception {
+		ByteArrayOutputStream plain = new ByteArrayOutputStream();
+		ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+		try (LedgerExportWriter plainWriter = new LedgerExportWriter(ExportFormat.CSV, COLUMNS, plain, false, jsonFactory);
+				LedgerExportWriter gzipWriter = new LedgerExportWriter(ExportFormat.CSV, COLUMNS, gzipped, true, jsonFactory)) {
+			// Enough rows to spill past the 64 KB buffers more than once
+			for (long id = 1; id <= 20_000; id++) {
+				plainWriter.writeRow(id, timestamp, "EXPENSE", Money.ofMinor(id), "Row " + id);
+				gzipWriter.writeRow(id, timestamp, "EXPENSE", Money.ofMinor(id), "Row " + id);
+			}
+		}
+
+		byte[] bytes = gzipped.toByteArray();
+		assertEquals(0x1f, bytes[0] & 0xff);
+		assertEquals(0x8b, bytes[1] & 0xff);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			assertArrayEquals(plain.toByteArray(), in.readAllBytes());
+		}
+		assertTrue(plain.toString(StandardCharsets.UTF_8).endsWith("20000,2026-04-01T09:30,EXPENSE,200.00,Row 20000\r\n"));
+	}
+
+	@Test
+	void emptyExportsStillCarryTheHeader() throws Exception {
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+		new LedgerExportWriter(ExportFormat.CSV, COLUMNS, csv, false, jsonFactory).close();
+		new LedgerExportWriter(ExportFormat.NDJSON, COLUMNS, ndjson, false, jsonFactory).close();
+
+		assertEquals("id,timestamp,type,amount,description\r\n", csv.toString(StandardCharsets.UTF_8));
+		assertEquals(0, ndjson.size());
+	}
+}
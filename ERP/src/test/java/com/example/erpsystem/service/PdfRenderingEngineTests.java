@@ -0,0 +1,154 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.erpsystem.service.PdfRenderingEngine.DocumentType;
+import com.example.erpsystem.service.PdfRenderingEngine.DocumentWriter;
+import com.example.erpsystem.service.PdfRenderingEngine.Fragment;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+
+class PdfRenderingEngineTests {
+
+	private static final int THREADS = 8;
+	private static final int DOCUMENTS = 200;
+
+	private final PdfRenderingEngine engine;
+
+	PdfRenderingEngineTests() throws Exception {
+		engine = new PdfRenderingEngine();
+	}
+
+	private final DocumentWriter receipt = pdf -> {
+		Table details = pdf.receiptTable();
+		pdf.addReceiptRow(details, "Transaction ID", "42");
+		pdf.addReceiptRow(details, "Type", "INCOME");
+		pdf.addReceiptTotalRow(details, "Amount", "$125.00");
+		pdf.addReceipt(details, "ID:42|Amt:$125.00|Type:INCOME");
+	};
+
+	@Test
+	void receiptsContainPrebuiltHeaderAndFooter() throws Exception {
+		String text = firstPageText(engine.renderToBytes(DocumentType.STOCK_BILL, receipt));
+
+		assertTrue(text.contains("SIKSHA 'O' ANUSANDHAN"), text);
+		assertTrue(text.contains("STOCK BILL"), text);
+		assertTrue(text.contains("Transaction ID"), text);
+		assertTrue(text.contains("FOR OFFICE USE ONLY"), text);
+	}
+
+	@Test
+	void invoiceUsesHeaderAndTermsFragments() throws Exception {
+		byte[] pdf = engine.renderToBytes(DocumentType.INVOICE, context -> {
+			context.document().add(context.fragment(Fragment.HEADER));
+			context.document().add(new Paragraph("Invoice No: INV/2026-27/000001").setFont(context.boldFont()));
+			context.document().add(context.fragment(Fragment.TERMS));
+		});
+		String text = firstPageText(pdf);
+
+		assertTrue(text.contains("University Address Line 1"), text);
+		assertTrue(text.contains("INV/2026-27/000001"), text);
+		assertTrue(text.contains("Payment is due within 30 days"), text);
+	}
+
+	@Test
+	void fragmentsFitOnOnePage() throws Exception {
+		byte[] card = engine.renderToBytes(DocumentType.IDENTITY_CARD, context -> {
+			context.document().add(context.fragment(Fragment.HEADER));
+			context.document().add(context.fragment(Fragment.SIGNATURE));
+		});
+		try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(card)))) {
+			assertEquals(1, document.getNumberOfPages());
+		}
+	}
+
+	@Test
+	void placingAFragmentTwiceCopiesItOnce() throws Exception {
+		byte[] pdf = engine.renderToBytes(DocumentType.TRANSACTION_BILL, context -> {
+			context.document().add(context.fragment(Fragment.HEADER));
+			context.document().add(context.fragment(Fragment.HEADER));
+		});
+		try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+			assertEquals(1, document.getFirstPage().getResources().getResourceNames(PdfName.XObject).size());
+		}
+	}
+
+	// Every worker copies out of the same parsed fragments
+	@Test
+	void concurrentRendersEachGetCompleteFragments() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<String>> texts = new ArrayList<>();
+			for (int i = 0; i < DOCUMENTS; i++) {
+				texts.add(executor.submit(() -> firstPageText(engine.renderToBytes(DocumentType.TRANSACTION_BILL, receipt))));
+			}
+			for (Future<String> text : texts) {
+				assertTrue(text.get().contains("SIKSHA 'O' ANUSANDHAN"), text.get());
+				assertTrue(text.get().contains("FOR OFFICE USE ONLY"), text.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// Lazy downloads and the generate endpoints can render the same document at once
+	@Test
+	void concurrentRendersOfOneFileEachPublishACompletePdf(@TempDir Path directory) throws Exception {
+		Path target = directory.resolve("Bill_Transaction_42.pdf");
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<String>> renders = new ArrayList<>();
+			for (int i = 0; i < THREADS * 4; i++) {
+				renders.add(executor.submit(() -> engine.render(DocumentType.TRANSACTION_BILL, target.toString(), receipt)));
+			}
+			for (Future<String> render : renders) {
+				render.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertTrue(firstPageText(Files.readAllBytes(target)).contains("Transaction ID"));
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(List.of(target), files.toList());
+		}
+	}
+
+	@Test
+	void failedRenderLeavesNoPartialFile(@TempDir Path directory) throws Exception {
+		Path target = directory.resolve("Bill_Transaction_42.pdf");
+
+		assertThrows(IllegalStateException.class, () -> engine.render(DocumentType.TRANSACTION_BILL, target.toString(),
+				pdf -> {
+					throw new IllegalStateException("layout failed");
+				}));
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(List.of(), files.toList());
+		}
+	}
+
+	private static String firstPageText(byte[] pdf) throws Exception {
+		try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+			return PdfTextExtractor.getTextFromPage(document.getFirstPage());
+		}
+	}
+}
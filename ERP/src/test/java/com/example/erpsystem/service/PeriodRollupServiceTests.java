@@ -0,0 +1,89 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.PeriodGranularity;
+import com.example.erpsystem.repository.LedgerAccountRepository;
+import com.example.erpsystem.service.PeriodRollupService.IncomeStatementPeriod;
+
+class PeriodRollupServiceTests {
+
+	private JdbcTemplate jdbcTemplate;
+	private PeriodRollupService periodRollupService;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		periodRollupService = new PeriodRollupService(jdbcTemplate, mock(LedgerAccountRepository.class),
+				mock(PlatformTransactionManager.class));
+	}
+
+	@Test
+	void quarterlyStatementStartsAtTheQuarterAndEndsOnItsLastDay() throws Exception {
+		rollupRows(new Object[][] {
+				{ "2026-01-01", "INCOME", 500_000L, 40L },
+				{ "2026-01-01", "EXPENSE", 120_050L, 12L },
+				{ "2026-04-01", "EXPENSE", 9_999L, 1L } });
+
+		List<IncomeStatementPeriod> periods = periodRollupService.getIncomeStatement(PeriodGranularity.QUARTER,
+				LocalDate.of(2026, 2, 14), LocalDate.of(2026, 6, 30));
+
+		verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq("QUARTER"), eq("quarter"),
+				eq(Date.valueOf("2026-01-01")), eq(Date.valueOf("2026-06-30")));
+		assertEquals(2, periods.size());
+		IncomeStatementPeriod first = periods.get(0);
+		assertEquals(LocalDate.of(2026, 1, 1), first.periodStart());
+		assertEquals(LocalDate.of(2026, 3, 31), first.periodEnd());
+		assertEquals(Money.parse("5000.00"), first.income());
+		assertEquals(Money.parse("1200.50"), first.expense());
+		assertEquals(Money.parse("3799.50"), first.netIncome());
+		assertEquals(52, first.transactionCount());
+		IncomeStatementPeriod second = periods.get(1);
+		assertEquals(LocalDate.of(2026, 6, 30), second.periodEnd());
+		assertEquals(Money.ZERO, second.income());
+		assertEquals(Money.parse("-99.99"), second.netIncome());
+	}
+
+	@Test
+	void rangeMustNotBeReversed() {
+		assertThrows(IllegalArgumentException.class, () -> periodRollupService.getIncomeStatement(PeriodGranularity.DAY,
+				LocalDate.of(2026, 2, 2), LocalDate.of(2026, 2, 1)));
+		assertThrows(IllegalArgumentException.class,
+				() -> periodRollupService.rebuild(LocalDate.of(2026, 2, 2), LocalDate.of(2026, 2, 1)));
+	}
+
+	private void rollupRows(Object[][] rows) throws Exception {
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			for (Object[] row : rows) {
+				ResultSet resultSet = mock(ResultSet.class);
+				when(resultSet.getDate(1)).thenReturn(Date.valueOf((String) row[0]));
+				when(resultSet.getString(2)).thenReturn((String) row[1]);
+				when(resultSet.getLong(3)).thenReturn((Long) row[2]);
+				when(resultSet.getLong(4)).thenReturn((Long) row[3]);
+				handler.processRow(resultSet);
+			}
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+	}
+}
@@ -0,0 +1,157 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.Product;
+import com.example.erpsystem.repository.ProductRepository;
+import com.example.erpsystem.service.ProductCatalogCache.ProductsChanged;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProductCatalogCacheTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void catalogSurvivesStockChangesButNotProductEdits() {
+		ProductRepository repository = mock(ProductRepository.class);
+		when(repository.findById(7L)).thenReturn(Optional.of(product(7L, "Pen", 150)));
+		when(repository.findStockById(7L)).thenReturn(10, 9);
+		ProductCatalogCache cache = new ProductCatalogCache(repository, meterRegistry, 100, 600, 60_000);
+
+		assertEquals(10, cache.get(7L).getStock());
+		assertEquals(10, cache.get(7L).getStock());
+
+		cache.onProductsChanged(new ProductsChanged(List.of(7L), false));
+		Product afterSale = cache.get(7L);
+		assertEquals(9, afterSale.getStock());
+		assertEquals(Money.ofMinor(150), afterSale.getPrice());
+		verify(repository, times(1)).findById(7L);
+		verify(repository, times(2)).findStockById(7L);
+
+		cache.onProductsChanged(new ProductsChanged(List.of(7L), true));
+		cache.get(7L);
+		verify(repository, times(2)).findById(7L);
+	}
+
+	@Test
+	void missingProductIsNotFound() {
+		ProductRepository repository = mock(ProductRepository.class);
+		when(repository.findById(anyLong())).thenReturn(Optional.empty());
+		ProductCatalogCache cache = new ProductCatalogCache(repository, meterRegistry, 100, 600, 1_000);
+
+		assertThrows(NoSuchElementException.class, () -> cache.get(404L));
+	}
+
+	@Test
+	void productEditIsEvictedOnlyOnceItCommits() {
+		ProductRepository repository = mock(ProductRepository.class);
+		when(repository.findById(7L)).thenReturn(Optional.of(product(7L, "Pen", 150)))
+				.thenReturn(Optional.of(product(7L, "Pen", 180)));
+		when(repository.findStockById(7L)).thenReturn(10);
+		try (AnnotationConfigApplicationContext context = context(repository)) {
+			ProductCatalogCache cache = context.getBean(ProductCatalogCache.class);
+			TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+			assertEquals(Money.ofMinor(150), cache.get(7L).getPrice());
+
+			transaction.executeWithoutResult(status -> {
+				context.publishEvent(new ProductsChanged(List.of(7L), true));
+				// A reader inside the window before commit still sees the committed row
+				assertEquals(Money.ofMinor(150), cache.get(7L).getPrice());
+			});
+
+			assertEquals(Money.ofMinor(180), cache.get(7L).getPrice());
+			verify(repository, times(2)).findById(7L);
+		}
+	}
+
+	@Test
+	void rolledBackEditKeepsTheCachedProduct() {
+		ProductRepository repository = mock(ProductRepository.class);
+		when(repository.findById(7L)).thenReturn(Optional.of(product(7L, "Pen", 150)));
+		when(repository.findStockById(7L)).thenReturn(10);
+		try (AnnotationConfigApplicationContext context = context(repository)) {
+			ProductCatalogCache cache = context.getBean(ProductCatalogCache.class);
+			TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+			cache.get(7L);
+
+			transaction.executeWithoutResult(status -> {
+				context.publishEvent(new ProductsChanged(List.of(7L), true));
+				status.setRollbackOnly();
+			});
+
+			cache.get(7L);
+			verify(repository, times(1)).findById(7L);
+			verify(repository, times(1)).findStockById(7L);
+		}
+	}
+
+	private AnnotationConfigApplicationContext context(ProductRepository repository) {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(TransactionEvents.class);
+		context.registerBean(ProductCatalogCache.class, () -> new ProductCatalogCache(repository, meterRegistry, 100, 600, 60_000));
+		context.refresh();
+		return context;
+	}
+
+	// Turns on @TransactionalEventListener; the transactions only need synchronization, not a database
+	@Configuration
+	@EnableTransactionManagement
+	static class TransactionEvents {
+
+		@Bean
+		PlatformTransactionManager transactionManager() {
+			return new AbstractPlatformTransactionManager() {
+
+				@Override
+				protected Object doGetTransaction() {
+					return new Object();
+				}
+
+				@Override
+				protected void doBegin(Object transaction, TransactionDefinition definition) {
+				}
+
+				@Override
+				protected void doCommit(DefaultTransactionStatus status) {
+				}
+
+				@Override
+				protected void doRollback(DefaultTransactionStatus status) {
+				}
+			};
+		}
+	}
+
+	private static Product product(Long id, String name, long priceMinorUnits) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(name);
+		product.setDescription(name);
+		product.setPrice(Money.ofMinor(priceMinorUnits));
+		product.setStock(100);
+		return product;
+	}
+}
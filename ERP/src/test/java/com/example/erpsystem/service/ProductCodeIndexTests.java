@@ -0,0 +1,119 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.Product;
+import com.example.erpsystem.repository.ProductRepository;
+import com.example.erpsystem.service.ProductCodeIndex.ProductCodesChanged;
+
+class ProductCodeIndexTests {
+
+	@Test
+	void mapSurvivesCollisionsRemovalsAndResizes() {
+		LongLongOpenHashMap map = new LongLongOpenHashMap(4);
+		for (long key = 0; key < 10_000; key++) {
+			map.put(key * 1_024, key);
+		}
+		for (long key = 0; key < 10_000; key += 2) {
+			map.remove(key * 1_024, key);
+		}
+		map.remove(1_024, 99);
+
+		assertEquals(5_000, map.size());
+		for (long key = 0; key < 10_000; key++) {
+			assertEquals(key % 2 == 0 ? LongLongOpenHashMap.NO_VALUE : key, map.get(key * 1_024));
+		}
+	}
+
+	@Test
+	void codeChangesMoveTheIndexEntry() {
+		ProductCodeIndex index = new ProductCodeIndex(mock(JdbcTemplate.class));
+		index.onProductCodesChanged(new ProductCodesChanged(1L, null, null, "PEN-BLUE", "0012345678905"));
+
+		assertEquals(1L, index.lookup("0012345678905"));
+		assertEquals(1L, index.lookup("PEN-BLUE"));
+		assertNull(index.lookup("12345678905"));
+
+		index.onProductCodesChanged(new ProductCodesChanged(1L, "PEN-BLUE", "0012345678905", "PEN-RED", null));
+		assertNull(index.lookup("0012345678905"));
+		assertNull(index.lookup("PEN-BLUE"));
+		assertEquals(1L, index.lookup("PEN-RED"));
+
+		// A stale removal for another product leaves the current owner alone
+		index.onProductCodesChanged(new ProductCodesChanged(2L, "PEN-RED", null, null, null));
+		assertEquals(1L, index.lookup("PEN-RED"));
+	}
+
+	@Test
+	void codesAreStoredTrimmedSoScansMatchThem() {
+		ProductRepository repository = mock(ProductRepository.class);
+		ProductCatalogCache catalogCache = mock(ProductCatalogCache.class);
+		ProductCodeIndex index = new ProductCodeIndex(mock(JdbcTemplate.class));
+		ApplicationEventPublisher events = event -> {
+			if (event instanceof ProductCodesChanged changed) {
+				index.onProductCodesChanged(changed);
+			}
+		};
+		ProductService service = new ProductService(repository, mock(StockMutationService.class),
+				mock(InventoryValuationService.class), catalogCache, index, events);
+		when(repository.save(any(Product.class))).thenAnswer(invocation -> {
+			Product saved = invocation.getArgument(0);
+			saved.setId(1L);
+			return saved;
+		});
+		when(catalogCache.get(1L)).thenAnswer(invocation -> product(1L, "PEN-BLUE", "0012345678905"));
+
+		Product saved = service.createProduct(product(null, " PEN-BLUE\t", " 0012345678905 "));
+
+		assertEquals("PEN-BLUE", saved.getSku());
+		assertEquals("0012345678905", saved.getBarcode());
+		assertEquals(1L, service.getProductByCode(" PEN-BLUE ").getId());
+		assertEquals(1L, service.getProductByCode("0012345678905").getId());
+		verify(repository, never()).findByCode(any());
+
+		Product blank = service.createProduct(product(null, "   ", ""));
+		assertNull(blank.getSku());
+		assertNull(blank.getBarcode());
+	}
+
+	@Test
+	void unknownCodeCostsOneQuery() {
+		ProductRepository repository = mock(ProductRepository.class);
+		when(repository.findByCode("NOPE")).thenReturn(List.of());
+		ProductService service = new ProductService(repository, mock(StockMutationService.class),
+				mock(InventoryValuationService.class), mock(ProductCatalogCache.class),
+				new ProductCodeIndex(mock(JdbcTemplate.class)), mock(ApplicationEventPublisher.class));
+
+		assertThrows(NoSuchElementException.class, () -> service.getProductByCode(" NOPE"));
+		verify(repository).findByCode("NOPE");
+		verifyNoMoreInteractions(repository);
+	}
+
+	private static Product product(Long id, String sku, String barcode) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName("Pen");
+		product.setDescription("Blue pen");
+		product.setPrice(Money.ofMinor(150));
+		product.setStock(0);
+		product.setSku(sku);
+		product.setBarcode(barcode);
+		return product;
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.Product;
+import com.example.erpsystem.repository.ProductRepository;
+import com.example.erpsystem.service.StockMutationService.StockMutationResult;
+
+@SpringBootTest
+class ProductStockConcurrencyTests {
+
+	private static final int INITIAL_STOCK = 1_000;
+	private static final int REQUESTS = 5_000;
+	private static final int THREADS = 64;
+
+	@Autowired
+	private StockMutationService stockMutationService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	private Long productId;
+
+	@AfterEach
+	void cleanUp() {
+		if (productId != null) {
+			productRepository.deleteById(productId);
+		}
+	}
+
+	@Test
+	void parallelOutRequestsNeverOversell() throws Exception {
+		Product product = new Product();
+		product.setName("concurrency-test-" + System.nanoTime());
+		product.setDescription("Hot SKU for concurrency test");
+		product.setPrice(Money.ofMinor(100));
+		product.setStock(INITIAL_STOCK);
+		productId = productRepository.save(product).getId();
+
+		AtomicInteger applied = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		List<Callable<Void>> requests = new ArrayList<>();
+		for (int i = 0; i < REQUESTS; i++) {
+			requests.add(() -> {
+				StockMutationResult result = stockMutationService.apply(productId, 1, "OUT");
+				if (result == StockMutationResult.APPLIED) {
+					applied.incrementAndGet();
+				} else if (result == StockMutationResult.INSUFFICIENT_STOCK) {
+					rejected.incrementAndGet();
+				}
+				return null;
+			});
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			for (Future<Void> future : executor.invokeAll(requests)) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(INITIAL_STOCK, applied.get());
+		assertEquals(REQUESTS - INITIAL_STOCK, rejected.get());
+		assertEquals(0, productRepository.findById(productId).orElseThrow().getStock());
+	}
+}
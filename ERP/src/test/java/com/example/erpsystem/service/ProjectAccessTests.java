@@ -0,0 +1,129 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.erpsystem.repository.MilestoneRepository;
+import com.example.erpsystem.repository.ProjectRepository;
+import com.example.erpsystem.repository.TaskRepository;
+import com.example.erpsystem.service.ProjectAccess.ProjectMembersChanged;
+import com.example.erpsystem.service.TokenService.TokenClaims;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProjectAccessTests {
+
+	private final ProjectRepository projectRepository = mock(ProjectRepository.class);
+	private final TaskRepository taskRepository = mock(TaskRepository.class);
+	private final MilestoneRepository milestoneRepository = mock(MilestoneRepository.class);
+
+	@Test
+	void membershipAndManagementComeFromTheCachedIdSet() {
+		when(projectRepository.findProjectManagerId(1L)).thenReturn(Optional.of(10L));
+		when(projectRepository.findTeamMemberIds(1L, 20_001)).thenReturn(List.of(30L, 10L, 20L))
+				.thenReturn(List.of(30L, 10L, 20L, 40L));
+		when(taskRepository.findProjectId(5L)).thenReturn(Optional.of(1L));
+		ProjectAccess access = access(20_000);
+
+		assertTrue(access.isTeamMember(1L, principal(20L)));
+		assertFalse(access.isTeamMember(1L, principal(40L)));
+		assertTrue(access.isProjectManager(1L, principal(10L)));
+		assertFalse(access.isProjectManager(1L, principal(20L)));
+		assertTrue(access.isTaskTeamMember(5L, principal(30L)));
+		assertTrue(access.isTaskProjectManager(5L, principal(10L)));
+		assertFalse(access.isTeamMember(1L, "anonymousUser"));
+		verify(projectRepository, times(1)).findTeamMemberIds(1L, 20_001);
+		verify(taskRepository, times(1)).findProjectId(5L);
+
+		access.onProjectMembersChanged(new ProjectMembersChanged(1L));
+		assertTrue(access.isTeamMember(1L, principal(40L)));
+		verify(projectRepository, times(2)).findTeamMemberIds(1L, 20_001);
+	}
+
+	@Test
+	void teamsOverTheLimitAreCheckedWithAnExistsQuery() {
+		when(projectRepository.findProjectManagerId(2L)).thenReturn(Optional.of(1L));
+		when(projectRepository.findTeamMemberIds(2L, 3)).thenReturn(List.of(1L, 2L, 3L));
+		when(projectRepository.isTeamMember(2L, 3L)).thenReturn(true);
+		when(projectRepository.findProjectManagerId(404L)).thenReturn(Optional.empty());
+		ProjectAccess access = access(2);
+
+		assertTrue(access.isMember(2L, 3L));
+		assertTrue(access.isManager(2L, 1L));
+		verify(projectRepository).isTeamMember(2L, 3L);
+
+		assertFalse(access.projectExists(404L));
+		assertFalse(access.isMember(404L, 1L));
+		verify(projectRepository, never()).findTeamMemberIds(404L, 3);
+	}
+
+	@Test
+	void memberAddedOnAnotherNodeIsConfirmedAndTheEntryReloaded() {
+		when(projectRepository.findProjectManagerId(1L)).thenReturn(Optional.of(10L));
+		when(projectRepository.findTeamMemberIds(1L, 20_001)).thenReturn(List.of(10L, 20L))
+				.thenReturn(List.of(10L, 20L, 40L));
+		ProjectAccess access = access(20_000);
+		assertTrue(access.isMember(1L, 20L));
+
+		// Another node added user 40 and invalidated only its own cache
+		when(projectRepository.isTeamMember(1L, 40L)).thenReturn(true);
+		assertTrue(access.isMember(1L, 40L));
+		assertTrue(access.isMember(1L, 40L));
+		verify(projectRepository, times(1)).isTeamMember(1L, 40L);
+		verify(projectRepository, times(2)).findTeamMemberIds(1L, 20_001);
+
+		// An outsider still costs the confirming query but does not reload the entry
+		assertFalse(access.isMember(1L, 50L));
+		verify(projectRepository).isTeamMember(1L, 50L);
+		verify(projectRepository, times(2)).findTeamMemberIds(1L, 20_001);
+	}
+
+	@Test
+	void managerChangedOnAnotherNodeIsConfirmed() {
+		when(projectRepository.findProjectManagerId(1L)).thenReturn(Optional.of(10L)).thenReturn(Optional.of(20L));
+		when(projectRepository.findTeamMemberIds(1L, 20_001)).thenReturn(List.of(10L, 20L));
+		ProjectAccess access = access(20_000);
+		assertTrue(access.isManager(1L, 10L));
+
+		assertTrue(access.isProjectManager(1L, principal(20L)));
+		assertFalse(access.isProjectManager(1L, principal(10L)));
+		assertFalse(access.isManager(1L, null));
+	}
+
+	@Test
+	void everyCacheIsMetered() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		when(milestoneRepository.findProjectId(8L)).thenReturn(Optional.of(1L));
+		ProjectAccess access = new ProjectAccess(projectRepository, taskRepository, milestoneRepository, meterRegistry,
+				1_000_000, 20_000, 60);
+		access.isMilestoneProjectManager(8L, principal(10L));
+		access.isMilestoneProjectManager(8L, principal(10L));
+
+		for (String cache : List.of("projects.members", "projects.tasks", "projects.milestones")) {
+			assertNotNull(meterRegistry.find("cache.gets").tag("cache", cache).functionCounter(), cache);
+		}
+		assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "projects.milestones").tag("result", "hit")
+				.functionCounter().count());
+	}
+
+	private ProjectAccess access(int maxMembersPerProject) {
+		return new ProjectAccess(projectRepository, taskRepository, milestoneRepository, new SimpleMeterRegistry(),
+				1_000_000, maxMembersPerProject, 60);
+	}
+
+	private static TokenClaims principal(long userId) {
+		return new TokenClaims("t" + userId, TokenService.ACCESS, userId, "user" + userId, List.of("USER"), Long.MAX_VALUE);
+	}
+}
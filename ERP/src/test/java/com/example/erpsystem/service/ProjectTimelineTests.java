@@ -0,0 +1,204 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.erpsystem.model.Milestone.MilestoneStatus;
+import com.example.erpsystem.model.Task.TaskStatus;
+import com.example.erpsystem.service.ProjectTimelineService.TimelineFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProjectTimelineTests {
+
+	private static final LocalDateTime DAY_ZERO = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+	private final ProjectTimelineService service = new ProjectTimelineService(mock(JdbcTemplate.class),
+			mock(ProjectAccess.class), new ObjectMapper(), new SimpleMeterRegistry(), 1_000_000, 5);
+
+	@Test
+	void jsonLeavesOutAbsentFields() throws Exception {
+		ProjectTimeline timeline = new ProjectTimeline.Builder(7)
+				.addTask(1, "Design", DAY_ZERO, DAY_ZERO.plusDays(2), TaskStatus.COMPLETED, 100, 3L, 9L, null)
+				.addTask(2, "Build \"v1\"", DAY_ZERO.plusDays(2), DAY_ZERO.plusDays(5), TaskStatus.IN_PROGRESS, 40, null,
+						null, new long[] { 1 })
+				.addMilestone(9, "Beta", DAY_ZERO.plusDays(5), MilestoneStatus.PENDING)
+				.build();
+
+		assertEquals("{\"projectId\":7,\"tasks\":["
+				+ "{\"id\":1,\"title\":\"Design\",\"startDate\":\"2026-03-02T09:00\",\"dueDate\":\"2026-03-04T09:00\","
+				+ "\"status\":\"COMPLETED\",\"progress\":100,\"assigneeId\":3,\"milestoneId\":9},"
+				+ "{\"id\":2,\"title\":\"Build \\\"v1\\\"\",\"startDate\":\"2026-03-04T09:00\",\"dueDate\":\"2026-03-07T09:00\","
+				+ "\"status\":\"IN_PROGRESS\",\"progress\":40,\"dependencyIds\":[1]}],"
+				+ "\"milestones\":[{\"id\":9,\"title\":\"Beta\",\"dueDate\":\"2026-03-07T09:00\",\"status\":\"PENDING\"}]}",
+				new String(write(timeline, TimelineFormat.JSON), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void columnarRoundTripsEveryColumn() throws Exception {
+		ProjectTimeline timeline = randomTimeline(500, new SplittableRandom(3));
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(write(timeline, TimelineFormat.COLUMNAR)));
+
+		assertEquals(0x45525054, in.readInt());
+		assertEquals(1, in.readByte());
+		assertEquals(1L, in.readLong());
+		int tasks = in.readInt();
+		int milestones = in.readInt();
+		int dependencies = in.readInt();
+		assertEquals(500, tasks);
+		assertEquals(50, milestones);
+		String[] taskStatuses = new String[in.readByte()];
+		for (int i = 0; i < taskStatuses.length; i++) {
+			taskStatuses[i] = in.readUTF();
+		}
+		assertEquals(TaskStatus.BLOCKED.name(), taskStatuses[TaskStatus.BLOCKED.ordinal()]);
+		assertEquals(MilestoneStatus.values().length, in.readByte());
+		for (int i = 0; i < MilestoneStatus.values().length; i++) {
+			in.readUTF();
+		}
+
+		// Regenerate the same rows and compare column by column
+		SplittableRandom random = new SplittableRandom(3);
+		long[] ids = new long[tasks];
+		long[] starts = new long[tasks];
+		long[][] dependencyIds = new long[tasks][];
+		String[] titles = new String[tasks];
+		for (int i = 0; i < tasks; i++) {
+			RandomTask task = RandomTask.next(i, random);
+			ids[i] = task.id;
+			starts[i] = task.start.toEpochSecond(ZoneOffset.UTC);
+			dependencyIds[i] = task.dependencyIds;
+			titles[i] = task.title;
+		}
+		assertArrayEquals(ids, readLongs(in, tasks));
+		assertArrayEquals(starts, readLongs(in, tasks));
+		readLongs(in, tasks);
+		in.skipNBytes(2L * tasks);
+		readLongs(in, tasks * 2);
+		int[] offsets = new int[tasks + 1];
+		for (int i = 0; i <= tasks; i++) {
+			offsets[i] = in.readInt();
+		}
+		assertEquals(dependencies, offsets[tasks]);
+		long[] allDependencies = readLongs(in, dependencies);
+		for (int i = 0; i < tasks; i++) {
+			long[] expected = dependencyIds[i] == null ? new long[0] : dependencyIds[i];
+			long[] actual = Arrays.copyOfRange(allDependencies, offsets[i], offsets[i + 1]);
+			assertArrayEquals(expected, actual);
+		}
+		for (int i = 0; i < tasks; i++) {
+			assertEquals(titles[i], in.readUTF());
+		}
+		readLongs(in, milestones * 2);
+		in.skipNBytes(milestones);
+		for (int i = 0; i < milestones; i++) {
+			assertEquals("Milestone " + i, in.readUTF());
+		}
+		assertEquals(-1, in.read());
+	}
+
+	@Test
+	void contentHashFollowsTheData() {
+		ProjectTimeline first = randomTimeline(1_000, new SplittableRandom(5));
+		ProjectTimeline same = randomTimeline(1_000, new SplittableRandom(5));
+		ProjectTimeline.Builder changed = new ProjectTimeline.Builder(1);
+		SplittableRandom random = new SplittableRandom(5);
+		for (int i = 0; i < 1_000; i++) {
+			RandomTask task = RandomTask.next(i, random);
+			changed.addTask(task.id, task.title, task.start, task.due, i == 500 ? TaskStatus.BLOCKED : task.status,
+					task.progress, task.assigneeId, task.milestoneId, task.dependencyIds);
+		}
+		for (int i = 0; i < 100; i++) {
+			changed.addMilestone(10_000_000 + i, "Milestone " + i, DAY_ZERO.plusDays(i), MilestoneStatus.PENDING);
+		}
+
+		assertEquals(first.contentHash(), same.contentHash());
+		assertNotEquals(first.contentHash(), changed.build().contentHash());
+	}
+
+	@Test
+	void gzipCarriesTheSameBytesAndColumnarIsSmaller() throws Exception {
+		ProjectTimeline timeline = randomTimeline(500, new SplittableRandom(11));
+		byte[] json = write(timeline, TimelineFormat.JSON);
+		byte[] columnar = write(timeline, TimelineFormat.COLUMNAR);
+
+		assertArrayEquals(json, gunzip(write(timeline, TimelineFormat.JSON, true)));
+		assertArrayEquals(columnar, gunzip(write(timeline, TimelineFormat.COLUMNAR, true)));
+		assertTrue(columnar.length < json.length);
+	}
+
+	private byte[] write(ProjectTimeline timeline, TimelineFormat format) throws Exception {
+		return write(timeline, format, false);
+	}
+
+	private byte[] write(ProjectTimeline timeline, TimelineFormat format, boolean gzip) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.write(timeline, format, gzip, out);
+		return out.toByteArray();
+	}
+
+	private static byte[] gunzip(byte[] bytes) throws Exception {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			return in.readAllBytes();
+		}
+	}
+
+	private static long[] readLongs(DataInputStream in, int count) throws Exception {
+		long[] values = new long[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = in.readLong();
+		}
+		return values;
+	}
+
+	private static ProjectTimeline randomTimeline(int tasks, SplittableRandom random) {
+		ProjectTimeline.Builder builder = new ProjectTimeline.Builder(1);
+		for (int i = 0; i < tasks; i++) {
+			RandomTask task = RandomTask.next(i, random);
+			builder.addTask(task.id, task.title, task.start, task.due, task.status, task.progress, task.assigneeId,
+					task.milestoneId, task.dependencyIds);
+		}
+		for (int i = 0; i < tasks / 10; i++) {
+			builder.addMilestone(10_000_000 + i, "Milestone " + i, DAY_ZERO.plusDays(i), MilestoneStatus.PENDING);
+		}
+		return builder.build();
+	}
+
+	private record RandomTask(long id, String title, LocalDateTime start, LocalDateTime due, TaskStatus status,
+			int progress, Long assigneeId, Long milestoneId, long[] dependencyIds) {
+
+		static RandomTask next(int index, SplittableRandom random) {
+			long id = 1_000 + index;
+			LocalDateTime start = DAY_ZERO.plusHours(random.nextInt(5_000));
+			long[] dependencyIds = null;
+			int dependencies = index == 0 ? 0 : random.nextInt(4);
+			if (dependencies > 0) {
+				dependencyIds = new long[dependencies];
+				for (int d = 0; d < dependencies; d++) {
+					dependencyIds[d] = 1_000 + random.nextInt(index);
+				}
+			}
+			return new RandomTask(id, "Task " + index + " of the rollout plan", start,
+					start.plusHours(1 + random.nextInt(120)), TaskStatus.values()[random.nextInt(TaskStatus.values().length)],
+					random.nextInt(101), random.nextInt(5) == 0 ? null : 1L + random.nextInt(200),
+					random.nextInt(3) == 0 ? null : 10_000_000L + random.nextInt(Math.max(1, index / 10)), dependencyIds);
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.erpsystem.controller.ProjectController;
+import com.example.erpsystem.dto.CurrentUser;
+import com.example.erpsystem.model.Milestone;
+import com.example.erpsystem.model.Project;
+import com.example.erpsystem.model.Task;
+import com.example.erpsystem.model.User;
+import com.example.erpsystem.repository.MilestoneRepository;
+import com.example.erpsystem.repository.ProjectRepository;
+import com.example.erpsystem.repository.TaskRepository;
+import com.example.erpsystem.repository.UserRepository;
+import com.example.erpsystem.service.InvoiceStatementCountTests.StatementCountingDataSource;
+import com.example.erpsystem.service.TokenService.TokenClaims;
+
+import jakarta.persistence.EntityManager;
+
+// Each project endpoint, called as the project manager, must not read the users or roles tables
+// to find out who is calling. Rolled back after each test.
+@SpringBootTest
+@Transactional
+@Import(InvoiceStatementCountTests.StatementCountingConfiguration.class)
+class ProjectUserQueryCountTests {
+
+	private static final Pattern USER_QUERY = Pattern.compile("\\bfrom (users|user_roles)\\b", Pattern.CASE_INSENSITIVE);
+
+	@Autowired
+	private ProjectController projectController;
+
+	@Autowired
+	private UserCache userCache;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ProjectRepository projectRepository;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private MilestoneRepository milestoneRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private CurrentUser manager;
+	private Long memberId;
+	private Long outsiderId;
+	private Long projectId;
+	private Long taskId;
+	private Long otherTaskId;
+	private Long milestoneId;
+
+	@BeforeEach
+	void createProject() {
+		long suffix = System.nanoTime();
+		User managerUser = userRepository.save(user("qc-manager-" + suffix));
+		User member = userRepository.save(user("qc-member-" + suffix));
+		outsiderId = userRepository.save(user("qc-outsider-" + suffix)).getId();
+		memberId = member.getId();
+
+		Project project = new Project();
+		project.setName("query-count-" + suffix);
+		project.setStartDate(LocalDateTime.now());
+		project.setStatus(Project.ProjectStatus.IN_PROGRESS);
+		project.setProjectManager(managerUser);
+		project.getTeamMembers().addAll(List.of(managerUser, member));
+		projectId = projectRepository.save(project).getId();
+
+		taskId = taskRepository.save(task(project, managerUser, managerUser)).getId();
+		otherTaskId = taskRepository.save(task(project, managerUser, member)).getId();
+
+		Milestone milestone = new Milestone();
+		milestone.setTitle("query-count");
+		milestone.setDueDate(LocalDateTime.now().plusDays(7));
+		milestone.setStatus(Milestone.MilestoneStatus.PENDING);
+		milestone.setProject(project);
+		milestoneId = milestoneRepository.save(milestone).getId();
+
+		entityManager.flush();
+		entityManager.clear();
+
+		// The argument resolver's lookup; later requests are served from the cache
+		manager = userCache.get(managerUser.getId());
+		TokenClaims claims = new TokenClaims("query-count", TokenService.ACCESS, manager.id(), manager.username(),
+				List.of("USER"), Long.MAX_VALUE);
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(claims, null,
+				List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+	}
+
+	@AfterEach
+	void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void addTeamMember() {
+		assertNoUserQueries("addTeamMember", () -> projectController.addTeamMember(projectId, outsiderId, manager), true);
+	}
+
+	@Test
+	void createTask() {
+		assertNoUserQueries("createTask", () -> projectController.createTask(projectId, newTask(), manager), false);
+	}
+
+	@Test
+	void assignTask() {
+		assertNoUserQueries("assignTask", () -> projectController.assignTask(taskId, memberId, manager), false);
+	}
+
+	@Test
+	void updateTaskStatus() {
+		assertNoUserQueries("updateTaskStatus",
+				() -> projectController.updateTaskStatus(taskId, Task.TaskStatus.IN_PROGRESS, manager), false);
+	}
+
+	@Test
+	void addTaskComment() {
+		assertNoUserQueries("addTaskComment",
+				() -> projectController.addTaskComment(taskId, Map.of("content", "Looks good"), manager), false);
+	}
+
+	@Test
+	void addTaskDependency() {
+		assertNoUserQueries("addTaskDependency",
+				() -> projectController.addTaskDependency(taskId, otherTaskId, manager), false);
+	}
+
+	@Test
+	void createMilestone() {
+		Milestone milestone = new Milestone();
+		milestone.setTitle("query-count-2");
+		milestone.setDueDate(LocalDateTime.now().plusDays(14));
+		assertNoUserQueries("createMilestone", () -> projectController.createMilestone(projectId, milestone, manager), false);
+	}
+
+	@Test
+	void updateMilestoneStatus() {
+		assertNoUserQueries("updateMilestoneStatus",
+				() -> projectController.updateMilestoneStatus(milestoneId, Milestone.MilestoneStatus.IN_PROGRESS, manager),
+				false);
+	}
+
+	// addTeamMember loads the member being added, which is the one user read it is allowed
+	private void assertNoUserQueries(String endpoint, Runnable request, boolean loadsTargetUser) {
+		List<String> statements = new ArrayList<>();
+		StatementCountingDataSource.statements.set(statements);
+		try {
+			request.run();
+			entityManager.flush();
+		} finally {
+			StatementCountingDataSource.statements.remove();
+		}
+		List<String> userQueries = statements.stream().filter(sql -> USER_QUERY.matcher(sql).find()).toList();
+		assertEquals(loadsTargetUser ? 1 : 0, userQueries.size(), () -> endpoint + " user queries: " + userQueries);
+	}
+
+	private static User user(String username) {
+		return User.builder().username(username).password("hash").email(username + "@example.com")
+				.roles(Set.of()).build();
+	}
+
+	private static Task task(Project project, User createdBy, User assignedTo) {
+		Task task = newTask();
+		task.setProject(project);
+		task.setCreatedBy(createdBy);
+		task.setAssignedTo(assignedTo);
+		task.setStatus(Task.TaskStatus.TODO);
+		return task;
+	}
+
+	private static Task newTask() {
+		Task task = new Task();
+		task.setTitle("query-count");
+		task.setStartDate(LocalDateTime.now());
+		task.setDueDate(LocalDateTime.now().plusDays(1));
+		task.setPriority(Task.TaskPriority.MEDIUM);
+		task.setProgressPercentage(0);
+		return task;
+	}
+}
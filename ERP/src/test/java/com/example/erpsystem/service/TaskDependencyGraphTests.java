@@ -0,0 +1,137 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.erpsystem.dto.ProjectSchedule;
+import com.example.erpsystem.dto.ProjectSchedule.TaskSchedule;
+
+class TaskDependencyGraphTests {
+
+	private static final LocalDateTime DAY_ZERO = LocalDateTime.of(2025, 1, 6, 9, 0);
+
+	@Test
+	void criticalPathSlackAndLateness() {
+		TaskDependencyGraph graph = new TaskDependencyGraph(4);
+		graph.putTask(1, day(0), day(2));
+		graph.putTask(2, day(0), day(3));
+		graph.putTask(3, day(0), day(1));
+		graph.putTask(4, day(0), day(1));
+		graph.addDependency(2, 1);
+		graph.addDependency(3, 1);
+		graph.addDependency(4, 2);
+		graph.addDependency(4, 3);
+
+		ProjectSchedule schedule = graph.schedule();
+		Map<Long, TaskSchedule> tasks = byTask(schedule);
+		assertEquals(day(0), schedule.start());
+		assertEquals(day(6), schedule.finish());
+		assertEquals(List.of(1L, 2L, 4L), schedule.criticalPath());
+		assertEquals(day(2), tasks.get(3L).earliestStart());
+		assertEquals(day(4), tasks.get(3L).latestStart());
+		assertEquals(2 * 24 * 60, tasks.get(3L).slackMinutes());
+		assertFalse(tasks.get(3L).critical());
+		assertTrue(tasks.get(4L).critical());
+		assertTrue(tasks.get(4L).late());
+
+		// Pulling task 3 out to four days makes it the critical branch
+		graph.putTask(3, day(0), day(4));
+		schedule = graph.schedule();
+		assertEquals(day(7), schedule.finish());
+		assertEquals(List.of(1L, 3L, 4L), schedule.criticalPath());
+		assertEquals(1 * 24 * 60, byTask(schedule).get(2L).slackMinutes());
+	}
+
+	@Test
+	void cyclesAreRejectedAndOrderIsRepaired() {
+		TaskDependencyGraph graph = new TaskDependencyGraph(4);
+		for (long id = 1; id <= 4; id++) {
+			graph.putTask(id, day(0), day(1));
+		}
+		// 1 depends on 4 although 4 was added last, so the order has to change
+		graph.addDependency(1, 4);
+		graph.addDependency(2, 1);
+		graph.addDependency(3, 2);
+
+		assertThrows(IllegalArgumentException.class, () -> graph.addDependency(4, 3));
+		assertThrows(IllegalArgumentException.class, () -> graph.addDependency(4, 4));
+
+		List<Long> order = graph.schedule().tasks().stream().map(TaskSchedule::taskId).toList();
+		assertEquals(List.of(4L, 1L, 2L, 3L), order);
+		assertEquals(day(4), graph.schedule().finish());
+	}
+
+	@Test
+	void incrementalUpdatesMatchAFullRecompute() {
+		SplittableRandom random = new SplittableRandom(7);
+		int tasks = 2_000;
+		Map<Long, LocalDateTime[]> dates = new HashMap<>();
+		List<long[]> edges = new ArrayList<>();
+		TaskDependencyGraph graph = new TaskDependencyGraph(16);
+		for (long id = 1; id <= tasks; id++) {
+			putRandomDates(graph, dates, id, random);
+		}
+
+		for (int round = 0; round < 5_000; round++) {
+			long taskId = 1 + random.nextInt(tasks);
+			if (random.nextInt(4) == 0) {
+				putRandomDates(graph, dates, taskId, random);
+				continue;
+			}
+			long dependencyId = 1 + random.nextInt(tasks);
+			try {
+				graph.addDependency(taskId, dependencyId);
+				edges.add(new long[] { taskId, dependencyId });
+			} catch (IllegalArgumentException e) {
+				// Closes a cycle; the graph must be left as it was, which the comparison below checks
+			}
+		}
+
+		TaskDependencyGraph reference = new TaskDependencyGraph(tasks);
+		dates.forEach((taskId, taskDates) -> reference.loadTask(taskId, taskDates[0], taskDates[1]));
+		edges.forEach(edge -> reference.loadDependency(edge[0], edge[1]));
+		reference.recompute();
+
+		ProjectSchedule incremental = graph.schedule();
+		assertEquals(reference.schedule().start(), incremental.start());
+		assertEquals(reference.schedule().finish(), incremental.finish());
+		assertEquals(byTask(reference.schedule()), byTask(incremental));
+
+		Map<Long, Integer> positions = new HashMap<>();
+		for (int i = 0; i < incremental.tasks().size(); i++) {
+			positions.put(incremental.tasks().get(i).taskId(), i);
+		}
+		for (long[] edge : edges) {
+			assertTrue(positions.get(edge[1]) < positions.get(edge[0]), edge[1] + " before " + edge[0]);
+		}
+	}
+
+	private static void putRandomDates(TaskDependencyGraph graph, Map<Long, LocalDateTime[]> dates, long taskId,
+			SplittableRandom random) {
+		LocalDateTime startDate = DAY_ZERO.plusHours(random.nextInt(200));
+		LocalDateTime dueDate = startDate.plusHours(1 + random.nextInt(48));
+		graph.putTask(taskId, startDate, dueDate);
+		dates.put(taskId, new LocalDateTime[] { startDate, dueDate });
+	}
+
+	private static Map<Long, TaskSchedule> byTask(ProjectSchedule schedule) {
+		return schedule.tasks().stream().collect(Collectors.toMap(TaskSchedule::taskId, Function.identity()));
+	}
+
+	private static LocalDateTime day(int days) {
+		return DAY_ZERO.plusDays(days);
+	}
+}
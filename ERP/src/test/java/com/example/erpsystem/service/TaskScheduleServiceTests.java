@@ -0,0 +1,114 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.example.erpsystem.dto.ProjectSchedule.TaskSchedule;
+import com.example.erpsystem.service.TaskScheduleService.TaskDependencyAdded;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TaskScheduleServiceTests {
+
+	private static final long PROJECT = 7L;
+	private static final LocalDateTime DAY_ZERO = LocalDateTime.of(2026, 6, 1, 9, 0);
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final TaskScheduleService service = new TaskScheduleService(jdbcTemplate, new SimpleMeterRegistry(), 1_000, 5);
+
+	@Test
+	void dependencyIsCheckedAgainstCommittedEdgesUnderTheProjectLock() {
+		when(jdbcTemplate.queryForObject(sql("WITH RECURSIVE"), eq(Boolean.class), eq(2L), eq(1L))).thenReturn(true);
+		when(jdbcTemplate.queryForObject(sql("WITH RECURSIVE"), eq(Boolean.class), eq(1L), eq(2L))).thenReturn(false);
+
+		// 2 already depends on 1 through committed rows, so 1 may not depend on 2
+		assertThrows(IllegalArgumentException.class, () -> service.checkDependency(PROJECT, 1L, 2L));
+		service.checkDependency(PROJECT, 2L, 1L);
+
+		InOrder order = inOrder(jdbcTemplate);
+		order.verify(jdbcTemplate).queryForObject(sql("pg_advisory_xact_lock"), eq(Integer.class), eq(Long.hashCode(PROJECT)));
+		order.verify(jdbcTemplate).queryForObject(sql("WITH RECURSIVE"), eq(Boolean.class), eq(2L), eq(1L));
+	}
+
+	@Test
+	void selfDependencyIsRejectedWithoutQueries() {
+		assertThrows(IllegalArgumentException.class, () -> service.checkDependency(PROJECT, 3L, 3L));
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	@Test
+	void committedCycleDoesNotBreakTheSchedule() throws Exception {
+		// 2 depends on 1, 3 on 2, and a stray row makes 1 depend on 3
+		committed(List.of(1L, 2L, 3L), List.of(new long[] { 2, 1 }, new long[] { 3, 2 }, new long[] { 1, 3 }));
+
+		List<TaskSchedule> tasks = service.getSchedule(PROJECT).tasks();
+
+		assertEquals(List.of(1L, 2L, 3L), tasks.stream().map(TaskSchedule::taskId).toList());
+		assertEquals(DAY_ZERO.plusDays(2), tasks.get(2).earliestStart());
+	}
+
+	@Test
+	void graphMissingAnotherNodesEdgeIsReloaded() throws Exception {
+		committed(List.of(1L, 2L), List.of());
+		service.getSchedule(PROJECT);
+
+		// Another node committed "2 depends on 1"; this node then sees "1 depends on 2" commit
+		committed(List.of(1L, 2L), List.of(new long[] { 2, 1 }));
+		service.onTaskDependencyAdded(new TaskDependencyAdded(PROJECT, 2L, 1L));
+		service.onTaskDependencyAdded(new TaskDependencyAdded(PROJECT, 1L, 2L));
+		assertEquals(DAY_ZERO.plusDays(1), service.getSchedule(PROJECT).tasks().get(1).earliestStart());
+
+		verify(jdbcTemplate, times(2)).queryForObject(sql("SELECT COUNT(*)"), eq(Integer.class), eq(PROJECT));
+	}
+
+	private static String sql(String fragment) {
+		return argThat(sql -> sql != null && sql.contains(fragment));
+	}
+
+	// Every task runs one day from DAY_ZERO; dependencies are {task, dependency} pairs
+	private void committed(List<Long> taskIds, List<long[]> dependencies) throws Exception {
+		when(jdbcTemplate.queryForObject(sql("SELECT COUNT(*)"), eq(Integer.class), eq(PROJECT)))
+				.thenReturn(taskIds.size());
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			for (Long taskId : taskIds) {
+				ResultSet row = mock(ResultSet.class);
+				when(row.getLong(1)).thenReturn(taskId);
+				when(row.getTimestamp(2)).thenReturn(Timestamp.valueOf(DAY_ZERO));
+				when(row.getTimestamp(3)).thenReturn(Timestamp.valueOf(DAY_ZERO.plusDays(1)));
+				handler.processRow(row);
+			}
+			return null;
+		}).when(jdbcTemplate).query(sql("SELECT id, start_date"), any(RowCallbackHandler.class), eq(PROJECT));
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			for (long[] dependency : dependencies) {
+				ResultSet row = mock(ResultSet.class);
+				when(row.getLong(1)).thenReturn(dependency[0]);
+				when(row.getLong(2)).thenReturn(dependency[1]);
+				handler.processRow(row);
+			}
+			return null;
+		}).when(jdbcTemplate).query(sql("FROM task_dependencies"), any(RowCallbackHandler.class), eq(PROJECT));
+	}
+}
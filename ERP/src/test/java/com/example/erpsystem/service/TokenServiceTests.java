@@ -0,0 +1,152 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.erpsystem.config.TokenAuthenticationFilter;
+import com.example.erpsystem.model.Role;
+import com.example.erpsystem.model.User;
+import com.example.erpsystem.service.TokenService.TokenClaims;
+import com.example.erpsystem.service.TokenService.TokenPair;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class TokenServiceTests {
+
+	private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+	@Test
+	void accessTokenCarriesRolesAndRejectsTampering() {
+		TokenService tokens = new TokenService(new ObjectMapper(), new TokenDenyList(), SECRET, 900, 3_600);
+		TokenPair pair = tokens.issue(user());
+
+		TokenClaims claims = tokens.verify(pair.accessToken(), TokenService.ACCESS);
+		assertEquals(7L, claims.userId());
+		assertEquals("alice", claims.getName());
+		assertEquals(List.of("ADMIN", "USER"), claims.roles());
+
+		assertThrows(IllegalArgumentException.class, () -> tokens.verify(pair.refreshToken(), TokenService.ACCESS));
+		assertThrows(IllegalArgumentException.class, () -> tokens.verify(pair.accessToken(), TokenService.REFRESH));
+
+		String[] parts = pair.accessToken().split("\\.");
+		String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(
+				"{\"typ\":\"access\",\"sub\":\"mallory\",\"roles\":[\"ADMIN\"],\"exp\":9999999999}".getBytes()) + "." + parts[2];
+		assertThrows(IllegalArgumentException.class, () -> tokens.verify(forged, TokenService.ACCESS));
+
+		TokenService otherKey = new TokenService(new ObjectMapper(), new TokenDenyList(), "", 900, 3_600);
+		assertThrows(IllegalArgumentException.class, () -> otherKey.verify(pair.accessToken(), TokenService.ACCESS));
+	}
+
+	@Test
+	void revokedAndExpiredTokensAreRejected() {
+		TokenDenyList denyList = new TokenDenyList();
+		TokenService tokens = new TokenService(new ObjectMapper(), denyList, SECRET, 900, 3_600);
+		TokenPair pair = tokens.issue(user());
+
+		tokens.revoke(tokens.verify(pair.refreshToken(), TokenService.REFRESH));
+		IllegalArgumentException revoked = assertThrows(IllegalArgumentException.class,
+				() -> tokens.verify(pair.refreshToken(), TokenService.REFRESH));
+		assertEquals("Token revoked", revoked.getMessage());
+		tokens.verify(pair.accessToken(), TokenService.ACCESS);
+
+		denyList.purgeExpired();
+		assertEquals(1, denyList.size());
+
+		TokenService expiring = new TokenService(new ObjectMapper(), denyList, SECRET, 0, 0);
+		IllegalArgumentException expired = assertThrows(IllegalArgumentException.class,
+				() -> expiring.verify(expiring.issue(user()).accessToken(), TokenService.ACCESS));
+		assertEquals("Token expired", expired.getMessage());
+	}
+
+	@Test
+	void refreshTokenIsRedeemedOnceUnderConcurrentRequests() throws Exception {
+		TokenService tokens = new TokenService(new ObjectMapper(), new TokenDenyList(), SECRET, 900, 3_600);
+		String refreshToken = tokens.issue(user()).refreshToken();
+		int requests = 16;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(requests);
+		try {
+			// Every request passes verify() before any of them revokes, like the refresh endpoint under a retry storm
+			CyclicBarrier verified = new CyclicBarrier(requests);
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < requests; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					TokenClaims claims = tokens.verify(refreshToken, TokenService.REFRESH);
+					verified.await(10, TimeUnit.SECONDS);
+					return tokens.revoke(claims);
+				}));
+			}
+			start.countDown();
+
+			int redeemed = 0;
+			for (Future<Boolean> result : results) {
+				if (result.get(10, TimeUnit.SECONDS)) {
+					redeemed++;
+				}
+			}
+			assertEquals(1, redeemed);
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThrows(IllegalArgumentException.class, () -> tokens.verify(refreshToken, TokenService.REFRESH));
+	}
+
+	@Test
+	void bearerFilterAuthenticatesFromTheTokenAlone() throws Exception {
+		TokenService tokens = new TokenService(new ObjectMapper(), new TokenDenyList(), SECRET, 900, 3_600);
+		TokenAuthenticationFilter filter = new TokenAuthenticationFilter(tokens);
+		TokenPair pair = tokens.issue(user());
+		try {
+			filter.doFilter(bearer(pair.accessToken()), new MockHttpServletResponse(), new MockFilterChain());
+			Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+			assertEquals("alice", authentication.getName());
+			assertEquals(Set.of("ROLE_ADMIN", "ROLE_USER"), authentication.getAuthorities().stream()
+					.map(authority -> authority.getAuthority()).collect(Collectors.toSet()));
+			SecurityContextHolder.clearContext();
+
+			// A refresh token or a revoked access token leaves the request anonymous
+			filter.doFilter(bearer(pair.refreshToken()), new MockHttpServletResponse(), new MockFilterChain());
+			assertNull(SecurityContextHolder.getContext().getAuthentication());
+			tokens.revoke(tokens.verify(pair.accessToken(), TokenService.ACCESS));
+			filter.doFilter(bearer(pair.accessToken()), new MockHttpServletResponse(), new MockFilterChain());
+			assertNull(SecurityContextHolder.getContext().getAuthentication());
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	private static MockHttpServletRequest bearer(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+		request.addHeader("Authorization", "Bearer " + token);
+		return request;
+	}
+
+	private static User user() {
+		Role admin = new Role();
+		admin.setName("ADMIN");
+		Role user = new Role();
+		user.setName("USER");
+		return User.builder().id(7L).username("alice").password("hash").email("alice@example.com")
+				.roles(Set.of(user, admin)).build();
+	}
+}
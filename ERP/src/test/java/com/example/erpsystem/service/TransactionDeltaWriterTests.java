@@ -0,0 +1,93 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.erpsystem.repository.AccountBalanceRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TransactionDeltaWriterTests {
+
+	private AccountBalanceRepository accountBalanceRepository;
+	private PeriodRollupService periodRollupService;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionDeltaWriter writer;
+
+	@BeforeEach
+	void setUp() {
+		accountBalanceRepository = mock(AccountBalanceRepository.class);
+		periodRollupService = mock(PeriodRollupService.class);
+		jdbcTemplate = mock(JdbcTemplate.class);
+		writer = new TransactionDeltaWriter(accountBalanceRepository, periodRollupService, jdbcTemplate,
+				mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+	}
+
+	@Test
+	void foldAdvancesEachTypeOnceAfterTakingTheLock() throws Exception {
+		takeDeltas(new Object[][] {
+				{ "2026-03-31", "INCOME", 1_000L, 1L },
+				{ "2026-03-31", "EXPENSE", 250L, 1L },
+				{ "2026-03-31", "INCOME", -400L, -1L },
+				{ "2026-04-01", "INCOME", 5L, 1L } });
+
+		assertEquals(4, writer.fold());
+
+		InOrder order = inOrder(accountBalanceRepository, jdbcTemplate, periodRollupService);
+		order.verify(accountBalanceRepository).lockBalanceWriter();
+		order.verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+		order.verify(accountBalanceRepository).addToBalance(eq("EXPENSE"), eq(250L), eq(1L), any());
+		order.verify(accountBalanceRepository).addToBalance(eq("INCOME"), eq(605L), eq(1L), any());
+		order.verify(periodRollupService).recordTransactionDeltas(
+				List.of("2026-03-31", "2026-03-31", "2026-04-01"),
+				List.of("EXPENSE", "INCOME", "INCOME"),
+				List.of(250L, 600L, 5L),
+				List.of(1L, 0L, 1L));
+	}
+
+	@Test
+	void deltasThatCancelOutLeaveTheBalanceAlone() throws Exception {
+		takeDeltas(new Object[][] {
+				{ "2026-03-31", "INCOME", 1_000L, 1L },
+				{ "2026-03-31", "INCOME", -1_000L, -1L } });
+
+		assertEquals(2, writer.fold());
+		verify(accountBalanceRepository, never()).addToBalance(anyString(), anyLong(), anyLong(), any());
+		verify(periodRollupService).recordTransactionDeltas(List.of(), List.of(), List.of(), List.of());
+	}
+
+	private void takeDeltas(Object[][] rows) throws Exception {
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			for (Object[] row : rows) {
+				ResultSet resultSet = mock(ResultSet.class);
+				when(resultSet.getDate(1)).thenReturn(Date.valueOf((String) row[0]));
+				when(resultSet.getString(2)).thenReturn((String) row[1]);
+				when(resultSet.getLong(3)).thenReturn((Long) row[2]);
+				when(resultSet.getLong(4)).thenReturn((Long) row[3]);
+				handler.processRow(resultSet);
+			}
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+	}
+}
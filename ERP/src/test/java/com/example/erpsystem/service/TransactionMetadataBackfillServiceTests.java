@@ -0,0 +1,47 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.service.TransactionMetadataBackfillService.ParsedDescription;
+
+class TransactionMetadataBackfillServiceTests {
+
+	@Test
+	void parsesQuantityAndUnitPriceOfStockMovements() {
+		ParsedDescription sale = TransactionMetadataBackfillService.parse("Sale of 3 units of Blue Pen at 12.50 per unit");
+		assertEquals(3, sale.quantity());
+		assertEquals(Money.parse("12.50"), sale.unitPrice());
+		assertNull(sale.invoiceNumber());
+
+		ParsedDescription purchase = TransactionMetadataBackfillService.parse("Purchase of 1 unit of Stapler at 7 per unit");
+		assertEquals(1, purchase.quantity());
+		assertEquals(Money.parse("7.00"), purchase.unitPrice());
+	}
+
+	@Test
+	void roundsLegacyUnitPricesToTheCent() {
+		ParsedDescription sale = TransactionMetadataBackfillService.parse("Sale of 2 units of Ink at 0.125 per unit");
+
+		assertEquals(Money.parse("0.13"), sale.unitPrice());
+	}
+
+	@Test
+	void parsesCurrentAndLegacyInvoiceNumbers() {
+		assertEquals("INV/2026-27/000123",
+				TransactionMetadataBackfillService.parse("Income from sale, Invoice: INV/2026-27/000123").invoiceNumber());
+		assertEquals("INV-3F9A12BC",
+				TransactionMetadataBackfillService.parse("Income from sale,Invoice:INV-3F9A12BC").invoiceNumber());
+	}
+
+	@Test
+	void descriptionsWithoutMetadataParseToNothing() {
+		assertNull(TransactionMetadataBackfillService.parse("Office rent for March"));
+		assertNull(TransactionMetadataBackfillService.parse("Sale of pens at 12.50 per unit"));
+		assertNull(TransactionMetadataBackfillService.parse("Invoice: INV/2026-27/000123 without a lead-in"));
+		assertNull(TransactionMetadataBackfillService.parse(null));
+	}
+}
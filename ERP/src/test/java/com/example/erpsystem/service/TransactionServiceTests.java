@@ -0,0 +1,138 @@
+package com.example.erpsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.erpsystem.model.Invoice;
+import com.example.erpsystem.model.Money;
+import com.example.erpsystem.model.Transaction;
+import com.example.erpsystem.repository.TransactionRepository;
+import com.example.erpsystem.service.TransactionService.TransactionChanged;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+
+class TransactionServiceTests {
+
+	@TempDir
+	Path storage;
+
+	private TransactionRepository transactionRepository;
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	private TransactionService transactionService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		transactionRepository = mock(TransactionRepository.class);
+		transactionService = new TransactionService(transactionRepository, new PdfRenderingEngine(),
+				mock(AccountBalanceService.class), eventPublisher);
+		ReflectionTestUtils.setField(transactionService, "billStoragePath", storage.toString() + "/");
+	}
+
+	@Test
+	void billShowsStoredQuantityAndUnitPrice() throws Exception {
+		Transaction sale = transaction(7L, "Sale of 3 units of Blue Pen at 12.50 per unit", "37.50");
+		sale.setQuantity(3);
+		sale.setUnitPrice(Money.parse("12.50"));
+
+		String text = billText(sale);
+
+		assertTrue(text.contains("Sale of 3 units of Blue Pen at 12.50 per unit"), text);
+		assertTrue(text.contains("3 units"), text);
+		assertTrue(text.contains("$12.50"), text);
+		assertTrue(text.contains("$37.50"), text);
+		assertFalse(text.contains("Reference"), text);
+	}
+
+	@Test
+	void billReferencesTheLinkedInvoice() throws Exception {
+		Invoice invoice = new Invoice();
+		invoice.setInvoiceNumber("INV/2026-27/000123");
+		Transaction income = transaction(8L, "Income from sale, Invoice: INV/2026-27/000123", "99.00");
+		income.setInvoice(invoice);
+
+		String text = billText(income);
+
+		assertTrue(text.contains("Income from sale, Invoice: INV/2026-27/000123"), text);
+		assertTrue(text.contains("Invoice: INV/2026-27/000123"), text);
+		assertFalse(text.contains("Price per Unit"), text);
+	}
+
+	@Test
+	void unparsedLegacyRowShowsDescriptionOnly() throws Exception {
+		String text = billText(transaction(9L, "Sale of 2 units of Ink at 4.00 per unit", "8.00"));
+
+		assertTrue(text.contains("Sale of 2 units of Ink at 4.00 per unit"), text);
+		assertFalse(text.contains("Price per Unit"), text);
+		assertFalse(text.contains("Reference"), text);
+	}
+
+	@Test
+	void editedTransactionGetsAFreshBill() throws Exception {
+		Transaction transaction = transaction(10L, "Consulting", "50.00");
+		when(transactionRepository.existsById(10L)).thenReturn(true);
+		when(transactionRepository.findById(10L)).thenReturn(Optional.of(transaction));
+		when(transactionRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(transaction));
+		when(transactionRepository.save(transaction)).thenReturn(transaction);
+		assertTrue(pdfText(transactionService.getBillFile(10L)).contains("$50.00"));
+
+		transactionService.updateTransaction(10L, "Consulting", Money.parse("75.00"), "INCOME");
+		verify(eventPublisher).publishEvent(new TransactionChanged(10L));
+		transactionService.onTransactionChanged(new TransactionChanged(10L));
+
+		String text = pdfText(transactionService.getBillFile(10L));
+		assertTrue(text.contains("$75.00"), text);
+		assertFalse(text.contains("$50.00"), text);
+	}
+
+	@Test
+	void deletedTransactionDropsItsBill() throws Exception {
+		Transaction transaction = transaction(11L, "Consulting", "50.00");
+		when(transactionRepository.findById(11L)).thenReturn(Optional.of(transaction));
+		when(transactionRepository.findByIdForUpdate(11L)).thenReturn(Optional.of(transaction));
+		transactionService.generateBill(11L);
+
+		transactionService.deleteTransaction(11L);
+		verify(eventPublisher).publishEvent(new TransactionChanged(11L));
+		transactionService.onTransactionChanged(new TransactionChanged(11L));
+
+		assertFalse(Files.exists(storage.resolve("Bill_Transaction_11.pdf")));
+	}
+
+	private String billText(Transaction transaction) throws Exception {
+		when(transactionRepository.findById(transaction.getId())).thenReturn(Optional.of(transaction));
+		transactionService.generateBill(transaction.getId());
+		return pdfText(storage.resolve("Bill_Transaction_" + transaction.getId() + ".pdf"));
+	}
+
+	private static String pdfText(Path bill) throws Exception {
+		try (PdfDocument document = new PdfDocument(new PdfReader(Files.newInputStream(bill)))) {
+			// Long descriptions wrap inside their cell
+			return PdfTextExtractor.getTextFromPage(document.getFirstPage()).replace("\n", "");
+		}
+	}
+
+	private static Transaction transaction(Long id, String description, String amount) {
+		Transaction transaction = new Transaction();
+		transaction.setId(id);
+		transaction.setDescription(description);
+		transaction.setAmount(Money.parse(amount));
+		transaction.setType("INCOME");
+		transaction.setTimestamp(LocalDateTime.of(2026, 5, 4, 10, 30));
+		return transaction;
+	}
+}